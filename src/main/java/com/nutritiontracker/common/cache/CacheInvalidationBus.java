@@ -0,0 +1,208 @@
+package com.nutritiontracker.common.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations between API instances through the
+ * cache_invalidations table, so it needs nothing beyond the database (a
+ * single local instance simply reads its own table).
+ *
+ * Each in-process cache subscribes to a region and publishes the keys it
+ * drops; other instances pick them up on their next poll. Rows are read by
+ * creation time with a grace window, since auto-increment ids can commit out
+ * of order, and ids already applied are skipped. Anything missed still ages
+ * out through the caches' own TTLs.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus {
+
+    /** Longest key the cache_key column holds; longer ones clear the region instead */
+    public static final int MAX_KEY_LENGTH = 512;
+    private static final String INSERT_SQL =
+            "INSERT INTO cache_invalidations (region, cache_key, origin) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL =
+            "SELECT id, region, cache_key, origin, created_at FROM cache_invalidations "
+                    + "WHERE created_at >= ? ORDER BY id";
+    private static final String PURGE_SQL = "DELETE FROM cache_invalidations WHERE created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long graceMillis;
+    private final long retentionMillis;
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final Queue<Invalidation> outgoing = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Timestamp> applied = new HashMap<>();
+    private Timestamp watermark;
+
+    public CacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cache.invalidation.enabled:true}") boolean enabled,
+            @Value("${app.cache.invalidation.grace:30000}") long graceMillis,
+            @Value("${app.cache.invalidation.retention:600000}") long retentionMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.graceMillis = graceMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Receive keys other instances dropped from the region; a null key means
+     * the whole region was cleared
+     */
+    public void subscribe(String region, Consumer<String> listener) {
+        listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Queue the key for the other instances. Call once the change is
+     * committed; see {@link #publishAfterCommit}.
+     */
+    public void publish(String region, String key) {
+        if (!enabled) {
+            return;
+        }
+        // Keys too long for the column fall back to clearing the region
+        outgoing.add(new Invalidation(region, key != null && key.length() > MAX_KEY_LENGTH ? null : key));
+    }
+
+    /**
+     * Publish now, or after the current transaction commits
+     */
+    public void publishAfterCommit(String region, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(region, key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(region, key);
+            }
+        });
+    }
+
+    // Writes are flushed here too, so publishing never runs SQL on the caller's thread or transaction
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval:1000}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flushOutgoing();
+            applyIncoming();
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation poll failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.purge-interval:300000}")
+    public synchronized void purge() {
+        if (!enabled || watermark == null) {
+            return;
+        }
+        try {
+            int purged = jdbcTemplate.update(PURGE_SQL, new Timestamp(watermark.getTime() - retentionMillis));
+            log.debug("Purged {} old cache invalidations", purged);
+        } catch (RuntimeException e) {
+            log.warn("Cache invalidation purge failed: {}", e.getMessage());
+        }
+    }
+
+    private void flushOutgoing() {
+        List<Invalidation> batch = new ArrayList<>();
+        for (Invalidation next = outgoing.poll(); next != null; next = outgoing.poll()) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, invalidation) -> {
+                ps.setString(1, invalidation.region);
+                ps.setString(2, invalidation.key);
+                ps.setString(3, origin);
+            });
+        } catch (RuntimeException e) {
+            // Requeue, so a brief database outage delays the broadcast instead of losing it
+            outgoing.addAll(batch);
+            throw e;
+        }
+    }
+
+    private void applyIncoming() {
+        if (watermark == null) {
+            watermark = jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class);
+        }
+        Timestamp since = new Timestamp(watermark.getTime() - graceMillis);
+        List<Row> rows = jdbcTemplate.query(SELECT_SQL, (rs, n) -> new Row(
+                rs.getLong("id"),
+                rs.getString("region"),
+                rs.getString("cache_key"),
+                rs.getString("origin"),
+                rs.getTimestamp("created_at")), since);
+
+        for (Row row : rows) {
+            if (row.createdAt.after(watermark)) {
+                watermark = row.createdAt;
+            }
+            if (applied.putIfAbsent(row.id, row.createdAt) != null || origin.equals(row.origin)) {
+                continue;
+            }
+            for (Consumer<String> listener : listeners.getOrDefault(row.region, List.of())) {
+                try {
+                    listener.accept(row.key);
+                } catch (RuntimeException e) {
+                    log.warn("Cache invalidation listener failed for region {}: {}", row.region, e.getMessage());
+                }
+            }
+        }
+        applied.values().removeIf(createdAt -> createdAt.before(since));
+    }
+
+    private static final class Invalidation {
+        private final String region;
+        private final String key;
+
+        private Invalidation(String region, String key) {
+            this.region = region;
+            this.key = key;
+        }
+    }
+
+    private static final class Row {
+        private final long id;
+        private final String region;
+        private final String key;
+        private final String origin;
+        private final Timestamp createdAt;
+
+        private Row(long id, String region, String key, String origin, Timestamp createdAt) {
+            this.id = id;
+            this.region = region;
+            this.key = key;
+            this.origin = origin;
+            this.createdAt = createdAt;
+        }
+    }
+}
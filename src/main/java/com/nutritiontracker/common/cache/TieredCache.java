@@ -0,0 +1,242 @@
+package com.nutritiontracker.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Two-level cache: a size-bounded Caffeine (W-TinyLFU) cache in process,
+ * backed by an optional Redis cache shared between instances.
+ *
+ * Reads go L1, then L2, then the loader. Concurrent misses on one key in
+ * this process wait for a single load (Caffeine computes once per key), so a
+ * popular entry expiring does not send every request to the database. Redis
+ * errors are logged and treated as misses; the cache never fails a request.
+ *
+ * L1 keys are the keys' string form, the same one used in Redis and on the
+ * invalidation bus, so an eviction from another instance finds its entry.
+ */
+@Slf4j
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final RedisTemplate<String, Object> redis;
+    private final Duration ttl;
+    private final String keyPrefix;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter remoteErrors;
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * @param redis           shared L2 cache, or null
+     * @param invalidationBus tells other instances about evictions, or null
+     */
+    public TieredCache(String name, Cache<Object, Object> local, RedisTemplate<String, Object> redis,
+            Duration ttl, String keyPrefix, MeterRegistry meterRegistry, CacheInvalidationBus invalidationBus) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.redis = redis;
+        this.invalidationBus = invalidationBus;
+        this.ttl = ttl;
+        this.keyPrefix = keyPrefix + name + "::";
+        this.remoteHits = Counter.builder("cache.l2.requests")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .description("Lookups served from the shared Redis cache")
+                .register(meterRegistry);
+        this.remoteMisses = Counter.builder("cache.l2.requests")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .description("Lookups not found in the shared Redis cache")
+                .register(meterRegistry);
+        this.remoteErrors = Counter.builder("cache.l2.errors")
+                .tag("cache", name)
+                .description("Redis cache operations that failed and were skipped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(localKey(key));
+        if (value != null) {
+            return value;
+        }
+        value = remoteGet(key);
+        if (value != null) {
+            local.put(localKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = local.get(localKey(key), k -> {
+            Object remote = remoteGet(key);
+            if (remote != null) {
+                return remote;
+            }
+            Object loaded;
+            try {
+                loaded = toStoreValue(valueLoader.call());
+            } catch (Exception ex) {
+                throw new ValueRetrievalException(key, valueLoader, ex);
+            }
+            remotePut(key, loaded);
+            return loaded;
+        });
+        return (T) fromStoreValue(stored);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Object stored = toStoreValue(value);
+        local.put(localKey(key), stored);
+        remotePut(key, stored);
+    }
+
+    @Override
+    public void evict(Object key) {
+        // Remote first, so a concurrent miss here cannot refill L1 from the stale remote copy
+        remoteEvict(key);
+        local.invalidate(localKey(key));
+        if (invalidationBus != null) {
+            invalidationBus.publish(region(), localKey(key));
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.asMap().containsKey(localKey(key));
+        evict(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remoteClear();
+        local.invalidateAll();
+        if (invalidationBus != null) {
+            invalidationBus.publish(region(), null);
+        }
+    }
+
+    /**
+     * Apply an eviction received from another instance, which already
+     * handled the shared tier; a null key clears the cache
+     */
+    public void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    String region() {
+        return "cache:" + name;
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    // A null marker read back from Redis is a copy, not the NullValue singleton
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return storeValue instanceof NullValue ? null : super.fromStoreValue(storeValue);
+    }
+
+    private String remoteKey(Object key) {
+        return keyPrefix + localKey(key);
+    }
+
+    private Object remoteGet(Object key) {
+        if (redis == null) {
+            return null;
+        }
+        try {
+            Object value = redis.opsForValue().get(remoteKey(key));
+            (value != null ? remoteHits : remoteMisses).increment();
+            return value;
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            log.warn("Redis read failed for cache {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, Object value) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.opsForValue().set(remoteKey(key), value, ttl);
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            log.warn("Redis write failed for cache {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void remoteEvict(Object key) {
+        if (redis == null) {
+            return;
+        }
+        try {
+            redis.delete(remoteKey(key));
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            log.warn("Redis evict failed for cache {}: {}", name, e.getMessage());
+        }
+    }
+
+    // SCAN instead of KEYS, so clearing a large cache does not block Redis
+    private void remoteClear() {
+        if (redis == null) {
+            return;
+        }
+        ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(CLEAR_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redis.scan(options)) {
+            List<String> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == CLEAR_BATCH_SIZE) {
+                    redis.delete(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                redis.delete(batch);
+            }
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            log.warn("Redis clear failed for cache {}: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nutritiontracker.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates a {@link TieredCache} per cache name, with the TTL and size of its
+ * {@link Spec} or the defaults for names without one. Puts and evictions
+ * made inside a transaction are applied after it commits, so a reader
+ * cannot cache a value that is about to be rolled back or replaced.
+ */
+public class TieredCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private static final String KEY_PREFIX = "nt:cache:";
+
+    private final Map<String, Spec> specs;
+    private final Spec defaults;
+    private final RedisTemplate<String, Object> redis;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * @param redis           shared L2 cache, or null to cache in process only
+     * @param invalidationBus keeps the other instances' L1 caches in step, or null
+     */
+    public TieredCacheManager(List<Spec> specs, Spec defaults, RedisTemplate<String, Object> redis,
+            MeterRegistry meterRegistry, CacheInvalidationBus invalidationBus) {
+        this.specs = specs.stream().collect(Collectors.toMap(Spec::getName, Function.identity()));
+        this.defaults = defaults;
+        this.redis = redis;
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+        setTransactionAware(true);
+    }
+
+    @Override
+    protected Collection<? extends org.springframework.cache.Cache> loadCaches() {
+        return specs.values().stream().map(this::createCache).toList();
+    }
+
+    @Override
+    protected org.springframework.cache.Cache getMissingCache(String name) {
+        return createCache(new Spec(name, defaults.getTtl(), defaults.getMaxSize()));
+    }
+
+    private TieredCache createCache(Spec spec) {
+        Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(spec.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, spec.getName());
+        TieredCache cache = new TieredCache(spec.getName(), local, redis, spec.getTtl(), KEY_PREFIX, meterRegistry,
+                invalidationBus);
+        if (invalidationBus != null) {
+            invalidationBus.subscribe(cache.region(), cache::evictLocal);
+        }
+        return cache;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Spec {
+        private final String name;
+        private final Duration ttl;
+        private final long maxSize;
+    }
+}
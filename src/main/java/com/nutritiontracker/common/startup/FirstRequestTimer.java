@@ -0,0 +1,55 @@
+package com.nutritiontracker.common.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time from JVM start to the first request served, the number a rolling
+ * deploy actually waits on. Health probes and other actuator calls do not
+ * count. Exported as application.first.request.time next to Spring Boot's
+ * application.started.time and application.ready.time, and logged once.
+ */
+@Component
+@Slf4j
+public class FirstRequestTimer {
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicBoolean served = new AtomicBoolean();
+    private final AtomicLong firstRequestMillis = new AtomicLong();
+    private volatile long readyMillis;
+
+    public FirstRequestTimer(MeterRegistry meterRegistry) {
+        TimeGauge.builder("application.first.request.time", firstRequestMillis, TimeUnit.MILLISECONDS,
+                        AtomicLong::get)
+                .description("Time from JVM start to the first request served, 0 until then")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readyMillis = System.currentTimeMillis() - jvmStartMillis;
+    }
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (served.get() || event.getRequestUrl().startsWith("/actuator")) {
+            return;
+        }
+        if (served.compareAndSet(false, true)) {
+            long elapsed = System.currentTimeMillis() - jvmStartMillis;
+            firstRequestMillis.set(elapsed);
+            log.info("First request served {} ms after JVM start ({} ms after ready): {} {}", elapsed,
+                    elapsed - readyMillis, event.getMethod(), event.getRequestUrl());
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.nutritiontracker.common.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the WarmUpTasks one after another on a background thread once the
+ * application is ready, so startup itself only does what serving a request
+ * needs (Flyway, the context). One thread keeps warm-up from competing with
+ * early traffic for the few CPUs a fresh container gets. Critical tasks run
+ * first, so readiness does not wait behind the optional ones.
+ *
+ * Reported as the startupWarmUp health component, which is part of the
+ * readiness group; liveness never depends on it. It is OUT_OF_SERVICE until
+ * every critical task has succeeded, and a critical task that fails is run
+ * again with a growing delay. With gate-readiness set it also waits for the
+ * other tasks. Each run of a task is timed as startup.warm-up{task, result}.
+ */
+@Component
+@Slf4j
+public class StartupWarmUp implements HealthIndicator {
+
+    enum State { PENDING, RUNNING, RETRYING, DONE }
+
+    private final List<WarmUpTask> tasks;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean gateReadiness;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+    private final ScheduledExecutorService executor;
+    private final Map<String, String> results = new LinkedHashMap<>();
+    // Critical tasks that have not succeeded yet
+    private final Set<WarmUpTask> pendingCritical = ConcurrentHashMap.newKeySet();
+    private volatile State state = State.PENDING;
+    private volatile long started;
+    private volatile long durationMillis;
+
+    public StartupWarmUp(
+            List<WarmUpTask> tasks,
+            MeterRegistry meterRegistry,
+            @Value("${app.startup.warm-up.enabled:true}") boolean enabled,
+            @Value("${app.startup.warm-up.gate-readiness:false}") boolean gateReadiness,
+            @Value("${app.startup.warm-up.retry-delay:PT30S}") Duration retryDelay,
+            @Value("${app.startup.warm-up.max-retry-delay:PT10M}") Duration maxRetryDelay) {
+        // Stable sort: each group keeps its @Order
+        this.tasks = tasks.stream().sorted(Comparator.comparing(task -> !task.critical())).toList();
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.gateReadiness = gateReadiness;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "startup-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tasks.forEach(task -> {
+            results.put(task.name(), "pending");
+            if (task.critical()) {
+                pendingCritical.add(task);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Startup warm-up disabled; {} tasks skipped", tasks.size());
+            pendingCritical.clear();
+            state = State.DONE;
+            return;
+        }
+        executor.execute(this::runAll);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Health health() {
+        boolean ready = gateReadiness ? state == State.DONE : pendingCritical.isEmpty();
+        Health.Builder health = ready ? Health.up() : Health.outOfService();
+        health.withDetail("state", state.name().toLowerCase());
+        synchronized (results) {
+            health.withDetail("tasks", new LinkedHashMap<>(results));
+        }
+        if (state == State.DONE) {
+            health.withDetail("durationMs", durationMillis);
+        }
+        return health.build();
+    }
+
+    State state() {
+        return state;
+    }
+
+    /**
+     * Run every task once. A failed task is logged and the rest still run;
+     * failed critical tasks are retried afterwards.
+     */
+    void runAll() {
+        state = State.RUNNING;
+        started = System.nanoTime();
+        for (WarmUpTask task : tasks) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            run(task);
+        }
+        finishOrRetry(0);
+    }
+
+    /**
+     * Run the critical tasks that have not succeeded yet
+     */
+    void retryFailed(int attempt) {
+        for (WarmUpTask task : tasks) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            if (pendingCritical.contains(task)) {
+                run(task);
+            }
+        }
+        finishOrRetry(attempt);
+    }
+
+    private void run(WarmUpTask task) {
+        record(task, "running");
+        long taskStarted = System.nanoTime();
+        String result = "success";
+        try {
+            task.warmUp();
+            pendingCritical.remove(task);
+            record(task, "done in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - taskStarted) + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = "interrupted";
+            record(task, result);
+        } catch (Exception e) {
+            log.warn("Warm-up task {} failed", task.name(), e);
+            result = "failure";
+            record(task, "failed: " + e.getMessage());
+        }
+        Timer.builder("startup.warm-up")
+                .description("Time taken by a background warm-up task after startup")
+                .tags("task", task.name(), "result", result)
+                .register(meterRegistry)
+                .record(System.nanoTime() - taskStarted, TimeUnit.NANOSECONDS);
+    }
+
+    private void finishOrRetry(int attempt) {
+        if (pendingCritical.isEmpty()) {
+            durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            state = State.DONE;
+            synchronized (results) {
+                log.info("Startup warm-up finished in {} ms: {}", durationMillis, results);
+            }
+            return;
+        }
+        if (Thread.currentThread().isInterrupted() || executor.isShutdown()) {
+            return;
+        }
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(attempt, 20));
+        if (delay.compareTo(maxRetryDelay) > 0) {
+            delay = maxRetryDelay;
+        }
+        state = State.RETRYING;
+        log.warn("Critical warm-up tasks {} have not succeeded; not ready, retrying in {}",
+                pendingCritical.stream().map(WarmUpTask::name).toList(), delay);
+        executor.schedule(() -> retryFailed(attempt + 1), delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void record(WarmUpTask task, String result) {
+        synchronized (results) {
+            results.put(task.name(), result);
+        }
+    }
+}
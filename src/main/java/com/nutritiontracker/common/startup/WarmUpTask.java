@@ -0,0 +1,25 @@
+package com.nutritiontracker.common.startup;
+
+/**
+ * Work that makes the first requests fast but is not needed to serve them:
+ * building indexes, filling caches, exercising hot paths. StartupWarmUp runs
+ * every task once, in the background after the application is ready: the
+ * critical tasks first, then the others, each in @Order.
+ */
+public interface WarmUpTask {
+
+    /**
+     * Short name used in logs, the startup.warm-up metric and the health details
+     */
+    String name();
+
+    void warmUp() throws Exception;
+
+    /**
+     * Whether the instance should not take traffic until this task has
+     * succeeded. A failed critical task is retried until it does.
+     */
+    default boolean critical() {
+        return false;
+    }
+}
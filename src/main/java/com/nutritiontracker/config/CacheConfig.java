@@ -0,0 +1,53 @@
+package com.nutritiontracker.config;
+
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
+import com.nutritiontracker.common.cache.TieredCacheManager;
+import com.nutritiontracker.modules.external.client.ProductLookupCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Spring cache backed by {@link TieredCacheManager}: Caffeine in process,
+ * plus Redis when app.cache.redis.enabled is set (see RedisConfig). Evictions
+ * reach the other instances through {@link CacheInvalidationBus}.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.default.ttl:PT10M}") Duration defaultTtl,
+            @Value("${app.cache.default.max-size:10000}") long defaultMaxSize,
+            @Value("${app.cache.food-by-id.ttl:PT30M}") Duration foodByIdTtl,
+            @Value("${app.cache.food-by-id.max-size:20000}") long foodByIdMaxSize,
+            @Value("${app.cache.off-product.ttl:P7D}") Duration offProductTtl,
+            @Value("${app.cache.off-product.max-size:50000}") long offProductMaxSize,
+            @Value("${app.cache.off-product-missing.ttl:PT30M}") Duration offProductMissingTtl,
+            @Value("${app.cache.off-product-missing.max-size:20000}") long offProductMissingMaxSize,
+            @Qualifier("cacheRedisTemplate") ObjectProvider<RedisTemplate<String, Object>> cacheRedisTemplate,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<CacheInvalidationBus> invalidationBus) {
+
+        return new TieredCacheManager(
+                List.of(new TieredCacheManager.Spec("foodById", foodByIdTtl, foodByIdMaxSize),
+                        new TieredCacheManager.Spec(ProductLookupCache.FOUND_CACHE, offProductTtl, offProductMaxSize),
+                        new TieredCacheManager.Spec(ProductLookupCache.MISSING_CACHE, offProductMissingTtl,
+                                offProductMissingMaxSize)),
+                new TieredCacheManager.Spec("default", defaultTtl, defaultMaxSize),
+                cacheRedisTemplate.getIfAvailable(),
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+                invalidationBus.getIfAvailable());
+    }
+}
@@ -1,5 +1,44 @@
 package com.nutritiontracker.config;
 
-// Disabled temporarily for GCP Cloud Run deployment without Redis
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Redis L2 for the Spring cache. Off by default, since Cloud Run deployments
+ * run without Redis; enable with app.cache.redis.enabled and the usual
+ * spring.data.redis settings.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.redis.enabled", havingValue = "true")
 public class RedisConfig {
+
+    @Bean
+    public RedisTemplate<String, Object> cacheRedisTemplate(RedisConnectionFactory connectionFactory,
+            ObjectMapper objectMapper) {
+        // Type info is needed to read values back; only our own and JDK types may be instantiated
+        ObjectMapper mapper = objectMapper.copy();
+        mapper.activateDefaultTyping(
+                BasicPolymorphicTypeValidator.builder()
+                        .allowIfSubType("com.nutritiontracker.")
+                        .allowIfSubType("java.")
+                        .allowIfSubType("org.springframework.cache.support.NullValue")
+                        .build(),
+                ObjectMapper.DefaultTyping.NON_FINAL,
+                JsonTypeInfo.As.PROPERTY);
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer(mapper));
+        return template;
+    }
 }
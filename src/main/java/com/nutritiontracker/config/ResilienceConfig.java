@@ -0,0 +1,119 @@
+package com.nutritiontracker.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRateLimiterMetrics;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Limits for calls to Open Food Facts (see OpenFoodFactsClient). The rate
+ * limits follow the upstream fair-use policy: 100 product reads and 10
+ * searches per minute. Each limiter hands out that many permits per window,
+ * refilled at the start of the next one, and callers wait at most max-wait
+ * for a permit before being rejected.
+ */
+@Configuration
+public class ResilienceConfig {
+
+    public static final String OPEN_FOOD_FACTS = "openfoodfacts";
+
+    @Bean
+    public RateLimiterRegistry rateLimiterRegistry(
+            @Value("${external.openfoodfacts.rate-limit.max-wait:PT1S}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        RateLimiterRegistry registry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(maxWait)
+                .build());
+        TaggedRateLimiterMetrics.ofRateLimiterRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public RateLimiter openFoodFactsProductRateLimiter(RateLimiterRegistry registry,
+            @Value("${external.openfoodfacts.rate-limit.products-per-minute:100}") int perMinute) {
+        return registry.rateLimiter(OPEN_FOOD_FACTS + "-product", RateLimiterConfig.from(registry.getDefaultConfig())
+                .limitForPeriod(perMinute)
+                .build());
+    }
+
+    @Bean
+    public RateLimiter openFoodFactsSearchRateLimiter(RateLimiterRegistry registry,
+            @Value("${external.openfoodfacts.rate-limit.searches-per-minute:10}") int perMinute) {
+        return registry.rateLimiter(OPEN_FOOD_FACTS + "-search", RateLimiterConfig.from(registry.getDefaultConfig())
+                .limitForPeriod(perMinute)
+                .build());
+    }
+
+    /**
+     * Budget for background refreshes (FoodRefreshService), separate from the
+     * product limit so refreshes never take the permits scans need. The two
+     * add up, so on the instance that runs refreshes keep their sum within
+     * what Open Food Facts allows. Refreshes wait up to a whole window for a
+     * permit instead of failing.
+     */
+    @Bean
+    public RateLimiter openFoodFactsRefreshRateLimiter(RateLimiterRegistry registry,
+            @Value("${external.openfoodfacts.rate-limit.refreshes-per-minute:30}") int perMinute) {
+        return registry.rateLimiter(OPEN_FOOD_FACTS + "-refresh", RateLimiterConfig.from(registry.getDefaultConfig())
+                .limitForPeriod(perMinute)
+                .timeoutDuration(Duration.ofMinutes(1))
+                .build());
+    }
+
+    /**
+     * Opens when half of the recent calls fail or most of them are slow, so a
+     * brownout fails fast instead of queueing requests behind timeouts.
+     * Local rejections (rate limit, bulkhead) do not count as failures.
+     */
+    @Bean
+    public CircuitBreaker openFoodFactsCircuitBreaker(
+            @Value("${external.openfoodfacts.circuit-breaker.window:20}") int window,
+            @Value("${external.openfoodfacts.circuit-breaker.failure-rate:50}") float failureRate,
+            @Value("${external.openfoodfacts.circuit-breaker.slow-call-duration:PT3S}") Duration slowCall,
+            @Value("${external.openfoodfacts.circuit-breaker.open-duration:PT30S}") Duration openDuration,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(window)
+                .minimumNumberOfCalls(Math.min(window, 10))
+                .failureRateThreshold(failureRate)
+                .slowCallDurationThreshold(slowCall)
+                .slowCallRateThreshold(80)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .ignoreExceptions(RequestNotPermitted.class, BulkheadFullException.class)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(OPEN_FOOD_FACTS);
+    }
+
+    @Bean
+    public Bulkhead openFoodFactsBulkhead(
+            @Value("${external.openfoodfacts.bulkhead.max-concurrent:20}") int maxConcurrent,
+            MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrent)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(OPEN_FOOD_FACTS);
+    }
+}
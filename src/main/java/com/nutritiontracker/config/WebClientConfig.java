@@ -1,8 +1,17 @@
 package com.nutritiontracker.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
@@ -14,4 +23,35 @@ public class WebClientConfig {
                         .defaultCodecs()
                         .maxInMemorySize(16 * 1024 * 1024)); // 16MB buffer
     }
+
+    /**
+     * Shared client for Open Food Facts. Connections are pooled and reused
+     * across requests; idle ones are closed before the server drops them.
+     */
+    @Bean
+    public WebClient openFoodFactsWebClient(
+            WebClient.Builder webClientBuilder,
+            @Value("${external.openfoodfacts.base-url}") String baseUrl,
+            @Value("${external.openfoodfacts.connect-timeout:3000}") int connectTimeoutMillis,
+            @Value("${external.openfoodfacts.timeout:5000}") long responseTimeoutMillis,
+            @Value("${external.openfoodfacts.max-connections:50}") int maxConnections) {
+
+        ConnectionProvider connections = ConnectionProvider.builder("openfoodfacts")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(responseTimeoutMillis))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .evictInBackground(Duration.ofSeconds(60))
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
+
+        // Clone, so the shared builder bean is not modified
+        return webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.USER_AGENT, "NutritionTrackerApp/1.0 (ikerguerra@hotmail.es)")
+                .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
 }
@@ -0,0 +1,162 @@
+package com.nutritiontracker.modules.auth.security;
+
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated principals keyed by JWT subject
+ * (the user's email). Saves the per-request user lookup in
+ * {@link JwtAuthenticationFilter}. Evictions are broadcast to the other
+ * instances through {@link CacheInvalidationBus}.
+ */
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private static final String REGION = "principal";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final CacheInvalidationBus invalidationBus;
+
+    public PrincipalCache(
+            @Value("${app.security.principal-cache.ttl:300000}") long ttlMillis,
+            @Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+            MeterRegistry meterRegistry,
+            CacheInvalidationBus invalidationBus) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+        this.invalidationBus = invalidationBus;
+        this.hits = Counter.builder("auth.principal.cache")
+                .tag("result", "hit")
+                .description("Principal lookups served from the cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.principal.cache")
+                .tag("result", "miss")
+                .description("Principal lookups that hit the database")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("auth.principal.cache.evictions")
+                .description("Principals removed due to expiry, size or explicit invalidation")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", entries, Map::size)
+                .description("Principals currently cached")
+                .register(meterRegistry);
+        invalidationBus.subscribe(REGION, subject -> {
+            if (subject == null) {
+                evictAll();
+            } else {
+                remove(subject);
+            }
+        });
+    }
+
+    /**
+     * Returns the cached principal for the subject, loading it with the given
+     * function on a miss or after expiry. Empty loader results are not cached.
+     */
+    public Optional<UserDetails> get(String subject, Function<String, Optional<? extends UserDetails>> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(subject);
+        if (entry != null && entry.expiresAt > now) {
+            hits.increment();
+            return Optional.of(entry.principal);
+        }
+
+        misses.increment();
+        Optional<? extends UserDetails> loaded = loader.apply(subject);
+        if (loaded.isPresent()) {
+            ensureCapacity(now);
+            entries.put(subject, new Entry(loaded.get(), now + ttlMillis));
+        } else if (entry != null) {
+            entries.remove(subject, entry);
+        }
+        return loaded.map(UserDetails.class::cast);
+    }
+
+    /**
+     * Drops the cached principal for the subject. When called inside a
+     * transaction the entry is dropped again after commit, so a concurrent
+     * request cannot re-cache the pre-commit state. Other instances drop
+     * their copy once the change is committed.
+     */
+    public void evict(String subject) {
+        if (subject == null) {
+            return;
+        }
+        remove(subject);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(subject);
+                }
+            });
+        }
+        invalidationBus.publishAfterCommit(REGION, subject);
+    }
+
+    public void evictAll() {
+        evictions.increment(entries.size());
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void remove(String subject) {
+        if (entries.remove(subject) != null) {
+            evictions.increment();
+            log.debug("Evicted cached principal for {}", subject);
+        }
+    }
+
+    private void ensureCapacity(long now) {
+        if (entries.size() < maxSize) {
+            return;
+        }
+
+        // Drop expired entries first, then arbitrary ones until there is room
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt <= now;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry {
+        private final UserDetails principal;
+        private final long expiresAt;
+
+        private Entry(UserDetails principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
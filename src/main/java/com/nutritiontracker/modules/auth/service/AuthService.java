@@ -7,6 +7,7 @@ import com.nutritiontracker.modules.auth.entity.User;
 import com.nutritiontracker.modules.auth.enums.AuthProvider;
 import com.nutritiontracker.modules.auth.repository.UserRepository;
 import com.nutritiontracker.modules.auth.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -74,11 +75,9 @@ public class AuthService {
     }
 
     public AuthResponse refreshToken(String refreshToken) {
-        if (!tokenProvider.validateToken(refreshToken)) {
-            throw new IllegalArgumentException("Invalid refresh token");
-        }
-
-        String email = tokenProvider.getEmailFromToken(refreshToken);
+        String email = tokenProvider.validateAndGetClaims(refreshToken)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
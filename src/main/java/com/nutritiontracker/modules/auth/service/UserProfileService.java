@@ -3,6 +3,7 @@ package com.nutritiontracker.modules.auth.service;
 import com.nutritiontracker.modules.auth.entity.User;
 import com.nutritiontracker.modules.auth.entity.UserProfile;
 import com.nutritiontracker.modules.auth.repository.UserProfileRepository;
+import com.nutritiontracker.modules.auth.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,6 +16,7 @@ public class UserProfileService {
 
     private final UserProfileRepository userProfileRepository;
     private final NutritionalCalculationService nutritionalCalculationService;
+    private final PrincipalCache principalCache;
 
     @Transactional
     public UserProfile createDefaultProfile(User user) {
@@ -35,6 +37,9 @@ public class UserProfileService {
             calculateAndSetGoals(profile);
         }
 
+        if (profile.getUser() != null) {
+            principalCache.evict(profile.getUser().getEmail());
+        }
         return userProfileRepository.save(profile);
     }
 
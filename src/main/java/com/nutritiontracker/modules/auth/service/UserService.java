@@ -3,6 +3,7 @@ package com.nutritiontracker.modules.auth.service;
 import com.nutritiontracker.modules.auth.entity.User;
 import com.nutritiontracker.modules.auth.enums.AuthProvider;
 import com.nutritiontracker.modules.auth.repository.UserRepository;
+import com.nutritiontracker.modules.auth.security.PrincipalCache;
 import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
 import com.nutritiontracker.modules.food.repository.FavoriteFoodRepository;
 import com.nutritiontracker.modules.mealtemplate.repository.MealTemplateRepository;
@@ -12,6 +13,7 @@ import com.nutritiontracker.modules.recommendation.repository.DietRecommendation
 import com.nutritiontracker.modules.achievement.repository.AchievementRepository;
 import com.nutritiontracker.modules.auth.repository.MacroPresetRepository;
 import com.nutritiontracker.modules.notification.repository.PushSubscriptionRepository;
+import com.nutritiontracker.modules.stats.repository.StatsRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -32,6 +34,8 @@ public class UserService {
     private final AchievementRepository achievementRepository;
     private final MacroPresetRepository macroPresetRepository;
     private final PushSubscriptionRepository pushSubscriptionRepository;
+    private final StatsRollupRepository statsRollupRepository;
+    private final PrincipalCache principalCache;
 
     @Transactional
     public void deleteAccount(Long userId, String password) {
@@ -55,8 +59,10 @@ public class UserService {
         achievementRepository.deleteByUserId(userId);
         macroPresetRepository.deleteByUserId(userId);
         pushSubscriptionRepository.deleteByUserId(userId);
+        statsRollupRepository.deleteByUserId(userId);
 
         // Delete user (will cascade to UserProfile)
         userRepository.delete(user);
+        principalCache.evict(user.getEmail());
     }
 }
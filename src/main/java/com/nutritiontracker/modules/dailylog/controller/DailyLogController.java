@@ -3,6 +3,7 @@ package com.nutritiontracker.modules.dailylog.controller;
 import com.nutritiontracker.common.dto.ApiResponse;
 import com.nutritiontracker.modules.auth.entity.User;
 import com.nutritiontracker.modules.dailylog.dto.DailyLogResponseDto;
+import com.nutritiontracker.modules.dailylog.dto.MealEntryBatchRequestDto;
 import com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto;
 import com.nutritiontracker.modules.dailylog.enums.MealType;
 import com.nutritiontracker.modules.dailylog.service.DailyLogService;
@@ -19,6 +20,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/daily-log")
@@ -85,6 +87,19 @@ public class DailyLogController {
                 .body(ApiResponse.success("Entry added successfully", updatedLog));
     }
 
+    @PostMapping("/entries/batch")
+    @Operation(summary = "Add meal entries in bulk", description = "Adds many food or recipe entries, across one or more dates, in a single transaction")
+    public ResponseEntity<ApiResponse<List<DailyLogResponseDto>>> addEntries(
+            @AuthenticationPrincipal User user,
+            @Valid @RequestBody MealEntryBatchRequestDto request) {
+
+        log.info("REST request to add {} meal entries in batch", request.getEntries().size());
+        List<DailyLogResponseDto> updatedLogs = dailyLogService.addEntries(request.getEntries(), user.getId());
+
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Entries added successfully", updatedLogs));
+    }
+
     @PatchMapping("/{date}/weight")
     @Operation(summary = "Update daily weight", description = "Updates the weight recording for a specific day")
     public ResponseEntity<ApiResponse<DailyLogResponseDto>> updateWeight(
@@ -123,6 +138,18 @@ public class DailyLogController {
         return ResponseEntity.ok(ApiResponse.success("Entry deleted successfully", updatedLog));
     }
 
+    @PostMapping("/{date}/reconcile")
+    @Operation(summary = "Reconcile daily totals", description = "Recomputes the stored daily totals from the meal entries")
+    public ResponseEntity<ApiResponse<DailyLogResponseDto>> reconcileTotals(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "Date (YYYY-MM-DD)") @PathVariable("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+
+        log.info("REST request to reconcile daily totals for date: {}", date);
+        DailyLogResponseDto reconciledLog = dailyLogService.reconcileTotals(date, user.getId());
+
+        return ResponseEntity.ok(ApiResponse.success("Daily totals reconciled successfully", reconciledLog));
+    }
+
     @PostMapping("/{date}/copy")
     @Operation(summary = "Copy daily log", description = "Copies meal entries from one date to another")
     public ResponseEntity<ApiResponse<DailyLogResponseDto>> copyDailyLog(
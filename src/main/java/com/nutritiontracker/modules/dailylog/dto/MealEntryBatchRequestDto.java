@@ -0,0 +1,22 @@
+package com.nutritiontracker.modules.dailylog.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealEntryBatchRequestDto {
+
+    @NotEmpty(message = "At least one entry is required")
+    @Size(max = 500, message = "A batch may contain at most 500 entries")
+    private List<@Valid MealEntryRequestDto> entries;
+}
@@ -0,0 +1,86 @@
+package com.nutritiontracker.modules.dailylog.entity;
+
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Running nutrient totals for one meal type of one daily log, maintained
+ * incrementally from meal-entry writes so the breakdown is a single read.
+ */
+@Entity
+@Table(name = "daily_meal_nutrients", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_daily_meal_nutrients", columnNames = { "user_id", "date", "meal_type" }),
+        @UniqueConstraint(name = "uk_daily_meal_nutrients_log", columnNames = { "daily_log_id", "meal_type" })
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyMealNutrients {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "daily_log_id", nullable = false)
+    private Long dailyLogId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "meal_type", nullable = false, length = 20)
+    private MealType mealType;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal calories = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal protein = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal carbohydrates = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal fats = BigDecimal.ZERO;
+
+    @Embedded
+    @Builder.Default
+    private MicronutrientSnapshot micronutrients = MicronutrientSnapshot.zero();
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Helper to add (sign = 1) or subtract (sign = -1) an entry's snapshot
+    public void apply(MealEntry entry, BigDecimal sign) {
+        calories = calories.add(safe(entry.getCalories()).multiply(sign));
+        protein = protein.add(safe(entry.getProtein()).multiply(sign));
+        carbohydrates = carbohydrates.add(safe(entry.getCarbohydrates()).multiply(sign));
+        fats = fats.add(safe(entry.getFats()).multiply(sign));
+        if (micronutrients == null) {
+            micronutrients = MicronutrientSnapshot.zero();
+        }
+        micronutrients.add(entry.getMicronutrients(), sign);
+    }
+
+    private static BigDecimal safe(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -62,6 +62,9 @@ public class MealEntry {
     @Column(name = "fats", nullable = false, precision = 10, scale = 2)
     private BigDecimal fats;
 
+    @Embedded
+    private MicronutrientSnapshot micronutrients;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
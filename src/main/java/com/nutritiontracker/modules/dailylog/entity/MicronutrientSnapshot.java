@@ -0,0 +1,210 @@
+package com.nutritiontracker.modules.dailylog.entity;
+
+import com.nutritiontracker.modules.food.entity.NutritionalInfo;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Sub-macros and micronutrients captured at write time, scaled to the logged
+ * amount. Shared by meal entries and the per-meal daily aggregates.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MicronutrientSnapshot {
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal fiber;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal sugars;
+
+    @Column(name = "saturated_fats", precision = 10, scale = 2)
+    private BigDecimal saturatedFats;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal sodium;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal calcium;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal iron;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal potassium;
+
+    @Column(name = "vitamin_a", precision = 10, scale = 2)
+    private BigDecimal vitaminA;
+
+    @Column(name = "vitamin_c", precision = 10, scale = 2)
+    private BigDecimal vitaminC;
+
+    @Column(name = "vitamin_d", precision = 10, scale = 2)
+    private BigDecimal vitaminD;
+
+    @Column(name = "vitamin_e", precision = 10, scale = 2)
+    private BigDecimal vitaminE;
+
+    @Column(name = "vitamin_b12", precision = 10, scale = 2)
+    private BigDecimal vitaminB12;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal magnesium;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal zinc;
+
+    @Column(name = "vitamin_k", precision = 10, scale = 2)
+    private BigDecimal vitaminK;
+
+    @Column(name = "vitamin_b1", precision = 10, scale = 2)
+    private BigDecimal vitaminB1;
+
+    @Column(name = "vitamin_b2", precision = 10, scale = 2)
+    private BigDecimal vitaminB2;
+
+    @Column(name = "vitamin_b3", precision = 10, scale = 2)
+    private BigDecimal vitaminB3;
+
+    @Column(name = "vitamin_b6", precision = 10, scale = 2)
+    private BigDecimal vitaminB6;
+
+    @Column(name = "vitamin_b9", precision = 10, scale = 2)
+    private BigDecimal vitaminB9;
+
+    public static MicronutrientSnapshot zero() {
+        return MicronutrientSnapshot.builder()
+                .fiber(BigDecimal.ZERO)
+                .sugars(BigDecimal.ZERO)
+                .saturatedFats(BigDecimal.ZERO)
+                .sodium(BigDecimal.ZERO)
+                .calcium(BigDecimal.ZERO)
+                .iron(BigDecimal.ZERO)
+                .potassium(BigDecimal.ZERO)
+                .vitaminA(BigDecimal.ZERO)
+                .vitaminC(BigDecimal.ZERO)
+                .vitaminD(BigDecimal.ZERO)
+                .vitaminE(BigDecimal.ZERO)
+                .vitaminB12(BigDecimal.ZERO)
+                .magnesium(BigDecimal.ZERO)
+                .zinc(BigDecimal.ZERO)
+                .vitaminK(BigDecimal.ZERO)
+                .vitaminB1(BigDecimal.ZERO)
+                .vitaminB2(BigDecimal.ZERO)
+                .vitaminB3(BigDecimal.ZERO)
+                .vitaminB6(BigDecimal.ZERO)
+                .vitaminB9(BigDecimal.ZERO)
+                .build();
+    }
+
+    /**
+     * Scale a food's nutritional info (per 100g) by the given ratio
+     */
+    public static MicronutrientSnapshot of(NutritionalInfo info, BigDecimal ratio) {
+        if (info == null) {
+            return zero();
+        }
+        return MicronutrientSnapshot.builder()
+                .fiber(scale(info.getFiber(), ratio))
+                .sugars(scale(info.getSugars(), ratio))
+                .saturatedFats(scale(info.getSaturatedFats(), ratio))
+                .sodium(scale(info.getSodium(), ratio))
+                .calcium(scale(info.getCalcium(), ratio))
+                .iron(scale(info.getIron(), ratio))
+                .potassium(scale(info.getPotassium(), ratio))
+                .vitaminA(scale(info.getVitaminA(), ratio))
+                .vitaminC(scale(info.getVitaminC(), ratio))
+                .vitaminD(scale(info.getVitaminD(), ratio))
+                .vitaminE(scale(info.getVitaminE(), ratio))
+                .vitaminB12(scale(info.getVitaminB12(), ratio))
+                .magnesium(scale(info.getMagnesium(), ratio))
+                .zinc(scale(info.getZinc(), ratio))
+                .vitaminK(scale(info.getVitaminK(), ratio))
+                .vitaminB1(scale(info.getVitaminB1(), ratio))
+                .vitaminB2(scale(info.getVitaminB2(), ratio))
+                .vitaminB3(scale(info.getVitaminB3(), ratio))
+                .vitaminB6(scale(info.getVitaminB6(), ratio))
+                .vitaminB9(scale(info.getVitaminB9(), ratio))
+                .build();
+    }
+
+    /**
+     * Add another snapshot scaled by sign (1 to add, -1 to subtract). A null
+     * snapshot counts as zero.
+     */
+    public void add(MicronutrientSnapshot other, BigDecimal sign) {
+        if (other == null) {
+            return;
+        }
+        fiber = plus(fiber, other.fiber, sign);
+        sugars = plus(sugars, other.sugars, sign);
+        saturatedFats = plus(saturatedFats, other.saturatedFats, sign);
+        sodium = plus(sodium, other.sodium, sign);
+        calcium = plus(calcium, other.calcium, sign);
+        iron = plus(iron, other.iron, sign);
+        potassium = plus(potassium, other.potassium, sign);
+        vitaminA = plus(vitaminA, other.vitaminA, sign);
+        vitaminC = plus(vitaminC, other.vitaminC, sign);
+        vitaminD = plus(vitaminD, other.vitaminD, sign);
+        vitaminE = plus(vitaminE, other.vitaminE, sign);
+        vitaminB12 = plus(vitaminB12, other.vitaminB12, sign);
+        magnesium = plus(magnesium, other.magnesium, sign);
+        zinc = plus(zinc, other.zinc, sign);
+        vitaminK = plus(vitaminK, other.vitaminK, sign);
+        vitaminB1 = plus(vitaminB1, other.vitaminB1, sign);
+        vitaminB2 = plus(vitaminB2, other.vitaminB2, sign);
+        vitaminB3 = plus(vitaminB3, other.vitaminB3, sign);
+        vitaminB6 = plus(vitaminB6, other.vitaminB6, sign);
+        vitaminB9 = plus(vitaminB9, other.vitaminB9, sign);
+    }
+
+    public MicronutrientSnapshot copy() {
+        MicronutrientSnapshot copy = zero();
+        copy.add(this, BigDecimal.ONE);
+        return copy;
+    }
+
+    public void roundToCents() {
+        fiber = round(fiber);
+        sugars = round(sugars);
+        saturatedFats = round(saturatedFats);
+        sodium = round(sodium);
+        calcium = round(calcium);
+        iron = round(iron);
+        potassium = round(potassium);
+        vitaminA = round(vitaminA);
+        vitaminC = round(vitaminC);
+        vitaminD = round(vitaminD);
+        vitaminE = round(vitaminE);
+        vitaminB12 = round(vitaminB12);
+        magnesium = round(magnesium);
+        zinc = round(zinc);
+        vitaminK = round(vitaminK);
+        vitaminB1 = round(vitaminB1);
+        vitaminB2 = round(vitaminB2);
+        vitaminB3 = round(vitaminB3);
+        vitaminB6 = round(vitaminB6);
+        vitaminB9 = round(vitaminB9);
+    }
+
+    private static BigDecimal scale(BigDecimal value, BigDecimal ratio) {
+        return value != null ? value.multiply(ratio).setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal plus(BigDecimal current, BigDecimal delta, BigDecimal sign) {
+        BigDecimal base = current != null ? current : BigDecimal.ZERO;
+        return delta != null ? base.add(delta.multiply(sign)) : base;
+    }
+
+    private static BigDecimal round(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+}
@@ -3,23 +3,30 @@ package com.nutritiontracker.modules.dailylog.repository;
 import com.nutritiontracker.modules.dailylog.entity.DailyLog;
 import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface DailyLogRepository extends JpaRepository<DailyLog, Long> {
+public interface DailyLogRepository extends JpaRepository<DailyLog, Long>, DailyLogTotalsRepository {
 
     /**
      * Find daily log by user and date
      */
     Optional<DailyLog> findByUserIdAndDate(Long userId, LocalDate date);
 
+    /**
+     * Find the user's daily logs for a set of dates, without their entries
+     */
+    List<DailyLog> findByUserIdAndDateIn(Long userId, Collection<LocalDate> dates);
+
     /**
      * Find daily log with meal entries eagerly loaded for a specific user
      */
@@ -31,6 +38,22 @@ public interface DailyLogRepository extends JpaRepository<DailyLog, Long> {
      */
     List<DailyLog> findByUserIdAndDateBetween(Long userId, LocalDate startDate, LocalDate endDate);
 
+    /**
+     * Find daily logs by user and date range, oldest first
+     */
+    List<DailyLog> findByUserIdAndDateBetweenOrderByDateAsc(Long userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find all of a user's daily logs, oldest first
+     */
+    List<DailyLog> findByUserIdOrderByDateAsc(Long userId);
+
+    /**
+     * Users that have at least one log dated on or after the given date
+     */
+    @Query("SELECT DISTINCT dl.userId FROM DailyLog dl WHERE dl.userId IS NOT NULL AND dl.date >= :since")
+    List<Long> findUserIdsWithLogsSince(@Param("since") LocalDate since);
+
     /**
      * Check if log exists for user and date
      */
@@ -43,6 +66,35 @@ public interface DailyLogRepository extends JpaRepository<DailyLog, Long> {
     List<DailyLog> findByUserIdAndDateBetweenWithEntries(@Param("userId") Long userId,
             @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    /**
+     * Cheap fingerprint of a user's data in a date range: log count, entry
+     * count, latest log and entry modification times, and the calorie sum.
+     * Any entry add, edit, move or delete changes at least one of them.
+     */
+    @Query("SELECT COUNT(DISTINCT dl.id), COUNT(me.id), MAX(dl.updatedAt), MAX(me.updatedAt), "
+            + "COALESCE(SUM(me.calories), 0), COALESCE(SUM(dl.dailyWeight), 0) "
+            + "FROM DailyLog dl LEFT JOIN dl.mealEntries me "
+            + "WHERE dl.userId = :userId AND dl.date BETWEEN :startDate AND :endDate")
+    List<Object[]> findDataVersion(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Recompute stored totals from the meal entries for logs dated on or after
+     * the given date whose totals have drifted. Returns the number of repaired logs.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DailyLog dl SET "
+            + "dl.totalCalories = COALESCE((SELECT SUM(me.calories) FROM MealEntry me WHERE me.dailyLog = dl), 0), "
+            + "dl.totalProtein = COALESCE((SELECT SUM(me.protein) FROM MealEntry me WHERE me.dailyLog = dl), 0), "
+            + "dl.totalCarbs = COALESCE((SELECT SUM(me.carbohydrates) FROM MealEntry me WHERE me.dailyLog = dl), 0), "
+            + "dl.totalFats = COALESCE((SELECT SUM(me.fats) FROM MealEntry me WHERE me.dailyLog = dl), 0) "
+            + "WHERE dl.date >= :since AND ("
+            + "COALESCE(dl.totalCalories, -1) <> COALESCE((SELECT SUM(me.calories) FROM MealEntry me WHERE me.dailyLog = dl), 0) "
+            + "OR COALESCE(dl.totalProtein, -1) <> COALESCE((SELECT SUM(me.protein) FROM MealEntry me WHERE me.dailyLog = dl), 0) "
+            + "OR COALESCE(dl.totalCarbs, -1) <> COALESCE((SELECT SUM(me.carbohydrates) FROM MealEntry me WHERE me.dailyLog = dl), 0) "
+            + "OR COALESCE(dl.totalFats, -1) <> COALESCE((SELECT SUM(me.fats) FROM MealEntry me WHERE me.dailyLog = dl), 0))")
+    int reconcileTotalsSince(@Param("since") LocalDate since);
+
     /**
      * Delete all daily logs for a given user
      */
@@ -0,0 +1,23 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+
+import java.math.BigDecimal;
+
+/**
+ * Incremental maintenance of the aggregated totals stored on daily_logs
+ */
+public interface DailyLogTotalsRepository {
+
+    /**
+     * Atomically add a delta to the stored totals with a single UPDATE, without
+     * loading the log's entries. The given log is refreshed if it is managed.
+     */
+    void applyTotalsDelta(DailyLog dailyLog, BigDecimal calories, BigDecimal protein,
+            BigDecimal carbs, BigDecimal fats);
+
+    /**
+     * Recompute the stored totals of one log from its meal entries
+     */
+    void reconcileTotals(DailyLog dailyLog);
+}
@@ -0,0 +1,53 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.math.BigDecimal;
+
+class DailyLogTotalsRepositoryImpl implements DailyLogTotalsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void applyTotalsDelta(DailyLog dailyLog, BigDecimal calories, BigDecimal protein,
+            BigDecimal carbs, BigDecimal fats) {
+        entityManager.flush();
+        entityManager.createQuery("UPDATE DailyLog dl SET "
+                + "dl.totalCalories = COALESCE(dl.totalCalories, 0) + :calories, "
+                + "dl.totalProtein = COALESCE(dl.totalProtein, 0) + :protein, "
+                + "dl.totalCarbs = COALESCE(dl.totalCarbs, 0) + :carbs, "
+                + "dl.totalFats = COALESCE(dl.totalFats, 0) + :fats "
+                + "WHERE dl.id = :id")
+                .setParameter("calories", calories)
+                .setParameter("protein", protein)
+                .setParameter("carbs", carbs)
+                .setParameter("fats", fats)
+                .setParameter("id", dailyLog.getId())
+                .executeUpdate();
+        refreshIfManaged(dailyLog);
+    }
+
+    @Override
+    public void reconcileTotals(DailyLog dailyLog) {
+        entityManager.flush();
+        entityManager.createQuery("UPDATE DailyLog dl SET "
+                + "dl.totalCalories = COALESCE((SELECT SUM(me.calories) FROM MealEntry me WHERE me.dailyLog = dl), 0), "
+                + "dl.totalProtein = COALESCE((SELECT SUM(me.protein) FROM MealEntry me WHERE me.dailyLog = dl), 0), "
+                + "dl.totalCarbs = COALESCE((SELECT SUM(me.carbohydrates) FROM MealEntry me WHERE me.dailyLog = dl), 0), "
+                + "dl.totalFats = COALESCE((SELECT SUM(me.fats) FROM MealEntry me WHERE me.dailyLog = dl), 0) "
+                + "WHERE dl.id = :id")
+                .setParameter("id", dailyLog.getId())
+                .executeUpdate();
+        refreshIfManaged(dailyLog);
+    }
+
+    // Bulk updates bypass the persistence context, so pull the new totals back in
+    private void refreshIfManaged(DailyLog dailyLog) {
+        if (entityManager.contains(dailyLog)) {
+            entityManager.refresh(dailyLog);
+        }
+    }
+}
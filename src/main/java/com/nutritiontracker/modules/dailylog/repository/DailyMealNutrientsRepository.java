@@ -0,0 +1,68 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyMealNutrients;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyMealNutrientsRepository extends JpaRepository<DailyMealNutrients, Long> {
+
+    /**
+     * Per-meal aggregates for a user's day (served by the unique index)
+     */
+    List<DailyMealNutrients> findByUserIdAndDate(Long userId, LocalDate date);
+
+    /**
+     * Lock the aggregate row for a read-modify-write from the entry write path
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT n FROM DailyMealNutrients n WHERE n.dailyLogId = :dailyLogId AND n.mealType = :mealType")
+    Optional<DailyMealNutrients> findForUpdate(@Param("dailyLogId") Long dailyLogId,
+            @Param("mealType") MealType mealType);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyMealNutrients n WHERE n.dailyLogId = :dailyLogId")
+    void deleteByDailyLogId(@Param("dailyLogId") Long dailyLogId);
+
+    /**
+     * Drop the aggregates of logs dated on or after the given date, ahead of
+     * {@link #insertFromEntriesSince(LocalDate)}
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM DailyMealNutrients n WHERE n.date >= :since")
+    int deleteSince(@Param("since") LocalDate since);
+
+    /**
+     * Recreate the aggregates of logs dated on or after the given date from
+     * their meal entries, the same way V19 backfilled them
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO daily_meal_nutrients (daily_log_id, user_id, date, meal_type, "
+            + "calories, protein, carbohydrates, fats, fiber, sugars, saturated_fats, sodium, calcium, iron, "
+            + "potassium, vitamin_a, vitamin_c, vitamin_d, vitamin_e, vitamin_b12, magnesium, zinc, vitamin_k, "
+            + "vitamin_b1, vitamin_b2, vitamin_b3, vitamin_b6, vitamin_b9, updated_at) "
+            + "SELECT dl.id, dl.user_id, dl.date, me.meal_type, "
+            + "COALESCE(SUM(me.calories), 0), COALESCE(SUM(me.protein), 0), "
+            + "COALESCE(SUM(me.carbohydrates), 0), COALESCE(SUM(me.fats), 0), "
+            + "COALESCE(SUM(me.fiber), 0), COALESCE(SUM(me.sugars), 0), COALESCE(SUM(me.saturated_fats), 0), "
+            + "COALESCE(SUM(me.sodium), 0), COALESCE(SUM(me.calcium), 0), COALESCE(SUM(me.iron), 0), "
+            + "COALESCE(SUM(me.potassium), 0), COALESCE(SUM(me.vitamin_a), 0), COALESCE(SUM(me.vitamin_c), 0), "
+            + "COALESCE(SUM(me.vitamin_d), 0), COALESCE(SUM(me.vitamin_e), 0), COALESCE(SUM(me.vitamin_b12), 0), "
+            + "COALESCE(SUM(me.magnesium), 0), COALESCE(SUM(me.zinc), 0), COALESCE(SUM(me.vitamin_k), 0), "
+            + "COALESCE(SUM(me.vitamin_b1), 0), COALESCE(SUM(me.vitamin_b2), 0), COALESCE(SUM(me.vitamin_b3), 0), "
+            + "COALESCE(SUM(me.vitamin_b6), 0), COALESCE(SUM(me.vitamin_b9), 0), CURRENT_TIMESTAMP(6) "
+            + "FROM meal_entries me JOIN daily_logs dl ON dl.id = me.daily_log_id "
+            + "WHERE dl.date >= :since "
+            + "GROUP BY dl.id, dl.user_id, dl.date, me.meal_type", nativeQuery = true)
+    int insertFromEntriesSince(@Param("since") LocalDate since);
+}
@@ -0,0 +1,18 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+
+import java.util.List;
+
+/**
+ * Bulk insertion of meal entries. IDENTITY ids disable Hibernate insert
+ * batching, so this goes through JDBC directly.
+ */
+public interface MealEntryBatchRepository {
+
+    /**
+     * Insert all entries in JDBC batches. The entries are not attached to the
+     * persistence context and their ids are not populated.
+     */
+    void batchInsert(List<MealEntry> entries);
+}
@@ -0,0 +1,102 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.entity.MicronutrientSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+class MealEntryBatchRepositoryImpl implements MealEntryBatchRepository {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO meal_entries "
+            + "(daily_log_id, food_id, recipe_id, meal_type, quantity, unit, "
+            + "calories, protein, carbohydrates, fats, "
+            + "fiber, sugars, saturated_fats, sodium, calcium, iron, potassium, "
+            + "vitamin_a, vitamin_c, vitamin_d, vitamin_e, vitamin_b12, magnesium, zinc, "
+            + "vitamin_k, vitamin_b1, vitamin_b2, vitamin_b3, vitamin_b6, vitamin_b9, "
+            + "created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, "
+            + "?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, "
+            + "?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void batchInsert(List<MealEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // Make sure logs created earlier in the transaction are visible to JDBC
+        entityManager.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, BATCH_SIZE, (ps, entry) -> {
+            ps.setLong(1, entry.getDailyLog().getId());
+            if (entry.getFood() != null) {
+                ps.setLong(2, entry.getFood().getId());
+            } else {
+                ps.setNull(2, Types.BIGINT);
+            }
+            if (entry.getRecipe() != null) {
+                ps.setLong(3, entry.getRecipe().getId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, entry.getMealType().name());
+            ps.setBigDecimal(5, entry.getQuantity());
+            ps.setString(6, entry.getUnit());
+            ps.setBigDecimal(7, entry.getCalories());
+            ps.setBigDecimal(8, entry.getProtein());
+            ps.setBigDecimal(9, entry.getCarbohydrates());
+            ps.setBigDecimal(10, entry.getFats());
+            setMicronutrients(ps, 11, entry.getMicronutrients());
+            ps.setTimestamp(31, now);
+            ps.setTimestamp(32, now);
+        });
+    }
+
+    private static void setMicronutrients(PreparedStatement ps, int offset, MicronutrientSnapshot m)
+            throws SQLException {
+        if (m == null) {
+            for (int i = 0; i < 20; i++) {
+                ps.setNull(offset + i, Types.DECIMAL);
+            }
+            return;
+        }
+        ps.setBigDecimal(offset, m.getFiber());
+        ps.setBigDecimal(offset + 1, m.getSugars());
+        ps.setBigDecimal(offset + 2, m.getSaturatedFats());
+        ps.setBigDecimal(offset + 3, m.getSodium());
+        ps.setBigDecimal(offset + 4, m.getCalcium());
+        ps.setBigDecimal(offset + 5, m.getIron());
+        ps.setBigDecimal(offset + 6, m.getPotassium());
+        ps.setBigDecimal(offset + 7, m.getVitaminA());
+        ps.setBigDecimal(offset + 8, m.getVitaminC());
+        ps.setBigDecimal(offset + 9, m.getVitaminD());
+        ps.setBigDecimal(offset + 10, m.getVitaminE());
+        ps.setBigDecimal(offset + 11, m.getVitaminB12());
+        ps.setBigDecimal(offset + 12, m.getMagnesium());
+        ps.setBigDecimal(offset + 13, m.getZinc());
+        ps.setBigDecimal(offset + 14, m.getVitaminK());
+        ps.setBigDecimal(offset + 15, m.getVitaminB1());
+        ps.setBigDecimal(offset + 16, m.getVitaminB2());
+        ps.setBigDecimal(offset + 17, m.getVitaminB3());
+        ps.setBigDecimal(offset + 18, m.getVitaminB6());
+        ps.setBigDecimal(offset + 19, m.getVitaminB9());
+    }
+}
@@ -10,7 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MealEntryRepository extends JpaRepository<MealEntry, Long> {
+public interface MealEntryRepository extends JpaRepository<MealEntry, Long>, MealEntryBatchRepository {
 
     /**
      * Find meal entry with food and dailyLog eagerly loaded
@@ -21,6 +21,18 @@ public interface MealEntryRepository extends JpaRepository<MealEntry, Long> {
     @Query("SELECT me.food.id FROM MealEntry me WHERE me.food IS NOT NULL AND me.dailyLog.userId = :userId GROUP BY me.food.id ORDER BY COUNT(me) DESC")
     List<Long> findTopFrequentFoodIds(@Param("userId") Long userId, org.springframework.data.domain.Pageable pageable);
 
+    /**
+     * Number of meal entries per food across all users, as [foodId, count] rows
+     */
+    @Query("SELECT me.food.id, COUNT(me) FROM MealEntry me WHERE me.food IS NOT NULL GROUP BY me.food.id")
+    List<Object[]> countEntriesPerFood();
+
+    /**
+     * Foods with the most meal entries across all users, most logged first
+     */
+    @Query("SELECT me.food.id FROM MealEntry me WHERE me.food IS NOT NULL GROUP BY me.food.id ORDER BY COUNT(me) DESC")
+    List<Long> findMostLoggedFoodIds(org.springframework.data.domain.Pageable pageable);
+
     @Query("SELECT me.food.id FROM MealEntry me WHERE me.food IS NOT NULL AND me.dailyLog.userId = :userId AND me.mealType = :mealType AND me.dailyLog.date >= :startDate GROUP BY me.food.id ORDER BY COUNT(me) DESC")
     List<Long> findTopFrequentFoodIdsByMealType(
             @Param("userId") Long userId,
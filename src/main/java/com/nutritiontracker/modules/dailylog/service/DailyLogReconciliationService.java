@@ -0,0 +1,57 @@
+package com.nutritiontracker.modules.dailylog.service;
+
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.dailylog.repository.DailyMealNutrientsRepository;
+import com.nutritiontracker.modules.stats.service.StatsRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Repairs drift between daily_logs totals, the per-meal daily_meal_nutrients
+ * aggregates and the meal entries they sum. The write path in DailyLogService
+ * only applies deltas, so this job is the safety net for anything that
+ * bypassed it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DailyLogReconciliationService {
+
+    private final DailyLogRepository dailyLogRepository;
+    private final DailyMealNutrientsRepository dailyMealNutrientsRepository;
+    private final StatsRollupService statsRollupService;
+
+    @Value("${app.daily-log.reconcile-window-days:7}")
+    private int windowDays;
+
+    // Run every day at 03:30 server time
+    @Scheduled(cron = "${app.daily-log.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcileRecentLogs() {
+        LocalDate since = LocalDate.now().minusDays(windowDays);
+        log.info("Reconciling daily log totals since {}", since);
+
+        int repaired = dailyLogRepository.reconcileTotalsSince(since);
+
+        if (repaired > 0) {
+            log.warn("Repaired totals drift on {} daily logs since {}", repaired, since);
+        } else {
+            log.info("No daily log totals drift found since {}", since);
+        }
+
+        // Per-meal aggregates have too many columns to diff, so rebuild the window outright
+        dailyMealNutrientsRepository.deleteSince(since);
+        int mealRows = dailyMealNutrientsRepository.insertFromEntriesSince(since);
+        log.info("Rebuilt {} per-meal nutrient aggregates since {}", mealRows, since);
+
+        // The bulk repair bypasses the write path, so refresh the affected rollups too
+        statsRollupService.refreshSince(since);
+        return repaired;
+    }
+}
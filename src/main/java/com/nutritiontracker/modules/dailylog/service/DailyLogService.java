@@ -5,10 +5,14 @@ import com.nutritiontracker.modules.auth.entity.UserProfile;
 import com.nutritiontracker.modules.auth.repository.UserProfileRepository;
 import com.nutritiontracker.modules.dailylog.dto.DailyLogResponseDto;
 import com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto;
+import com.nutritiontracker.modules.dailylog.dto.NutrientBreakdownDto;
 import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.entity.DailyMealNutrients;
 import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.entity.MicronutrientSnapshot;
 import com.nutritiontracker.modules.dailylog.enums.MealType;
 import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.dailylog.repository.DailyMealNutrientsRepository;
 import com.nutritiontracker.modules.dailylog.repository.MealEntryRepository;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.entity.NutritionalInfo;
@@ -16,6 +20,7 @@ import com.nutritiontracker.modules.food.repository.FoodRepository;
 import com.nutritiontracker.modules.recipe.entity.Recipe;
 import com.nutritiontracker.modules.recipe.repository.RecipeRepository;
 import com.nutritiontracker.modules.recipe.service.RecipeService;
+import com.nutritiontracker.modules.stats.service.StatsRollupService;
 import com.nutritiontracker.modules.auth.service.UserProfileService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,8 +32,13 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -38,11 +48,13 @@ public class DailyLogService {
 
     private final DailyLogRepository dailyLogRepository;
     private final MealEntryRepository mealEntryRepository;
+    private final DailyMealNutrientsRepository dailyMealNutrientsRepository;
     private final FoodRepository foodRepository;
     private final RecipeRepository recipeRepository;
     private final RecipeService recipeService;
     private final UserProfileRepository userProfileRepository;
     private final UserProfileService userProfileService;
+    private final StatsRollupService statsRollupService;
 
     /**
      * Get daily log for a specific date. Creates one if it doesn't exist.
@@ -99,146 +111,71 @@ public class DailyLogService {
     }
 
     /**
-     * Get nutrient breakdown by meal type
+     * Get nutrient breakdown by meal type. Served from the per-meal aggregates
+     * maintained on the entry write path, so no entries or foods are loaded.
      */
     @Transactional(readOnly = true)
-    public List<com.nutritiontracker.modules.dailylog.dto.NutrientBreakdownDto> getNutrientBreakdown(LocalDate date,
-            Long userId) {
+    public List<NutrientBreakdownDto> getNutrientBreakdown(LocalDate date, Long userId) {
         log.info("Getting nutrient breakdown for date: {} and userId: {}", date, userId);
 
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateWithEntries(userId, date);
-        if (logs.isEmpty()) {
+        List<DailyMealNutrients> rows = dailyMealNutrientsRepository.findByUserIdAndDate(userId, date);
+        if (rows.isEmpty() && dailyLogRepository.findByUserIdAndDate(userId, date).isEmpty()) {
             return new ArrayList<>();
         }
-        DailyLog dailyLog = logs.get(0);
-
-        Map<MealType, com.nutritiontracker.modules.dailylog.dto.NutrientBreakdownDto> aggregates = new EnumMap<>(
-                MealType.class);
-        for (MealType type : MealType.values()) {
-            aggregates.put(type, com.nutritiontracker.modules.dailylog.dto.NutrientBreakdownDto.builder()
-                    .mealType(type)
-                    .calories(BigDecimal.ZERO)
-                    .protein(BigDecimal.ZERO)
-                    .carbs(BigDecimal.ZERO)
-                    .fats(BigDecimal.ZERO)
-                    .fiber(BigDecimal.ZERO)
-                    .sugars(BigDecimal.ZERO)
-                    .saturatedFats(BigDecimal.ZERO)
-                    .sodium(BigDecimal.ZERO)
-                    .calcium(BigDecimal.ZERO)
-                    .iron(BigDecimal.ZERO)
-                    .potassium(BigDecimal.ZERO)
-                    .vitaminA(BigDecimal.ZERO)
-                    .vitaminC(BigDecimal.ZERO)
-                    .vitaminD(BigDecimal.ZERO)
-                    .vitaminE(BigDecimal.ZERO)
-                    .vitaminB12(BigDecimal.ZERO)
-                    .magnesium(BigDecimal.ZERO)
-                    .zinc(BigDecimal.ZERO)
-                    .vitaminK(BigDecimal.ZERO)
-                    .vitaminB1(BigDecimal.ZERO)
-                    .vitaminB2(BigDecimal.ZERO)
-                    .vitaminB3(BigDecimal.ZERO)
-                    .vitaminB6(BigDecimal.ZERO)
-                    .vitaminB9(BigDecimal.ZERO)
-                    .build());
-        }
 
+        Map<MealType, DailyMealNutrients> byType = new EnumMap<>(MealType.class);
         BigDecimal dayTotalCalories = BigDecimal.ZERO;
         BigDecimal dayTotalProtein = BigDecimal.ZERO;
         BigDecimal dayTotalCarbs = BigDecimal.ZERO;
         BigDecimal dayTotalFats = BigDecimal.ZERO;
-
-        for (MealEntry entry : dailyLog.getMealEntries()) {
-            var dto = aggregates.get(entry.getMealType());
-
-            // Macros are already calculated in MealEntry
-            dto.setCalories(dto.getCalories().add(safe(entry.getCalories())));
-            dto.setProtein(dto.getProtein().add(safe(entry.getProtein())));
-            dto.setCarbs(dto.getCarbs().add(safe(entry.getCarbohydrates())));
-            dto.setFats(dto.getFats().add(safe(entry.getFats())));
-
-            dayTotalCalories = dayTotalCalories.add(safe(entry.getCalories()));
-            dayTotalProtein = dayTotalProtein.add(safe(entry.getProtein()));
-            dayTotalCarbs = dayTotalCarbs.add(safe(entry.getCarbohydrates()));
-            dayTotalFats = dayTotalFats.add(safe(entry.getFats()));
-
-            // Helper to calculate micronutrients from Food reference
-            Food food = entry.getFood();
-            if (food != null && food.getNutritionalInfo() != null) {
-                NutritionalInfo info = food.getNutritionalInfo();
-                BigDecimal servingSize = food.getServingSize() != null ? food.getServingSize()
-                        : BigDecimal.valueOf(100);
-                BigDecimal quantity = entry.getQuantity();
-
-                BigDecimal ratio = quantity.divide(servingSize, 4, RoundingMode.HALF_UP);
-
-                dto.setFiber(dto.getFiber().add(safe(info.getFiber()).multiply(ratio)));
-                dto.setSugars(dto.getSugars().add(safe(info.getSugars()).multiply(ratio)));
-                dto.setSaturatedFats(dto.getSaturatedFats().add(safe(info.getSaturatedFats()).multiply(ratio)));
-                dto.setSodium(dto.getSodium().add(safe(info.getSodium()).multiply(ratio)));
-                dto.setCalcium(dto.getCalcium().add(safe(info.getCalcium()).multiply(ratio)));
-                dto.setIron(dto.getIron().add(safe(info.getIron()).multiply(ratio)));
-                dto.setPotassium(dto.getPotassium().add(safe(info.getPotassium()).multiply(ratio)));
-                dto.setVitaminA(dto.getVitaminA().add(safe(info.getVitaminA()).multiply(ratio)));
-                dto.setVitaminC(dto.getVitaminC().add(safe(info.getVitaminC()).multiply(ratio)));
-                dto.setVitaminD(dto.getVitaminD().add(safe(info.getVitaminD()).multiply(ratio)));
-                dto.setVitaminE(dto.getVitaminE().add(safe(info.getVitaminE()).multiply(ratio)));
-                dto.setVitaminB12(dto.getVitaminB12().add(safe(info.getVitaminB12()).multiply(ratio)));
-                dto.setMagnesium(dto.getMagnesium().add(safe(info.getMagnesium()).multiply(ratio)));
-                dto.setZinc(dto.getZinc().add(safe(info.getZinc()).multiply(ratio)));
-                dto.setVitaminK(dto.getVitaminK().add(safe(info.getVitaminK()).multiply(ratio)));
-                dto.setVitaminB1(dto.getVitaminB1().add(safe(info.getVitaminB1()).multiply(ratio)));
-                dto.setVitaminB2(dto.getVitaminB2().add(safe(info.getVitaminB2()).multiply(ratio)));
-                dto.setVitaminB3(dto.getVitaminB3().add(safe(info.getVitaminB3()).multiply(ratio)));
-                dto.setVitaminB6(dto.getVitaminB6().add(safe(info.getVitaminB6()).multiply(ratio)));
-                dto.setVitaminB9(dto.getVitaminB9().add(safe(info.getVitaminB9()).multiply(ratio)));
-            }
+        for (DailyMealNutrients row : rows) {
+            byType.put(row.getMealType(), row);
+            dayTotalCalories = dayTotalCalories.add(safe(row.getCalories()));
+            dayTotalProtein = dayTotalProtein.add(safe(row.getProtein()));
+            dayTotalCarbs = dayTotalCarbs.add(safe(row.getCarbohydrates()));
+            dayTotalFats = dayTotalFats.add(safe(row.getFats()));
         }
 
-        List<com.nutritiontracker.modules.dailylog.dto.NutrientBreakdownDto> result = new ArrayList<>();
-
+        List<NutrientBreakdownDto> result = new ArrayList<>();
         for (MealType type : MealType.values()) {
-            var dto = aggregates.get(type);
+            DailyMealNutrients row = byType.get(type);
+            MicronutrientSnapshot micros = row != null && row.getMicronutrients() != null
+                    ? row.getMicronutrients().copy()
+                    : MicronutrientSnapshot.zero();
+            micros.roundToCents();
 
-            if (dayTotalCalories.compareTo(BigDecimal.ZERO) > 0) {
-                dto.setCaloriesPercentage(dto.getCalories().divide(dayTotalCalories, 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100")).doubleValue());
-            }
-            if (dayTotalProtein.compareTo(BigDecimal.ZERO) > 0) {
-                dto.setProteinPercentage(dto.getProtein().divide(dayTotalProtein, 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100")).doubleValue());
-            }
-            if (dayTotalCarbs.compareTo(BigDecimal.ZERO) > 0) {
-                dto.setCarbsPercentage(dto.getCarbs().divide(dayTotalCarbs, 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100")).doubleValue());
-            }
-            if (dayTotalFats.compareTo(BigDecimal.ZERO) > 0) {
-                dto.setFatsPercentage(dto.getFats().divide(dayTotalFats, 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100")).doubleValue());
-            }
+            NutrientBreakdownDto dto = NutrientBreakdownDto.builder()
+                    .mealType(type)
+                    .calories(row != null ? safe(row.getCalories()) : BigDecimal.ZERO)
+                    .protein(row != null ? safe(row.getProtein()) : BigDecimal.ZERO)
+                    .carbs(row != null ? safe(row.getCarbohydrates()) : BigDecimal.ZERO)
+                    .fats(row != null ? safe(row.getFats()) : BigDecimal.ZERO)
+                    .fiber(micros.getFiber())
+                    .sugars(micros.getSugars())
+                    .saturatedFats(micros.getSaturatedFats())
+                    .sodium(micros.getSodium())
+                    .calcium(micros.getCalcium())
+                    .iron(micros.getIron())
+                    .potassium(micros.getPotassium())
+                    .vitaminA(micros.getVitaminA())
+                    .vitaminC(micros.getVitaminC())
+                    .vitaminD(micros.getVitaminD())
+                    .vitaminE(micros.getVitaminE())
+                    .vitaminB12(micros.getVitaminB12())
+                    .magnesium(micros.getMagnesium())
+                    .zinc(micros.getZinc())
+                    .vitaminK(micros.getVitaminK())
+                    .vitaminB1(micros.getVitaminB1())
+                    .vitaminB2(micros.getVitaminB2())
+                    .vitaminB3(micros.getVitaminB3())
+                    .vitaminB6(micros.getVitaminB6())
+                    .vitaminB9(micros.getVitaminB9())
+                    .build();
 
-            // Round aggregated values for clean output
-            dto.setFiber(dto.getFiber().setScale(2, RoundingMode.HALF_UP));
-            dto.setSugars(dto.getSugars().setScale(2, RoundingMode.HALF_UP));
-            dto.setSaturatedFats(dto.getSaturatedFats().setScale(2, RoundingMode.HALF_UP));
-            dto.setSodium(dto.getSodium().setScale(2, RoundingMode.HALF_UP));
-            dto.setCalcium(dto.getCalcium().setScale(2, RoundingMode.HALF_UP));
-            dto.setIron(dto.getIron().setScale(2, RoundingMode.HALF_UP));
-            dto.setPotassium(dto.getPotassium().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminA(dto.getVitaminA().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminC(dto.getVitaminC().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminD(dto.getVitaminD().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminE(dto.getVitaminE().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminB12(dto.getVitaminB12().setScale(2, RoundingMode.HALF_UP));
-            dto.setMagnesium(dto.getMagnesium().setScale(2, RoundingMode.HALF_UP));
-            dto.setZinc(dto.getZinc().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminK(dto.getVitaminK().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminB1(dto.getVitaminB1().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminB2(dto.getVitaminB2().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminB3(dto.getVitaminB3().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminB6(dto.getVitaminB6().setScale(2, RoundingMode.HALF_UP));
-            dto.setVitaminB9(dto.getVitaminB9().setScale(2, RoundingMode.HALF_UP));
+            dto.setCaloriesPercentage(percentageOf(dto.getCalories(), dayTotalCalories));
+            dto.setProteinPercentage(percentageOf(dto.getProtein(), dayTotalProtein));
+            dto.setCarbsPercentage(percentageOf(dto.getCarbs(), dayTotalCarbs));
+            dto.setFatsPercentage(percentageOf(dto.getFats(), dayTotalFats));
 
             result.add(dto);
         }
@@ -246,12 +183,21 @@ public class DailyLogService {
         return result;
     }
 
+    private double percentageOf(BigDecimal part, BigDecimal total) {
+        if (total.compareTo(BigDecimal.ZERO) <= 0) {
+            return 0;
+        }
+        return part.divide(total, 4, RoundingMode.HALF_UP)
+                .multiply(new BigDecimal("100")).doubleValue();
+    }
+
     private BigDecimal safe(BigDecimal value) {
         return value != null ? value : BigDecimal.ZERO;
     }
 
     /**
-     * Add a new meal entry to the daily log
+     * Add a new meal entry to the daily log. Totals are updated with an atomic
+     * delta, so the log's existing entries are never loaded on the write path.
      */
     @Transactional
     public DailyLogResponseDto addEntry(MealEntryRequestDto request, Long userId) {
@@ -272,10 +218,8 @@ public class DailyLogService {
         }
 
         MealEntry entry = createMealEntry(dailyLog, food, recipe, request);
-        dailyLog.addMealEntry(entry);
-
-        recalculateTotals(dailyLog);
-        DailyLog savedLog = dailyLogRepository.save(dailyLog);
+        mealEntryRepository.save(entry);
+        applyDelta(dailyLog, entry, BigDecimal.ONE);
 
         // Award XP for logging food
         try {
@@ -284,7 +228,92 @@ public class DailyLogService {
             log.warn("Failed to award XP for user {}", userId, e);
         }
 
-        return mapToDto(savedLog, userId);
+        return loadDto(request.getDate(), userId);
+    }
+
+    /**
+     * Add many meal entries, possibly across several dates, in one transaction.
+     * Foods and recipes are loaded with one query each, entries are inserted in
+     * JDBC batches, and totals and XP are updated once per day.
+     */
+    @Transactional
+    public List<DailyLogResponseDto> addEntries(List<MealEntryRequestDto> requests, Long userId) {
+        log.info("Adding {} meal entries in batch for userId: {}", requests.size(), userId);
+
+        Set<Long> foodIds = new HashSet<>();
+        Set<Long> recipeIds = new HashSet<>();
+        for (MealEntryRequestDto request : requests) {
+            if (request.getFoodId() != null) {
+                foodIds.add(request.getFoodId());
+            } else if (request.getRecipeId() != null) {
+                recipeIds.add(request.getRecipeId());
+            } else {
+                throw new IllegalArgumentException("Either foodId or recipeId must be provided");
+            }
+        }
+
+        Map<Long, Food> foods = foodIds.isEmpty() ? Map.of()
+                : foodRepository.findAllByIdWithNutritionalInfo(foodIds).stream()
+                        .collect(Collectors.toMap(Food::getId, f -> f));
+        Map<Long, Recipe> recipes = recipeIds.isEmpty() ? Map.of()
+                : recipeRepository.findAllByIdWithIngredients(recipeIds).stream()
+                        .collect(Collectors.toMap(Recipe::getId, r -> r));
+
+        // One log per date; existing ones come back in a single query
+        Set<LocalDate> dates = new TreeSet<>();
+        requests.forEach(r -> dates.add(r.getDate()));
+        Map<LocalDate, DailyLog> logs = new HashMap<>();
+        dailyLogRepository.findByUserIdAndDateIn(userId, dates).forEach(l -> logs.put(l.getDate(), l));
+        for (LocalDate date : dates) {
+            logs.computeIfAbsent(date, d -> createEmptyLog(d, userId));
+        }
+
+        List<MealEntry> entries = new ArrayList<>(requests.size());
+        Map<LocalDate, Map<MealType, List<MealEntry>>> entriesByDate = new HashMap<>();
+        for (MealEntryRequestDto request : requests) {
+            Food food = null;
+            Recipe recipe = null;
+            if (request.getFoodId() != null) {
+                food = foods.get(request.getFoodId());
+                if (food == null) {
+                    throw new ResourceNotFoundException("Food", request.getFoodId());
+                }
+            } else {
+                recipe = recipes.get(request.getRecipeId());
+                if (recipe == null) {
+                    throw new ResourceNotFoundException("Recipe", request.getRecipeId());
+                }
+            }
+
+            MealEntry entry = createMealEntry(logs.get(request.getDate()), food, recipe, request);
+            entries.add(entry);
+            entriesByDate.computeIfAbsent(request.getDate(), d -> new EnumMap<>(MealType.class))
+                    .computeIfAbsent(request.getMealType(), t -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        mealEntryRepository.batchInsert(entries);
+
+        for (LocalDate date : dates) {
+            int dayCount = 0;
+            for (List<MealEntry> mealEntries : entriesByDate.get(date).values()) {
+                applyDelta(logs.get(date), sumSnapshots(mealEntries), BigDecimal.ONE);
+                dayCount += mealEntries.size();
+            }
+
+            // Award XP for logging food, once per day
+            try {
+                userProfileService.addXp(userId, 10 * dayCount);
+            } catch (Exception e) {
+                log.warn("Failed to award XP for user {}", userId, e);
+            }
+        }
+
+        List<DailyLogResponseDto> response = new ArrayList<>();
+        for (LocalDate date : dates) {
+            response.add(loadDto(date, userId));
+        }
+        return response;
     }
 
     @Transactional
@@ -298,18 +327,6 @@ public class DailyLogService {
             throw new IllegalArgumentException("Unauthorized to update this entry");
         }
 
-        // Check if date changed
-        if (!entry.getDailyLog().getDate().equals(request.getDate())) {
-            DailyLog oldLog = entry.getDailyLog();
-            oldLog.removeMealEntry(entry);
-            recalculateTotals(oldLog);
-            dailyLogRepository.save(oldLog);
-
-            DailyLog newLog = getOrCreateDailyLogEntity(request.getDate(), userId);
-            entry.setDailyLog(newLog);
-            newLog.addMealEntry(entry);
-        }
-
         Food food = null;
         Recipe recipe = null;
         if (request.getFoodId() != null) {
@@ -322,6 +339,22 @@ public class DailyLogService {
             throw new IllegalArgumentException("Either foodId or recipeId must be provided");
         }
 
+        // Keep the old snapshot so it can be taken off the original log's totals
+        DailyLog oldLog = entry.getDailyLog();
+        MealEntry previous = MealEntry.builder()
+                .mealType(entry.getMealType())
+                .micronutrients(entry.getMicronutrients() != null ? entry.getMicronutrients().copy() : null)
+                .calories(entry.getCalories())
+                .protein(entry.getProtein())
+                .carbohydrates(entry.getCarbohydrates())
+                .fats(entry.getFats())
+                .build();
+
+        // Check if date changed
+        if (!oldLog.getDate().equals(request.getDate())) {
+            entry.setDailyLog(getOrCreateDailyLogEntity(request.getDate(), userId));
+        }
+
         entry.setFood(food);
         entry.setRecipe(recipe);
         entry.setMealType(request.getMealType());
@@ -331,12 +364,10 @@ public class DailyLogService {
         calculateAndSetMacros(entry, food, recipe, request.getQuantity(), request.getServingUnitId());
 
         MealEntry savedEntry = mealEntryRepository.save(entry);
+        applyDelta(oldLog, previous, BigDecimal.ONE.negate());
+        applyDelta(savedEntry.getDailyLog(), savedEntry, BigDecimal.ONE);
 
-        // Update totals for the current log
-        recalculateTotals(savedEntry.getDailyLog());
-        dailyLogRepository.save(savedEntry.getDailyLog());
-
-        return mapToDto(savedEntry.getDailyLog(), userId);
+        return loadDto(request.getDate(), userId);
     }
 
     /**
@@ -350,12 +381,28 @@ public class DailyLogService {
                 .orElseThrow(() -> new ResourceNotFoundException("MealEntry", entryId));
 
         DailyLog dailyLog = entry.getDailyLog();
-        dailyLog.removeMealEntry(entry);
+        LocalDate date = dailyLog.getDate();
 
-        recalculateTotals(dailyLog);
-        dailyLogRepository.save(dailyLog);
+        mealEntryRepository.delete(entry);
+        applyDelta(dailyLog, entry, BigDecimal.ONE.negate());
 
-        return mapToDto(dailyLog, userId);
+        return loadDto(date, userId);
+    }
+
+    /**
+     * Recompute the stored totals and per-meal aggregates of the user's log for a
+     * date from its entries, repairing any drift left by the incremental write
+     * path.
+     */
+    @Transactional
+    public DailyLogResponseDto reconcileTotals(LocalDate date, Long userId) {
+        DailyLog dailyLog = dailyLogRepository.findByUserIdAndDate(userId, date)
+                .orElseThrow(() -> new ResourceNotFoundException("DailyLog", "date", date));
+
+        dailyLogRepository.reconcileTotals(dailyLog);
+        DailyLog withEntries = dailyLogRepository.findByUserIdAndDateWithEntries(userId, date).get(0);
+        rebuildMealNutrients(withEntries);
+        return mapToDto(withEntries, userId);
     }
 
     /**
@@ -367,12 +414,21 @@ public class DailyLogService {
         DailyLog dailyLog = getOrCreateDailyLogEntity(date, userId);
         dailyLog.setDailyWeight(weight);
         dailyLogRepository.save(dailyLog);
+        statsRollupService.markDirty(userId, date);
         return mapToDto(dailyLog, userId);
     }
 
     // --- Helper Methods ---
 
+    /**
+     * Get or create the log row only; its entry collection stays uninitialized.
+     */
     private DailyLog getOrCreateDailyLogEntity(LocalDate date, Long userId) {
+        return dailyLogRepository.findByUserIdAndDate(userId, date)
+                .orElseGet(() -> createEmptyLog(date, userId));
+    }
+
+    private DailyLog getOrCreateDailyLogWithEntries(LocalDate date, Long userId) {
         List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateWithEntries(userId, date);
         if (logs.isEmpty()) {
             return createEmptyLog(date, userId);
@@ -380,6 +436,81 @@ public class DailyLogService {
         return logs.get(0);
     }
 
+    private DailyLogResponseDto loadDto(LocalDate date, Long userId) {
+        DailyLog dailyLog = dailyLogRepository.findByUserIdAndDateWithEntries(userId, date).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("DailyLog", "date", date));
+        return mapToDto(dailyLog, userId);
+    }
+
+    /**
+     * Sum the snapshots of entries sharing one meal type into a single entry
+     */
+    private MealEntry sumSnapshots(List<MealEntry> entries) {
+        MealEntry sum = MealEntry.builder()
+                .mealType(entries.get(0).getMealType())
+                .micronutrients(MicronutrientSnapshot.zero())
+                .calories(BigDecimal.ZERO)
+                .protein(BigDecimal.ZERO)
+                .carbohydrates(BigDecimal.ZERO)
+                .fats(BigDecimal.ZERO)
+                .build();
+        for (MealEntry entry : entries) {
+            sum.setCalories(sum.getCalories().add(safe(entry.getCalories())));
+            sum.setProtein(sum.getProtein().add(safe(entry.getProtein())));
+            sum.setCarbohydrates(sum.getCarbohydrates().add(safe(entry.getCarbohydrates())));
+            sum.setFats(sum.getFats().add(safe(entry.getFats())));
+            sum.getMicronutrients().add(entry.getMicronutrients(), BigDecimal.ONE);
+        }
+        return sum;
+    }
+
+    /**
+     * Apply an entry's snapshot to a log's totals and to the aggregate of its
+     * meal type, scaled by sign (1 to add, -1 to remove). The totals update locks
+     * the log row first, so concurrent writers to the same day queue up before
+     * reading the aggregate.
+     */
+    private void applyDelta(DailyLog dailyLog, MealEntry entry, BigDecimal sign) {
+        dailyLogRepository.applyTotalsDelta(dailyLog,
+                safe(entry.getCalories()).multiply(sign),
+                safe(entry.getProtein()).multiply(sign),
+                safe(entry.getCarbohydrates()).multiply(sign),
+                safe(entry.getFats()).multiply(sign));
+
+        DailyMealNutrients nutrients = dailyMealNutrientsRepository
+                .findForUpdate(dailyLog.getId(), entry.getMealType())
+                .orElseGet(() -> newMealNutrients(dailyLog, entry.getMealType()));
+        nutrients.apply(entry, sign);
+        dailyMealNutrientsRepository.save(nutrients);
+        statsRollupService.markDirty(dailyLog.getUserId(), dailyLog.getDate());
+    }
+
+    /**
+     * Replace a log's per-meal aggregates with sums over its loaded entries.
+     * Used by the copy operations, which rewrite the entry collection wholesale.
+     */
+    private void rebuildMealNutrients(DailyLog dailyLog) {
+        dailyMealNutrientsRepository.deleteByDailyLogId(dailyLog.getId());
+        statsRollupService.markDirty(dailyLog.getUserId(), dailyLog.getDate());
+
+        Map<MealType, DailyMealNutrients> byType = new EnumMap<>(MealType.class);
+        for (MealEntry entry : dailyLog.getMealEntries()) {
+            byType.computeIfAbsent(entry.getMealType(), type -> newMealNutrients(dailyLog, type))
+                    .apply(entry, BigDecimal.ONE);
+        }
+        dailyMealNutrientsRepository.saveAll(byType.values());
+    }
+
+    private DailyMealNutrients newMealNutrients(DailyLog dailyLog, MealType mealType) {
+        return DailyMealNutrients.builder()
+                .dailyLogId(dailyLog.getId())
+                .userId(dailyLog.getUserId())
+                .date(dailyLog.getDate())
+                .mealType(mealType)
+                .build();
+    }
+
     private DailyLog createEmptyLog(LocalDate date, Long userId) {
         log.info("Creating new daily log for date: {} and userId: {}", date, userId);
 
@@ -399,7 +530,10 @@ public class DailyLogService {
                 .fatsGoal(goals.getFatsGoal())
                 .mealEntries(new ArrayList<>())
                 .build();
-        return dailyLogRepository.save(dailyLog);
+        DailyLog saved = dailyLogRepository.save(dailyLog);
+        // A new log counts as a logged day in the stats rollups
+        statsRollupService.markDirty(userId, date);
+        return saved;
     }
 
     private MealEntry createMealEntry(DailyLog dailyLog, Food food, Recipe recipe, MealEntryRequestDto request) {
@@ -444,11 +578,13 @@ public class DailyLogService {
                 entry.setProtein(info.getProtein().multiply(ratio).setScale(2, RoundingMode.HALF_UP));
                 entry.setCarbohydrates(info.getCarbohydrates().multiply(ratio).setScale(2, RoundingMode.HALF_UP));
                 entry.setFats(info.getFats().multiply(ratio).setScale(2, RoundingMode.HALF_UP));
+                entry.setMicronutrients(MicronutrientSnapshot.of(info, ratio));
             } else {
                 entry.setCalories(BigDecimal.ZERO);
                 entry.setProtein(BigDecimal.ZERO);
                 entry.setCarbohydrates(BigDecimal.ZERO);
                 entry.setFats(BigDecimal.ZERO);
+                entry.setMicronutrients(MicronutrientSnapshot.zero());
             }
         } else if (recipe != null) {
             var nutritionPerServing = recipeService.calculateNutritionPerServing(recipe);
@@ -456,11 +592,14 @@ public class DailyLogService {
             entry.setProtein(nutritionPerServing.getProtein().multiply(quantity).setScale(2, RoundingMode.HALF_UP));
             entry.setCarbohydrates(nutritionPerServing.getCarbs().multiply(quantity).setScale(2, RoundingMode.HALF_UP));
             entry.setFats(nutritionPerServing.getFats().multiply(quantity).setScale(2, RoundingMode.HALF_UP));
+            // Recipes only carry macros per serving
+            entry.setMicronutrients(MicronutrientSnapshot.zero());
         } else {
             entry.setCalories(BigDecimal.ZERO);
             entry.setProtein(BigDecimal.ZERO);
             entry.setCarbohydrates(BigDecimal.ZERO);
             entry.setFats(BigDecimal.ZERO);
+            entry.setMicronutrients(MicronutrientSnapshot.zero());
         }
     }
 
@@ -583,7 +722,7 @@ public class DailyLogService {
                 .stream().findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("DailyLog", "date", sourceDate));
 
-        DailyLog targetLog = getOrCreateDailyLogEntity(targetDate, userId);
+        DailyLog targetLog = getOrCreateDailyLogWithEntries(targetDate, userId);
 
         if (replace) {
             targetLog.getMealEntries().clear();
@@ -605,6 +744,7 @@ public class DailyLogService {
 
         recalculateTotals(targetLog);
         DailyLog savedLog = dailyLogRepository.save(targetLog);
+        rebuildMealNutrients(savedLog);
 
         return mapToDto(savedLog, userId);
     }
@@ -625,7 +765,7 @@ public class DailyLogService {
             throw new IllegalArgumentException("Unauthorized access to this meal entry");
         }
 
-        DailyLog targetLog = getOrCreateDailyLogEntity(targetDate, userId);
+        DailyLog targetLog = getOrCreateDailyLogWithEntries(targetDate, userId);
 
         MealType newMealType = targetMealType != null ? MealType.valueOf(targetMealType) : sourceEntry.getMealType();
 
@@ -643,6 +783,7 @@ public class DailyLogService {
 
         recalculateTotals(targetLog);
         dailyLogRepository.save(targetLog);
+        rebuildMealNutrients(targetLog);
 
         // Return the TARGET log so frontend can update if looking at target date,
         // or just acknowledge success. Usually we return the updated resource.
@@ -669,7 +810,7 @@ public class DailyLogService {
             throw new ResourceNotFoundException("No entries found for meal type: " + sourceMealType);
         }
 
-        DailyLog targetLog = getOrCreateDailyLogEntity(targetDate, userId);
+        DailyLog targetLog = getOrCreateDailyLogWithEntries(targetDate, userId);
 
         if (replace) {
             targetLog.getMealEntries().removeIf(e -> e.getMealType() == targetMealType);
@@ -691,6 +832,7 @@ public class DailyLogService {
 
         recalculateTotals(targetLog);
         DailyLog savedLog = dailyLogRepository.save(targetLog);
+        rebuildMealNutrients(savedLog);
         return mapToDto(savedLog, userId);
     }
 }
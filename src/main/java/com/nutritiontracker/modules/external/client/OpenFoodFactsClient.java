@@ -1,77 +1,245 @@
 package com.nutritiontracker.modules.external.client;
 
+import com.nutritiontracker.common.cache.SingleFlight;
+import com.nutritiontracker.common.exception.ExternalApiException;
 import com.nutritiontracker.modules.external.dto.OpenFoodFactsSearchResponse;
 import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * The one way this application talks to Open Food Facts.
+ *
+ * Every call goes through the shared pooled WebClient and, from the outside
+ * in, a circuit breaker, a rate limiter and a bulkhead (see ResilienceConfig),
+ * so an upstream brownout is answered quickly instead of holding threads.
+ * Failures, including rejections, surface as {@link ExternalApiException} for
+ * callers to fall back on local data. Latency is recorded per operation and
+ * outcome in the external.openfoodfacts.requests histogram.
+ */
 @Component
 @Slf4j
 public class OpenFoodFactsClient {
 
-        private final RestTemplate restTemplate;
-        private final String baseUrl;
+        private static final String FIELDS = "code,product_name,brands,image_url,nutriments";
+
+        private final WebClient webClient;
+        private final ProductLookupCache lookupCache;
+        private final RateLimiter productRateLimiter;
+        private final RateLimiter searchRateLimiter;
+        private final RateLimiter refreshRateLimiter;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final MeterRegistry meterRegistry;
+        private final Duration timeout;
+
+        // Concurrent identical requests (a popular scan, an import racing a lookup) share one call
+        private final SingleFlight<String, OpenFoodFactsProduct> productLookups = new SingleFlight<>();
+        private final SingleFlight<String, OpenFoodFactsSearchResponse> searches = new SingleFlight<>();
+        private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
 
         public OpenFoodFactsClient(
-                        RestTemplateBuilder restTemplateBuilder,
-                        @Value("${external.openfoodfacts.base-url}") String baseUrl,
+                        @Qualifier("openFoodFactsWebClient") WebClient webClient,
+                        ProductLookupCache lookupCache,
+                        @Qualifier("openFoodFactsProductRateLimiter") RateLimiter productRateLimiter,
+                        @Qualifier("openFoodFactsSearchRateLimiter") RateLimiter searchRateLimiter,
+                        @Qualifier("openFoodFactsRefreshRateLimiter") RateLimiter refreshRateLimiter,
+                        CircuitBreaker circuitBreaker,
+                        Bulkhead bulkhead,
+                        MeterRegistry meterRegistry,
                         @Value("${external.openfoodfacts.timeout:5000}") long timeoutMillis) {
 
-                this.baseUrl = baseUrl;
-                this.restTemplate = restTemplateBuilder
-                                .setConnectTimeout(Duration.ofMillis(timeoutMillis))
-                                .setReadTimeout(Duration.ofMillis(timeoutMillis))
-                                .defaultHeader("User-Agent", "NutritionTrackerApp/1.0 (ikerguerra@hotmail.es)")
-                                .defaultHeader("Accept", "application/json")
-                                .build();
+                this.webClient = webClient;
+                this.lookupCache = lookupCache;
+                this.productRateLimiter = productRateLimiter;
+                this.searchRateLimiter = searchRateLimiter;
+                this.refreshRateLimiter = refreshRateLimiter;
+                this.circuitBreaker = circuitBreaker;
+                this.bulkhead = bulkhead;
+                this.meterRegistry = meterRegistry;
+                this.timeout = Duration.ofMillis(timeoutMillis);
         }
 
+        /**
+         * Blocking form of {@link #searchProductsAsync}
+         *
+         * @throws ExternalApiException when Open Food Facts cannot be used
+         */
         public OpenFoodFactsSearchResponse searchProducts(String query, int page, int pageSize) {
+                return await(searchProductsAsync(query, page, pageSize));
+        }
+
+        public CompletableFuture<OpenFoodFactsSearchResponse> searchProductsAsync(String query, int page,
+                        int pageSize) {
                 log.debug("Searching OpenFoodFacts for: {}, page: {}, size: {}", query, page, pageSize);
+                Mono<OpenFoodFactsSearchResponse> request = webClient.get()
+                                .uri(uri -> uri.path("/cgi/search.pl")
+                                                .queryParam("search_terms", "{query}")
+                                                .queryParam("search_simple", "1")
+                                                .queryParam("action", "process")
+                                                .queryParam("fields", FIELDS)
+                                                .queryParam("json", "1")
+                                                .queryParam("page", page)
+                                                .queryParam("page_size", pageSize)
+                                                .build(query))
+                                .retrieve()
+                                .bodyToMono(OpenFoodFactsSearchResponse.class)
+                                .defaultIfEmpty(new OpenFoodFactsSearchResponse());
 
-                try {
-                        String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                                        .path("/cgi/search.pl")
-                                        .queryParam("search_terms", query)
-                                        .queryParam("search_simple", "1")
-                                        .queryParam("action", "process")
-                                        .queryParam("fields", "code,product_name,brands,image_url,nutriments")
-                                        .queryParam("json", "1")
-                                        .queryParam("page", page)
-                                        .queryParam("page_size", pageSize)
-                                        .toUriString();
-
-                        OpenFoodFactsSearchResponse response = restTemplate.getForObject(url,
-                                        OpenFoodFactsSearchResponse.class);
-                        return response != null ? response : new OpenFoodFactsSearchResponse();
-                } catch (Exception e) {
-                        log.error("Failed to search OpenFoodFacts for query '{}': {}", query, e.getMessage());
-                        return new OpenFoodFactsSearchResponse();
-                }
+                return searches.executeAsync(query + "\n" + page + "\n" + pageSize,
+                                () -> call("search", searchRateLimiter, request).toFuture());
         }
 
+        /**
+         * Blocking form of {@link #getProductByBarcodeAsync}
+         *
+         * @throws ExternalApiException when Open Food Facts cannot be used
+         */
         public OpenFoodFactsProduct getProductByBarcode(String barcode) {
+                return await(getProductByBarcodeAsync(barcode));
+        }
+
+        /**
+         * Product for the barcode, or null when Open Food Facts does not have it.
+         * Answers are cached (see {@link ProductLookupCache}); a stale product is
+         * returned at once and refreshed in the background.
+         */
+        public CompletableFuture<OpenFoodFactsProduct> getProductByBarcodeAsync(String barcode) {
+                Optional<ProductLookupCache.Lookup> cached = lookupCache.get(barcode);
+                if (cached.isPresent()) {
+                        if (cached.get().isStale()) {
+                                refreshInBackground(barcode);
+                        }
+                        return CompletableFuture.completedFuture(cached.get().getProduct());
+                }
+                return productLookups.executeAsync(barcode, () -> loadProduct(barcode));
+        }
+
+        /**
+         * Product for the barcode straight from Open Food Facts, skipping the
+         * cache, which is updated with the answer. Null when Open Food Facts
+         * does not have it. Paced by the refresh rate limiter alone, waiting
+         * for a permit, so background refreshes never use up the permits
+         * barcode scans need.
+         */
+        public CompletableFuture<OpenFoodFactsProduct> refreshProductAsync(String barcode) {
+                return productLookups.executeAsync(barcode,
+                                () -> loadProduct(barcode, "refresh", refreshRateLimiter));
+        }
+
+        private void refreshInBackground(String barcode) {
+                if (!refreshing.add(barcode)) {
+                        return;
+                }
+                productLookups.executeAsync(barcode, () -> loadProduct(barcode))
+                                .whenComplete((product, error) -> {
+                                        refreshing.remove(barcode);
+                                        if (error != null) {
+                                                log.debug("Refresh of barcode {} failed: {}", barcode,
+                                                                error.getMessage());
+                                        }
+                                });
+        }
+
+        private CompletableFuture<OpenFoodFactsProduct> loadProduct(String barcode) {
+                return loadProduct(barcode, "product", productRateLimiter);
+        }
+
+        // Failed calls are not cached, so a stale product keeps being served until upstream answers
+        private CompletableFuture<OpenFoodFactsProduct> loadProduct(String barcode, String operation,
+                        RateLimiter rateLimiter) {
                 log.debug("Fetching product from OpenFoodFacts by barcode: {}", barcode);
+                Mono<OpenFoodFactsProduct> request = webClient.get()
+                                .uri(uri -> uri.path("/api/v0/product/{barcode}.json")
+                                                .queryParam("fields", FIELDS)
+                                                .build(barcode))
+                                .retrieve()
+                                .bodyToMono(ProductResponseWrapper.class)
+                                .mapNotNull(ProductResponseWrapper::getProduct)
+                                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+
+                return call(operation, rateLimiter, request)
+                                // Off the event loop, since the cache may write to Redis
+                                .publishOn(Schedulers.boundedElastic())
+                                .doOnSuccess(product -> lookupCache.put(barcode, product))
+                                .toFuture();
+        }
+
+        private <T> Mono<T> call(String operation, RateLimiter rateLimiter, Mono<T> request) {
+                return Mono.defer(() -> {
+                        Timer.Sample sample = Timer.start(meterRegistry);
+                        return request
+                                        .timeout(timeout)
+                                        .transformDeferred(BulkheadOperator.of(bulkhead))
+                                        .transformDeferred(RateLimiterOperator.of(rateLimiter))
+                                        .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                                        .doOnSuccess(result -> record(sample, operation,
+                                                        result != null ? "success" : "not_found"))
+                                        .doOnError(e -> record(sample, operation, outcome(e)))
+                                        .onErrorMap(e -> new ExternalApiException(
+                                                        "Open Food Facts " + operation + " failed: " + e.getMessage(),
+                                                        e));
+                });
+        }
+
+        private void record(Timer.Sample sample, String operation, String outcome) {
+                sample.stop(Timer.builder("external.openfoodfacts.requests")
+                                .description("Open Food Facts calls by operation and outcome")
+                                .tag("operation", operation)
+                                .tag("outcome", outcome)
+                                .publishPercentileHistogram()
+                                .register(meterRegistry));
+        }
+
+        private static String outcome(Throwable e) {
+                if (e instanceof CallNotPermittedException) {
+                        return "circuit_open";
+                }
+                if (e instanceof RequestNotPermitted) {
+                        return "rate_limited";
+                }
+                if (e instanceof BulkheadFullException) {
+                        return "bulkhead_full";
+                }
+                if (e instanceof TimeoutException) {
+                        return "timeout";
+                }
+                return "error";
+        }
 
+        private static <T> T await(CompletableFuture<T> future) {
                 try {
-                        String url = UriComponentsBuilder.fromHttpUrl(baseUrl)
-                                        .path("/api/v0/product/{barcode}.json")
-                                        .queryParam("fields", "code,product_name,brands,image_url,nutriments")
-                                        .buildAndExpand(barcode)
-                                        .toUriString();
-
-                        ProductResponseWrapper wrapper = restTemplate.getForObject(url, ProductResponseWrapper.class);
-                        return wrapper != null ? wrapper.getProduct() : null;
-                } catch (Exception e) {
-                        log.error("Failed to fetch product from OpenFoodFacts for barcode '{}': {}", barcode,
-                                        e.getMessage());
-                        return null;
+                        return future.join();
+                } catch (CompletionException e) {
+                        if (e.getCause() instanceof RuntimeException cause) {
+                                throw cause;
+                        }
+                        throw e;
                 }
         }
 
@@ -0,0 +1,112 @@
+package com.nutritiontracker.modules.external.client;
+
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Remembers Open Food Facts barcode lookups, found and not found, so
+ * repeated scans of the same barcode skip the upstream call.
+ *
+ * Found products and not-found answers live in separate caches so they can
+ * have their own TTL and size (see CacheConfig): products change rarely,
+ * while a missing barcode may be added upstream at any time. Both go through
+ * the Spring cache, so they are shared through Redis when it is enabled.
+ */
+@Component
+public class ProductLookupCache {
+
+    public static final String FOUND_CACHE = "offProduct";
+    public static final String MISSING_CACHE = "offProductMissing";
+
+    private final Cache found;
+    private final Cache missing;
+    private final long refreshAfterMillis;
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter staleHits;
+    private final Counter misses;
+
+    public ProductLookupCache(
+            CacheManager cacheManager,
+            @Value("${app.cache.off-product.refresh-after:P1D}") Duration refreshAfter,
+            MeterRegistry meterRegistry) {
+        this.found = cacheManager.getCache(FOUND_CACHE);
+        this.missing = cacheManager.getCache(MISSING_CACHE);
+        this.refreshAfterMillis = refreshAfter.toMillis();
+        this.hits = counter(meterRegistry, "hit", "Barcode lookups answered with a cached product");
+        this.negativeHits = counter(meterRegistry, "negative_hit", "Barcode lookups answered with a cached not-found");
+        this.staleHits = counter(meterRegistry, "stale_hit", "Cached products served while being refreshed");
+        this.misses = counter(meterRegistry, "miss", "Barcode lookups that called Open Food Facts");
+    }
+
+    /**
+     * The cached answer for the barcode, or empty when upstream has to be
+     * asked. A present lookup with a null product means "not found".
+     */
+    public Optional<Lookup> get(String barcode) {
+        CachedProduct cached = found.get(barcode, CachedProduct.class);
+        if (cached != null) {
+            boolean stale = System.currentTimeMillis() - cached.getFetchedAt() > refreshAfterMillis;
+            (stale ? staleHits : hits).increment();
+            return Optional.of(new Lookup(cached.getProduct(), stale));
+        }
+        if (missing.get(barcode) != null) {
+            negativeHits.increment();
+            return Optional.of(new Lookup(null, false));
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Records an upstream answer; a null product caches the barcode as not
+     * found. Failed calls should not be recorded.
+     */
+    public void put(String barcode, OpenFoodFactsProduct product) {
+        if (product != null) {
+            found.put(barcode, new CachedProduct(product, System.currentTimeMillis()));
+            // Only evict what is there, since evictions are broadcast to the other instances
+            if (missing.get(barcode) != null) {
+                missing.evict(barcode);
+            }
+        } else {
+            missing.put(barcode, Boolean.TRUE);
+            if (found.get(barcode) != null) {
+                found.evict(barcode);
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("external.openfoodfacts.lookup.cache")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Lookup {
+        private OpenFoodFactsProduct product;
+        private boolean stale;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachedProduct {
+        private OpenFoodFactsProduct product;
+        private long fetchedAt;
+    }
+}
@@ -2,6 +2,10 @@ package com.nutritiontracker.modules.external.controller;
 
 import com.nutritiontracker.common.dto.ApiResponse;
 import com.nutritiontracker.modules.external.dto.ExternalFoodDTO;
+import com.nutritiontracker.modules.external.dto.FoodDumpImportDto;
+import com.nutritiontracker.modules.external.dto.FoodImportJobDto;
+import com.nutritiontracker.modules.external.service.FoodDumpImportService;
+import com.nutritiontracker.modules.external.service.FoodImportService;
 import com.nutritiontracker.modules.external.service.OpenFoodFactsService;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
 import com.nutritiontracker.modules.food.entity.Food;
@@ -11,6 +15,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -24,6 +29,8 @@ import java.util.List;
 public class ExternalFoodController {
 
     private final OpenFoodFactsService openFoodFactsService;
+    private final FoodImportService foodImportService;
+    private final FoodDumpImportService foodDumpImportService;
     private final FoodMapper foodMapper;
 
     @GetMapping("/search")
@@ -67,22 +74,66 @@ public class ExternalFoodController {
     }
 
     @PostMapping("/import-batch")
-    @Operation(summary = "Import in batch from OpenFoodFacts", description = "Import products from OpenFoodFacts in batch based on a search query")
-    public ResponseEntity<ApiResponse<String>> importBatch(
+    @Operation(summary = "Import in batch from OpenFoodFacts", description = "Import products from OpenFoodFacts in batch based on a search query. An unfinished import of the same query resumes from its checkpoint.")
+    public ResponseEntity<ApiResponse<FoodImportJobDto>> importBatch(
             @Parameter(description = "Search query") @RequestParam("query") String query,
             @Parameter(description = "Max pages to process") @RequestParam(name = "maxPages", defaultValue = "1") int maxPages) {
 
         log.info("REST request to import batch for query: {} (maxPages: {})", query, maxPages);
-        openFoodFactsService.importBatch(query, maxPages);
-        return ResponseEntity.ok(ApiResponse.success("Batch import started in background"));
+        FoodImportJobDto job = foodImportService.submit(query, maxPages);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Batch import started in background", job));
     }
 
     @PostMapping("/import-featured")
     @Operation(summary = "Import featured categories", description = "Import products for a predefined set of featured categories")
-    public ResponseEntity<ApiResponse<String>> importFeatured() {
+    public ResponseEntity<ApiResponse<List<FoodImportJobDto>>> importFeatured() {
 
         log.info("REST request to import featured categories");
-        openFoodFactsService.importFeaturedCategories();
-        return ResponseEntity.ok(ApiResponse.success("Featured categories import started in background"));
+        List<FoodImportJobDto> jobs = foodImportService.submitFeaturedCategories();
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Featured categories import started in background", jobs));
+    }
+
+    @GetMapping("/import-jobs")
+    @Operation(summary = "List import jobs", description = "Status and progress of the most recent batch imports")
+    public ResponseEntity<ApiResponse<List<FoodImportJobDto>>> getImportJobs() {
+        return ResponseEntity.ok(ApiResponse.success(foodImportService.getRecentJobs()));
+    }
+
+    @GetMapping("/import-jobs/{jobId}")
+    @Operation(summary = "Get import job status", description = "Status and progress of a batch import")
+    public ResponseEntity<ApiResponse<FoodImportJobDto>> getImportJob(
+            @Parameter(description = "Job ID") @PathVariable("jobId") Long jobId) {
+        return ResponseEntity.ok(ApiResponse.success(foodImportService.getJob(jobId)));
+    }
+
+    @PostMapping("/import-jobs/{jobId}/resume")
+    @Operation(summary = "Resume import job", description = "Continue a failed or interrupted batch import from its checkpoint")
+    public ResponseEntity<ApiResponse<FoodImportJobDto>> resumeImportJob(
+            @Parameter(description = "Job ID") @PathVariable("jobId") Long jobId) {
+
+        log.info("REST request to resume import job: {}", jobId);
+        FoodImportJobDto job = foodImportService.resume(jobId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Import job resumed", job));
+    }
+
+    @PostMapping("/import-dump")
+    @Operation(summary = "Import an Open Food Facts dump", description = "Stream a downloaded OpenFoodFacts dump (.jsonl or .csv, optionally .gz) from the dump directory into the catalog. An unfinished import of the same file resumes from its checkpoint.")
+    public ResponseEntity<ApiResponse<FoodDumpImportDto>> importDump(
+            @Parameter(description = "Dump file name, relative to the dump directory") @RequestParam("file") String file) {
+
+        log.info("REST request to import dump: {}", file);
+        FoodDumpImportDto job = foodDumpImportService.submit(file);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Dump import started in background", job));
+    }
+
+    @GetMapping("/import-dumps/{jobId}")
+    @Operation(summary = "Get dump import status", description = "Progress and throughput of a dump import")
+    public ResponseEntity<ApiResponse<FoodDumpImportDto>> getDumpImport(
+            @Parameter(description = "Job ID") @PathVariable("jobId") Long jobId) {
+        return ResponseEntity.ok(ApiResponse.success(foodDumpImportService.getJob(jobId)));
     }
 }
@@ -0,0 +1,27 @@
+package com.nutritiontracker.modules.external.dto;
+
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodDumpImportDto {
+    private Long jobId;
+    private String fileName;
+    private FoodImportJobStatus status;
+    private Long recordsRead;
+    private Long imported;
+    private Long skipped;
+    private Integer recordsPerSecond;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,28 @@
+package com.nutritiontracker.modules.external.dto;
+
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodImportJobDto {
+    private Long jobId;
+    private String query;
+    private FoodImportJobStatus status;
+    private Integer maxPages;
+    private Integer pagesImported;
+    private Integer progress; // Percentage (0-100)
+    private Integer imported;
+    private Integer skipped;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
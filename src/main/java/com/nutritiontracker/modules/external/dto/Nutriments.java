@@ -30,4 +30,25 @@ public class Nutriments {
 
     @JsonProperty("sodium_100g")
     private Double sodium100g;
+
+    @JsonProperty("saturated-fat_100g")
+    private Double saturatedFat100g;
+
+    @JsonProperty("calcium_100g")
+    private Double calcium100g;
+
+    @JsonProperty("iron_100g")
+    private Double iron100g;
+
+    @JsonProperty("potassium_100g")
+    private Double potassium100g;
+
+    @JsonProperty("vitamin-a_100g")
+    private Double vitaminA100g;
+
+    @JsonProperty("vitamin-c_100g")
+    private Double vitaminC100g;
+
+    @JsonProperty("vitamin-d_100g")
+    private Double vitaminD100g;
 }
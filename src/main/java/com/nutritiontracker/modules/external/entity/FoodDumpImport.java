@@ -0,0 +1,75 @@
+package com.nutritiontracker.modules.external.entity;
+
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * An import of a downloaded Open Food Facts dump file and its checkpoint: the
+ * number of records already stored, saved in the same transaction as each
+ * batch. The file's size and modification time tell whether a resumed import
+ * still reads the same file.
+ */
+@Entity
+@Table(name = "food_dump_imports")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodDumpImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    @Column(name = "file_modified_at", nullable = false)
+    private long fileModifiedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private FoodImportJobStatus status = FoodImportJobStatus.QUEUED;
+
+    // Records (lines) read and stored; a resumed import skips this many
+    @Column(name = "records_read", nullable = false)
+    @Builder.Default
+    private long recordsRead = 0;
+
+    @Builder.Default
+    private long imported = 0;
+
+    // Invalid or unchanged records and barcodes owned by another source
+    @Builder.Default
+    private long skipped = 0;
+
+    // Throughput of the current run
+    @Column(name = "records_per_second")
+    private Integer recordsPerSecond;
+
+    @Column(length = 1000)
+    private String error;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,68 @@
+package com.nutritiontracker.modules.external.entity;
+
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A bulk import of Open Food Facts search results and its checkpoint. The
+ * checkpoint is saved in the same transaction as each imported page, so an
+ * interrupted job resumes exactly at the first page it had not stored.
+ */
+@Entity
+@Table(name = "food_import_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String query;
+
+    @Column(name = "max_pages", nullable = false)
+    private int maxPages;
+
+    // First page not imported yet (1-based)
+    @Column(name = "next_page", nullable = false)
+    @Builder.Default
+    private int nextPage = 1;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private FoodImportJobStatus status = FoodImportJobStatus.QUEUED;
+
+    @Builder.Default
+    private int imported = 0;
+
+    // Invalid products and barcodes already in the catalog
+    @Builder.Default
+    private int skipped = 0;
+
+    @Column(length = 1000)
+    private String error;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Also the heartbeat of a running job
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,8 @@
+package com.nutritiontracker.modules.external.enums;
+
+public enum FoodImportJobStatus {
+    QUEUED, // Waiting for an import worker
+    RUNNING, // Importing; the checkpoint advances with every stored batch
+    COMPLETED, // Everything imported
+    FAILED // Stopped; submitting the same import again resumes from the checkpoint
+}
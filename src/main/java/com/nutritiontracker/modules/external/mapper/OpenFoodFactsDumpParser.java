@@ -0,0 +1,141 @@
+package com.nutritiontracker.modules.external.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Reads products from the lines of an Open Food Facts dump. The JSONL dump
+ * holds one product document per line, shaped like the API's. The CSV export
+ * is tab separated with a header row and no quoting, so every line is one
+ * record. Parsers are stateless and can be shared between threads.
+ */
+public class OpenFoodFactsDumpParser {
+
+    public enum Format {
+        JSONL, CSV;
+
+        /**
+         * Format from the file name; a trailing .gz means gzip compressed
+         */
+        public static Format of(String fileName) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json")) {
+                return JSONL;
+            }
+            if (name.endsWith(".csv") || name.endsWith(".tsv")) {
+                return CSV;
+            }
+            throw new ValidationException("Unsupported dump file: " + fileName + " (expected .jsonl or .csv, optionally .gz)");
+        }
+    }
+
+    private static final String[] PRODUCT_COLUMNS = { "code", "product_name", "brands", "image_url" };
+
+    private final ObjectMapper objectMapper;
+    private final int[] productColumns;
+    private final int[] nutrimentColumns;
+    private final String[] nutrimentNames;
+
+    private OpenFoodFactsDumpParser(ObjectMapper objectMapper, String[] header) {
+        this.objectMapper = objectMapper;
+        if (header == null) {
+            this.productColumns = null;
+            this.nutrimentColumns = null;
+            this.nutrimentNames = null;
+            return;
+        }
+
+        this.productColumns = new int[PRODUCT_COLUMNS.length];
+        for (int i = 0; i < PRODUCT_COLUMNS.length; i++) {
+            productColumns[i] = indexOf(header, PRODUCT_COLUMNS[i]);
+        }
+        // Per-100 g values, named like the API's nutriments fields
+        this.nutrimentColumns = IntStream.range(0, header.length)
+                .filter(i -> header[i].endsWith("_100g"))
+                .toArray();
+        this.nutrimentNames = Arrays.stream(nutrimentColumns)
+                .mapToObj(i -> header[i])
+                .toArray(String[]::new);
+    }
+
+    public static OpenFoodFactsDumpParser jsonl(ObjectMapper objectMapper) {
+        return new OpenFoodFactsDumpParser(objectMapper, null);
+    }
+
+    public static OpenFoodFactsDumpParser csv(ObjectMapper objectMapper, String headerLine) {
+        if (headerLine == null) {
+            throw new ValidationException("CSV dump has no header row");
+        }
+        String[] header = headerLine.split("\t", -1);
+        if (indexOf(header, "code") < 0) {
+            throw new ValidationException("CSV dump header has no code column");
+        }
+        return new OpenFoodFactsDumpParser(objectMapper, header);
+    }
+
+    /**
+     * The product on the line, or null when the line cannot be read
+     */
+    public OpenFoodFactsProduct parse(String line) {
+        if (line == null || line.isBlank()) {
+            return null;
+        }
+        try {
+            return productColumns == null
+                    ? objectMapper.readValue(line, OpenFoodFactsProduct.class)
+                    : parseCsv(line);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private OpenFoodFactsProduct parseCsv(String line) throws Exception {
+        String[] fields = line.split("\t", -1);
+        ObjectNode product = objectMapper.createObjectNode();
+        for (int i = 0; i < PRODUCT_COLUMNS.length; i++) {
+            String value = field(fields, productColumns[i]);
+            if (value != null) {
+                product.put(PRODUCT_COLUMNS[i], value);
+            }
+        }
+
+        ObjectNode nutriments = product.putObject("nutriments");
+        for (int i = 0; i < nutrimentColumns.length; i++) {
+            String value = field(fields, nutrimentColumns[i]);
+            if (value == null) {
+                continue;
+            }
+            try {
+                nutriments.put(nutrimentNames[i], Double.parseDouble(value));
+            } catch (NumberFormatException e) {
+                // A malformed value is left out rather than dropping the record
+            }
+        }
+        return objectMapper.treeToValue(product, OpenFoodFactsProduct.class);
+    }
+
+    private static String field(String[] fields, int index) {
+        if (index < 0 || index >= fields.length || fields[index].isEmpty()) {
+            return null;
+        }
+        return fields[index];
+    }
+
+    private static int indexOf(String[] header, String column) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.nutritiontracker.modules.external.mapper;
+
+import com.nutritiontracker.modules.external.dto.ExternalFoodDTO;
+import com.nutritiontracker.modules.external.dto.Nutriments;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.entity.NutritionalInfo;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Component
+public class OpenFoodFactsMapper {
+
+    public static final String SOURCE = "OPENFOODFACTS";
+
+    /**
+     * Products without a name or energy value are not worth importing
+     */
+    public boolean isValidProduct(OpenFoodFactsProduct product) {
+        return product.getProductName() != null && !product.getProductName().isEmpty() &&
+                product.getNutriments() != null &&
+                product.getNutriments().getEnergyKcal100g() != null;
+    }
+
+    public ExternalFoodDTO toDto(OpenFoodFactsProduct product) {
+        return ExternalFoodDTO.builder()
+                .barcode(product.getCode())
+                .name(product.getProductName())
+                .brand(product.getBrands())
+                .imageUrl(product.getImageUrl())
+                .servingSize(100.0)
+                .servingUnit("g")
+                .calories(product.getNutriments().getEnergyKcal100g())
+                .protein(product.getNutriments().getProteins100g())
+                .carbs(product.getNutriments().getCarbohydrates100g())
+                .fats(product.getNutriments().getFat100g())
+                .fiber(product.getNutriments().getFiber100g())
+                .sugar(product.getNutriments().getSugars100g())
+                .sodium(product.getNutriments().getSodium100g())
+                .source(SOURCE)
+                .build();
+    }
+
+    /**
+     * New, unsaved food per 100 g of the product
+     */
+    public Food toFood(OpenFoodFactsProduct product) {
+        Nutriments nutriments = product.getNutriments();
+        NutritionalInfo nutritionalInfo = NutritionalInfo.builder()
+                .calories(orZero(nutriments.getEnergyKcal100g()))
+                .protein(orZero(nutriments.getProteins100g()))
+                .carbohydrates(orZero(nutriments.getCarbohydrates100g()))
+                .fats(orZero(nutriments.getFat100g()))
+                .fiber(orZero(nutriments.getFiber100g()))
+                .sugars(orZero(nutriments.getSugars100g()))
+                .sodium(orZero(nutriments.getSodium100g()))
+                .build();
+
+        Food food = Food.builder()
+                .name(product.getProductName())
+                .brand(product.getBrands())
+                .barcode(product.getCode())
+                .servingSize(BigDecimal.valueOf(100))
+                .servingUnit("g")
+                .source(SOURCE)
+                .externalId(product.getCode())
+                .lastSyncedAt(LocalDateTime.now())
+                .build();
+
+        food.setNutritionalInfo(nutritionalInfo);
+        return food;
+    }
+
+    private static BigDecimal orZero(Double value) {
+        return value != null ? BigDecimal.valueOf(value) : BigDecimal.ZERO;
+    }
+}
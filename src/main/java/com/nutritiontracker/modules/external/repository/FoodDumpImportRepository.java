@@ -0,0 +1,18 @@
+package com.nutritiontracker.modules.external.repository;
+
+import com.nutritiontracker.modules.external.entity.FoodDumpImport;
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface FoodDumpImportRepository extends JpaRepository<FoodDumpImport, Long> {
+
+    /**
+     * Latest unfinished import of a file, whose checkpoint a new submit resumes
+     */
+    Optional<FoodDumpImport> findFirstByFileNameAndStatusNotOrderByIdDesc(String fileName,
+            FoodImportJobStatus status);
+}
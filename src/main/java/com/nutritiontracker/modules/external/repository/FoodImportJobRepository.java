@@ -0,0 +1,20 @@
+package com.nutritiontracker.modules.external.repository;
+
+import com.nutritiontracker.modules.external.entity.FoodImportJob;
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FoodImportJobRepository extends JpaRepository<FoodImportJob, Long> {
+
+    /**
+     * Latest unfinished job for a query, whose checkpoint a new submit resumes
+     */
+    Optional<FoodImportJob> findFirstByQueryAndStatusNotOrderByIdDesc(String query, FoodImportJobStatus status);
+
+    List<FoodImportJob> findTop20ByOrderByIdDesc();
+}
@@ -0,0 +1,386 @@
+package com.nutritiontracker.modules.external.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutritiontracker.common.exception.ResourceNotFoundException;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.external.dto.FoodDumpImportDto;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import com.nutritiontracker.modules.external.entity.FoodDumpImport;
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsDumpParser;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
+import com.nutritiontracker.modules.external.repository.FoodDumpImportRepository;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports a downloaded Open Food Facts dump (JSONL or tab-separated CSV,
+ * optionally gzip compressed) from the configured dump directory.
+ *
+ * The file is streamed: one thread reads chunks of lines, a pool of mappers
+ * parses them into foods in parallel, and the chunks are upserted by barcode
+ * in file order, each in JDBC batches and in one transaction with the
+ * checkpoint. Only a bounded number of chunks is read ahead, so memory stays
+ * flat however large the dump is, and an interrupted import resumes after the
+ * last stored chunk.
+ */
+@Service
+@Slf4j
+public class FoodDumpImportService {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OpenFoodFactsMapper openFoodFactsMapper;
+    private final FoodRepository foodRepository;
+    private final FoodDumpImportRepository jobRepository;
+    private final FoodIndexOutboxRepository foodIndexOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Path dumpDir;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService mappers;
+    private final Counter importedRecords;
+    private final Counter skippedRecords;
+
+    // Imports queued or running on this instance
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    public FoodDumpImportService(
+            OpenFoodFactsMapper openFoodFactsMapper,
+            FoodRepository foodRepository,
+            FoodDumpImportRepository jobRepository,
+            FoodIndexOutboxRepository foodIndexOutbox,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.import.dump.dir:${java.io.tmpdir}/off-dumps}") String dumpDir,
+            @Value("${app.import.dump.chunk-size:2000}") int chunkSize,
+            @Value("${app.import.dump.mappers:0}") int mappers) {
+        this.openFoodFactsMapper = openFoodFactsMapper;
+        this.foodRepository = foodRepository;
+        this.jobRepository = jobRepository;
+        this.foodIndexOutbox = foodIndexOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.dumpDir = Paths.get(dumpDir).toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+
+        int mapperCount = mappers > 0 ? mappers : Runtime.getRuntime().availableProcessors();
+        this.maxPendingChunks = Math.max(2, mapperCount * 2);
+
+        // One dump at a time: it is the database, not the file, that sets the pace
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(5),
+                r -> {
+                    Thread thread = new Thread(r, "food-dump-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        AtomicInteger mapperThreads = new AtomicInteger();
+        this.mappers = Executors.newFixedThreadPool(mapperCount, r -> {
+            Thread thread = new Thread(r, "food-dump-mapper-" + mapperThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.importedRecords = Counter.builder("openfoodfacts.dump.records")
+                .tag("result", "imported")
+                .description("Dump records written to the catalog")
+                .register(meterRegistry);
+        this.skippedRecords = Counter.builder("openfoodfacts.dump.records")
+                .tag("result", "skipped")
+                .description("Dump records that were invalid, unchanged or belong to another source")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start importing a dump file from the dump directory. An unfinished
+     * import of the same, unchanged file resumes from its checkpoint. Throws
+     * RejectedExecutionException when the queue is full.
+     */
+    public synchronized FoodDumpImportDto submit(String fileName) {
+        Path file = resolve(fileName);
+        OpenFoodFactsDumpParser.Format.of(fileName);
+        BasicFileAttributes attributes = attributes(file);
+
+        FoodDumpImport job = jobRepository
+                .findFirstByFileNameAndStatusNotOrderByIdDesc(fileName, FoodImportJobStatus.COMPLETED)
+                .orElse(null);
+        if (job != null && active.contains(job.getId())) {
+            return toDto(job);
+        }
+
+        if (job == null) {
+            job = FoodDumpImport.builder()
+                    .fileName(fileName)
+                    .fileSize(attributes.size())
+                    .fileModifiedAt(attributes.lastModifiedTime().toMillis())
+                    .build();
+        } else if (job.getFileSize() != attributes.size()
+                || job.getFileModifiedAt() != attributes.lastModifiedTime().toMillis()) {
+            log.info("Dump {} changed since import {}; starting over", fileName, job.getId());
+            job.setFileSize(attributes.size());
+            job.setFileModifiedAt(attributes.lastModifiedTime().toMillis());
+            job.setRecordsRead(0);
+            job.setImported(0);
+            job.setSkipped(0);
+        } else {
+            log.info("Resuming import {} of dump {} after {} records", job.getId(), fileName, job.getRecordsRead());
+        }
+        job.setStatus(FoodImportJobStatus.QUEUED);
+        job.setError(null);
+        return toDto(enqueue(jobRepository.save(job)));
+    }
+
+    public FoodDumpImportDto getJob(Long jobId) {
+        return toDto(jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("FoodDumpImport", jobId)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        mappers.shutdownNow();
+    }
+
+    private FoodDumpImport enqueue(FoodDumpImport job) {
+        active.add(job.getId());
+        try {
+            executor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            active.remove(job.getId());
+            job.setStatus(FoodImportJobStatus.FAILED);
+            job.setError("Import queue is full");
+            jobRepository.save(job);
+            throw e;
+        }
+        log.info("Queued import {} of dump {}", job.getId(), job.getFileName());
+        return job;
+    }
+
+    private void run(Long jobId) {
+        FoodDumpImport job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            active.remove(jobId);
+            return;
+        }
+
+        long started = System.nanoTime();
+        long readBefore = job.getRecordsRead();
+        Deque<CompletableFuture<Chunk>> pending = new ArrayDeque<>();
+        try (BufferedReader reader = open(resolve(job.getFileName()))) {
+            job.setStatus(FoodImportJobStatus.RUNNING);
+            job = jobRepository.save(job);
+
+            OpenFoodFactsDumpParser parser = OpenFoodFactsDumpParser.Format.of(job.getFileName())
+                    == OpenFoodFactsDumpParser.Format.CSV
+                            ? OpenFoodFactsDumpParser.csv(objectMapper, reader.readLine())
+                            : OpenFoodFactsDumpParser.jsonl(objectMapper);
+            skip(reader, job.getRecordsRead());
+
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                if (lines.size() < chunkSize) {
+                    continue;
+                }
+                pending.add(map(parser, lines));
+                lines = new ArrayList<>(chunkSize);
+                // Bounded read-ahead: wait for the oldest chunk before reading more
+                if (pending.size() >= maxPendingChunks) {
+                    job = store(job, await(pending.poll()), started, readBefore);
+                }
+            }
+            if (!lines.isEmpty()) {
+                pending.add(map(parser, lines));
+            }
+            while (!pending.isEmpty()) {
+                job = store(job, await(pending.poll()), started, readBefore);
+            }
+
+            job.setStatus(FoodImportJobStatus.COMPLETED);
+            job.setCompletedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+            log.info("Finished import {} of dump {}: {} records, {} imported, {} skipped ({} records per second)",
+                    jobId, job.getFileName(), job.getRecordsRead(), job.getImported(), job.getSkipped(),
+                    job.getRecordsPerSecond());
+        } catch (Exception e) {
+            pending.forEach(chunk -> chunk.cancel(true));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Import {} of dump {} failed after {} records", jobId, job.getFileName(),
+                    job.getRecordsRead(), e);
+            fail(jobId, e);
+        } finally {
+            active.remove(jobId);
+        }
+    }
+
+    private CompletableFuture<Chunk> map(OpenFoodFactsDumpParser parser, List<String> lines) {
+        return CompletableFuture.supplyAsync(() -> {
+            // Last record wins when a barcode repeats within the chunk
+            Map<String, Food> foods = new LinkedHashMap<>();
+            for (String line : lines) {
+                OpenFoodFactsProduct product = parser.parse(line);
+                if (product != null && product.getCode() != null && !product.getCode().isBlank()
+                        && openFoodFactsMapper.isValidProduct(product)) {
+                    foods.put(product.getCode(), openFoodFactsMapper.toFood(product));
+                }
+            }
+            return new Chunk(lines.size(), new ArrayList<>(foods.values()));
+        }, mappers);
+    }
+
+    /**
+     * Upsert one chunk and advance the checkpoint in the same transaction
+     */
+    private FoodDumpImport store(FoodDumpImport job, Chunk chunk, long started, long readBefore)
+            throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException("Dump import interrupted");
+        }
+
+        List<Long> writtenIds = new ArrayList<>();
+        FoodDumpImport saved = transactionTemplate.execute(status -> {
+            int written = foodRepository.batchUpsert(chunk.foods());
+            chunk.foods().stream().map(Food::getId).filter(Objects::nonNull).forEach(writtenIds::add);
+            foodIndexOutbox.enqueue(writtenIds);
+
+            // On rollback this instance is discarded and the failure recorded on a fresh copy
+            job.setRecordsRead(job.getRecordsRead() + chunk.records());
+            job.setImported(job.getImported() + written);
+            job.setSkipped(job.getSkipped() + chunk.records() - written);
+            double seconds = Math.max((System.nanoTime() - started) / 1e9, 0.001);
+            job.setRecordsPerSecond((int) ((job.getRecordsRead() - readBefore) / seconds));
+            return jobRepository.save(job);
+        });
+
+        importedRecords.increment(writtenIds.size());
+        skippedRecords.increment(chunk.records() - writtenIds.size());
+        return saved;
+    }
+
+    private void fail(Long jobId, Exception e) {
+        // Reload, so the failure is recorded against the last committed checkpoint
+        jobRepository.findById(jobId).ifPresent(job -> {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.setStatus(FoodImportJobStatus.FAILED);
+            job.setError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            jobRepository.save(job);
+        });
+    }
+
+    // Dump files are only read from the dump directory
+    private Path resolve(String fileName) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new ValidationException("file must not be blank");
+        }
+        Path file = dumpDir.resolve(fileName).normalize();
+        if (!file.startsWith(dumpDir) || file.equals(dumpDir)) {
+            throw new ValidationException("file must name a file in the dump directory");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Dump file", "name", fileName);
+        }
+        return file;
+    }
+
+    private static BasicFileAttributes attributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new ValidationException("Cannot read dump file " + file.getFileName(), e);
+        }
+    }
+
+    private static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // Records before the checkpoint are read but not parsed
+    private static void skip(BufferedReader reader, long records) throws IOException {
+        long skipped = 0;
+        while (skipped < records && reader.readLine() != null) {
+            skipped++;
+        }
+    }
+
+    private FoodDumpImportDto toDto(FoodDumpImport job) {
+        return FoodDumpImportDto.builder()
+                .jobId(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .recordsRead(job.getRecordsRead())
+                .imported(job.getImported())
+                .skipped(job.getSkipped())
+                .recordsPerSecond(job.getRecordsPerSecond())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record Chunk(int records, List<Food> foods) {
+    }
+}
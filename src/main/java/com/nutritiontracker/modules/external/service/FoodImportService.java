@@ -0,0 +1,377 @@
+package com.nutritiontracker.modules.external.service;
+
+import com.nutritiontracker.common.exception.ResourceNotFoundException;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
+import com.nutritiontracker.modules.external.dto.FoodImportJobDto;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsSearchResponse;
+import com.nutritiontracker.modules.external.entity.FoodImportJob;
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
+import com.nutritiontracker.modules.external.repository.FoodImportJobRepository;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports Open Food Facts search results into the catalog on a dedicated
+ * worker pool.
+ *
+ * Requests are paced by the shared search rate limiter (see ResilienceConfig)
+ * rather than by sleeping: a rejected page is retried once the next permit
+ * is due. The next page is fetched while the current one is written, each
+ * page is checked against the catalog with a single IN query and inserted in
+ * JDBC batches, and the job's checkpoint advances in the same transaction, so
+ * a failed or interrupted job resumes at the first page it did not store.
+ */
+@Service
+@Slf4j
+public class FoodImportService {
+
+    public static final int MAX_PAGES = 100;
+
+    static final List<String> FEATURED_CATEGORIES = List.of("milk", "bread", "yogurt", "cheese", "snack", "drink",
+            "meat", "vegetable");
+    private static final int FEATURED_PAGES = 2;
+
+    private final OpenFoodFactsClient openFoodFactsClient;
+    private final OpenFoodFactsMapper openFoodFactsMapper;
+    private final FoodRepository foodRepository;
+    private final FoodImportJobRepository jobRepository;
+    private final FoodIndexOutboxRepository foodIndexOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final Duration staleAfter;
+    private final int rateLimitRetries;
+    private final long permitIntervalMillis;
+    private final ThreadPoolExecutor executor;
+
+    // Jobs queued or running on this instance
+    private final Set<Long> active = ConcurrentHashMap.newKeySet();
+
+    public FoodImportService(
+            OpenFoodFactsClient openFoodFactsClient,
+            OpenFoodFactsMapper openFoodFactsMapper,
+            FoodRepository foodRepository,
+            FoodImportJobRepository jobRepository,
+            FoodIndexOutboxRepository foodIndexOutbox,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("openFoodFactsSearchRateLimiter") RateLimiter searchRateLimiter,
+            @Value("${app.import.page-size:50}") int pageSize,
+            @Value("${app.import.workers:2}") int workers,
+            @Value("${app.import.queue-capacity:20}") int queueCapacity,
+            @Value("${app.import.stale-after:PT10M}") Duration staleAfter,
+            @Value("${app.import.rate-limit-retries:30}") int rateLimitRetries) {
+        this.openFoodFactsClient = openFoodFactsClient;
+        this.openFoodFactsMapper = openFoodFactsMapper;
+        this.foodRepository = foodRepository;
+        this.jobRepository = jobRepository;
+        this.foodIndexOutbox = foodIndexOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.pageSize = pageSize;
+        this.staleAfter = staleAfter;
+        this.rateLimitRetries = rateLimitRetries;
+
+        RateLimiterConfig limits = searchRateLimiter.getRateLimiterConfig();
+        this.permitIntervalMillis = Math.max(100,
+                limits.getLimitRefreshPeriod().toMillis() / Math.max(1, limits.getLimitForPeriod()));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "food-import-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Start importing up to maxPages of search results for the query. An
+     * unfinished job for the same query is resumed from its checkpoint, and
+     * one that is still running is returned as is. Throws
+     * RejectedExecutionException when the queue is full.
+     */
+    public synchronized FoodImportJobDto submit(String query, int maxPages) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("query must not be blank");
+        }
+        if (maxPages < 1 || maxPages > MAX_PAGES) {
+            throw new ValidationException("maxPages must be between 1 and " + MAX_PAGES);
+        }
+
+        String normalized = query.trim();
+        FoodImportJob job = jobRepository
+                .findFirstByQueryAndStatusNotOrderByIdDesc(normalized, FoodImportJobStatus.COMPLETED)
+                .orElse(null);
+        if (job != null && isLive(job)) {
+            return toDto(job);
+        }
+
+        if (job == null) {
+            job = FoodImportJob.builder().query(normalized).maxPages(maxPages).build();
+        } else {
+            log.info("Resuming import job {} for query: {} at page {}", job.getId(), normalized, job.getNextPage());
+            job.setMaxPages(Math.max(job.getMaxPages(), maxPages));
+            job.setStatus(FoodImportJobStatus.QUEUED);
+            job.setError(null);
+        }
+        return toDto(enqueue(jobRepository.save(job)));
+    }
+
+    /**
+     * Queue an import of the first pages of each featured category. The jobs
+     * share the rate limiter, so they run as fast as it allows.
+     */
+    public List<FoodImportJobDto> submitFeaturedCategories() {
+        log.info("Starting featured categories import for: {}", FEATURED_CATEGORIES);
+        return FEATURED_CATEGORIES.stream()
+                .map(category -> submit(category, FEATURED_PAGES))
+                .toList();
+    }
+
+    /**
+     * Continue a failed or interrupted job from its checkpoint
+     */
+    public FoodImportJobDto resume(Long jobId) {
+        FoodImportJob job = findJob(jobId);
+        if (job.getStatus() == FoodImportJobStatus.COMPLETED) {
+            return toDto(job);
+        }
+        return submit(job.getQuery(), job.getMaxPages());
+    }
+
+    public FoodImportJobDto getJob(Long jobId) {
+        return toDto(findJob(jobId));
+    }
+
+    public List<FoodImportJobDto> getRecentJobs() {
+        return jobRepository.findTop20ByOrderByIdDesc().stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private FoodImportJob enqueue(FoodImportJob job) {
+        active.add(job.getId());
+        try {
+            executor.execute(() -> run(job.getId()));
+        } catch (RejectedExecutionException e) {
+            active.remove(job.getId());
+            job.setStatus(FoodImportJobStatus.FAILED);
+            job.setError("Import queue is full");
+            jobRepository.save(job);
+            throw e;
+        }
+        log.info("Queued import job {} for query: {} ({} pages)", job.getId(), job.getQuery(), job.getMaxPages());
+        return job;
+    }
+
+    // Queued or running here, or running elsewhere with a recent checkpoint
+    private boolean isLive(FoodImportJob job) {
+        if (active.contains(job.getId())) {
+            return true;
+        }
+        return job.getStatus() == FoodImportJobStatus.RUNNING
+                && job.getUpdatedAt() != null
+                && job.getUpdatedAt().isAfter(LocalDateTime.now().minus(staleAfter));
+    }
+
+    private void run(Long jobId) {
+        FoodImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            active.remove(jobId);
+            return;
+        }
+
+        long started = System.nanoTime();
+        int importedBefore = job.getImported();
+        CompletableFuture<OpenFoodFactsSearchResponse> next = null;
+        try {
+            job.setStatus(FoodImportJobStatus.RUNNING);
+            job = jobRepository.save(job);
+
+            next = fetch(job.getQuery(), job.getNextPage());
+            while (next != null) {
+                int page = job.getNextPage();
+                List<OpenFoodFactsProduct> products = products(await(next));
+                boolean last = products.size() < pageSize || page >= job.getMaxPages();
+
+                // Prefetch while this page is written; the rate limiter decides when it is sent
+                next = last ? null : fetch(job.getQuery(), page + 1);
+                job = importPage(job, products, last);
+            }
+
+            double seconds = Math.max((System.nanoTime() - started) / 1e9, 0.001);
+            int imported = job.getImported() - importedBefore;
+            log.info("Finished import job {} for query: {}. Imported {} products ({} per second), skipped {}",
+                    jobId, job.getQuery(), imported, String.format("%.1f", imported / seconds), job.getSkipped());
+        } catch (Exception e) {
+            if (next != null) {
+                next.cancel(true);
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Import job {} failed at page {}", jobId, job.getNextPage(), e);
+            fail(jobId, e);
+        } finally {
+            active.remove(jobId);
+        }
+    }
+
+    /**
+     * Store one page: existing barcodes are found with one query, the new
+     * foods are batch inserted and the checkpoint advances in the same
+     * transaction
+     */
+    private FoodImportJob importPage(FoodImportJob job, List<OpenFoodFactsProduct> products, boolean last) {
+        List<Long> insertedIds = new ArrayList<>();
+        FoodImportJob saved = transactionTemplate.execute(status -> {
+            Map<String, OpenFoodFactsProduct> candidates = new LinkedHashMap<>();
+            for (OpenFoodFactsProduct product : products) {
+                if (product.getCode() != null && !product.getCode().isBlank()
+                        && openFoodFactsMapper.isValidProduct(product)) {
+                    candidates.putIfAbsent(product.getCode(), product);
+                }
+            }
+
+            Set<String> existing = candidates.isEmpty()
+                    ? Collections.emptySet()
+                    : foodRepository.findExistingBarcodes(candidates.keySet());
+            List<Food> foods = candidates.values().stream()
+                    .filter(product -> !existing.contains(product.getCode()))
+                    .map(openFoodFactsMapper::toFood)
+                    .toList();
+            foodRepository.batchInsert(foods);
+            foods.forEach(food -> insertedIds.add(food.getId()));
+            foodIndexOutbox.enqueue(insertedIds);
+
+            // On rollback this instance is discarded and the failure recorded on a fresh copy
+            job.setImported(job.getImported() + foods.size());
+            job.setSkipped(job.getSkipped() + products.size() - foods.size());
+            job.setNextPage(job.getNextPage() + 1);
+            if (last) {
+                job.setStatus(FoodImportJobStatus.COMPLETED);
+                job.setCompletedAt(LocalDateTime.now());
+            }
+            return jobRepository.save(job);
+        });
+
+        log.debug("Import job {} page {}: {} imported, {} skipped", saved.getId(), saved.getNextPage() - 1,
+                insertedIds.size(), products.size() - insertedIds.size());
+        return saved;
+    }
+
+    private CompletableFuture<OpenFoodFactsSearchResponse> fetch(String query, int page) {
+        return fetch(query, page, 0);
+    }
+
+    // A page rejected by the rate limiter is asked for again when the next permit is due
+    private CompletableFuture<OpenFoodFactsSearchResponse> fetch(String query, int page, int attempt) {
+        return openFoodFactsClient.searchProductsAsync(query, page, pageSize)
+                .exceptionallyCompose(e -> {
+                    if (!isRateLimited(e) || attempt >= rateLimitRetries) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                    Executor later = CompletableFuture.delayedExecutor(permitIntervalMillis, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> page, later)
+                            .thenCompose(p -> fetch(query, p, attempt + 1));
+                });
+    }
+
+    private void fail(Long jobId, Exception e) {
+        // Reload, so the failure is recorded against the last committed checkpoint
+        jobRepository.findById(jobId).ifPresent(job -> {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.setStatus(FoodImportJobStatus.FAILED);
+            job.setError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            jobRepository.save(job);
+        });
+    }
+
+    private FoodImportJob findJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("FoodImportJob", jobId));
+    }
+
+    private FoodImportJobDto toDto(FoodImportJob job) {
+        int pagesImported = job.getNextPage() - 1;
+        int progress = job.getStatus() == FoodImportJobStatus.COMPLETED
+                ? 100
+                : Math.min(99, pagesImported * 100 / Math.max(1, job.getMaxPages()));
+        return FoodImportJobDto.builder()
+                .jobId(job.getId())
+                .query(job.getQuery())
+                .status(job.getStatus())
+                .maxPages(job.getMaxPages())
+                .pagesImported(pagesImported)
+                .progress(progress)
+                .imported(job.getImported())
+                .skipped(job.getSkipped())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private static List<OpenFoodFactsProduct> products(OpenFoodFactsSearchResponse response) {
+        return response != null && response.getProducts() != null
+                ? response.getProducts()
+                : Collections.emptyList();
+    }
+
+    private static boolean isRateLimited(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestNotPermitted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.nutritiontracker.modules.external.service;
+
+import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps imported Open Food Facts foods up to date.
+ *
+ * Every run walks the foods not synced for stale-after, oldest first, in
+ * keyset batches on (last_synced_at, id), and fetches them from Open Food
+ * Facts a few at a time. Refreshes are paced by their own rate limiter
+ * (openFoodFactsRefreshRateLimiter, see OpenFoodFactsClient.refreshProductAsync)
+ * and take no product permits, so they never hold up barcode scans. A
+ * product whose content hash is unchanged is not rewritten and not
+ * reindexed; only its last_synced_at moves.
+ *
+ * Runs are not coordinated between instances, so enable this on one only.
+ */
+@Service
+@Slf4j
+public class FoodRefreshService {
+
+    // Keyset start: before any real last_synced_at
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OpenFoodFactsClient openFoodFactsClient;
+    private final OpenFoodFactsMapper openFoodFactsMapper;
+    private final FoodRepository foodRepository;
+    private final FoodIndexOutboxRepository foodIndexOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration staleAfter;
+    private final int batchSize;
+    private final int concurrency;
+    private final int maxPerRun;
+    private final ThreadPoolExecutor executor;
+    private final Counter updatedFoods;
+    private final Counter unchangedFoods;
+    private final Counter missingFoods;
+    private final Counter failedFoods;
+
+    public FoodRefreshService(
+            OpenFoodFactsClient openFoodFactsClient,
+            OpenFoodFactsMapper openFoodFactsMapper,
+            FoodRepository foodRepository,
+            FoodIndexOutboxRepository foodIndexOutbox,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.import.refresh.enabled:false}") boolean enabled,
+            @Value("${app.import.refresh.stale-after:P7D}") Duration staleAfter,
+            @Value("${app.import.refresh.batch-size:100}") int batchSize,
+            @Value("${app.import.refresh.concurrency:4}") int concurrency,
+            @Value("${app.import.refresh.max-per-run:1000}") int maxPerRun) {
+        this.openFoodFactsClient = openFoodFactsClient;
+        this.openFoodFactsMapper = openFoodFactsMapper;
+        this.foodRepository = foodRepository;
+        this.foodIndexOutbox = foodIndexOutbox;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.maxPerRun = maxPerRun;
+
+        // One run at a time, off the shared scheduler thread since it waits for fetches
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "food-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.updatedFoods = counter(meterRegistry, "updated", "Foods rewritten with changed upstream content");
+        this.unchangedFoods = counter(meterRegistry, "unchanged", "Foods whose upstream content did not change");
+        this.missingFoods = counter(meterRegistry, "missing", "Foods no longer usable upstream, kept as they are");
+        this.failedFoods = counter(meterRegistry, "failed", "Foods that could not be fetched, retried next run");
+    }
+
+    @Scheduled(fixedDelayString = "${app.import.refresh.interval:3600000}",
+            initialDelayString = "${app.import.refresh.initial-delay:300000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * Start a refresh run in the background; false when one is already running
+     */
+    public boolean start() {
+        try {
+            executor.execute(this::refreshStale);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Food refresh already running");
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Refresh up to max-per-run stale foods. Returns how many were checked.
+     */
+    int refreshStale() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        LocalDateTime afterSyncedAt = EPOCH;
+        long afterId = 0;
+        int checked = 0;
+        long started = System.nanoTime();
+
+        while (checked < maxPerRun) {
+            List<Food> stale = foodRepository.findStale(OpenFoodFactsMapper.SOURCE, cutoff, afterSyncedAt, afterId,
+                    PageRequest.of(0, Math.min(batchSize, maxPerRun - checked)));
+            if (stale.isEmpty()) {
+                break;
+            }
+            // Foods that fail keep their last_synced_at, so the cursor moves past them
+            Food last = stale.get(stale.size() - 1);
+            afterSyncedAt = last.getLastSyncedAt();
+            afterId = last.getId();
+
+            int fetched = refreshBatch(stale);
+            checked += fetched;
+            if (fetched < stale.size()) {
+                break;
+            }
+        }
+
+        if (checked > 0) {
+            log.info("Refreshed {} Open Food Facts foods in {} ms", checked,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return checked;
+    }
+
+    /**
+     * Fetch and store one batch. Returns how many foods were fetched: none
+     * when every fetch failed, fewer than the batch when interrupted.
+     */
+    private int refreshBatch(List<Food> stale) {
+        Semaphore inFlight = new Semaphore(concurrency);
+        Map<Food, CompletableFuture<OpenFoodFactsProduct>> fetches = new LinkedHashMap<>();
+        for (Food food : stale) {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            String barcode = food.getExternalId() != null ? food.getExternalId() : food.getBarcode();
+            CompletableFuture<OpenFoodFactsProduct> fetch = openFoodFactsClient.refreshProductAsync(barcode);
+            fetch.whenComplete((product, error) -> inFlight.release());
+            fetches.put(food, fetch);
+        }
+
+        List<Food> refreshed = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        int failed = 0;
+        for (Map.Entry<Food, CompletableFuture<OpenFoodFactsProduct>> fetch : fetches.entrySet()) {
+            Food food = fetch.getKey();
+            OpenFoodFactsProduct product;
+            try {
+                product = fetch.getValue().join();
+            } catch (CompletionException e) {
+                log.debug("Refresh of food {} failed: {}", food.getId(), e.getCause().getMessage());
+                failed++;
+                continue;
+            }
+            if (product == null || !openFoodFactsMapper.isValidProduct(product)) {
+                missing.add(food.getId());
+            } else {
+                Food update = openFoodFactsMapper.toFood(product);
+                update.setBarcode(food.getBarcode());
+                refreshed.add(update);
+            }
+        }
+
+        LocalDateTime syncedAt = LocalDateTime.now();
+        int written = transactionTemplate.execute(status -> {
+            int count = foodRepository.batchUpsert(refreshed);
+            // Only rewritten foods have ids set, so unchanged ones cost the search index nothing
+            foodIndexOutbox.enqueue(refreshed.stream()
+                    .map(Food::getId)
+                    .filter(Objects::nonNull)
+                    .toList());
+            if (!missing.isEmpty()) {
+                foodRepository.markSynced(missing, syncedAt);
+            }
+            return count;
+        });
+
+        updatedFoods.increment(written);
+        unchangedFoods.increment(refreshed.size() - written);
+        missingFoods.increment(missing.size());
+        failedFoods.increment(failed);
+
+        if (failed > 0 && failed == fetches.size()) {
+            log.warn("Food refresh stopped: all {} fetches in the batch failed", failed);
+            return 0;
+        }
+        return fetches.size();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("openfoodfacts.refresh.foods")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -1,27 +1,29 @@
 package com.nutritiontracker.modules.external.service;
 
+import com.nutritiontracker.common.exception.ExternalApiException;
 import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
 import com.nutritiontracker.modules.external.dto.ExternalFoodDTO;
 import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
 import com.nutritiontracker.modules.external.dto.OpenFoodFactsSearchResponse;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.entity.NutritionalInfo;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import org.springframework.scheduling.annotation.Async;
-import java.util.Arrays;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -29,6 +31,7 @@ public class OpenFoodFactsService {
 
     private final OpenFoodFactsClient openFoodFactsClient;
     private final FoodRepository foodRepository;
+    private final OpenFoodFactsMapper openFoodFactsMapper;
 
     public List<ExternalFoodDTO> searchProducts(String query, int page, int size) {
         log.info("Searching external products for: {}", query);
@@ -45,9 +48,12 @@ public class OpenFoodFactsService {
             }
 
             return response.getProducts().stream()
-                    .filter(this::isValidProduct)
-                    .map(this::mapToDTO)
+                    .filter(openFoodFactsMapper::isValidProduct)
+                    .map(openFoodFactsMapper::toDto)
                     .collect(Collectors.toList());
+        } catch (ExternalApiException e) {
+            log.warn("OpenFoodFacts unavailable, searching local foods instead: {}", e.getMessage());
+            return searchLocal(query, page, size);
         } catch (Exception e) {
             log.error("Error searching OpenFoodFacts", e);
             return Collections.emptyList();
@@ -58,9 +64,12 @@ public class OpenFoodFactsService {
         log.info("Fetching external product by barcode: {}", barcode);
         try {
             OpenFoodFactsProduct product = openFoodFactsClient.getProductByBarcode(barcode);
-            if (product != null && isValidProduct(product)) {
-                return Optional.of(mapToDTO(product));
+            if (product != null && openFoodFactsMapper.isValidProduct(product)) {
+                return Optional.of(openFoodFactsMapper.toDto(product));
             }
+        } catch (ExternalApiException e) {
+            log.warn("OpenFoodFacts unavailable, using local food for barcode {}: {}", barcode, e.getMessage());
+            return foodRepository.findByBarcodeWithNutritionalInfo(barcode).map(this::mapLocalToDTO);
         } catch (Exception e) {
             log.error("Error fetching product from OpenFoodFacts", e);
         }
@@ -80,7 +89,7 @@ public class OpenFoodFactsService {
 
         try {
             OpenFoodFactsProduct externalProduct = openFoodFactsClient.getProductByBarcode(barcode);
-            if (externalProduct == null || !isValidProduct(externalProduct)) {
+            if (externalProduct == null || !openFoodFactsMapper.isValidProduct(externalProduct)) {
                 throw new IllegalArgumentException("Product not found or invalid data in OpenFoodFacts");
             }
 
@@ -94,131 +103,47 @@ public class OpenFoodFactsService {
     @Transactional
     public Food saveExternalProduct(OpenFoodFactsProduct externalProduct) {
         log.debug("Saving external product: {}", externalProduct.getCode());
-        Food food = transformToFood(externalProduct);
+        Food food = openFoodFactsMapper.toFood(externalProduct);
         return foodRepository.save(food);
     }
 
-    @Async
-    public void importBatch(String query, int maxPages) {
-        log.info("Starting batch import for query: {}, maxPages: {}", query, maxPages);
-        int totalImported = 0;
-
-        for (int page = 1; page <= maxPages; page++) {
-            log.info("Processing page {} for query: {}", page, query);
-            try {
-                OpenFoodFactsSearchResponse response = openFoodFactsClient.searchProducts(query, page, 20);
-                if (response == null || response.getProducts() == null || response.getProducts().isEmpty()) {
-                    log.info("No more products found for query: {} at page {}", query, page);
-                    break;
-                }
-
-                for (OpenFoodFactsProduct product : response.getProducts()) {
-                    if (isValidProduct(product) && !foodRepository.existsByBarcode(product.getCode())) {
-                        try {
-                            saveExternalProduct(product);
-                            totalImported++;
-                            log.debug("Successfully imported: {}", product.getProductName());
-
-                            // Rate limiting: sleep for 1.5 seconds between products
-                            Thread.sleep(1500);
-                        } catch (Exception e) {
-                            log.error("Failed to import individual product: {}", product.getCode(), e);
-                        }
-                    }
-                }
-
-                // Extra sleep between pages to be safe
-                Thread.sleep(2000);
-
-            } catch (Exception e) {
-                log.error("Error during batch import on page: {}", page, e);
-                break; // Stop if there's a serious error
-            }
-        }
-        log.info("Finished batch import for query: {}. Total imported: {}", query, totalImported);
-    }
-
-    @Async
-    public void importFeaturedCategories() {
-        List<String> categories = Arrays.asList("milk", "bread", "yogurt", "cheese", "snack", "drink", "meat",
-                "vegetable");
-        log.info("Starting featured categories import for: {}", categories);
-
-        for (String category : categories) {
-            importBatch(category, 2); // 2 pages per category is a good start
-            try {
-                // Sleep between categories
-                Thread.sleep(5000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Featured import interrupted", e);
-                break;
-            }
+    // Fallback while OpenFoodFacts is unavailable; page is 1-based like the upstream API
+    private List<ExternalFoodDTO> searchLocal(String query, int page, int size) {
+        List<Long> ids = foodRepository.searchByNameOrBrand(query, PageRequest.of(Math.max(page - 1, 0), size))
+                .map(Food::getId)
+                .getContent();
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
         }
+        Map<Long, Food> foods = foodRepository.findAllByIdWithNutritionalInfo(ids).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+        return ids.stream()
+                .map(foods::get)
+                .filter(Objects::nonNull)
+                .map(this::mapLocalToDTO)
+                .collect(Collectors.toList());
     }
 
-    private boolean isValidProduct(OpenFoodFactsProduct product) {
-        return product.getProductName() != null && !product.getProductName().isEmpty() &&
-                product.getNutriments() != null &&
-                product.getNutriments().getEnergyKcal100g() != null;
-    }
-
-    private ExternalFoodDTO mapToDTO(OpenFoodFactsProduct product) {
+    private ExternalFoodDTO mapLocalToDTO(Food food) {
+        NutritionalInfo info = food.getNutritionalInfo();
         return ExternalFoodDTO.builder()
-                .barcode(product.getCode())
-                .name(product.getProductName())
-                .brand(product.getBrands())
-                .imageUrl(product.getImageUrl())
-                .servingSize(100.0)
-                .servingUnit("g")
-                .calories(product.getNutriments().getEnergyKcal100g())
-                .protein(product.getNutriments().getProteins100g())
-                .carbs(product.getNutriments().getCarbohydrates100g())
-                .fats(product.getNutriments().getFat100g())
-                .fiber(product.getNutriments().getFiber100g())
-                .sugar(product.getNutriments().getSugars100g())
-                .sodium(product.getNutriments().getSodium100g())
-                .source("OPENFOODFACTS")
+                .barcode(food.getBarcode())
+                .name(food.getName())
+                .brand(food.getBrand())
+                .servingSize(food.getServingSize() != null ? food.getServingSize().doubleValue() : 100.0)
+                .servingUnit(food.getServingUnit())
+                .calories(info != null ? toDouble(info.getCalories()) : null)
+                .protein(info != null ? toDouble(info.getProtein()) : null)
+                .carbs(info != null ? toDouble(info.getCarbohydrates()) : null)
+                .fats(info != null ? toDouble(info.getFats()) : null)
+                .fiber(info != null ? toDouble(info.getFiber()) : null)
+                .sugar(info != null ? toDouble(info.getSugars()) : null)
+                .sodium(info != null ? toDouble(info.getSodium()) : null)
+                .source("LOCAL")
                 .build();
     }
 
-    private Food transformToFood(OpenFoodFactsProduct product) {
-        NutritionalInfo nutritionalInfo = NutritionalInfo.builder()
-                .calories(BigDecimal.valueOf(
-                        product.getNutriments().getEnergyKcal100g() != null
-                                ? product.getNutriments().getEnergyKcal100g()
-                                : 0))
-                .protein(BigDecimal.valueOf(
-                        product.getNutriments().getProteins100g() != null ? product.getNutriments().getProteins100g()
-                                : 0))
-                .carbohydrates(BigDecimal.valueOf(product.getNutriments().getCarbohydrates100g() != null
-                        ? product.getNutriments().getCarbohydrates100g()
-                        : 0))
-                .fats(BigDecimal.valueOf(
-                        product.getNutriments().getFat100g() != null ? product.getNutriments().getFat100g() : 0))
-                .fiber(product.getNutriments().getFiber100g() != null
-                        ? BigDecimal.valueOf(product.getNutriments().getFiber100g())
-                        : BigDecimal.ZERO)
-                .sugars(product.getNutriments().getSugars100g() != null
-                        ? BigDecimal.valueOf(product.getNutriments().getSugars100g())
-                        : BigDecimal.ZERO)
-                .sodium(product.getNutriments().getSodium100g() != null
-                        ? BigDecimal.valueOf(product.getNutriments().getSodium100g())
-                        : BigDecimal.ZERO)
-                .build();
-
-        Food food = Food.builder()
-                .name(product.getProductName())
-                .brand(product.getBrands())
-                .barcode(product.getCode())
-                .servingSize(BigDecimal.valueOf(100))
-                .servingUnit("g")
-                .source("OPENFOODFACTS")
-                .externalId(product.getCode())
-                .lastSyncedAt(LocalDateTime.now())
-                .build();
-
-        food.setNutritionalInfo(nutritionalInfo);
-        return food;
+    private static Double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : null;
     }
 }
@@ -1,11 +1,14 @@
 package com.nutritiontracker.modules.food.controller;
 
 import com.nutritiontracker.common.dto.ApiResponse;
+import com.nutritiontracker.common.dto.CursorPage;
 import com.nutritiontracker.modules.food.dto.BarcodeSearchResponseDto;
 import com.nutritiontracker.modules.food.dto.FoodRequestDto;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
+import com.nutritiontracker.modules.food.dto.FoodSuggestionDto;
 import com.nutritiontracker.modules.food.service.BarcodeService;
 import com.nutritiontracker.modules.food.service.FoodService;
+import com.nutritiontracker.modules.food.service.FoodSuggestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -23,6 +26,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1/foods")
 @RequiredArgsConstructor
@@ -33,6 +38,7 @@ public class FoodController {
         private final FoodService foodService;
         private final com.nutritiontracker.modules.food.service.FoodStatsService foodStatsService;
         private final BarcodeService barcodeService;
+        private final FoodSuggestService foodSuggestService;
 
         // ... existing constructor implicitly handled by @RequiredArgsConstructor ...
 
@@ -179,19 +185,81 @@ public class FoodController {
                 return ResponseEntity.ok(ApiResponse.success(foods));
         }
 
+        @GetMapping("/scroll")
+        @Operation(summary = "Scroll all foods", description = "Cursor-paginated listing for infinite scroll. Pass nextCursor back as cursor; the total is only counted when includeTotal is set")
+        public ResponseEntity<ApiResponse<CursorPage<FoodResponseDto>>> scrollFoods(
+                        @Parameter(description = "Cursor from the previous page") @RequestParam(name = "cursor", required = false) String cursor,
+                        @Parameter(description = "Page size (up to 100)") @RequestParam(name = "size", defaultValue = "20") int size,
+                        @Parameter(description = "Sort by field (name, createdAt or id)") @RequestParam(name = "sortBy", defaultValue = "name") String sortBy,
+                        @Parameter(description = "Sort direction (asc/desc)") @RequestParam(name = "direction", defaultValue = "asc") String direction,
+                        @Parameter(description = "Also count the total matches") @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+
+                Sort.Direction sortDirection = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC
+                                : Sort.Direction.ASC;
+                CursorPage<FoodResponseDto> foods = foodService.scrollFoods(
+                                null, null,
+                                null, null,
+                                null, null,
+                                null, null,
+                                null, null,
+                                sortBy, sortDirection, cursor, size, includeTotal);
+
+                return ResponseEntity.ok(ApiResponse.success(foods));
+        }
+
+        @GetMapping("/search/scroll")
+        @Operation(summary = "Scroll search results", description = "Cursor-paginated search with the same filters as /search. Text queries are ranked by relevance, filter-only searches by name")
+        public ResponseEntity<ApiResponse<CursorPage<FoodResponseDto>>> scrollSearchFoods(
+                        @Parameter(description = "Search query") @RequestParam(name = "query", required = false) String query,
+                        @Parameter(description = "Filter by category") @RequestParam(name = "category", required = false) com.nutritiontracker.modules.food.enums.FoodCategory category,
+                        @Parameter(description = "Min calories") @RequestParam(name = "minCalories", required = false) java.math.BigDecimal minCalories,
+                        @Parameter(description = "Max calories") @RequestParam(name = "maxCalories", required = false) java.math.BigDecimal maxCalories,
+                        @Parameter(description = "Min protein") @RequestParam(name = "minProtein", required = false) java.math.BigDecimal minProtein,
+                        @Parameter(description = "Max protein") @RequestParam(name = "maxProtein", required = false) java.math.BigDecimal maxProtein,
+                        @Parameter(description = "Min carbs") @RequestParam(name = "minCarbs", required = false) java.math.BigDecimal minCarbs,
+                        @Parameter(description = "Max carbs") @RequestParam(name = "maxCarbs", required = false) java.math.BigDecimal maxCarbs,
+                        @Parameter(description = "Min fats") @RequestParam(name = "minFats", required = false) java.math.BigDecimal minFats,
+                        @Parameter(description = "Max fats") @RequestParam(name = "maxFats", required = false) java.math.BigDecimal maxFats,
+                        @Parameter(description = "Cursor from the previous page") @RequestParam(name = "cursor", required = false) String cursor,
+                        @Parameter(description = "Page size (up to 100)") @RequestParam(name = "size", defaultValue = "20") int size,
+                        @Parameter(description = "Also count the total matches") @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+
+                CursorPage<FoodResponseDto> foods = foodService.scrollFoods(
+                                query, category,
+                                minCalories, maxCalories,
+                                minProtein, maxProtein,
+                                minCarbs, maxCarbs,
+                                minFats, maxFats,
+                                "name", Sort.Direction.ASC, cursor, size, includeTotal);
+
+                return ResponseEntity.ok(ApiResponse.success(foods));
+        }
+
+        @GetMapping("/suggest")
+        @Operation(summary = "Suggest foods", description = "Typeahead completions for a name or brand prefix, ranked by popularity and the user's own foods")
+        public ResponseEntity<ApiResponse<java.util.List<FoodSuggestionDto>>> suggestFoods(
+                        @Parameter(description = "Prefix typed so far") @RequestParam(name = "prefix") String prefix,
+                        @Parameter(description = "Maximum suggestions (up to 20)") @RequestParam(name = "limit", defaultValue = "8") int limit,
+                        @org.springframework.security.core.annotation.AuthenticationPrincipal com.nutritiontracker.modules.auth.entity.User user) {
+
+                java.util.List<FoodSuggestionDto> suggestions = foodSuggestService.suggest(prefix, limit,
+                                user != null ? user.getId() : null);
+                return ResponseEntity.ok(ApiResponse.success(suggestions));
+        }
+
         @GetMapping("/barcode/{barcode}")
         @Operation(summary = "Search food by barcode", description = "Search for a food item by barcode. Checks local database first, then Open Food Facts API")
         @ApiResponses(value = {
                         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Search completed"),
                         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Food not found")
         })
-        public ResponseEntity<ApiResponse<BarcodeSearchResponseDto>> searchByBarcode(
+        public CompletableFuture<ResponseEntity<ApiResponse<BarcodeSearchResponseDto>>> searchByBarcode(
                         @Parameter(description = "Barcode to search for") @PathVariable("barcode") String barcode) {
 
                 log.info("REST request to search food by barcode: {}", barcode);
-                BarcodeSearchResponseDto result = barcodeService.searchByBarcode(barcode);
-
-                return ResponseEntity.ok(ApiResponse.success(result));
+                // Completes asynchronously, so the request thread is not held during the upstream call
+                return barcodeService.searchByBarcodeAsync(barcode)
+                                .thenApply(result -> ResponseEntity.ok(ApiResponse.success(result)));
         }
 
         @PutMapping("/{id}")
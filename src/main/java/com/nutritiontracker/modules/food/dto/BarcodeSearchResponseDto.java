@@ -12,7 +12,7 @@ import java.math.BigDecimal;
 public class BarcodeSearchResponseDto {
 
     private boolean foundInDatabase;
-    private String source; // "local" or "openfoodfacts"
+    private String source; // "local", "openfoodfacts", "none" or "unavailable"
     private FoodResponseDto food;
     private String message;
 
@@ -24,6 +24,18 @@ public class BarcodeSearchResponseDto {
                 .build();
     }
 
+    /**
+     * Not in the local database, and Open Food Facts could not be asked; the
+     * product may still exist there, so clients can offer a retry
+     */
+    public static BarcodeSearchResponseDto unavailable(String barcode) {
+        return BarcodeSearchResponseDto.builder()
+                .foundInDatabase(false)
+                .source("unavailable")
+                .message("Open Food Facts is unavailable; barcode " + barcode + " could not be looked up")
+                .build();
+    }
+
     public static BarcodeSearchResponseDto fromLocal(FoodResponseDto food) {
         return BarcodeSearchResponseDto.builder()
                 .foundInDatabase(true)
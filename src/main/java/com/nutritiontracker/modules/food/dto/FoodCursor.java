@@ -0,0 +1,59 @@
+package com.nutritiontracker.modules.food.dto;
+
+import com.nutritiontracker.common.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a food listing: the sort key and ID of the last food returned.
+ * Relevance-ranked text searches have no stable sort key, so their cursor
+ * holds the number of results already returned instead.
+ *
+ * Clients only ever see the opaque {@link #encode()} form.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodCursor {
+
+    public static final String RELEVANCE = "relevance";
+
+    private String sortBy;
+    private Sort.Direction direction;
+    private String lastValue;
+    private Long lastId;
+
+    public String encode() {
+        String raw = String.join("\n",
+                sortBy,
+                direction.name(),
+                lastId != null ? String.valueOf(lastId) : "",
+                lastValue != null ? lastValue : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FoodCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\n", 4);
+            if (parts.length != 4) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return FoodCursor.builder()
+                    .sortBy(parts[0])
+                    .direction(Sort.Direction.valueOf(parts[1]))
+                    .lastId(parts[2].isEmpty() ? null : Long.valueOf(parts[2]))
+                    .lastValue(parts[3])
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor", e);
+        }
+    }
+}
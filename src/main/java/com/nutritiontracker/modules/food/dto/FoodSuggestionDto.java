@@ -0,0 +1,24 @@
+package com.nutritiontracker.modules.food.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight typeahead result, served from the in-memory index
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodSuggestionDto {
+
+    private Long id;
+    private String name;
+    private String brand;
+    private String category;
+    private BigDecimal calories;
+}
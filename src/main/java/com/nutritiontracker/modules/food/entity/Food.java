@@ -2,6 +2,7 @@ package com.nutritiontracker.modules.food.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -47,6 +48,10 @@ public class Food {
     @Column(name = "last_synced_at")
     private LocalDateTime lastSyncedAt;
 
+    // SHA-256 of the content last written by an import, see FoodBatchRepository
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "category", length = 50)
     @Enumerated(EnumType.STRING)
     private com.nutritiontracker.modules.food.enums.FoodCategory category;
@@ -62,7 +67,9 @@ public class Food {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Loaded for up to a page of foods at once when a list is mapped
     @OneToMany(mappedBy = "food", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     @Builder.Default
     private java.util.List<ServingUnit> servingUnits = new java.util.ArrayList<>();
 
@@ -1,56 +1,50 @@
 package com.nutritiontracker.modules.food.listener;
 
-import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
 import com.nutritiontracker.modules.food.entity.Food;
-import com.nutritiontracker.modules.food.repository.ElasticFoodRepository;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.service.FoodIndexOutboxRelay;
 import jakarta.persistence.PostPersist;
 import jakarta.persistence.PostRemove;
 import jakarta.persistence.PostUpdate;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+/**
+ * Queues every saved or deleted food for the search index. The outbox entry
+ * is written in the food's own transaction, so it commits or rolls back with
+ * the change; FoodIndexOutboxRelay does the indexing after commit, off the
+ * request thread.
+ */
 @Component
 public class FoodSyncListener {
 
-    private static ElasticFoodRepository elasticFoodRepository;
+    /**
+     * Region other instances listen on to refresh their in-memory search
+     * index; keys are comma-separated food ids
+     */
+    public static final String FOOD_REGION = "food";
+
+    // Resolved on use: Hibernate creates this listener while the repositories are still being built
+    private final ObjectProvider<FoodIndexOutboxRepository> outboxRepository;
+    private final ObjectProvider<FoodIndexOutboxRelay> outboxRelay;
 
-    // Static injection workaround for JPA EntityListeners
-    @Autowired
-    public void setElasticFoodRepository(ElasticFoodRepository repository) {
-        FoodSyncListener.elasticFoodRepository = repository;
+    public FoodSyncListener(ObjectProvider<FoodIndexOutboxRepository> outboxRepository,
+            ObjectProvider<FoodIndexOutboxRelay> outboxRelay) {
+        this.outboxRepository = outboxRepository;
+        this.outboxRelay = outboxRelay;
     }
 
     @PostPersist
     @PostUpdate
-    public void onPostUpdate(Food food) {
-        if (elasticFoodRepository == null)
-            return;
-        elasticFoodRepository.save(convertToElasticDocument(food));
-    }
-
     @PostRemove
-    public void onPostRemove(Food food) {
-        if (elasticFoodRepository == null)
+    public void onChange(Food food) {
+        FoodIndexOutboxRepository outbox = outboxRepository.getIfAvailable();
+        if (outbox == null) {
             return;
-        elasticFoodRepository.deleteById(String.valueOf(food.getId()));
-    }
-
-    private ElasticFoodDocument convertToElasticDocument(Food food) {
-        ElasticFoodDocument doc = ElasticFoodDocument.builder()
-                .id(String.valueOf(food.getId()))
-                .name(food.getName())
-                .brand(food.getBrand())
-                .barcode(food.getBarcode())
-                .category(food.getCategory() != null ? food.getCategory().name() : null)
-                .build();
-
-        if (food.getNutritionalInfo() != null) {
-            doc.setCalories(food.getNutritionalInfo().getCalories());
-            doc.setProtein(food.getNutritionalInfo().getProtein());
-            doc.setCarbohydrates(food.getNutritionalInfo().getCarbohydrates());
-            doc.setFats(food.getNutritionalInfo().getFats());
         }
-
-        return doc;
+        outbox.enqueue(List.of(food.getId()));
+        outboxRelay.ifAvailable(FoodIndexOutboxRelay::signalAfterCommit);
     }
 }
@@ -1,27 +1,296 @@
 package com.nutritiontracker.modules.food.repository;
 
 import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
+import com.nutritiontracker.modules.food.enums.FoodCategory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
+/**
+ * Food search documents, indexed in process by {@link FoodSearchIndex} for
+ * search, {@link FoodSuggestIndex} for typeahead and {@link FoodNutrientIndex}
+ * for macro-range filtering. Filled at startup by ElasticSyncService and kept
+ * current by FoodIndexOutboxRelay.
+ *
+ * A full reindex is built beside the live indexes and swapped in when
+ * complete, like flipping an alias to a new index, so searches never see a
+ * half-built index. Changes made while it builds are replayed onto it.
+ */
 @Repository
 public class ElasticFoodRepository {
 
-    public Page<ElasticFoodDocument> fuzzySearch(String query, Pageable pageable) {
-        return new PageImpl<>(Collections.emptyList());
+    // The live indexes; a reindex builds a complete new set and swaps it in whole
+    private volatile Indexes live = new Indexes();
+    // Writes share it, the swap takes it alone, so no write lands in a retired set
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private Reindex reindex;
+    private volatile boolean loaded;
+
+    /**
+     * Relevance-ranked text search over name and brand, with the same
+     * category and per-100g macro filters as FoodSpecifications
+     */
+    public Page<ElasticFoodDocument> search(
+            String query,
+            FoodCategory category,
+            BigDecimal minCalories, BigDecimal maxCalories,
+            BigDecimal minProtein, BigDecimal maxProtein,
+            BigDecimal minCarbs, BigDecimal maxCarbs,
+            BigDecimal minFats, BigDecimal maxFats,
+            Pageable pageable) {
+
+        String categoryName = category != null ? category.name() : null;
+        Predicate<ElasticFoodDocument> filter = doc ->
+                (categoryName == null || categoryName.equals(doc.getCategory()))
+                        && FoodSearchIndex.inRange(doc.getCalories(), minCalories, maxCalories)
+                        && FoodSearchIndex.inRange(doc.getProtein(), minProtein, maxProtein)
+                        && FoodSearchIndex.inRange(doc.getCarbohydrates(), minCarbs, maxCarbs)
+                        && FoodSearchIndex.inRange(doc.getFats(), minFats, maxFats);
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(live.index.search(query, filter, Integer.MAX_VALUE).docs);
+        }
+        // Only the hits up to the end of the requested page are ranked
+        long end = pageable.getOffset() + pageable.getPageSize();
+        FoodSearchIndex.Hits hits = live.index.search(query, filter, (int) Math.min(end, Integer.MAX_VALUE));
+        int from = (int) Math.min(pageable.getOffset(), hits.docs.size());
+        return new PageImpl<>(hits.docs.subList(from, hits.docs.size()), pageable, hits.total);
+    }
+
+    /**
+     * Top completions for a typeahead prefix, ranked by popularity plus the
+     * given per-food boosts
+     */
+    public List<ElasticFoodDocument> suggest(String prefix, int limit, Map<Long, Double> boosts) {
+        Map<String, Double> boostsById = new HashMap<>(boosts.size() * 2);
+        boosts.forEach((foodId, boost) -> boostsById.put(String.valueOf(foodId), boost));
+        return live.suggestIndex.suggest(prefix, limit, boostsById);
+    }
+
+    /**
+     * Rebuild the typeahead snapshot with new popularity counts (meal entries per food)
+     */
+    public void refreshSuggestions(Map<Long, Long> entryCountsByFoodId) {
+        Map<String, Long> popularity = new HashMap<>(entryCountsByFoodId.size() * 2);
+        entryCountsByFoodId.forEach((foodId, count) -> popularity.put(String.valueOf(foodId), count));
+        rebuildSuggestions(live, popularity);
+    }
+
+    public int pendingSuggestionChanges() {
+        return live.suggestIndex.overlaySize();
+    }
+
+    /**
+     * Whether the bulk load has run, so the in-memory indexes cover every food
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * One page of food IDs matching the category and per-100g macro ranges,
+     * ordered by name (case-insensitive) then ID
+     */
+    public Page<Long> findIdsByNutrients(
+            FoodCategory category,
+            BigDecimal minCalories, BigDecimal maxCalories,
+            BigDecimal minProtein, BigDecimal maxProtein,
+            BigDecimal minCarbs, BigDecimal maxCarbs,
+            BigDecimal minFats, BigDecimal maxFats,
+            Pageable pageable) {
+
+        double[] min = FoodNutrientIndex.unbounded();
+        double[] max = FoodNutrientIndex.unbounded();
+        min[FoodNutrientIndex.CALORIES] = FoodNutrientIndex.bound(minCalories);
+        max[FoodNutrientIndex.CALORIES] = FoodNutrientIndex.bound(maxCalories);
+        min[FoodNutrientIndex.PROTEIN] = FoodNutrientIndex.bound(minProtein);
+        max[FoodNutrientIndex.PROTEIN] = FoodNutrientIndex.bound(maxProtein);
+        min[FoodNutrientIndex.CARBS] = FoodNutrientIndex.bound(minCarbs);
+        max[FoodNutrientIndex.CARBS] = FoodNutrientIndex.bound(maxCarbs);
+        min[FoodNutrientIndex.FATS] = FoodNutrientIndex.bound(minFats);
+        max[FoodNutrientIndex.FATS] = FoodNutrientIndex.bound(maxFats);
+
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int size = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        FoodNutrientIndex.IdPage page = live.nutrientIndex.find(category != null ? category.ordinal() : -1,
+                min, max, offset, size);
+        return new PageImpl<>(page.ids, pageable, page.total);
+    }
+
+    /**
+     * Fold pending changes into fresh snapshots once either overlay holds at
+     * least maxPending of them
+     */
+    public void compact(int maxPending) {
+        Indexes current = live;
+        if (current.suggestIndex.overlaySize() >= maxPending) {
+            rebuildSuggestions(current, current.suggestIndex.popularity());
+        }
+        if (current.nutrientIndex.overlaySize() >= maxPending) {
+            rebuildNutrients(current);
+        }
     }
 
     public Page<ElasticFoodDocument> findByBarcode(String barcode, Pageable pageable) {
-        return new PageImpl<>(Collections.emptyList());
+        ElasticFoodDocument doc = live.index.findByBarcode(barcode);
+        return new PageImpl<>(doc != null ? List.of(doc) : Collections.emptyList());
     }
 
-    public long count() { return 1; } // Fake count to skip sync
-    public void saveAll(Iterable<ElasticFoodDocument> docs) {}
-    public void save(ElasticFoodDocument doc) {}
-    public void deleteById(String id) {}
+    public long count() {
+        return live.index.size();
+    }
+
+    public void save(ElasticFoodDocument doc) {
+        saveChanges(List.of(doc));
+    }
+
+    /**
+     * Index changed documents through the overlays, so no snapshot is
+     * rebuilt; compaction folds them in later
+     */
+    public void saveChanges(Collection<ElasticFoodDocument> docs) {
+        swapLock.readLock().lock();
+        try {
+            live.put(docs);
+            if (reindex != null) {
+                docs.forEach(doc -> reindex.changed.put(doc.getId(), Optional.of(doc)));
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public void deleteById(String id) {
+        swapLock.readLock().lock();
+        try {
+            live.remove(id);
+            if (reindex != null) {
+                reindex.changed.put(id, Optional.empty());
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Start building a complete new index beside the live one. Searches keep
+     * using the live index until {@link Reindex#finish} swaps the new one in.
+     * Only one reindex runs at a time.
+     */
+    public Reindex beginReindex() {
+        swapLock.writeLock().lock();
+        try {
+            if (reindex != null) {
+                throw new IllegalStateException("A reindex is already running");
+            }
+            reindex = new Reindex();
+            return reindex;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A new index being built. Documents may be added from several threads.
+     */
+    public final class Reindex {
+
+        private final Indexes building = new Indexes();
+        // Latest live change per document since the build started; empty means deleted
+        private final Map<String, Optional<ElasticFoodDocument>> changed = new ConcurrentHashMap<>();
+
+        private Reindex() {
+        }
+
+        public void addAll(Collection<ElasticFoodDocument> docs) {
+            building.index.putAll(docs);
+        }
+
+        public int size() {
+            return building.index.size();
+        }
+
+        /**
+         * Build the snapshots, replay the changes made meanwhile and make the
+         * new index the live one
+         */
+        public void finish() {
+            List<ElasticFoodDocument> docs = building.index.documents();
+            building.suggestIndex.rebuild(docs, live.suggestIndex.popularity(), Collections.emptyMap());
+            building.nutrientIndex.rebuild(docs, Collections.emptyMap());
+
+            swapLock.writeLock().lock();
+            try {
+                // Live writes have the newest state, whatever the chunks read before them
+                changed.forEach((id, doc) -> {
+                    if (doc.isPresent()) {
+                        building.put(List.of(doc.get()));
+                    } else {
+                        building.remove(id);
+                    }
+                });
+                live = building;
+                loaded = true;
+                reindex = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Drop the new index; the live one stays as it is
+         */
+        public void abort() {
+            swapLock.writeLock().lock();
+            try {
+                if (reindex == this) {
+                    reindex = null;
+                }
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    // The overlay is captured first, so every change it holds is already in the documents read after it
+    private synchronized void rebuildSuggestions(Indexes target, Map<String, Long> popularity) {
+        Map<String, FoodSuggestIndex.Entry> seenOverlay = target.suggestIndex.overlaySnapshot();
+        target.suggestIndex.rebuild(target.index.documents(), popularity, seenOverlay);
+    }
+
+    private synchronized void rebuildNutrients(Indexes target) {
+        Map<Long, FoodNutrientIndex.Row> seenOverlay = target.nutrientIndex.overlaySnapshot();
+        target.nutrientIndex.rebuild(target.index.documents(), seenOverlay);
+    }
+
+    private static final class Indexes {
+        private final FoodSearchIndex index = new FoodSearchIndex();
+        private final FoodSuggestIndex suggestIndex = new FoodSuggestIndex();
+        private final FoodNutrientIndex nutrientIndex = new FoodNutrientIndex();
+
+        private void put(Collection<ElasticFoodDocument> docs) {
+            index.putAll(docs);
+            docs.forEach(suggestIndex::put);
+            docs.forEach(nutrientIndex::put);
+        }
+
+        private void remove(String id) {
+            index.remove(id);
+            suggestIndex.remove(id);
+            nutrientIndex.remove(id);
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.entity.Food;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk insertion of foods with their nutritional info. IDENTITY ids disable
+ * Hibernate insert batching, so this goes through JDBC directly.
+ */
+public interface FoodBatchRepository {
+
+    /**
+     * Insert all foods and their nutritional info in JDBC batches. Every food
+     * needs a barcode, which is how the generated ids are read back and set
+     * on the given foods. Entity listeners do not run, so callers have to
+     * update the search index themselves.
+     */
+    void batchInsert(List<Food> foods);
+
+    /**
+     * Insert new foods and overwrite existing ones with the same barcode, in
+     * JDBC batches. An existing food is only overwritten when it came from the
+     * same source, so user-entered foods keep their data, and only when its
+     * content hash differs; an unchanged food just gets its last_synced_at
+     * bumped. Overwritten foods are evicted from the by-id cache once the
+     * transaction commits. Barcodes must be unique within the list. Returns
+     * how many foods were written; their ids are set, the others keep a null
+     * id.
+     */
+    int batchUpsert(List<Food> foods);
+
+    /**
+     * Record that the given foods were checked against their source at the
+     * given time without rewriting them
+     */
+    void markSynced(Collection<Long> ids, LocalDateTime syncedAt);
+}
@@ -0,0 +1,301 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.entity.NutritionalInfo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class FoodBatchRepositoryImpl implements FoodBatchRepository {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String FOOD_CACHE = "foodById";
+
+    private static final String INSERT_FOOD_SQL = "INSERT INTO foods "
+            + "(name, brand, barcode, serving_size, serving_unit, source, external_id, last_synced_at, category, "
+            + "content_hash, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_NUTRITIONAL_INFO_SQL = "INSERT INTO nutritional_info "
+            + "(food_id, calories, protein, carbohydrates, fats, fiber, sugars, saturated_fats, "
+            + "sodium, calcium, iron, potassium, vitamin_a, vitamin_c, vitamin_d) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_FOOD_SQL = "UPDATE foods SET "
+            + "name = ?, brand = ?, serving_size = ?, serving_unit = ?, external_id = ?, last_synced_at = ?, "
+            + "content_hash = ?, updated_at = ? WHERE id = ?";
+
+    private static final String UPDATE_NUTRITIONAL_INFO_SQL = "UPDATE nutritional_info SET "
+            + "calories = ?, protein = ?, carbohydrates = ?, fats = ?, fiber = ?, sugars = ?, saturated_fats = ?, "
+            + "sodium = ?, calcium = ?, iron = ?, potassium = ?, vitamin_a = ?, vitamin_c = ?, vitamin_d = ? "
+            + "WHERE food_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void batchInsert(List<Food> foods) {
+        if (foods.isEmpty()) {
+            return;
+        }
+
+        // Make sure foods saved earlier in the transaction are visible to JDBC
+        entityManager.flush();
+
+        foods.forEach(food -> food.setContentHash(contentHash(food)));
+        insert(foods);
+    }
+
+    @Override
+    public int batchUpsert(List<Food> foods) {
+        if (foods.isEmpty()) {
+            return 0;
+        }
+
+        entityManager.flush();
+
+        Map<String, Existing> existing = findByBarcode(foods.stream().map(Food::getBarcode).toList());
+        List<Food> fresh = new ArrayList<>();
+        List<Food> updates = new ArrayList<>();
+        List<Long> unchanged = new ArrayList<>();
+        for (Food food : foods) {
+            food.setContentHash(contentHash(food));
+            Existing current = existing.get(food.getBarcode());
+            if (current == null) {
+                fresh.add(food);
+            } else if (Objects.equals(current.source(), food.getSource())) {
+                if (food.getContentHash().equals(current.contentHash())) {
+                    unchanged.add(current.id());
+                } else {
+                    food.setId(current.id());
+                    updates.add(food);
+                }
+            }
+        }
+
+        insert(fresh);
+        update(updates);
+        if (!unchanged.isEmpty()) {
+            markSynced(unchanged, foods.get(0).getLastSyncedAt());
+        }
+        return fresh.size() + updates.size();
+    }
+
+    @Override
+    public void markSynced(Collection<Long> ids, LocalDateTime syncedAt) {
+        List<Long> all = List.copyOf(ids);
+        Timestamp at = Timestamp.valueOf(syncedAt != null ? syncedAt : LocalDateTime.now());
+        for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(from + BATCH_SIZE, all.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            List<Object> args = new ArrayList<>(chunk.size() + 1);
+            args.add(at);
+            args.addAll(chunk);
+            jdbcTemplate.update("UPDATE foods SET last_synced_at = ? WHERE id IN (" + placeholders + ")",
+                    args.toArray());
+        }
+    }
+
+    private void insert(List<Food> foods) {
+        if (foods.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_FOOD_SQL, foods, BATCH_SIZE, (ps, food) -> {
+            ps.setString(1, food.getName());
+            ps.setString(2, food.getBrand());
+            ps.setString(3, food.getBarcode());
+            ps.setBigDecimal(4, food.getServingSize());
+            ps.setString(5, food.getServingUnit());
+            ps.setString(6, food.getSource());
+            ps.setString(7, food.getExternalId());
+            setTimestamp(ps, 8, food.getLastSyncedAt());
+            ps.setString(9, food.getCategory() != null ? food.getCategory().name() : null);
+            ps.setString(10, food.getContentHash());
+            ps.setTimestamp(11, now);
+            ps.setTimestamp(12, now);
+        });
+
+        Map<String, Existing> ids = findByBarcode(foods.stream().map(Food::getBarcode).toList());
+        foods.forEach(food -> food.setId(ids.get(food.getBarcode()).id()));
+
+        List<Food> withNutrients = foods.stream()
+                .filter(food -> food.getNutritionalInfo() != null)
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_NUTRITIONAL_INFO_SQL, withNutrients, BATCH_SIZE, (ps, food) -> {
+            ps.setLong(1, food.getId());
+            setNutrients(ps, 2, food.getNutritionalInfo());
+        });
+    }
+
+    private void update(List<Food> foods) {
+        if (foods.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPDATE_FOOD_SQL, foods, BATCH_SIZE, (ps, food) -> {
+            ps.setString(1, food.getName());
+            ps.setString(2, food.getBrand());
+            ps.setBigDecimal(3, food.getServingSize());
+            ps.setString(4, food.getServingUnit());
+            ps.setString(5, food.getExternalId());
+            setTimestamp(ps, 6, food.getLastSyncedAt());
+            ps.setString(7, food.getContentHash());
+            ps.setTimestamp(8, now);
+            ps.setLong(9, food.getId());
+        });
+
+        // Foods created without nutrients get their row now instead of losing the refreshed values
+        List<Food> withNutrients = foods.stream()
+                .filter(food -> food.getNutritionalInfo() != null)
+                .toList();
+        Set<Long> withRow = findNutritionalInfoFoodIds(withNutrients.stream().map(Food::getId).toList());
+        List<Food> rowUpdates = withNutrients.stream().filter(food -> withRow.contains(food.getId())).toList();
+        List<Food> rowInserts = withNutrients.stream().filter(food -> !withRow.contains(food.getId())).toList();
+        jdbcTemplate.batchUpdate(UPDATE_NUTRITIONAL_INFO_SQL, rowUpdates, BATCH_SIZE, (ps, food) -> {
+            setNutrients(ps, 1, food.getNutritionalInfo());
+            ps.setLong(15, food.getId());
+        });
+        jdbcTemplate.batchUpdate(INSERT_NUTRITIONAL_INFO_SQL, rowInserts, BATCH_SIZE, (ps, food) -> {
+            ps.setLong(1, food.getId());
+            setNutrients(ps, 2, food.getNutritionalInfo());
+        });
+
+        evictCached(foods);
+    }
+
+    /**
+     * Drops the updated foods from the by-id cache. The cache manager is
+     * transaction aware, so inside a transaction the evictions (and their
+     * broadcast to the other instances) happen after commit.
+     */
+    private void evictCached(List<Food> foods) {
+        CacheManager manager = cacheManager.getIfAvailable();
+        Cache cache = manager != null ? manager.getCache(FOOD_CACHE) : null;
+        if (cache != null) {
+            foods.forEach(food -> cache.evict(food.getId()));
+        }
+    }
+
+    private static void setNutrients(PreparedStatement ps, int offset, NutritionalInfo info) throws SQLException {
+        ps.setBigDecimal(offset, info.getCalories());
+        ps.setBigDecimal(offset + 1, info.getProtein());
+        ps.setBigDecimal(offset + 2, info.getCarbohydrates());
+        ps.setBigDecimal(offset + 3, info.getFats());
+        ps.setBigDecimal(offset + 4, info.getFiber());
+        ps.setBigDecimal(offset + 5, info.getSugars());
+        ps.setBigDecimal(offset + 6, info.getSaturatedFats());
+        ps.setBigDecimal(offset + 7, info.getSodium());
+        ps.setBigDecimal(offset + 8, info.getCalcium());
+        ps.setBigDecimal(offset + 9, info.getIron());
+        ps.setBigDecimal(offset + 10, info.getPotassium());
+        ps.setBigDecimal(offset + 11, info.getVitaminA());
+        ps.setBigDecimal(offset + 12, info.getVitaminC());
+        ps.setBigDecimal(offset + 13, info.getVitaminD());
+    }
+
+    /**
+     * SHA-256 of the fields an import writes, so a refresh that brings back
+     * the same content can be told apart from a real change. Decimals are
+     * normalized so 5.0 and 5.00 hash the same.
+     */
+    static String contentHash(Food food) {
+        StringBuilder content = new StringBuilder()
+                .append(food.getName()).append('\u001f')
+                .append(food.getBrand()).append('\u001f')
+                .append(decimal(food.getServingSize())).append('\u001f')
+                .append(food.getServingUnit()).append('\u001f')
+                .append(food.getExternalId());
+        NutritionalInfo info = food.getNutritionalInfo();
+        if (info != null) {
+            for (BigDecimal value : new BigDecimal[] { info.getCalories(), info.getProtein(), info.getCarbohydrates(),
+                    info.getFats(), info.getFiber(), info.getSugars(), info.getSaturatedFats(), info.getSodium(),
+                    info.getCalcium(), info.getIron(), info.getPotassium(), info.getVitaminA(), info.getVitaminC(),
+                    info.getVitaminD() }) {
+                content.append('\u001f').append(decimal(value));
+            }
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String decimal(BigDecimal value) {
+        return value != null ? value.stripTrailingZeros().toPlainString() : "";
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    private Map<String, Existing> findByBarcode(List<String> barcodes) {
+        Map<String, Existing> found = new HashMap<>();
+        for (int from = 0; from < barcodes.size(); from += BATCH_SIZE) {
+            List<String> chunk = barcodes.subList(from, Math.min(from + BATCH_SIZE, barcodes.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT id, barcode, source, content_hash FROM foods WHERE barcode IN (" + placeholders + ")",
+                    rs -> {
+                        found.put(rs.getString("barcode"), new Existing(rs.getLong("id"),
+                                rs.getString("source"), rs.getString("content_hash")));
+                    },
+                    chunk.toArray());
+        }
+        return found;
+    }
+
+    private Set<Long> findNutritionalInfoFoodIds(List<Long> foodIds) {
+        Set<Long> found = new HashSet<>();
+        for (int from = 0; from < foodIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = foodIds.subList(from, Math.min(from + BATCH_SIZE, foodIds.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT food_id FROM nutritional_info WHERE food_id IN (" + placeholders + ")",
+                    rs -> {
+                        found.add(rs.getLong("food_id"));
+                    },
+                    chunk.toArray());
+        }
+        return found;
+    }
+
+    private record Existing(long id, String source, String contentHash) {
+    }
+}
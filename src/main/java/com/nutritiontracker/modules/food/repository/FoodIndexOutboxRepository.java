@@ -0,0 +1,98 @@
+package com.nutritiontracker.modules.food.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The food_index_outbox table: foods whose search documents are out of date.
+ * Writers enqueue in the transaction that changes the food, so a rolled back
+ * change never reaches the index and a committed one is never lost;
+ * FoodIndexOutboxRelay drains the table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FoodIndexOutboxRepository {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO food_index_outbox (food_id) VALUES (?)";
+
+    // Rows another instance is draining are skipped rather than waited for
+    private static final String CLAIM_SQL = "SELECT id, food_id, attempts, "
+            + "TIMESTAMPDIFF(MICROSECOND, created_at, CURRENT_TIMESTAMP(3)) AS age FROM food_index_outbox "
+            + "WHERE available_at <= CURRENT_TIMESTAMP(3) ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String RETRY_SQL = "UPDATE food_index_outbox SET attempts = attempts + 1, "
+            + "available_at = TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3)) WHERE id = ?";
+
+    private static final String BACKLOG_SQL = "SELECT COUNT(*) AS pending, "
+            + "TIMESTAMPDIFF(MICROSECOND, MIN(created_at), CURRENT_TIMESTAMP(3)) AS age FROM food_index_outbox";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mark the foods for reindexing. Call inside the transaction that changes them.
+     */
+    public void enqueue(Collection<Long> foodIds) {
+        if (foodIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, List.copyOf(foodIds), BATCH_SIZE,
+                (ps, foodId) -> ps.setLong(1, foodId));
+    }
+
+    /**
+     * Lock up to limit entries that are due, oldest first, until the
+     * surrounding transaction ends
+     */
+    public List<Entry> claim(int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, (rs, n) -> new Entry(
+                rs.getLong("id"),
+                rs.getLong("food_id"),
+                rs.getInt("attempts"),
+                Duration.ofNanos(rs.getLong("age") * 1000)), limit);
+    }
+
+    public void delete(Collection<Long> ids) {
+        List<Long> all = List.copyOf(ids);
+        for (int from = 0; from < all.size(); from += BATCH_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(from + BATCH_SIZE, all.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.update("DELETE FROM food_index_outbox WHERE id IN (" + placeholders + ")", chunk.toArray());
+        }
+    }
+
+    /**
+     * Count a failed attempt and hold each entry back for its delay
+     */
+    public void retryLater(Map<Long, Duration> delaysById) {
+        List<Map.Entry<Long, Duration>> delays = new ArrayList<>(delaysById.entrySet());
+        jdbcTemplate.batchUpdate(RETRY_SQL, delays, BATCH_SIZE, (ps, delay) -> {
+            ps.setLong(1, delay.getValue().toNanos() / 1000);
+            ps.setLong(2, delay.getKey());
+        });
+    }
+
+    /**
+     * How many entries are waiting and how long the oldest has waited
+     */
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(BACKLOG_SQL, (rs, n) -> new Backlog(
+                rs.getLong("pending"),
+                Duration.ofNanos(rs.getLong("age") * 1000)));
+    }
+
+    public record Entry(long id, long foodId, int attempts, Duration age) {
+    }
+
+    public record Backlog(long pending, Duration oldestAge) {
+    }
+}
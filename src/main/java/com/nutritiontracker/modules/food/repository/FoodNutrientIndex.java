@@ -0,0 +1,362 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
+import com.nutritiontracker.modules.food.enums.FoodCategory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented snapshot of per-100g macros for range filtering.
+ *
+ * Foods occupy slots in name order. Each nutrient is a primitive column plus
+ * a value-sorted permutation of the slots, so a range resolves to a
+ * contiguous run by binary search. The most selective range (or category
+ * bitset) produces the candidates, the remaining ranges are checked against
+ * the columns, and the surviving slots are read back in name order. Changes
+ * since the last rebuild sit in a small overlay merged into the results.
+ */
+final class FoodNutrientIndex {
+
+    static final int CALORIES = 0;
+    static final int PROTEIN = 1;
+    static final int CARBS = 2;
+    static final int FATS = 3;
+    static final int NUTRIENTS = 4;
+
+    private static final Comparator<Row> NAME_ORDER = Comparator
+            .comparing((Row row) -> row.name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparingLong(row -> row.id);
+
+    private volatile Snapshot snapshot = Snapshot.build(Collections.emptyList());
+    private final Map<Long, Row> overlay = new ConcurrentHashMap<>();
+
+    void rebuild(Collection<ElasticFoodDocument> docs, Map<Long, Row> seenOverlay) {
+        List<Row> rows = new ArrayList<>(docs.size());
+        for (ElasticFoodDocument doc : docs) {
+            rows.add(Row.of(doc));
+        }
+        snapshot = Snapshot.build(rows);
+        seenOverlay.forEach((id, row) -> overlay.remove(id, row));
+    }
+
+    Map<Long, Row> overlaySnapshot() {
+        return new HashMap<>(overlay);
+    }
+
+    int overlaySize() {
+        return overlay.size();
+    }
+
+    void put(ElasticFoodDocument doc) {
+        Row row = Row.of(doc);
+        overlay.put(row.id, row);
+    }
+
+    void remove(String id) {
+        long foodId = Long.parseLong(id);
+        overlay.put(foodId, Row.removed(foodId));
+    }
+
+    /**
+     * One page of matching food IDs in name order, plus the total match count
+     *
+     * @param category category ordinal, or -1 for any
+     * @param min      per-nutrient lower bounds, NaN when unbounded
+     * @param max      per-nutrient upper bounds, NaN when unbounded
+     */
+    IdPage find(int category, double[] min, double[] max, long offset, int size) {
+        Snapshot current = snapshot;
+        Filter filter = new Filter(category, min, max);
+
+        BitSet matches = current.candidates(filter);
+        for (Long id : overlay.keySet()) {
+            int slot = current.slotOf(id);
+            if (slot >= 0) {
+                matches.clear(slot);
+            }
+        }
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            if (!filter.test(current.category[slot], current.values, slot)) {
+                matches.clear(slot);
+            }
+        }
+
+        List<Row> pending = new ArrayList<>();
+        for (Row row : overlay.values()) {
+            if (!row.removed && filter.test(row.category, row.values)) {
+                pending.add(row);
+            }
+        }
+        pending.sort(NAME_ORDER);
+
+        // Merge the snapshot slots and the pending rows, both in name order
+        List<Long> ids = new ArrayList<>(Math.max(0, Math.min(size, 1024)));
+        long skipped = 0;
+        int slot = matches.nextSetBit(0);
+        int next = 0;
+        while ((slot >= 0 || next < pending.size()) && ids.size() < size) {
+            boolean takeSnapshot = next >= pending.size()
+                    || (slot >= 0 && NAME_ORDER.compare(current.row(slot), pending.get(next)) <= 0);
+            long id;
+            if (takeSnapshot) {
+                id = current.ids[slot];
+                slot = matches.nextSetBit(slot + 1);
+            } else {
+                id = pending.get(next++).id;
+            }
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                ids.add(id);
+            }
+        }
+        return new IdPage(ids, matches.cardinality() + pending.size());
+    }
+
+    static double[] unbounded() {
+        double[] bounds = new double[NUTRIENTS];
+        Arrays.fill(bounds, Double.NaN);
+        return bounds;
+    }
+
+    static double bound(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+
+    static final class IdPage {
+        final List<Long> ids;
+        final int total;
+
+        private IdPage(List<Long> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+
+    static final class Row {
+        private final long id;
+        private final String name;
+        private final int category;
+        private final double[] values;
+        private final boolean removed;
+
+        private Row(long id, String name, int category, double[] values, boolean removed) {
+            this.id = id;
+            this.name = name;
+            this.category = category;
+            this.values = values;
+            this.removed = removed;
+        }
+
+        private static Row of(ElasticFoodDocument doc) {
+            double[] values = new double[NUTRIENTS];
+            values[CALORIES] = bound(doc.getCalories());
+            values[PROTEIN] = bound(doc.getProtein());
+            values[CARBS] = bound(doc.getCarbohydrates());
+            values[FATS] = bound(doc.getFats());
+            int category = doc.getCategory() != null ? FoodCategory.valueOf(doc.getCategory()).ordinal() : -1;
+            return new Row(Long.parseLong(doc.getId()), doc.getName() != null ? doc.getName() : "", category,
+                    values, false);
+        }
+
+        private static Row removed(long id) {
+            return new Row(id, "", -1, new double[NUTRIENTS], true);
+        }
+    }
+
+    private static final class Filter {
+        private final int category;
+        private final double[] min;
+        private final double[] max;
+
+        private Filter(int category, double[] min, double[] max) {
+            this.category = category;
+            this.min = min;
+            this.max = max;
+        }
+
+        private boolean bounded(int nutrient) {
+            return !Double.isNaN(min[nutrient]) || !Double.isNaN(max[nutrient]);
+        }
+
+        // A missing value never satisfies a bound, like a NULL column in SQL
+        private boolean test(int nutrient, double value) {
+            if (!bounded(nutrient)) {
+                return true;
+            }
+            return !Double.isNaN(value)
+                    && (Double.isNaN(min[nutrient]) || value >= min[nutrient])
+                    && (Double.isNaN(max[nutrient]) || value <= max[nutrient]);
+        }
+
+        private boolean test(int foodCategory, double[] values) {
+            if (category >= 0 && foodCategory != category) {
+                return false;
+            }
+            for (int n = 0; n < NUTRIENTS; n++) {
+                if (!test(n, values[n])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean test(int foodCategory, double[][] columns, int slot) {
+            if (category >= 0 && foodCategory != category) {
+                return false;
+            }
+            for (int n = 0; n < NUTRIENTS; n++) {
+                if (!test(n, columns[n][slot])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Snapshot {
+        private final long[] ids;
+        private final String[] names;
+        private final int[] category;
+        private final double[][] values;
+        private final int[][] slotsByValue;
+        private final double[][] sortedValues;
+        private final BitSet[] slotsByCategory;
+        private final long[] sortedIds;
+        private final int[] slotsById;
+
+        private Snapshot(List<Row> rows) {
+            int size = rows.size();
+            ids = new long[size];
+            names = new String[size];
+            category = new int[size];
+            values = new double[NUTRIENTS][size];
+            slotsByCategory = new BitSet[FoodCategory.values().length];
+            for (int c = 0; c < slotsByCategory.length; c++) {
+                slotsByCategory[c] = new BitSet(size);
+            }
+
+            for (int slot = 0; slot < size; slot++) {
+                Row row = rows.get(slot);
+                ids[slot] = row.id;
+                names[slot] = row.name;
+                category[slot] = row.category;
+                if (row.category >= 0) {
+                    slotsByCategory[row.category].set(slot);
+                }
+                for (int n = 0; n < NUTRIENTS; n++) {
+                    values[n][slot] = row.values[n];
+                }
+            }
+
+            // Missing values are left out of the sorted permutations
+            slotsByValue = new int[NUTRIENTS][];
+            sortedValues = new double[NUTRIENTS][];
+            for (int n = 0; n < NUTRIENTS; n++) {
+                double[] column = values[n];
+                int[] slots = IntStream.range(0, size)
+                        .filter(slot -> !Double.isNaN(column[slot]))
+                        .boxed()
+                        .sorted(Comparator.comparingDouble(slot -> column[slot]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                slotsByValue[n] = slots;
+                sortedValues[n] = new double[slots.length];
+                for (int i = 0; i < slots.length; i++) {
+                    sortedValues[n][i] = column[slots[i]];
+                }
+            }
+
+            int[] byId = IntStream.range(0, size)
+                    .boxed()
+                    .sorted(Comparator.comparingLong(slot -> ids[slot]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            sortedIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortedIds[i] = ids[byId[i]];
+            }
+            slotsById = byId;
+        }
+
+        private static Snapshot build(List<Row> rows) {
+            List<Row> ordered = new ArrayList<>(rows);
+            ordered.sort(NAME_ORDER);
+            return new Snapshot(ordered);
+        }
+
+        private Row row(int slot) {
+            return new Row(ids[slot], names[slot], category[slot], null, false);
+        }
+
+        private int slotOf(long id) {
+            int i = Arrays.binarySearch(sortedIds, id);
+            return i >= 0 ? slotsById[i] : -1;
+        }
+
+        /**
+         * Slots from the most selective of the category and the bounded
+         * nutrients; every slot when nothing is filtered
+         */
+        private BitSet candidates(Filter filter) {
+            int bestNutrient = -1;
+            int bestFrom = 0;
+            int bestCount = Integer.MAX_VALUE;
+            for (int n = 0; n < NUTRIENTS; n++) {
+                if (!filter.bounded(n)) {
+                    continue;
+                }
+                int from = Double.isNaN(filter.min[n]) ? 0 : lowerBound(sortedValues[n], filter.min[n], false);
+                int to = Double.isNaN(filter.max[n])
+                        ? sortedValues[n].length
+                        : lowerBound(sortedValues[n], filter.max[n], true);
+                int count = Math.max(0, to - from);
+                if (count < bestCount) {
+                    bestNutrient = n;
+                    bestFrom = from;
+                    bestCount = count;
+                }
+            }
+
+            if (filter.category >= 0 && slotsByCategory[filter.category].cardinality() <= bestCount) {
+                return (BitSet) slotsByCategory[filter.category].clone();
+            }
+            BitSet slots = new BitSet(ids.length);
+            if (bestNutrient < 0) {
+                slots.set(0, ids.length);
+                return slots;
+            }
+            int[] permutation = slotsByValue[bestNutrient];
+            for (int i = bestFrom; i < bestFrom + bestCount; i++) {
+                slots.set(permutation[i]);
+            }
+            return slots;
+        }
+
+        // First index whose value is >= key, or > key when inclusive of equal keys
+        private static int lowerBound(double[] sorted, double key, boolean afterEqual) {
+            int lo = 0;
+            int hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] < key || (afterEqual && sorted[mid] == key)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
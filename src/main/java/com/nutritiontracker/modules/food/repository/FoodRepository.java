@@ -3,17 +3,38 @@ package com.nutritiontracker.modules.food.repository;
 import com.nutritiontracker.modules.food.entity.Food;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 @Repository
-public interface FoodRepository extends JpaRepository<Food, Long>, JpaSpecificationExecutor<Food> {
+public interface FoodRepository extends JpaRepository<Food, Long>, JpaSpecificationExecutor<Food>,
+                FoodBatchRepository {
+
+        /**
+         * Page of foods with nutritional info fetched in the same query
+         */
+        @Override
+        @EntityGraph(attributePaths = "nutritionalInfo")
+        Page<Food> findAll(Pageable pageable);
+
+        /**
+         * Filtered page of foods with nutritional info fetched in the same query
+         */
+        @Override
+        @EntityGraph(attributePaths = "nutritionalInfo")
+        Page<Food> findAll(Specification<Food> spec, Pageable pageable);
 
         /**
          * Find food by barcode
@@ -25,6 +46,23 @@ public interface FoodRepository extends JpaRepository<Food, Long>, JpaSpecificat
          */
         boolean existsByBarcode(String barcode);
 
+        /**
+         * Which of the given barcodes are already in the catalog
+         */
+        @Query("SELECT f.barcode FROM Food f WHERE f.barcode IN :barcodes")
+        Set<String> findExistingBarcodes(@Param("barcodes") Collection<String> barcodes);
+
+        /**
+         * Foods from the source last synced before the cutoff, oldest first,
+         * continuing after the (lastSyncedAt, id) of the previous batch
+         */
+        @Query("SELECT f FROM Food f WHERE f.source = :source AND f.lastSyncedAt < :cutoff " +
+                        "AND (f.lastSyncedAt > :afterSyncedAt OR (f.lastSyncedAt = :afterSyncedAt AND f.id > :afterId)) " +
+                        "ORDER BY f.lastSyncedAt, f.id")
+        List<Food> findStale(@Param("source") String source, @Param("cutoff") LocalDateTime cutoff,
+                        @Param("afterSyncedAt") LocalDateTime afterSyncedAt, @Param("afterId") Long afterId,
+                        Pageable pageable);
+
         /**
          * Search foods by name (case-insensitive, partial match)
          */
@@ -50,6 +88,19 @@ public interface FoodRepository extends JpaRepository<Food, Long>, JpaSpecificat
         @Query("SELECT f FROM Food f LEFT JOIN FETCH f.nutritionalInfo WHERE f.id = :id")
         Optional<Food> findByIdWithNutritionalInfo(@Param("id") Long id);
 
+        /**
+         * Find foods by id with nutritional info and serving units eagerly loaded
+         */
+        @Query("SELECT DISTINCT f FROM Food f LEFT JOIN FETCH f.nutritionalInfo LEFT JOIN FETCH f.servingUnits WHERE f.id IN :ids")
+        List<Food> findAllByIdWithNutritionalInfo(@Param("ids") Collection<Long> ids);
+
+        /**
+         * Next chunk of foods by id, after afterId, with nutritional info
+         * fetched in the same query
+         */
+        @Query("SELECT f FROM Food f LEFT JOIN FETCH f.nutritionalInfo WHERE f.id > :afterId ORDER BY f.id")
+        List<Food> findChunkAfter(@Param("afterId") Long afterId, Pageable pageable);
+
         /**
          * Find food by barcode with nutritional info eagerly loaded
          */
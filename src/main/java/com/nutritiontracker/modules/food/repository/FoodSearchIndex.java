@@ -0,0 +1,433 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over food names and brands.
+ *
+ * Terms live in a sorted dictionary, so prefix matches are a range scan.
+ * A second index maps character trigrams to terms and provides infix matches
+ * (the old LIKE '%q%' behaviour) and typo candidates, which are confirmed by
+ * a bounded edit distance. Every query token must match some term of the
+ * document; documents are ranked by how well each token matched.
+ */
+final class FoodSearchIndex {
+
+    private static final int NAME = 1;
+    private static final int BRAND = 2;
+    private static final double BRAND_WEIGHT = 0.6;
+
+    private static final double EXACT_SCORE = 1.0;
+    private static final double PREFIX_SCORE = 0.75;
+    private static final double ONE_TYPO_SCORE = 0.5;
+    private static final double INFIX_SCORE = 0.4;
+    private static final double TWO_TYPOS_SCORE = 0.3;
+    private static final double NAME_PREFIX_BONUS = 0.5;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, IndexedFood> foods = new HashMap<>();
+    private final Map<String, String> idsByBarcode = new HashMap<>();
+    private final NavigableMap<String, Map<IndexedFood, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return foods.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<ElasticFoodDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<ElasticFoodDocument> docs = new ArrayList<>(foods.size());
+            for (IndexedFood food : foods.values()) {
+                docs.add(food.doc);
+            }
+            return docs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void putAll(Iterable<ElasticFoodDocument> docs) {
+        lock.writeLock().lock();
+        try {
+            for (ElasticFoodDocument doc : docs) {
+                removeInternal(doc.getId());
+                addInternal(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    ElasticFoodDocument findByBarcode(String barcode) {
+        lock.readLock().lock();
+        try {
+            String id = idsByBarcode.get(barcode);
+            return id != null ? foods.get(id).doc : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best {@code limit} documents matching all query tokens and the filter,
+     * best first, plus the total number of matches
+     */
+    Hits search(String query, Predicate<ElasticFoodDocument> filter, int limit) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty() || limit <= 0) {
+            return Hits.NONE;
+        }
+        String normalizedQuery = String.join(" ", tokens);
+
+        lock.readLock().lock();
+        try {
+            Map<IndexedFood, ScoredFood> matches = null;
+            for (String token : tokens) {
+                matches = scoreToken(token, matches);
+                if (matches.isEmpty()) {
+                    return Hits.NONE;
+                }
+            }
+
+            // Keep only the best hits in a heap whose head is the worst of them
+            PriorityQueue<ScoredFood> best = new PriorityQueue<>((a, b) -> ScoredFood.rank(b, a));
+            int total = 0;
+            for (ScoredFood hit : matches.values()) {
+                if (!filter.test(hit.food.doc)) {
+                    continue;
+                }
+                total++;
+                if (hit.food.normalizedName.startsWith(normalizedQuery)) {
+                    hit.score += NAME_PREFIX_BONUS;
+                }
+                if (best.size() < limit) {
+                    best.add(hit);
+                } else if (ScoredFood.rank(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            List<ElasticFoodDocument> result = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                result.add(best.poll().food.doc);
+            }
+            Collections.reverse(result);
+            return new Hits(result, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add each document's best score for the token. When previous tokens
+     * already matched, only those documents are kept.
+     */
+    private Map<IndexedFood, ScoredFood> scoreToken(String token, Map<IndexedFood, ScoredFood> previous) {
+        Map<IndexedFood, ScoredFood> matches = new HashMap<>();
+        for (Map.Entry<String, Double> term : matchTerms(token).entrySet()) {
+            for (Map.Entry<IndexedFood, Integer> posting : postings.get(term.getKey()).entrySet()) {
+                IndexedFood food = posting.getKey();
+                ScoredFood hit = matches.get(food);
+                if (hit == null) {
+                    hit = previous != null ? previous.get(food) : new ScoredFood(food);
+                    if (hit == null) {
+                        continue;
+                    }
+                    hit.tokenScore = 0;
+                    matches.put(food, hit);
+                }
+                double score = term.getValue() * ((posting.getValue() & NAME) != 0 ? 1.0 : BRAND_WEIGHT);
+                hit.tokenScore = Math.max(hit.tokenScore, score);
+            }
+        }
+        for (ScoredFood hit : matches.values()) {
+            hit.score += hit.tokenScore;
+        }
+        return matches;
+    }
+
+    private Map<String, Double> matchTerms(String token) {
+        Map<String, Double> matches = new HashMap<>();
+
+        for (String term : postings.subMap(token, true, token + Character.MAX_VALUE, false).keySet()) {
+            matches.put(term, term.length() == token.length() ? EXACT_SCORE : PREFIX_SCORE);
+        }
+
+        if (token.length() >= 3) {
+            for (String term : termsContainingAll(trigrams(token, false))) {
+                if (term.contains(token)) {
+                    matches.putIfAbsent(term, INFIX_SCORE);
+                }
+            }
+        }
+
+        if (token.length() >= 4) {
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            for (String term : typoCandidates(token, maxEdits)) {
+                int distance = editDistance(token, term, maxEdits);
+                if (distance > 0 && distance <= maxEdits) {
+                    matches.merge(term, distance == 1 ? ONE_TYPO_SCORE : TWO_TYPOS_SCORE, Math::max);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private Set<String> termsContainingAll(Set<String> grams) {
+        Set<String> result = null;
+        for (String gram : grams) {
+            Set<String> terms = termsByTrigram.get(gram);
+            if (terms == null) {
+                return Collections.emptySet();
+            }
+            if (result == null) {
+                result = new HashSet<>(terms);
+            } else {
+                result.retainAll(terms);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : Collections.emptySet();
+    }
+
+    // Each edit changes at most three trigrams, which bounds the overlap a match must have
+    private Set<String> typoCandidates(String token, int maxEdits) {
+        Set<String> grams = trigrams(token, true);
+        int minShared = Math.max(1, grams.size() - 3 * maxEdits);
+
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            for (String term : termsByTrigram.getOrDefault(gram, Collections.emptySet())) {
+                if (Math.abs(term.length() - token.length()) <= maxEdits) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+
+        Set<String> candidates = new HashSet<>();
+        shared.forEach((term, count) -> {
+            if (count >= minShared) {
+                candidates.add(term);
+            }
+        });
+        return candidates;
+    }
+
+    private void addInternal(ElasticFoodDocument doc) {
+        IndexedFood food = new IndexedFood(doc);
+        foods.put(doc.getId(), food);
+        if (doc.getBarcode() != null) {
+            idsByBarcode.put(doc.getBarcode(), doc.getId());
+        }
+        for (String term : food.nameTerms) {
+            addPosting(term, food, NAME);
+        }
+        for (String term : food.brandTerms) {
+            addPosting(term, food, BRAND);
+        }
+    }
+
+    private void removeInternal(String id) {
+        IndexedFood food = foods.remove(id);
+        if (food == null) {
+            return;
+        }
+        if (food.doc.getBarcode() != null) {
+            idsByBarcode.remove(food.doc.getBarcode(), id);
+        }
+        for (String term : food.nameTerms) {
+            removePosting(term, food);
+        }
+        for (String term : food.brandTerms) {
+            removePosting(term, food);
+        }
+    }
+
+    private void addPosting(String term, IndexedFood food, int field) {
+        Map<IndexedFood, Integer> docs = postings.get(term);
+        if (docs == null) {
+            docs = new HashMap<>();
+            postings.put(term, docs);
+            for (String gram : trigrams(term, true)) {
+                termsByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+            }
+        }
+        docs.merge(food, field, (a, b) -> a | b);
+    }
+
+    private void removePosting(String term, IndexedFood food) {
+        Map<IndexedFood, Integer> docs = postings.get(term);
+        if (docs == null || docs.remove(food) == null || !docs.isEmpty()) {
+            return;
+        }
+        postings.remove(term);
+        for (String gram : trigrams(term, true)) {
+            Set<String> terms = termsByTrigram.get(gram);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    termsByTrigram.remove(gram);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Padded trigrams mark word boundaries, so they are used for terms and typo lookups
+    private static Set<String> trigrams(String term, boolean padded) {
+        String s = padded ? "^" + term + "$" : term;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            grams.add(s.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance, abandoned once it exceeds max
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = current;
+            current = recycled;
+        }
+        return prev[b.length()];
+    }
+
+    static boolean inRange(BigDecimal value, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        return (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private static final class IndexedFood {
+        private final ElasticFoodDocument doc;
+        private final String normalizedName;
+        private final Set<String> nameTerms;
+        private final Set<String> brandTerms;
+
+        private IndexedFood(ElasticFoodDocument doc) {
+            this.doc = doc;
+            List<String> name = tokenize(doc.getName());
+            this.normalizedName = String.join(" ", name);
+            this.nameTerms = new HashSet<>(name);
+            this.brandTerms = new HashSet<>(tokenize(doc.getBrand()));
+        }
+    }
+
+    static final class Hits {
+        private static final Hits NONE = new Hits(Collections.emptyList(), 0);
+
+        final List<ElasticFoodDocument> docs;
+        final int total;
+
+        private Hits(List<ElasticFoodDocument> docs, int total) {
+            this.docs = docs;
+            this.total = total;
+        }
+    }
+
+    private static final class ScoredFood {
+        private final IndexedFood food;
+        private double score;
+        private double tokenScore;
+
+        private ScoredFood(IndexedFood food) {
+            this.food = food;
+        }
+
+        // Higher score first, then shorter and alphabetically earlier names
+        private static int rank(ScoredFood a, ScoredFood b) {
+            int cmp = Double.compare(b.score, a.score);
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = Integer.compare(a.food.normalizedName.length(), b.food.normalizedName.length());
+            if (cmp != 0) {
+                return cmp;
+            }
+            cmp = a.food.normalizedName.compareTo(b.food.normalizedName);
+            return cmp != 0 ? cmp : a.food.doc.getId().compareTo(b.food.doc.getId());
+        }
+    }
+}
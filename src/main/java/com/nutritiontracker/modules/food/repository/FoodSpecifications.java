@@ -3,6 +3,7 @@ package com.nutritiontracker.modules.food.repository;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.enums.FoodCategory;
 import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
@@ -71,13 +72,36 @@ public class FoodSpecifications {
 
             // Fats
             if (minFats != null) {
-                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("nutritionalInfo").get("fat"), minFats));
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("nutritionalInfo").get("fats"), minFats));
             }
             if (maxFats != null) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("nutritionalInfo").get("fat"), maxFats));
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("nutritionalInfo").get("fats"), maxFats));
             }
 
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
     }
+
+    /**
+     * Keyset predicate for foods after (value, id) in the given direction,
+     * for listings ordered by the property and then by id
+     */
+    public static <T extends Comparable<? super T>> Specification<Food> seekAfter(
+            String property, Sort.Direction direction, T value, Long id) {
+
+        return (root, criteriaQuery, criteriaBuilder) -> {
+            boolean ascending = direction.isAscending();
+            Predicate idAfter = ascending
+                    ? criteriaBuilder.greaterThan(root.get("id"), id)
+                    : criteriaBuilder.lessThan(root.get("id"), id);
+            if (value == null) {
+                return idAfter;
+            }
+            Predicate valueAfter = ascending
+                    ? criteriaBuilder.greaterThan(root.<T>get(property), value)
+                    : criteriaBuilder.lessThan(root.<T>get(property), value);
+            return criteriaBuilder.or(valueAfter,
+                    criteriaBuilder.and(criteriaBuilder.equal(root.get(property), value), idAfter));
+        };
+    }
 }
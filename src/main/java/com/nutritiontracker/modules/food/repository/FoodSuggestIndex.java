@@ -0,0 +1,314 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Typeahead index over food names and brands.
+ *
+ * The snapshot is a sorted array of completion keys, one per word start in
+ * the normalized "name\nbrand" text. A key is just (food slot, text offset),
+ * so no key strings are materialised. A max segment tree over the keys'
+ * popularity weights yields the top foods of any prefix range without
+ * scanning it. Changes since the last rebuild sit in a small overlay that is
+ * checked linearly and wins over the snapshot.
+ */
+final class FoodSuggestIndex {
+
+    private static final Entry REMOVED = new Entry(null, "", 0f);
+
+    private volatile Snapshot snapshot = Snapshot.build(Collections.emptyList(), Collections.emptyMap());
+    private volatile Map<String, Long> popularity = Collections.emptyMap();
+    private final Map<String, Entry> overlay = new ConcurrentHashMap<>();
+
+    /**
+     * Replace the snapshot. Overlay entries already reflected in the given
+     * documents are dropped; ones written during the rebuild are kept.
+     */
+    void rebuild(Collection<ElasticFoodDocument> docs, Map<String, Long> popularity, Map<String, Entry> seenOverlay) {
+        this.popularity = popularity;
+        this.snapshot = Snapshot.build(docs, popularity);
+        seenOverlay.forEach((id, entry) -> overlay.remove(id, entry));
+    }
+
+    Map<String, Entry> overlaySnapshot() {
+        return new HashMap<>(overlay);
+    }
+
+    Map<String, Long> popularity() {
+        return popularity;
+    }
+
+    int overlaySize() {
+        return overlay.size();
+    }
+
+    void put(ElasticFoodDocument doc) {
+        overlay.put(doc.getId(), Entry.of(doc, popularity));
+    }
+
+    void remove(String id) {
+        overlay.put(id, REMOVED);
+    }
+
+    /**
+     * Top foods whose name or brand has a word starting with the prefix,
+     * ranked by popularity plus the caller's per-food boosts
+     */
+    List<ElasticFoodDocument> suggest(String prefix, int limit, Map<String, Double> boosts) {
+        String normalized = String.join(" ", FoodSearchIndex.tokenize(prefix));
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        Snapshot current = snapshot;
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+
+        // Most popular snapshot foods in the prefix range, skipping ones the overlay replaced
+        int from = current.lowerBound(normalized, false);
+        int to = current.lowerBound(normalized, true) - 1;
+        if (from <= to) {
+            PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                    Comparator.comparingDouble((int[] range) -> -current.keyWeight(range[2])));
+            ranges.add(new int[]{from, to, current.argMax(from, to)});
+            while (!ranges.isEmpty() && candidates.size() < limit) {
+                int[] range = ranges.poll();
+                int best = range[2];
+                Entry entry = current.foods[current.keySlot[best]];
+                if (!overlay.containsKey(entry.doc.getId())) {
+                    candidates.putIfAbsent(entry.doc.getId(), new Candidate(entry, entry.weight));
+                }
+                if (range[0] < best) {
+                    ranges.add(new int[]{range[0], best - 1, current.argMax(range[0], best - 1)});
+                }
+                if (best < range[1]) {
+                    ranges.add(new int[]{best + 1, range[1], current.argMax(best + 1, range[1])});
+                }
+            }
+        }
+
+        for (Entry entry : overlay.values()) {
+            if (entry != REMOVED && entry.matches(normalized)) {
+                candidates.put(entry.doc.getId(), new Candidate(entry, entry.weight));
+            }
+        }
+
+        // Boosted foods may rank below the popularity cut, so they are checked directly
+        boosts.forEach((id, boost) -> {
+            Entry entry = overlay.get(id);
+            if (entry == null) {
+                Integer slot = current.slotById.get(id);
+                entry = slot != null ? current.foods[slot] : null;
+            }
+            if (entry != null && entry != REMOVED && entry.matches(normalized)) {
+                candidates.put(id, new Candidate(entry, entry.weight + boost));
+            }
+        });
+
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingDouble((Candidate c) -> -c.score)
+                .thenComparingInt(c -> c.entry.text.length())
+                .thenComparing(c -> c.entry.text));
+
+        List<ElasticFoodDocument> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).entry.doc);
+        }
+        return result;
+    }
+
+    static final class Entry {
+        private final ElasticFoodDocument doc;
+        private final String text;
+        private final float weight;
+
+        private Entry(ElasticFoodDocument doc, String text, float weight) {
+            this.doc = doc;
+            this.text = text;
+            this.weight = weight;
+        }
+
+        private static Entry of(ElasticFoodDocument doc, Map<String, Long> popularity) {
+            String text = String.join(" ", FoodSearchIndex.tokenize(doc.getName())) + "\n"
+                    + String.join(" ", FoodSearchIndex.tokenize(doc.getBrand()));
+            return new Entry(doc, text, (float) Math.log1p(popularity.getOrDefault(doc.getId(), 0L)));
+        }
+
+        private boolean matches(String prefix) {
+            for (int offset = 0; offset < text.length(); offset++) {
+                if (isWordStart(text, offset) && text.startsWith(prefix, offset)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static boolean isWordStart(String text, int offset) {
+        if (text.charAt(offset) == '\n') {
+            return false;
+        }
+        if (offset == 0) {
+            return true;
+        }
+        char previous = text.charAt(offset - 1);
+        return previous == ' ' || previous == '\n';
+    }
+
+    private static final class Candidate {
+        private final Entry entry;
+        private final double score;
+
+        private Candidate(Entry entry, double score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Entry[] foods;
+        private final Map<String, Integer> slotById;
+        private final int[] keySlot;
+        private final int[] keyOffset;
+        private final int[] tree;
+        private final int size;
+
+        private Snapshot(Entry[] foods, Map<String, Integer> slotById, int[] keySlot, int[] keyOffset) {
+            this.foods = foods;
+            this.slotById = slotById;
+            this.keySlot = keySlot;
+            this.keyOffset = keyOffset;
+            this.size = keySlot.length;
+            this.tree = new int[2 * Math.max(size, 1)];
+            for (int i = 0; i < size; i++) {
+                tree[size + i] = i;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+            }
+        }
+
+        private static Snapshot build(Collection<ElasticFoodDocument> docs, Map<String, Long> popularity) {
+            Entry[] foods = new Entry[docs.size()];
+            Map<String, Integer> slotById = new HashMap<>(docs.size() * 2);
+            int keyCount = 0;
+            int slot = 0;
+            for (ElasticFoodDocument doc : docs) {
+                Entry entry = Entry.of(doc, popularity);
+                foods[slot] = entry;
+                slotById.put(doc.getId(), slot++);
+                for (int offset = 0; offset < entry.text.length(); offset++) {
+                    if (isWordStart(entry.text, offset)) {
+                        keyCount++;
+                    }
+                }
+            }
+
+            // Keys are packed as slot << 32 | offset while sorting
+            long[] keys = new long[keyCount];
+            int k = 0;
+            for (int i = 0; i < foods.length; i++) {
+                String text = foods[i].text;
+                for (int offset = 0; offset < text.length(); offset++) {
+                    if (isWordStart(text, offset)) {
+                        keys[k++] = ((long) i << 32) | offset;
+                    }
+                }
+            }
+            Long[] boxed = Arrays.stream(keys).boxed().toArray(Long[]::new);
+            Arrays.sort(boxed, (a, b) -> compareSuffixes(foods, a, b));
+
+            int[] keySlot = new int[keyCount];
+            int[] keyOffset = new int[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keySlot[i] = (int) (boxed[i] >>> 32);
+                keyOffset[i] = (int) (long) boxed[i];
+            }
+            return new Snapshot(foods, slotById, keySlot, keyOffset);
+        }
+
+        private static int compareSuffixes(Entry[] foods, long a, long b) {
+            String textA = foods[(int) (a >>> 32)].text;
+            String textB = foods[(int) (b >>> 32)].text;
+            int offsetA = (int) a;
+            int offsetB = (int) b;
+            int length = Math.min(textA.length() - offsetA, textB.length() - offsetB);
+            for (int i = 0; i < length; i++) {
+                int diff = textA.charAt(offsetA + i) - textB.charAt(offsetB + i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (textA.length() - offsetA) - (textB.length() - offsetB);
+        }
+
+        /**
+         * First key that starts with the prefix or sorts after it; with
+         * {@code after} set, the first key past every key with the prefix
+         */
+        private int lowerBound(String prefix, boolean after) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = comparePrefix(mid, prefix);
+                if (cmp < 0 || (after && cmp == 0)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private int comparePrefix(int key, String prefix) {
+            String text = foods[keySlot[key]].text;
+            int offset = keyOffset[key];
+            for (int i = 0; i < prefix.length(); i++) {
+                if (offset + i >= text.length()) {
+                    return -1;
+                }
+                int diff = text.charAt(offset + i) - prefix.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return 0;
+        }
+
+        private float keyWeight(int key) {
+            return foods[keySlot[key]].weight;
+        }
+
+        private int better(int a, int b) {
+            return keyWeight(b) > keyWeight(a) ? b : a;
+        }
+
+        /**
+         * Heaviest key in [from, to]
+         */
+        private int argMax(int from, int to) {
+            int best = from;
+            for (int l = from + size, r = to + size + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) {
+                    best = better(best, tree[l++]);
+                }
+                if ((r & 1) == 1) {
+                    best = better(best, tree[--r]);
+                }
+            }
+            return best;
+        }
+    }
+}
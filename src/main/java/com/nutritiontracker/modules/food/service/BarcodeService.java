@@ -1,25 +1,23 @@
 package com.nutritiontracker.modules.food.service;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nutritiontracker.common.exception.ExternalApiException;
+import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
+import com.nutritiontracker.modules.external.dto.Nutriments;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
 import com.nutritiontracker.modules.food.dto.BarcodeSearchResponseDto;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.mapper.FoodMapper;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
-import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -28,20 +26,32 @@ public class BarcodeService {
 
     private final FoodRepository foodRepository;
     private final FoodMapper foodMapper;
-    private final WebClient.Builder webClientBuilder;
+    private final OpenFoodFactsClient openFoodFactsClient;
 
-    @Value("${external.openfoodfacts.base-url}")
-    private String openFoodFactsBaseUrl;
-
-    @Value("${external.openfoodfacts.timeout:5000}")
-    private int timeout;
+    /**
+     * Search for food by barcode, blocking until the answer is known.
+     * Request handlers should prefer {@link #searchByBarcodeAsync}.
+     */
+    @Transactional(readOnly = true)
+    public BarcodeSearchResponseDto searchByBarcode(String barcode) {
+        try {
+            return searchByBarcodeAsync(barcode).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
 
     /**
      * Search for food by barcode
-     * First checks local database, then falls back to Open Food Facts API
+     * First checks local database, then falls back to Open Food Facts API.
+     * The local lookup runs on the calling thread; the upstream call does not
+     * hold it, so slow Open Food Facts responses do not tie up request threads.
      */
     @Transactional(readOnly = true)
-    public BarcodeSearchResponseDto searchByBarcode(String barcode) {
+    public CompletableFuture<BarcodeSearchResponseDto> searchByBarcodeAsync(String barcode) {
         log.info("Searching for food with barcode: {}", barcode);
 
         if (barcode == null || barcode.isBlank()) {
@@ -53,63 +63,49 @@ public class BarcodeService {
         if (localFood.isPresent()) {
             log.info("Food found in local database for barcode: {}", barcode);
             FoodResponseDto foodDto = foodMapper.toDto(localFood.get());
-            return BarcodeSearchResponseDto.fromLocal(foodDto);
+            return CompletableFuture.completedFuture(BarcodeSearchResponseDto.fromLocal(foodDto));
         }
 
         // If not found locally, query Open Food Facts API
         log.info("Food not found locally, querying Open Food Facts API for barcode: {}", barcode);
+        String trimmed = barcode.trim();
+        CompletableFuture<OpenFoodFactsProduct> upstream;
         try {
-            FoodResponseDto externalFood = fetchFromOpenFoodFacts(barcode.trim());
-            if (externalFood != null) {
-                return BarcodeSearchResponseDto.fromExternal(externalFood);
-            }
-        } catch (Exception e) {
+            upstream = openFoodFactsClient.getProductByBarcodeAsync(trimmed);
+        } catch (RuntimeException e) {
             log.error("Error fetching from Open Food Facts API", e);
             throw new ExternalApiException("Failed to fetch data from Open Food Facts: " + e.getMessage(), e);
         }
 
-        // Not found anywhere
-        log.info("Food not found for barcode: {}", barcode);
-        return BarcodeSearchResponseDto.notFound(barcode);
-    }
-
-    /**
-     * Fetch food data from Open Food Facts API
-     */
-    private FoodResponseDto fetchFromOpenFoodFacts(String barcode) {
-        WebClient webClient = webClientBuilder
-                .baseUrl(openFoodFactsBaseUrl)
-                .build();
-
-        try {
-            OpenFoodFactsResponse response = webClient.get()
-                    .uri("/api/v0/product/{barcode}.json", barcode)
-                    .retrieve()
-                    .bodyToMono(OpenFoodFactsResponse.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .onErrorResume(e -> {
-                        log.warn("Error calling Open Food Facts API: {}", e.getMessage());
-                        return Mono.empty();
-                    })
-                    .block();
-
-            if (response != null && response.getStatus() == 1 && response.getProduct() != null) {
-                return mapOpenFoodFactsToDto(response.getProduct(), barcode);
+        return upstream.handle((product, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                if (!(cause instanceof ExternalApiException)) {
+                    log.error("Error fetching from Open Food Facts API", cause);
+                    throw new ExternalApiException(
+                            "Failed to fetch data from Open Food Facts: " + cause.getMessage(), cause);
+                }
+                // Upstream down or shedding load; the local database was already checked
+                log.warn("Open Food Facts unavailable for barcode {}: {}", barcode, cause.getMessage());
+                return BarcodeSearchResponseDto.unavailable(barcode);
+            }
+            if (product != null) {
+                return BarcodeSearchResponseDto.fromExternal(mapOpenFoodFactsToDto(product, trimmed));
             }
 
-            return null;
-        } catch (Exception e) {
-            log.error("Unexpected error fetching from Open Food Facts", e);
-            return null;
-        }
+            // Not found anywhere
+            log.info("Food not found for barcode: {}", barcode);
+            return BarcodeSearchResponseDto.notFound(barcode);
+        });
     }
 
     /**
      * Map Open Food Facts product to our DTO
      */
     private FoodResponseDto mapOpenFoodFactsToDto(OpenFoodFactsProduct product, String barcode) {
-        OpenFoodFactsNutriments nutriments = product.getNutriments() != null ? product.getNutriments()
-                : new OpenFoodFactsNutriments();
+        Nutriments nutriments = product.getNutriments() != null ? product.getNutriments() : new Nutriments();
 
         FoodResponseDto.NutritionalInfoDto nutritionalInfo = FoodResponseDto.NutritionalInfoDto.builder()
                 .calories(convertToGrams(nutriments.getEnergyKcal100g()))
@@ -145,69 +141,4 @@ public class BarcodeService {
     private BigDecimal convertToMg(Double value) {
         return value != null ? BigDecimal.valueOf(value * 1000) : BigDecimal.ZERO; // Convert g to mg
     }
-
-    // DTOs for Open Food Facts API response
-    @Data
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class OpenFoodFactsResponse {
-        private int status;
-        private OpenFoodFactsProduct product;
-    }
-
-    @Data
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class OpenFoodFactsProduct {
-        @JsonProperty("product_name")
-        private String productName;
-
-        private String brands;
-
-        private OpenFoodFactsNutriments nutriments;
-    }
-
-    @Data
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class OpenFoodFactsNutriments {
-        @JsonProperty("energy-kcal_100g")
-        private Double energyKcal100g;
-
-        @JsonProperty("proteins_100g")
-        private Double proteins100g;
-
-        @JsonProperty("carbohydrates_100g")
-        private Double carbohydrates100g;
-
-        @JsonProperty("fat_100g")
-        private Double fat100g;
-
-        @JsonProperty("fiber_100g")
-        private Double fiber100g;
-
-        @JsonProperty("sugars_100g")
-        private Double sugars100g;
-
-        @JsonProperty("saturated-fat_100g")
-        private Double saturatedFat100g;
-
-        @JsonProperty("sodium_100g")
-        private Double sodium100g;
-
-        @JsonProperty("calcium_100g")
-        private Double calcium100g;
-
-        @JsonProperty("iron_100g")
-        private Double iron100g;
-
-        @JsonProperty("potassium_100g")
-        private Double potassium100g;
-
-        @JsonProperty("vitamin-a_100g")
-        private Double vitaminA100g;
-
-        @JsonProperty("vitamin-c_100g")
-        private Double vitaminC100g;
-
-        @JsonProperty("vitamin-d_100g")
-        private Double vitaminD100g;
-    }
 }
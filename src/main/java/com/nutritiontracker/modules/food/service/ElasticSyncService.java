@@ -1,48 +1,255 @@
 package com.nutritiontracker.modules.food.service;
 
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
+import com.nutritiontracker.common.startup.WarmUpTask;
 import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
 import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.listener.FoodSyncListener;
 import com.nutritiontracker.modules.food.repository.ElasticFoodRepository;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps the in-process search index (ElasticFoodRepository) in line with the
+ * food catalog: a full rebuild as a startup warm-up task, then changes from
+ * the outbox and from other instances. Changes made on other instances only
+ * arrive over the best-effort invalidation bus and the index has no TTL, so a
+ * periodic rebuild catches up on any message this instance missed.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
-public class ElasticSyncService {
+@Order(3)
+public class ElasticSyncService implements WarmUpTask {
 
     private final FoodRepository foodRepository;
     private final ElasticFoodRepository elasticFoodRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final int chunkSize;
+    private final int maxPendingChunks;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService converters;
 
-    @EventListener(ApplicationReadyEvent.class)
-    public void syncAllFoodsOnStartup() {
-        log.info("Starting initial bulk sync of Foods to Elasticsearch...");
+    public ElasticSyncService(
+            FoodRepository foodRepository,
+            ElasticFoodRepository elasticFoodRepository,
+            CacheInvalidationBus invalidationBus,
+            @Value("${app.search.reindex.chunk-size:1000}") int chunkSize,
+            @Value("${app.search.reindex.converters:2}") int converterCount) {
+        this.foodRepository = foodRepository;
+        this.elasticFoodRepository = elasticFoodRepository;
+        this.invalidationBus = invalidationBus;
+        this.chunkSize = chunkSize;
+        this.maxPendingChunks = converterCount * 2;
 
-        long count = elasticFoodRepository.count();
-        if (count > 0) {
-            log.info("Elasticsearch already contains {} foods. Skipping startup sync.", count);
+        // One reindex at a time, never on the thread that started it
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread thread = new Thread(r, "search-reindex");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        AtomicInteger converterThreads = new AtomicInteger();
+        this.converters = Executors.newFixedThreadPool(converterCount, r -> {
+            Thread thread = new Thread(r, "search-reindex-converter-" + converterThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void subscribeToFoodChanges() {
+        invalidationBus.subscribe(FoodSyncListener.FOOD_REGION, this::refreshFoods);
+    }
+
+    /**
+     * Re-reads the foods another instance changed, given as a comma-separated
+     * id list, so this instance's in-memory search index matches the database
+     */
+    void refreshFoods(String ids) {
+        if (ids == null) {
             return;
         }
+        applyChanges(Arrays.stream(ids.split(",")).map(Long::valueOf).collect(Collectors.toList()));
+    }
 
-        List<Food> allFoods = foodRepository.findAll();
-        if (allFoods.isEmpty()) {
-            log.info("No foods found in MySQL database to sync.");
+    /**
+     * Brings the documents of the given foods in line with the database in
+     * one pass, dropping foods that no longer exist, and tells the other
+     * instances to pick them up. Fed by FoodIndexOutboxRelay.
+     */
+    public void indexFoods(Collection<Long> ids) {
+        if (ids.isEmpty()) {
             return;
         }
+        applyChanges(ids);
+        publishChanges(ids);
+    }
 
-        List<ElasticFoodDocument> docs = allFoods.stream()
+    private void applyChanges(Collection<Long> ids) {
+        List<Food> foods = foodRepository.findAllByIdWithNutritionalInfo(ids);
+        elasticFoodRepository.saveChanges(foods.stream()
                 .map(this::convertToElasticDocument)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+
+        Set<Long> found = foods.stream().map(Food::getId).collect(Collectors.toSet());
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                elasticFoodRepository.deleteById(String.valueOf(id));
+            }
+        }
+    }
+
+    /**
+     * One message per batch, so peers re-read it with a single query; split
+     * only where the id list would not fit the bus's key column
+     */
+    private void publishChanges(Collection<Long> ids) {
+        StringBuilder key = new StringBuilder();
+        for (Long id : ids) {
+            String next = String.valueOf(id);
+            if (key.length() > 0 && key.length() + 1 + next.length() > CacheInvalidationBus.MAX_KEY_LENGTH) {
+                invalidationBus.publish(FoodSyncListener.FOOD_REGION, key.toString());
+                key.setLength(0);
+            }
+            if (key.length() > 0) {
+                key.append(',');
+            }
+            key.append(next);
+        }
+        invalidationBus.publish(FoodSyncListener.FOOD_REGION, key.toString());
+    }
+
+    @Override
+    public String name() {
+        return "search-index";
+    }
+
+    /**
+     * The startup rebuild. Until it swaps in, FoodService answers searches
+     * from the database.
+     */
+    @Override
+    public void warmUp() throws InterruptedException {
+        reindex();
+    }
+
+    /**
+     * Database search is only a stopgap, so the instance is not ready
+     * without an index
+     */
+    @Override
+    public boolean critical() {
+        return true;
+    }
+
+    /**
+     * Rebuild the whole search index in the background; false when a rebuild
+     * is already running
+     */
+    public boolean startReindex() {
+        try {
+            executor.execute(() -> {
+                try {
+                    reindex();
+                } catch (Exception e) {
+                    log.error("Search reindex failed; the previous index stays live", e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Search reindex already running");
+            return false;
+        }
+    }
+
+    /**
+     * Bounds how long a change lost on the bus can stay out of this
+     * instance's index. Skipped while a rebuild is already running.
+     */
+    @Scheduled(fixedDelayString = "${app.search.reindex.catch-up-interval:21600000}",
+            initialDelayString = "${app.search.reindex.catch-up-interval:21600000}")
+    public void catchUp() {
+        if (startReindex()) {
+            log.info("Started catch-up search reindex");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        converters.shutdownNow();
+    }
+
+    /**
+     * Read the catalog in keyset chunks on id, each with its nutritional info
+     * in the same query, convert the chunks on the converter pool and add
+     * them to a new index, which replaces the live one once complete. Only a
+     * few chunks are in flight, so memory stays flat however large the
+     * catalog is. Returns how many foods were indexed.
+     */
+    int reindex() throws InterruptedException {
+        long started = System.nanoTime();
+        ElasticFoodRepository.Reindex build = elasticFoodRepository.beginReindex();
+        try {
+            Semaphore inFlight = new Semaphore(maxPendingChunks);
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            long afterId = 0;
+            while (true) {
+                List<Food> foods = foodRepository.findChunkAfter(afterId, PageRequest.of(0, chunkSize));
+                if (foods.isEmpty()) {
+                    break;
+                }
+                afterId = foods.get(foods.size() - 1).getId();
+
+                inFlight.acquire();
+                chunks.add(CompletableFuture
+                        .runAsync(() -> build.addAll(foods.stream()
+                                .map(this::convertToElasticDocument)
+                                .collect(Collectors.toList())), converters)
+                        .whenComplete((done, error) -> inFlight.release()));
+                // Failed chunks stay, so the join below rethrows and the build is dropped
+                chunks.removeIf(chunk -> chunk.isDone() && !chunk.isCompletedExceptionally());
+                if (chunks.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+
+            build.finish();
+        } catch (InterruptedException | RuntimeException e) {
+            build.abort();
+            throw e;
+        }
 
-        elasticFoodRepository.saveAll(docs);
-        log.info("Successfully synced {} foods to Elasticsearch.", docs.size());
+        int indexed = build.size();
+        log.info("Indexed {} foods for search in {} ms", indexed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return indexed;
     }
 
     private ElasticFoodDocument convertToElasticDocument(Food food) {
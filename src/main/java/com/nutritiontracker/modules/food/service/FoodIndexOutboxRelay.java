@@ -0,0 +1,185 @@
+package com.nutritiontracker.modules.food.service;
+
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the food index outbox into the search index, off the write path.
+ *
+ * Each batch claims due entries, collapses them to one update per food and
+ * indexes those foods in bulk (ElasticSyncService.indexFoods, which also tells
+ * the other instances), then deletes the entries in the same transaction. A
+ * failed batch stays in the outbox with an exponential backoff per entry.
+ * Drains run on their own thread, woken by the poll and right after a food
+ * change commits.
+ *
+ * Backlog size and the age of the oldest entry are exported as
+ * search.index.outbox.pending and search.index.outbox.lag, and the time from
+ * enqueue to index as search.index.outbox.delay.
+ */
+@Service
+@Slf4j
+public class FoodIndexOutboxRelay {
+
+    private final FoodIndexOutboxRepository outboxRepository;
+    private final ElasticSyncService elasticSyncService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Timer delay;
+    private final Counter retries;
+
+    public FoodIndexOutboxRelay(
+            FoodIndexOutboxRepository outboxRepository,
+            ElasticSyncService elasticSyncService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.search.outbox.batch-size:500}") int batchSize,
+            @Value("${app.search.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+            @Value("${app.search.outbox.max-backoff:PT5M}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.elasticSyncService = elasticSyncService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        // One drain running and at most one more waiting; further wake-ups add nothing
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                r -> {
+                    Thread thread = new Thread(r, "food-index-outbox");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+
+        Gauge.builder("search.index.outbox.pending", pending, AtomicLong::get)
+                .description("Food index outbox entries waiting to be indexed")
+                .register(meterRegistry);
+        Gauge.builder("search.index.outbox.lag", lagMillis, millis -> millis.get() / 1000.0)
+                .description("Age of the oldest food index outbox entry")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.delay = Timer.builder("search.index.outbox.delay")
+                .description("Time from a food change to its search index update")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.retries = Counter.builder("search.index.outbox.retries")
+                .description("Food index outbox entries put back after a failed batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.outbox.poll-interval:1000}")
+    public void poll() {
+        signal();
+    }
+
+    /**
+     * Drain soon on the relay thread
+     */
+    public void signal() {
+        executor.execute(this::drain);
+    }
+
+    /**
+     * Drain once the current transaction commits, or now without one
+     */
+    public void signalAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            signal();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                signal();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Index everything due, batch by batch. Returns how many entries were drained.
+     */
+    int drain() {
+        int drained = 0;
+        try {
+            int batch;
+            do {
+                batch = transactionTemplate.execute(status -> drainBatch());
+                drained += batch;
+            } while (batch == batchSize && !Thread.currentThread().isInterrupted());
+
+            FoodIndexOutboxRepository.Backlog backlog = outboxRepository.backlog();
+            pending.set(backlog.pending());
+            lagMillis.set(backlog.oldestAge().toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Food index outbox drain failed: {}", e.getMessage());
+        }
+        return drained;
+    }
+
+    private int drainBatch() {
+        List<FoodIndexOutboxRepository.Entry> entries = outboxRepository.claim(batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // Oldest entry per food, which is what the delay is measured from
+        Map<Long, Duration> ageByFood = new LinkedHashMap<>();
+        for (FoodIndexOutboxRepository.Entry entry : entries) {
+            ageByFood.merge(entry.foodId(), entry.age(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        }
+
+        try {
+            elasticSyncService.indexFoods(ageByFood.keySet());
+        } catch (RuntimeException e) {
+            Map<Long, Duration> delays = new HashMap<>();
+            entries.forEach(entry -> delays.put(entry.id(), backoff(entry.attempts())));
+            outboxRepository.retryLater(delays);
+            retries.increment(entries.size());
+            log.warn("Indexing {} foods from the outbox failed, retrying later: {}", ageByFood.size(),
+                    e.getMessage());
+            return 0;
+        }
+
+        outboxRepository.delete(entries.stream().map(FoodIndexOutboxRepository.Entry::id).toList());
+        ageByFood.values().forEach(delay::record);
+        return entries.size();
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,61 @@
+package com.nutritiontracker.modules.food.service;
+
+import com.nutritiontracker.common.startup.WarmUpTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs food search and typeahead for a few common queries, once the search
+ * index is in, so the JIT compiles the scoring and mapping paths before users
+ * hit them rather than on their first requests. Calls the services directly:
+ * the endpoints need a user, and the work worth compiling is below them.
+ */
+@Component
+@Order(4)
+@Slf4j
+public class FoodSearchWarmUp implements WarmUpTask {
+
+    private static final int SUGGEST_LIMIT = 10;
+
+    private final FoodService foodService;
+    private final FoodSuggestService foodSuggestService;
+    private final List<String> queries;
+    private final int iterations;
+
+    public FoodSearchWarmUp(
+            FoodService foodService,
+            FoodSuggestService foodSuggestService,
+            @Value("${app.startup.warm-up.search-queries:chicken,rice,apple,yogurt,bread}") List<String> queries,
+            @Value("${app.startup.warm-up.search-iterations:50}") int iterations) {
+        this.foodService = foodService;
+        this.foodSuggestService = foodSuggestService;
+        this.queries = queries;
+        this.iterations = iterations;
+    }
+
+    @Override
+    public String name() {
+        return "food-search";
+    }
+
+    @Override
+    public void warmUp() {
+        int calls = 0;
+        for (int i = 0; i < iterations && !Thread.currentThread().isInterrupted(); i++) {
+            for (String query : queries) {
+                foodService.searchFoods(query, null, null, null, null, null, null, null, null, null,
+                        PageRequest.of(0, 20));
+                for (int length = 1; length <= Math.min(3, query.length()); length++) {
+                    foodSuggestService.suggest(query.substring(0, length), SUGGEST_LIMIT, null);
+                }
+                calls++;
+            }
+        }
+        log.debug("Warmed up food search with {} queries", calls);
+    }
+}
@@ -1,12 +1,15 @@
 package com.nutritiontracker.modules.food.service;
 
+import com.nutritiontracker.common.dto.CursorPage;
 import com.nutritiontracker.common.exception.ResourceNotFoundException;
 import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.food.dto.FoodCursor;
 import com.nutritiontracker.modules.food.dto.FoodRequestDto;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.mapper.FoodMapper;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
+import com.nutritiontracker.modules.food.repository.FoodSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -15,6 +18,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +29,10 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional(readOnly = true)
 public class FoodService {
 
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_RELEVANCE_OFFSET = 10_000;
+    private static final java.util.Set<String> SCROLL_SORT_FIELDS = java.util.Set.of("name", "createdAt", "id");
+
     private final FoodRepository foodRepository;
     private final com.nutritiontracker.modules.food.repository.ElasticFoodRepository elasticFoodRepository;
     private final FoodMapper foodMapper;
@@ -32,7 +41,6 @@ public class FoodService {
      * Create a new food
      */
     @Transactional
-    @CacheEvict(value = { "frequentFoods", "recentFoods" }, allEntries = true)
     public FoodResponseDto createFood(FoodRequestDto requestDto) {
         log.info("Creating new food: {}", requestDto.getName());
 
@@ -53,7 +61,7 @@ public class FoodService {
     /**
      * Get food by ID
      */
-    @Cacheable(value = "foodById", key = "#id")
+    @Cacheable(value = "foodById", key = "#id", sync = true)
     public FoodResponseDto getFoodById(Long id) {
         log.debug("Fetching food with id: {}", id);
 
@@ -91,16 +99,21 @@ public class FoodService {
         log.debug("Searching foods with filters: query={}, category={}, minCal={}, maxCal={}",
                 query, category, minCalories, maxCalories);
 
-        // If query is present and complex, delegate to Elasticsearch
-        if (query != null && !query.trim().isEmpty()) {
-            log.debug("Using Elasticsearch for complex text query: {}", query);
+        // Text queries go to the search index, which also applies the category and macro filters.
+        // Until the index is loaded it would miss most foods, so the database answers them.
+        if (query != null && !query.trim().isEmpty() && elasticFoodRepository.isLoaded()) {
+            log.debug("Using search index for text query: {}", query);
 
-            // Remove sort from pageable to let Elasticsearch sort by relevance score
-            // Sorting on a text field like 'name' throws fielddata=true exception
+            // Results are ordered by relevance, so the requested sort is dropped
             Pageable esPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
 
             Page<com.nutritiontracker.modules.food.entity.ElasticFoodDocument> elasticPage = elasticFoodRepository
-                    .fuzzySearch(query, esPageable);
+                    .search(query, category,
+                            minCalories, maxCalories,
+                            minProtein, maxProtein,
+                            minCarbs, maxCarbs,
+                            minFats, maxFats,
+                            esPageable);
 
             if (elasticPage.isEmpty()) {
                 return Page.empty(pageable);
@@ -110,8 +123,8 @@ public class FoodService {
                     .map(doc -> Long.valueOf(doc.getId()))
                     .toList();
 
-            // Fetch from MySQL to get full entity info
-            java.util.List<Food> foods = foodRepository.findAllById(ids);
+            // Fetch from MySQL to get full entity info, nutrients and serving units included
+            java.util.List<Food> foods = foodRepository.findAllByIdWithNutritionalInfo(ids);
 
             // Re-order based on ElasticSearch relevance score order
             java.util.Map<Long, Food> foodMap = foods.stream()
@@ -126,6 +139,33 @@ public class FoodService {
             return new org.springframework.data.domain.PageImpl<>(sortedDtos, pageable, elasticPage.getTotalElements());
         }
 
+        // Filter-only queries in name order are answered by the in-memory nutrient columns
+        if (elasticFoodRepository.isLoaded() && isNameOrder(pageable.getSort())) {
+            Page<Long> idPage = elasticFoodRepository.findIdsByNutrients(category,
+                    minCalories, maxCalories,
+                    minProtein, maxProtein,
+                    minCarbs, maxCarbs,
+                    minFats, maxFats,
+                    pageable);
+
+            if (idPage.isEmpty()) {
+                return new PageImpl<>(java.util.Collections.emptyList(), pageable, idPage.getTotalElements());
+            }
+
+            // Hydrate only the requested page, keeping the index order
+            java.util.Map<Long, Food> foodMap = foodRepository.findAllByIdWithNutritionalInfo(idPage.getContent())
+                    .stream()
+                    .collect(java.util.stream.Collectors.toMap(Food::getId, f -> f));
+
+            java.util.List<FoodResponseDto> dtos = idPage.getContent().stream()
+                    .map(foodMap::get)
+                    .filter(java.util.Objects::nonNull)
+                    .map(foodMapper::toDto)
+                    .toList();
+
+            return new PageImpl<>(dtos, pageable, idPage.getTotalElements());
+        }
+
         org.springframework.data.jpa.domain.Specification<Food> spec = com.nutritiontracker.modules.food.repository.FoodSpecifications
                 .withFilters(
                         query, category,
@@ -138,11 +178,188 @@ public class FoodService {
         return foods.map(foodMapper::toDto);
     }
 
+    /**
+     * Cursor (keyset) listing and search. Each page seeks past the last
+     * (sort key, id) instead of skipping an offset, and the total is only
+     * counted when asked for, so deep pages cost the same as the first one.
+     * Text queries keep their relevance order.
+     */
+    public CursorPage<FoodResponseDto> scrollFoods(
+            String query,
+            com.nutritiontracker.modules.food.enums.FoodCategory category,
+            java.math.BigDecimal minCalories, java.math.BigDecimal maxCalories,
+            java.math.BigDecimal minProtein, java.math.BigDecimal maxProtein,
+            java.math.BigDecimal minCarbs, java.math.BigDecimal maxCarbs,
+            java.math.BigDecimal minFats, java.math.BigDecimal maxFats,
+            String sortBy, Sort.Direction direction,
+            String cursor, int size, boolean includeTotal) {
+
+        int pageSize = Math.max(1, Math.min(size, MAX_SCROLL_SIZE));
+        FoodCursor after = cursor != null && !cursor.isBlank() ? FoodCursor.decode(cursor) : null;
+
+        // Before the search index is loaded, text queries page by key with a LIKE filter instead
+        boolean text = query != null && !query.trim().isEmpty();
+        if (text && elasticFoodRepository.isLoaded()) {
+            return scrollByRelevance(query, category,
+                    minCalories, maxCalories,
+                    minProtein, maxProtein,
+                    minCarbs, maxCarbs,
+                    minFats, maxFats,
+                    after, pageSize, includeTotal);
+        }
+
+        if (!SCROLL_SORT_FIELDS.contains(sortBy)) {
+            throw new ValidationException("Cursor pagination supports sorting by " + SCROLL_SORT_FIELDS);
+        }
+        if (after != null && (!sortBy.equals(after.getSortBy()) || direction != after.getDirection())) {
+            throw new ValidationException("Cursor does not match the requested sort");
+        }
+
+        Specification<Food> filters = FoodSpecifications.withFilters(text ? query : null, category,
+                minCalories, maxCalories,
+                minProtein, maxProtein,
+                minCarbs, maxCarbs,
+                minFats, maxFats);
+        Specification<Food> spec = after != null
+                ? filters.and(seekAfter(sortBy, direction, after))
+                : filters;
+        Sort sort = "id".equals(sortBy)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+
+        // One extra row tells whether another page follows, without a COUNT
+        java.util.List<Food> foods = foodRepository.findBy(spec,
+                q -> q.sortBy(sort).project("nutritionalInfo").limit(pageSize + 1).all());
+        boolean hasNext = foods.size() > pageSize;
+        java.util.List<Food> content = hasNext ? foods.subList(0, pageSize) : foods;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Food last = content.get(content.size() - 1);
+            nextCursor = FoodCursor.builder()
+                    .sortBy(sortBy)
+                    .direction(direction)
+                    .lastValue(sortValue(last, sortBy))
+                    .lastId(last.getId())
+                    .build()
+                    .encode();
+        }
+
+        return CursorPage.<FoodResponseDto>builder()
+                .content(content.stream().map(foodMapper::toDto).toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .totalElements(includeTotal ? foodRepository.count(filters) : null)
+                .build();
+    }
+
+    private CursorPage<FoodResponseDto> scrollByRelevance(
+            String query,
+            com.nutritiontracker.modules.food.enums.FoodCategory category,
+            java.math.BigDecimal minCalories, java.math.BigDecimal maxCalories,
+            java.math.BigDecimal minProtein, java.math.BigDecimal maxProtein,
+            java.math.BigDecimal minCarbs, java.math.BigDecimal maxCarbs,
+            java.math.BigDecimal minFats, java.math.BigDecimal maxFats,
+            FoodCursor after, int pageSize, boolean includeTotal) {
+
+        if (after != null && !FoodCursor.RELEVANCE.equals(after.getSortBy())) {
+            throw new ValidationException("Cursor does not match the requested sort");
+        }
+        int offset = after != null ? relevanceOffset(after) : 0;
+
+        // The index ranks hits in memory, so only the hits up to the end of this page are ordered
+        Page<com.nutritiontracker.modules.food.entity.ElasticFoodDocument> hits = elasticFoodRepository
+                .search(query, category,
+                        minCalories, maxCalories,
+                        minProtein, maxProtein,
+                        minCarbs, maxCarbs,
+                        minFats, maxFats,
+                        PageRequest.of(0, offset + pageSize + 1));
+
+        java.util.List<Long> ids = hits.getContent().stream()
+                .skip(offset)
+                .limit(pageSize)
+                .map(doc -> Long.valueOf(doc.getId()))
+                .toList();
+        // Relevance paging stops at MAX_RELEVANCE_OFFSET; past that the query should be narrowed
+        boolean hasNext = hits.getContent().size() > offset + pageSize
+                && offset + pageSize <= MAX_RELEVANCE_OFFSET;
+
+        java.util.Map<Long, Food> foodMap = foodRepository.findAllByIdWithNutritionalInfo(ids).stream()
+                .collect(java.util.stream.Collectors.toMap(Food::getId, f -> f));
+
+        return CursorPage.<FoodResponseDto>builder()
+                .content(ids.stream()
+                        .map(foodMap::get)
+                        .filter(java.util.Objects::nonNull)
+                        .map(foodMapper::toDto)
+                        .toList())
+                .nextCursor(hasNext
+                        ? FoodCursor.builder()
+                                .sortBy(FoodCursor.RELEVANCE)
+                                .direction(Sort.Direction.DESC)
+                                .lastValue(String.valueOf(offset + pageSize))
+                                .build()
+                                .encode()
+                        : null)
+                .hasNext(hasNext)
+                .size(pageSize)
+                .totalElements(includeTotal ? hits.getTotalElements() : null)
+                .build();
+    }
+
+    private static Specification<Food> seekAfter(String sortBy, Sort.Direction direction, FoodCursor after) {
+        if (after.getLastId() == null) {
+            throw new ValidationException("Invalid cursor");
+        }
+        try {
+            return switch (sortBy) {
+                case "name" -> FoodSpecifications.seekAfter("name", direction, after.getLastValue(), after.getLastId());
+                case "createdAt" -> FoodSpecifications.seekAfter("createdAt", direction,
+                        java.time.LocalDateTime.parse(after.getLastValue()), after.getLastId());
+                default -> FoodSpecifications.<Long>seekAfter("id", direction, null, after.getLastId());
+            };
+        } catch (java.time.format.DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor", e);
+        }
+    }
+
+    private static int relevanceOffset(FoodCursor after) {
+        try {
+            int offset = Integer.parseInt(after.getLastValue());
+            if (offset < 0 || offset > MAX_RELEVANCE_OFFSET) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid cursor", e);
+        }
+    }
+
+    private static String sortValue(Food food, String sortBy) {
+        return switch (sortBy) {
+            case "name" -> food.getName();
+            case "createdAt" -> food.getCreatedAt().toString();
+            default -> null;
+        };
+    }
+
+    private static boolean isNameOrder(Sort sort) {
+        if (sort.isUnsorted()) {
+            return true;
+        }
+        java.util.List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1
+                && "name".equals(orders.get(0).getProperty())
+                && orders.get(0).isAscending();
+    }
+
     /**
      * Update existing food
      */
     @Transactional
-    @CacheEvict(value = { "foodById", "frequentFoods", "recentFoods" }, allEntries = true)
+    @CacheEvict(value = "foodById", key = "#id")
     public FoodResponseDto updateFood(Long id, FoodRequestDto requestDto) {
         log.info("Updating food with id: {}", id);
 
@@ -169,7 +386,7 @@ public class FoodService {
      * Delete food by ID
      */
     @Transactional
-    @CacheEvict(value = { "foodById", "frequentFoods", "recentFoods" }, allEntries = true)
+    @CacheEvict(value = "foodById", key = "#id")
     public void deleteFood(Long id) {
         log.info("Deleting food with id: {}", id);
 
@@ -1,5 +1,6 @@
 package com.nutritiontracker.modules.food.service;
 
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
 import com.nutritiontracker.common.exception.ResourceNotFoundException;
 import com.nutritiontracker.modules.dailylog.repository.MealEntryRepository;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
@@ -8,14 +9,20 @@ import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.mapper.FoodMapper;
 import com.nutritiontracker.modules.food.repository.FavoriteFoodRepository;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,10 +31,32 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class FoodStatsService {
 
+    private static final double FAVORITE_BOOST = 3.0;
+    private static final int FREQUENT_BOOST_FOODS = 20;
+    private static final int MAX_CACHED_BOOSTS = 10_000;
+    private static final String BOOSTS_REGION = "suggestBoosts";
+
     private final FavoriteFoodRepository favoriteFoodRepository;
     private final FoodRepository foodRepository;
     private final MealEntryRepository mealEntryRepository;
     private final FoodMapper foodMapper;
+    private final CacheInvalidationBus invalidationBus;
+
+    @Value("${app.food.suggest.boost-ttl:300000}")
+    private long boostTtlMillis;
+
+    private final Map<Long, CachedBoosts> suggestionBoosts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribeToInvalidations() {
+        invalidationBus.subscribe(BOOSTS_REGION, userId -> {
+            if (userId == null) {
+                suggestionBoosts.clear();
+            } else {
+                suggestionBoosts.remove(Long.valueOf(userId));
+            }
+        });
+    }
 
     @Transactional
     public void addFavorite(Long foodId, Long userId) {
@@ -42,6 +71,7 @@ public class FoodStatsService {
                 .foodId(foodId)
                 .build();
         favoriteFoodRepository.save(favorite);
+        evictBoosts(userId);
     }
 
     @Transactional
@@ -50,6 +80,45 @@ public class FoodStatsService {
             throw new ResourceNotFoundException("Favorite not found for food id: " + foodId);
         }
         favoriteFoodRepository.deleteByUserIdAndFoodId(userId, foodId);
+        evictBoosts(userId);
+    }
+
+    private void evictBoosts(Long userId) {
+        suggestionBoosts.remove(userId);
+        invalidationBus.publishAfterCommit(BOOSTS_REGION, String.valueOf(userId));
+    }
+
+    /**
+     * Per-food typeahead boosts for the user: favorites, plus their most
+     * frequent foods weighted by rank. Cached briefly so keystrokes after the
+     * first one do not touch the database.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<Long, Double> getSuggestionBoosts(Long userId) {
+        long now = System.currentTimeMillis();
+        CachedBoosts cached = suggestionBoosts.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.boosts;
+        }
+
+        Map<Long, Double> boosts = new HashMap<>();
+        List<Long> frequent = mealEntryRepository.findTopFrequentFoodIds(userId,
+                PageRequest.of(0, FREQUENT_BOOST_FOODS));
+        for (int rank = 0; rank < frequent.size(); rank++) {
+            boosts.put(frequent.get(rank), 1.0 + (double) (frequent.size() - rank) / frequent.size());
+        }
+        for (FavoriteFood favorite : favoriteFoodRepository.findByUserId(userId)) {
+            boosts.merge(favorite.getFoodId(), FAVORITE_BOOST, Double::sum);
+        }
+
+        if (suggestionBoosts.size() >= MAX_CACHED_BOOSTS) {
+            suggestionBoosts.values().removeIf(entry -> entry.expiresAt <= now);
+            if (suggestionBoosts.size() >= MAX_CACHED_BOOSTS) {
+                suggestionBoosts.clear();
+            }
+        }
+        suggestionBoosts.put(userId, new CachedBoosts(boosts, now + boostTtlMillis));
+        return boosts;
     }
 
     public List<FoodResponseDto> getFavorites(Long userId) {
@@ -81,4 +150,14 @@ public class FoodStatsService {
                 .map(foodMapper::toDto)
                 .collect(Collectors.toList());
     }
+
+    private static final class CachedBoosts {
+        private final Map<Long, Double> boosts;
+        private final long expiresAt;
+
+        private CachedBoosts(Map<Long, Double> boosts, long expiresAt) {
+            this.boosts = boosts;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package com.nutritiontracker.modules.food.service;
+
+import com.nutritiontracker.modules.dailylog.repository.MealEntryRepository;
+import com.nutritiontracker.modules.food.dto.FoodSuggestionDto;
+import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
+import com.nutritiontracker.modules.food.repository.ElasticFoodRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typeahead suggestions served from the in-memory suggest index. Popularity
+ * weights are reloaded periodically; per-user boosts come from FoodStatsService.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FoodSuggestService {
+
+    private static final int MAX_LIMIT = 20;
+    private static final int MAX_PENDING_CHANGES = 5_000;
+
+    private final ElasticFoodRepository elasticFoodRepository;
+    private final MealEntryRepository mealEntryRepository;
+    private final FoodStatsService foodStatsService;
+
+    public List<FoodSuggestionDto> suggest(String prefix, int limit, Long userId) {
+        if (prefix == null || prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        Map<Long, Double> boosts = userId != null
+                ? foodStatsService.getSuggestionBoosts(userId)
+                : Collections.emptyMap();
+
+        return elasticFoodRepository.suggest(prefix, size, boosts).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    // Reload popularity every 30 minutes, and fold in pending food changes
+    @Scheduled(fixedDelayString = "${app.food.suggest.refresh-interval:1800000}")
+    public void refreshPopularity() {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : mealEntryRepository.countEntriesPerFood()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+        elasticFoodRepository.refreshSuggestions(counts);
+        log.debug("Refreshed food suggestions with popularity of {} foods", counts.size());
+    }
+
+    // Rebuild the in-memory snapshots early when many foods changed since the last one
+    @Scheduled(fixedDelayString = "${app.food.suggest.compact-interval:60000}")
+    public void compactPendingChanges() {
+        elasticFoodRepository.compact(MAX_PENDING_CHANGES);
+    }
+
+    private FoodSuggestionDto toDto(ElasticFoodDocument doc) {
+        return FoodSuggestionDto.builder()
+                .id(Long.valueOf(doc.getId()))
+                .name(doc.getName())
+                .brand(doc.getBrand())
+                .category(doc.getCategory())
+                .calories(doc.getCalories())
+                .build();
+    }
+}
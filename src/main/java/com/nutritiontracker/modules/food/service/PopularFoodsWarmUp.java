@@ -0,0 +1,63 @@
+package com.nutritiontracker.modules.food.service;
+
+import com.nutritiontracker.common.exception.ResourceNotFoundException;
+import com.nutritiontracker.common.startup.WarmUpTask;
+import com.nutritiontracker.modules.dailylog.repository.MealEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads the most logged foods into the foodById cache after startup, so a
+ * fresh instance does not send every popular food lookup to the database.
+ * With the Redis tier enabled most of them come from Redis.
+ */
+@Component
+@Order(1)
+@Slf4j
+public class PopularFoodsWarmUp implements WarmUpTask {
+
+    private final MealEntryRepository mealEntryRepository;
+    private final FoodService foodService;
+    private final int limit;
+
+    public PopularFoodsWarmUp(
+            MealEntryRepository mealEntryRepository,
+            FoodService foodService,
+            @Value("${app.startup.warm-up.popular-foods:500}") int limit) {
+        this.mealEntryRepository = mealEntryRepository;
+        this.foodService = foodService;
+        this.limit = limit;
+    }
+
+    @Override
+    public String name() {
+        return "popular-foods";
+    }
+
+    @Override
+    public void warmUp() {
+        if (limit <= 0) {
+            return;
+        }
+        List<Long> foodIds = mealEntryRepository.findMostLoggedFoodIds(PageRequest.of(0, limit));
+        int loaded = 0;
+        for (Long foodId : foodIds) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                // Through the proxy, so the result lands in the cache
+                foodService.getFoodById(foodId);
+                loaded++;
+            } catch (ResourceNotFoundException e) {
+                log.debug("Popular food {} no longer exists", foodId);
+            }
+        }
+        log.info("Preloaded {} popular foods into the cache", loaded);
+    }
+}
@@ -41,6 +41,7 @@ public class MealTemplateController {
                 .stream()
                 .map(mealTemplateMapper::toDto)
                 .collect(Collectors.toList());
+        templates.addAll(mealTemplateService.getSystemTemplates());
 
         return ResponseEntity.ok(ApiResponse.success(templates));
     }
@@ -12,8 +12,11 @@ import java.util.Optional;
 @Repository
 public interface MealTemplateRepository extends JpaRepository<MealTemplate, Long> {
 
-    @Query("SELECT DISTINCT mt FROM MealTemplate mt LEFT JOIN FETCH mt.items i LEFT JOIN FETCH i.food f LEFT JOIN FETCH f.nutritionalInfo WHERE mt.userId = :userId OR mt.isSystem = true")
-    List<MealTemplate> findByUserIdOrSystemTrue(@Param("userId") Long userId);
+    @Query("SELECT DISTINCT mt FROM MealTemplate mt LEFT JOIN FETCH mt.items i LEFT JOIN FETCH i.food f LEFT JOIN FETCH f.nutritionalInfo WHERE mt.userId = :userId")
+    List<MealTemplate> findByUserIdWithItems(@Param("userId") Long userId);
+
+    @Query("SELECT DISTINCT mt FROM MealTemplate mt LEFT JOIN FETCH mt.items i LEFT JOIN FETCH i.food f LEFT JOIN FETCH f.nutritionalInfo WHERE mt.isSystem = true")
+    List<MealTemplate> findSystemTemplatesWithItems();
 
     @Query("SELECT mt FROM MealTemplate mt LEFT JOIN FETCH mt.items i LEFT JOIN FETCH i.food f LEFT JOIN FETCH f.nutritionalInfo WHERE mt.id = :id")
     Optional<MealTemplate> findByIdWithItems(@Param("id") Long id);
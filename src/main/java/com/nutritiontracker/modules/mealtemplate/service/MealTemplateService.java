@@ -4,28 +4,51 @@ import com.nutritiontracker.common.exception.ResourceNotFoundException;
 import com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto;
 import com.nutritiontracker.modules.dailylog.enums.MealType;
 import com.nutritiontracker.modules.dailylog.service.DailyLogService;
+import com.nutritiontracker.modules.mealtemplate.dto.MealTemplateResponseDto;
 import com.nutritiontracker.modules.mealtemplate.entity.MealTemplate;
 import com.nutritiontracker.modules.mealtemplate.entity.MealTemplateItem;
+import com.nutritiontracker.modules.mealtemplate.mapper.MealTemplateMapper;
 import com.nutritiontracker.modules.mealtemplate.repository.MealTemplateRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MealTemplateService {
 
+    public static final String SYSTEM_TEMPLATES_CACHE = "systemMealTemplates";
+
     private final MealTemplateRepository mealTemplateRepository;
     private final DailyLogService dailyLogService;
+    private final MealTemplateMapper mealTemplateMapper;
 
+    /**
+     * The user's own templates; system templates come from getSystemTemplates
+     */
     @Transactional(readOnly = true)
     public List<MealTemplate> getUserTemplates(Long userId) {
-        return mealTemplateRepository.findByUserIdOrSystemTrue(userId);
+        return mealTemplateRepository.findByUserIdWithItems(userId);
+    }
+
+    /**
+     * System templates, the same for every user. They are seeded by
+     * migrations and cannot be edited, so the cache only expires them.
+     */
+    @Cacheable(value = SYSTEM_TEMPLATES_CACHE, key = "'all'", sync = true)
+    @Transactional(readOnly = true)
+    public List<MealTemplateResponseDto> getSystemTemplates() {
+        return mealTemplateRepository.findSystemTemplatesWithItems().stream()
+                .map(mealTemplateMapper::toDto)
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -89,16 +112,19 @@ public class MealTemplateService {
             targetMealType = MealType.BREAKFAST; // Default if nothing specified
         }
 
+        List<MealEntryRequestDto> requests = new ArrayList<>();
         for (MealTemplateItem item : template.getItems()) {
-            MealEntryRequestDto request = MealEntryRequestDto.builder()
+            requests.add(MealEntryRequestDto.builder()
                     .date(date)
                     .foodId(item.getFood().getId())
                     .quantity(item.getQuantity())
                     .unit(item.getUnit())
                     .mealType(targetMealType)
-                    .build();
+                    .build());
+        }
 
-            dailyLogService.addEntry(request, userId);
+        if (!requests.isEmpty()) {
+            dailyLogService.addEntries(requests, userId);
         }
     }
 }
@@ -0,0 +1,28 @@
+package com.nutritiontracker.modules.mealtemplate.service;
+
+import com.nutritiontracker.common.startup.WarmUpTask;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the system template cache after startup, since every template
+ * listing includes them
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class SystemTemplatesWarmUp implements WarmUpTask {
+
+    private final MealTemplateService mealTemplateService;
+
+    @Override
+    public String name() {
+        return "system-meal-templates";
+    }
+
+    @Override
+    public void warmUp() {
+        mealTemplateService.getSystemTemplates();
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +19,9 @@ public interface RecipeRepository extends JpaRepository<Recipe, Long> {
     @Query("SELECT r FROM Recipe r LEFT JOIN FETCH r.ingredients i LEFT JOIN FETCH i.food f LEFT JOIN FETCH f.nutritionalInfo WHERE r.id = :id")
     Optional<Recipe> findByIdWithIngredients(@Param("id") Long id);
 
+    @Query("SELECT DISTINCT r FROM Recipe r LEFT JOIN FETCH r.ingredients i LEFT JOIN FETCH i.food f LEFT JOIN FETCH f.nutritionalInfo WHERE r.id IN :ids")
+    List<Recipe> findAllByIdWithIngredients(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT r FROM Recipe r WHERE r.isPublic = true OR r.userId = :userId")
     List<Recipe> findPublicOrUserRecipes(@Param("userId") Long userId);
 
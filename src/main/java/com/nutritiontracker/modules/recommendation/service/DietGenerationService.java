@@ -154,9 +154,7 @@ public class DietGenerationService {
         if (plan.getStatus() == DietPlan.DietPlanStatus.ACCEPTED)
             return;
 
-        for (DietRecommendation rec : plan.getRecommendations()) {
-            acceptRecommendation(rec);
-        }
+        acceptRecommendations(plan.getRecommendations());
 
         plan.setStatus(DietPlan.DietPlanStatus.ACCEPTED);
         dietPlanRepository.save(plan);
@@ -167,9 +165,9 @@ public class DietGenerationService {
         DietPlan plan = dietPlanRepository.findById(planId)
                 .orElseThrow(() -> new RuntimeException("Plan not found"));
 
-        plan.getRecommendations().stream()
+        acceptRecommendations(plan.getRecommendations().stream()
                 .filter(rec -> rec.getMealType() == mealType)
-                .forEach(this::acceptRecommendation);
+                .toList());
 
         // Check if all items are accepted to update plan status
         if (plan.getRecommendations().stream()
@@ -179,22 +177,38 @@ public class DietGenerationService {
         }
     }
 
-    private void acceptRecommendation(DietRecommendation recommendation) {
-        if (recommendation.getStatus() == DietRecommendation.RecommendationStatus.ACCEPTED) {
+    /**
+     * Log every pending recommendation through a single batch call to the daily
+     * log, then mark them as accepted.
+     */
+    private void acceptRecommendations(List<DietRecommendation> recommendations) {
+        List<DietRecommendation> pending = recommendations.stream()
+                .filter(rec -> rec.getStatus() != DietRecommendation.RecommendationStatus.ACCEPTED)
+                .toList();
+        if (pending.isEmpty()) {
             return;
         }
 
-        com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto request = new com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto();
-        request.setDate(recommendation.getDate());
-        request.setMealType(recommendation.getMealType());
-        request.setFoodId(recommendation.getFoodId());
-        request.setQuantity(recommendation.getSuggestedQuantity());
+        Set<Long> foodIds = pending.stream().map(DietRecommendation::getFoodId).collect(Collectors.toSet());
+        Map<Long, Food> foods = foodRepository.findAllById(foodIds).stream()
+                .collect(Collectors.toMap(Food::getId, f -> f));
+
+        Map<Long, List<com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto>> requestsByUser = new HashMap<>();
+        for (DietRecommendation recommendation : pending) {
+            com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto request = new com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto();
+            request.setDate(recommendation.getDate());
+            request.setMealType(recommendation.getMealType());
+            request.setFoodId(recommendation.getFoodId());
+            request.setQuantity(recommendation.getSuggestedQuantity());
 
-        Food food = foodRepository.findById(recommendation.getFoodId()).orElse(null);
-        request.setUnit(food != null && food.getServingUnit() != null ? food.getServingUnit() : "g");
+            Food food = foods.get(recommendation.getFoodId());
+            request.setUnit(food != null && food.getServingUnit() != null ? food.getServingUnit() : "g");
+
+            requestsByUser.computeIfAbsent(recommendation.getUserId(), id -> new ArrayList<>()).add(request);
+        }
 
-        dailyLogService.addEntry(request, recommendation.getUserId());
-        recommendation.setStatus(DietRecommendation.RecommendationStatus.ACCEPTED);
+        requestsByUser.forEach((userId, requests) -> dailyLogService.addEntries(requests, userId));
+        pending.forEach(rec -> rec.setStatus(DietRecommendation.RecommendationStatus.ACCEPTED));
     }
 
     private DietPlanResponseDto hydrateAndMap(DietPlan plan, NutritionalTotalsDto dailyGoal) {
@@ -1,8 +1,16 @@
 package com.nutritiontracker.modules.report.controller;
 
+import com.nutritiontracker.common.dto.ApiResponse;
 import com.nutritiontracker.modules.auth.entity.User;
+import com.nutritiontracker.modules.report.dto.ReportJobDto;
+import com.nutritiontracker.modules.report.enums.ReportFormat;
+import com.nutritiontracker.modules.report.service.ReportJobService;
 import com.nutritiontracker.modules.report.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -10,8 +18,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/reports")
@@ -19,36 +30,108 @@ import java.time.LocalDate;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportJobService reportJobService;
 
     @GetMapping(value = "/csv", produces = "text/csv")
-    public ResponseEntity<byte[]> getCsvReport(
+    public ResponseEntity<StreamingResponseBody> getCsvReport(
             @AuthenticationPrincipal User user,
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
 
-        byte[] csvBytes = reportService.generateCsvReport(user.getId(), startDate, endDate);
+        Long userId = user.getId();
+        boolean gzip = acceptsGzip(acceptEncoding);
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_DISPOSITION,
                 "attachment; filename=nutrition_report_" + startDate + "_to_" + endDate + ".csv");
         headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
 
-        return new ResponseEntity<>(csvBytes, headers, HttpStatus.OK);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true);
+                reportService.writeCsvReport(userId, startDate, endDate, gzipOut);
+                gzipOut.finish();
+            } else {
+                reportService.writeCsvReport(userId, startDate, endDate, out);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
+    // PDF content streams are already deflate-compressed, so no gzip here
     @GetMapping(value = "/pdf", produces = MediaType.APPLICATION_PDF_VALUE)
-    public ResponseEntity<byte[]> getPdfReport(
+    public ResponseEntity<StreamingResponseBody> getPdfReport(
             @AuthenticationPrincipal User user,
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
 
-        byte[] pdfBytes = reportService.generatePdfReport(user.getId(), startDate, endDate);
+        Long userId = user.getId();
 
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_DISPOSITION,
                 "attachment; filename=nutrition_report_" + startDate + "_to_" + endDate + ".pdf");
         headers.setContentType(MediaType.APPLICATION_PDF);
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        StreamingResponseBody body = out -> reportService.writePdfReport(userId, startDate, endDate, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    @PostMapping("/jobs")
+    @Operation(summary = "Submit report job", description = "Render a report in the background. Identical requests against unchanged data return the existing job.")
+    public ResponseEntity<ApiResponse<ReportJobDto>> submitReportJob(
+            @AuthenticationPrincipal User user,
+            @RequestParam("format") ReportFormat format,
+            @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        ReportJobDto job = reportJobService.submit(user.getId(), format, startDate, endDate);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success("Report job submitted", job));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get report job status", description = "Status and progress of a report job")
+    public ResponseEntity<ApiResponse<ReportJobDto>> getReportJob(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "Job ID") @PathVariable String jobId) {
+
+        ReportJobDto job = reportJobService.getJob(jobId, user.getId());
+        return ResponseEntity.ok(ApiResponse.success("Report job retrieved successfully", job));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    @Operation(summary = "Download report", description = "Download the artifact of a completed report job")
+    public ResponseEntity<Resource> downloadReportJob(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "Job ID") @PathVariable String jobId) {
+
+        ReportJobDto job = reportJobService.getJob(jobId, user.getId());
+        Path artifact = reportJobService.getArtifact(jobId, user.getId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=nutrition_report_"
+                + job.getStartDate() + "_to_" + job.getEndDate() + "." + job.getFormat().getExtension());
+        headers.setContentType(MediaType.parseMediaType(job.getFormat().getContentType()));
+
+        return new ResponseEntity<>(new FileSystemResource(artifact), headers, HttpStatus.OK);
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // Honour an explicit refusal such as "gzip;q=0"
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 }
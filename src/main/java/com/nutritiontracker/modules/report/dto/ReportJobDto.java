@@ -0,0 +1,29 @@
+package com.nutritiontracker.modules.report.dto;
+
+import com.nutritiontracker.modules.report.enums.ReportFormat;
+import com.nutritiontracker.modules.report.enums.ReportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDto {
+    private String jobId;
+    private ReportFormat format;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private ReportJobStatus status;
+    private Integer progress; // Percentage (0-100)
+    private String error;
+    private Long sizeBytes;
+    private String downloadUrl; // Set once completed
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,8 @@
+package com.nutritiontracker.modules.report.enums;
+
+public enum ReportJobStatus {
+    QUEUED, // Waiting for a worker
+    RUNNING, // Being rendered
+    COMPLETED, // Artifact ready for download
+    FAILED // Rendering failed; a new submit starts over
+}
@@ -0,0 +1,275 @@
+package com.nutritiontracker.modules.report.service;
+
+import com.nutritiontracker.common.exception.ResourceNotFoundException;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.report.dto.ReportJobDto;
+import com.nutritiontracker.modules.report.enums.ReportFormat;
+import com.nutritiontracker.modules.report.enums.ReportJobStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Renders reports in the background on a bounded worker pool and keeps the
+ * artifacts in a local file store. Jobs are deduplicated by user, range,
+ * format and a fingerprint of the underlying data, so an identical repeat
+ * request returns the existing job (and its finished file) immediately.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private final ReportService reportService;
+    private final DailyLogRepository dailyLogRepository;
+    private final Path storeDir;
+    private final long ttlMillis;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, String> jobIdsByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(
+            ReportService reportService,
+            DailyLogRepository dailyLogRepository,
+            @Value("${app.report.jobs.dir:${java.io.tmpdir}/nutrition-reports}") String storeDir,
+            @Value("${app.report.jobs.ttl:3600000}") long ttlMillis,
+            @Value("${app.report.jobs.workers:2}") int workers,
+            @Value("${app.report.jobs.queue-capacity:20}") int queueCapacity) throws IOException {
+        this.reportService = reportService;
+        this.dailyLogRepository = dailyLogRepository;
+        this.storeDir = Paths.get(storeDir);
+        this.ttlMillis = ttlMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Files.createDirectories(this.storeDir);
+        clearStore();
+    }
+
+    /**
+     * Submit a report for rendering, or return the live job for an identical
+     * request made against the same data. Throws RejectedExecutionException
+     * when the queue is full.
+     */
+    public ReportJobDto submit(Long userId, ReportFormat format, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new ValidationException("startDate must not be after endDate");
+        }
+
+        String key = userId + "|" + format + "|" + startDate + "|" + endDate + "|"
+                + dataVersion(userId, startDate, endDate);
+
+        String jobId = jobIdsByKey.compute(key, (k, existingId) -> {
+            ReportJob existing = existingId != null ? jobs.get(existingId) : null;
+            if (existing != null && existing.isReusable()) {
+                return existingId;
+            }
+
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), key, userId, format, startDate, endDate);
+            jobs.put(job.id, job);
+            try {
+                executor.execute(() -> render(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw e;
+            }
+            log.info("Queued {} report job {} for userId: {} ({} to {})", format, job.id, userId, startDate, endDate);
+            return job.id;
+        });
+
+        return toDto(jobs.get(jobId));
+    }
+
+    public ReportJobDto getJob(String jobId, Long userId) {
+        return toDto(findOwnedJob(jobId, userId));
+    }
+
+    /**
+     * Path of a completed job's artifact
+     */
+    public Path getArtifact(String jobId, Long userId) {
+        ReportJob job = findOwnedJob(jobId, userId);
+        if (job.status != ReportJobStatus.COMPLETED) {
+            throw new ValidationException("Report job " + jobId + " is " + job.status);
+        }
+        return job.file;
+    }
+
+    // Drop expired jobs and their files every 10 minutes
+    @Scheduled(fixedDelayString = "${app.report.jobs.cleanup-interval:600000}")
+    public void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(ttlMillis * 1_000_000);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.completedAt != null && job.completedAt.isBefore(cutoff);
+            if (expired) {
+                jobIdsByKey.remove(job.key, job.id);
+                deleteQuietly(job.file);
+            }
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void render(ReportJob job) {
+        job.status = ReportJobStatus.RUNNING;
+        Path target = storeDir.resolve(job.id + "." + job.format.getExtension());
+        Path partial = storeDir.resolve(job.id + ".part");
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+            if (job.format == ReportFormat.PDF) {
+                reportService.writePdfReport(job.userId, job.startDate, job.endDate, out, p -> job.progress = p);
+            } else {
+                reportService.writeCsvReport(job.userId, job.startDate, job.endDate, out, p -> job.progress = p);
+            }
+        } catch (Exception e) {
+            log.error("Report job {} failed", job.id, e);
+            deleteQuietly(partial);
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.status = ReportJobStatus.FAILED;
+            return;
+        }
+
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = target;
+            job.sizeBytes = Files.size(target);
+            job.progress = 1.0;
+            job.completedAt = LocalDateTime.now();
+            job.status = ReportJobStatus.COMPLETED;
+            log.info("Report job {} completed ({} bytes)", job.id, job.sizeBytes);
+        } catch (IOException e) {
+            log.error("Report job {} could not store its artifact", job.id, e);
+            deleteQuietly(partial);
+            job.error = e.getMessage();
+            job.completedAt = LocalDateTime.now();
+            job.status = ReportJobStatus.FAILED;
+        }
+    }
+
+    private String dataVersion(Long userId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = dailyLogRepository.findDataVersion(userId, startDate, endDate);
+        return rows.isEmpty() ? "empty" : Arrays.toString(rows.get(0));
+    }
+
+    private ReportJob findOwnedJob(String jobId, Long userId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new ResourceNotFoundException("ReportJob", "id", jobId);
+        }
+        return job;
+    }
+
+    private ReportJobDto toDto(ReportJob job) {
+        return ReportJobDto.builder()
+                .jobId(job.id)
+                .format(job.format)
+                .startDate(job.startDate)
+                .endDate(job.endDate)
+                .status(job.status)
+                .progress((int) Math.round(job.progress * 100))
+                .error(job.error)
+                .sizeBytes(job.sizeBytes)
+                .downloadUrl(job.status == ReportJobStatus.COMPLETED
+                        ? "/api/v1/reports/jobs/" + job.id + "/download"
+                        : null)
+                .createdAt(job.createdAt)
+                .completedAt(job.completedAt)
+                .build();
+    }
+
+    // Jobs live in memory, so artifacts from a previous run can never be served
+    private void clearStore() throws IOException {
+        try (Stream<Path> files = Files.list(storeDir)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.endsWith(".part") || Arrays.stream(ReportFormat.values())
+                        .anyMatch(format -> name.endsWith("." + format.getExtension()));
+            }).forEach(this::deleteQuietly);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report artifact {}", file, e);
+        }
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final String key;
+        private final Long userId;
+        private final ReportFormat format;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile double progress;
+        private volatile String error;
+        private volatile Long sizeBytes;
+        private volatile Path file;
+        private volatile LocalDateTime completedAt;
+
+        private ReportJob(String id, String key, Long userId, ReportFormat format, LocalDate startDate,
+                LocalDate endDate) {
+            this.id = id;
+            this.key = key;
+            this.userId = userId;
+            this.format = format;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        // Failed jobs and completed ones whose file is gone are rendered again
+        private boolean isReusable() {
+            if (status == ReportJobStatus.FAILED) {
+                return false;
+            }
+            return status != ReportJobStatus.COMPLETED || Files.exists(file);
+        }
+    }
+}
@@ -11,14 +11,23 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.function.DoubleConsumer;
 
 @Service
 @RequiredArgsConstructor
@@ -26,17 +35,44 @@ import java.util.List;
 public class ReportService {
 
     private final DailyLogRepository dailyLogRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.report.chunk-days:31}")
+    private int chunkDays;
 
-    @Transactional(readOnly = true)
     public byte[] generateCsvReport(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetweenWithEntries(userId, startDate, endDate);
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            writeCsvReport(userId, startDate, endDate, baos);
+            return baos.toByteArray();
+        } catch (IOException e) {
+            log.error("Error generating CSV report", e);
+            throw new RuntimeException("Error generating CSV report", e);
+        }
+    }
 
-        try (StringWriter sw = new StringWriter();
-                CSVPrinter csvPrinter = new CSVPrinter(sw, CSVFormat.DEFAULT.builder()
-                        .setHeader("Date", "Meal Type", "Food", "Serving Size", "Serving Unit", "Calories",
-                                "Protein (g)", "Carbs (g)", "Fat (g)")
-                        .build())) {
+    /**
+     * Write the CSV report to the stream, reading the range in date chunks so
+     * memory stays bounded whatever the range. The stream is not closed.
+     */
+    public void writeCsvReport(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        writeCsvReport(userId, startDate, endDate, out, progress -> {
+        });
+    }
 
+    /**
+     * Same as {@link #writeCsvReport(Long, LocalDate, LocalDate, OutputStream)},
+     * reporting the fraction of the range written (0 to 1) after each chunk.
+     */
+    public void writeCsvReport(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out,
+            DoubleConsumer progress) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setHeader("Date", "Meal Type", "Food", "Serving Size", "Serving Unit", "Calories",
+                        "Protein (g)", "Carbs (g)", "Fat (g)")
+                .build());
+
+        forEachChunk(userId, startDate, endDate, progress, logs -> {
             for (DailyLog log : logs) {
                 if (log.getMealEntries() == null || log.getMealEntries().isEmpty()) {
                     csvPrinter.printRecord(log.getDate(), "N/A", "No entries", "", "",
@@ -57,22 +93,44 @@ public class ReportService {
                             entry.getFats());
                 }
             }
-
+            // Push each chunk to the client instead of buffering the whole file
             csvPrinter.flush();
-            return sw.toString().getBytes();
+        });
+
+        csvPrinter.flush();
+    }
+
+    public byte[] generatePdfReport(Long userId, LocalDate startDate, LocalDate endDate) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            writePdfReport(userId, startDate, endDate, baos);
+            return baos.toByteArray();
         } catch (IOException e) {
-            log.error("Error generating CSV report", e);
-            throw new RuntimeException("Error generating CSV report", e);
+            log.error("Error generating PDF report", e);
+            throw new RuntimeException("Error generating PDF report", e);
         }
     }
 
-    @Transactional(readOnly = true)
-    public byte[] generatePdfReport(Long userId, LocalDate startDate, LocalDate endDate) {
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetweenWithEntries(userId, startDate, endDate);
+    /**
+     * Write the PDF report to the stream. Pages are flushed by the PDF writer as
+     * they fill, and logs are read in date chunks, so neither the document nor
+     * the dataset is held in memory. The stream is not closed.
+     */
+    public void writePdfReport(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out)
+            throws IOException {
+        writePdfReport(userId, startDate, endDate, out, progress -> {
+        });
+    }
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, baos);
+    /**
+     * Same as {@link #writePdfReport(Long, LocalDate, LocalDate, OutputStream)},
+     * reporting the fraction of the range written (0 to 1) after each chunk.
+     */
+    public void writePdfReport(Long userId, LocalDate startDate, LocalDate endDate, OutputStream out,
+            DoubleConsumer progress) throws IOException {
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
 
             document.open();
 
@@ -88,58 +146,98 @@ public class ReportService {
             subtitle.setSpacingAfter(20);
             document.add(subtitle);
 
-            for (DailyLog logItem : logs) {
-                Font dateFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
-                Paragraph dateTitle = new Paragraph("Date: " + logItem.getDate().toString(), dateFont);
-                dateTitle.setSpacingBefore(10);
-                dateTitle.setSpacingAfter(5);
-                document.add(dateTitle);
-
-                PdfPTable table = new PdfPTable(6);
-                table.setWidthPercentage(100);
-                table.setWidths(new float[] { 2f, 3f, 1.5f, 1.5f, 1.5f, 1.5f });
-
-                addTableHeader(table, "Meal Type", "Food", "Calories", "Protein", "Carbs", "Fat");
-
-                if (logItem.getMealEntries() == null || logItem.getMealEntries().isEmpty()) {
-                    PdfPCell cell = new PdfPCell(new Phrase("No entries for this date"));
-                    cell.setColspan(6);
-                    cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-                    table.addCell(cell);
-                } else {
-                    for (MealEntry entry : logItem.getMealEntries()) {
-                        table.addCell(entry.getMealType().toString());
-                        table.addCell(entry.getFood() != null ? entry.getFood().getName() : "Custom");
-                        table.addCell(String.valueOf(entry.getCalories()));
-                        table.addCell(String.valueOf(entry.getProtein()));
-                        table.addCell(String.valueOf(entry.getCarbohydrates()));
-                        table.addCell(String.valueOf(entry.getFats()));
-                    }
+            forEachChunk(userId, startDate, endDate, progress, logs -> {
+                for (DailyLog logItem : logs) {
+                    document.add(buildDayTable(document, logItem));
                 }
+            });
 
-                // Add daily totals row
-                Font totalFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
-                PdfPCell totalCell = new PdfPCell(new Phrase("Daily Totals", totalFont));
-                totalCell.setColspan(2);
-                totalCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
-                table.addCell(totalCell);
-
-                table.addCell(new Phrase(String.valueOf(logItem.getTotalCalories()), totalFont));
-                table.addCell(new Phrase(String.valueOf(logItem.getTotalProtein()), totalFont));
-                table.addCell(new Phrase(String.valueOf(logItem.getTotalCarbs()), totalFont));
-                table.addCell(new Phrase(String.valueOf(logItem.getTotalFats()), totalFont));
+            document.close();
+        } catch (DocumentException e) {
+            log.error("Error generating PDF report", e);
+            throw new IOException("Error generating PDF report", e);
+        }
+    }
 
-                document.add(table);
+    private PdfPTable buildDayTable(Document document, DailyLog logItem) {
+        Font dateFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 14);
+        Paragraph dateTitle = new Paragraph("Date: " + logItem.getDate().toString(), dateFont);
+        dateTitle.setSpacingBefore(10);
+        dateTitle.setSpacingAfter(5);
+        document.add(dateTitle);
+
+        PdfPTable table = new PdfPTable(6);
+        table.setWidthPercentage(100);
+        table.setWidths(new float[] { 2f, 3f, 1.5f, 1.5f, 1.5f, 1.5f });
+
+        addTableHeader(table, "Meal Type", "Food", "Calories", "Protein", "Carbs", "Fat");
+
+        if (logItem.getMealEntries() == null || logItem.getMealEntries().isEmpty()) {
+            PdfPCell cell = new PdfPCell(new Phrase("No entries for this date"));
+            cell.setColspan(6);
+            cell.setHorizontalAlignment(Element.ALIGN_CENTER);
+            table.addCell(cell);
+        } else {
+            for (MealEntry entry : logItem.getMealEntries()) {
+                table.addCell(entry.getMealType().toString());
+                table.addCell(entry.getFood() != null ? entry.getFood().getName() : "Custom");
+                table.addCell(String.valueOf(entry.getCalories()));
+                table.addCell(String.valueOf(entry.getProtein()));
+                table.addCell(String.valueOf(entry.getCarbohydrates()));
+                table.addCell(String.valueOf(entry.getFats()));
             }
+        }
 
-            document.close();
-            return baos.toByteArray();
-        } catch (DocumentException | IOException e) {
-            log.error("Error generating PDF report", e);
-            throw new RuntimeException("Error generating PDF report", e);
+        // Add daily totals row
+        Font totalFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
+        PdfPCell totalCell = new PdfPCell(new Phrase("Daily Totals", totalFont));
+        totalCell.setColspan(2);
+        totalCell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        table.addCell(totalCell);
+
+        table.addCell(new Phrase(String.valueOf(logItem.getTotalCalories()), totalFont));
+        table.addCell(new Phrase(String.valueOf(logItem.getTotalProtein()), totalFont));
+        table.addCell(new Phrase(String.valueOf(logItem.getTotalCarbs()), totalFont));
+        table.addCell(new Phrase(String.valueOf(logItem.getTotalFats()), totalFont));
+        return table;
+    }
+
+    /**
+     * Hand the range to the consumer one date chunk at a time. Each chunk is
+     * read and consumed in its own short read-only transaction, so loaded
+     * entities are released before the next chunk.
+     */
+    private void forEachChunk(Long userId, LocalDate startDate, LocalDate endDate, DoubleConsumer progress,
+            ChunkConsumer consumer) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long totalDays = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+
+        for (LocalDate chunkStart = startDate; !chunkStart.isAfter(endDate); chunkStart = chunkStart
+                .plusDays(chunkDays)) {
+            LocalDate from = chunkStart;
+            LocalDate to = chunkStart.plusDays(chunkDays - 1L).isAfter(endDate) ? endDate
+                    : chunkStart.plusDays(chunkDays - 1L);
+            try {
+                readOnly.executeWithoutResult(status -> {
+                    try {
+                        consumer.accept(dailyLogRepository.findByUserIdAndDateBetweenWithEntries(userId, from, to));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            progress.accept(Math.min(1.0, (ChronoUnit.DAYS.between(startDate, to) + 1) / (double) totalDays));
         }
     }
 
+    @FunctionalInterface
+    private interface ChunkConsumer {
+        void accept(List<DailyLog> logs) throws IOException;
+    }
+
     private void addTableHeader(PdfPTable table, String... headers) {
         Font headerFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD);
         for (String headerTitle : headers) {
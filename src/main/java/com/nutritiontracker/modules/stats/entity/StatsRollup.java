@@ -0,0 +1,131 @@
+package com.nutritiontracker.modules.stats.entity;
+
+import com.nutritiontracker.modules.stats.enums.RollupPeriod;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Weekly or monthly summary of a user's daily logs. Streak columns count
+ * consecutive goal-hit logs at the start, at the end and anywhere inside the
+ * bucket, so adjacent buckets can be chained into range-wide streaks.
+ */
+@Entity
+@Table(name = "stats_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stats_rollup", columnNames = { "user_id", "period", "period_start" })
+})
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RollupPeriod period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    // Counts
+    @Column(name = "logged_days", nullable = false)
+    private int loggedDays;
+
+    @Column(name = "goal_hit_days", nullable = false)
+    private int goalHitDays;
+
+    @Column(name = "leading_hit_streak", nullable = false)
+    private int leadingHitStreak;
+
+    @Column(name = "trailing_hit_streak", nullable = false)
+    private int trailingHitStreak;
+
+    @Column(name = "best_hit_streak", nullable = false)
+    private int bestHitStreak;
+
+    // Sums over logged days
+    @Column(name = "sum_calories", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumCalories = BigDecimal.ZERO;
+
+    @Column(name = "sum_protein", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumProtein = BigDecimal.ZERO;
+
+    @Column(name = "sum_carbs", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumCarbs = BigDecimal.ZERO;
+
+    @Column(name = "sum_fats", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumFats = BigDecimal.ZERO;
+
+    @Column(name = "sum_calorie_goal", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumCalorieGoal = BigDecimal.ZERO;
+
+    @Column(name = "sum_protein_goal", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumProteinGoal = BigDecimal.ZERO;
+
+    @Column(name = "sum_carbs_goal", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumCarbsGoal = BigDecimal.ZERO;
+
+    @Column(name = "sum_fats_goal", nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal sumFatsGoal = BigDecimal.ZERO;
+
+    // Averages over logged days
+    @Column(name = "avg_calories", precision = 10, scale = 2)
+    private BigDecimal avgCalories;
+
+    @Column(name = "avg_protein", precision = 10, scale = 2)
+    private BigDecimal avgProtein;
+
+    @Column(name = "avg_carbs", precision = 10, scale = 2)
+    private BigDecimal avgCarbs;
+
+    @Column(name = "avg_fats", precision = 10, scale = 2)
+    private BigDecimal avgFats;
+
+    // Calorie adherence, summed over days that had a calorie goal
+    @Column(name = "adherence_sum", nullable = false, precision = 12, scale = 4)
+    @Builder.Default
+    private BigDecimal adherenceSum = BigDecimal.ZERO;
+
+    @Column(name = "adherence_days", nullable = false)
+    private int adherenceDays;
+
+    // Weight, over days with a recorded weight
+    @Column(name = "weight_sum", nullable = false, precision = 10, scale = 2)
+    @Builder.Default
+    private BigDecimal weightSum = BigDecimal.ZERO;
+
+    @Column(name = "weight_days", nullable = false)
+    private int weightDays;
+
+    @Column(name = "avg_weight", precision = 5, scale = 2)
+    private BigDecimal avgWeight;
+
+    @LastModifiedDate
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
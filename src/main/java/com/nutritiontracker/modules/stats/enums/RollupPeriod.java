@@ -0,0 +1,30 @@
+package com.nutritiontracker.modules.stats.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RollupPeriod {
+    WEEK, // ISO week, Monday to Sunday
+    MONTH; // Calendar month
+
+    /**
+     * First day of the bucket containing the date
+     */
+    public LocalDate start(LocalDate date) {
+        return this == WEEK
+                ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : date.withDayOfMonth(1);
+    }
+
+    /**
+     * Last day of the bucket starting on the given date
+     */
+    public LocalDate end(LocalDate start) {
+        return this == WEEK ? start.plusDays(6) : start.with(TemporalAdjusters.lastDayOfMonth());
+    }
+
+    public LocalDate next(LocalDate start) {
+        return this == WEEK ? start.plusWeeks(1) : start.plusMonths(1);
+    }
+}
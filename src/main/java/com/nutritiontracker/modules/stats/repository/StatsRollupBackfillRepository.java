@@ -0,0 +1,42 @@
+package com.nutritiontracker.modules.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The stats_rollup_backfills table: users whose rollups were rebuilt by the
+ * startup backfill. Claiming a user inserts its row, so the claim commits or
+ * rolls back with the rebuild it guards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatsRollupBackfillRepository {
+
+    private static final String PENDING_SQL = "SELECT DISTINCT dl.user_id FROM daily_logs dl "
+            + "WHERE dl.user_id IS NOT NULL AND NOT EXISTS "
+            + "(SELECT 1 FROM stats_rollup_backfills b WHERE b.user_id = dl.user_id)";
+
+    // A row another instance inserted but has not committed blocks until it
+    // commits (ignored, 0 rows) or rolls back (inserted, 1 row)
+    private static final String CLAIM_SQL = "INSERT IGNORE INTO stats_rollup_backfills (user_id) VALUES (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Users with logs that have not been backfilled yet
+     */
+    public List<Long> findPendingUserIds() {
+        return jdbcTemplate.queryForList(PENDING_SQL, Long.class);
+    }
+
+    /**
+     * Mark the user as backfilled, unless another transaction already has.
+     * Call inside the transaction that rebuilds the user's rollups.
+     */
+    public boolean claim(Long userId) {
+        return jdbcTemplate.update(CLAIM_SQL, userId) == 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.nutritiontracker.modules.stats.repository;
+
+import com.nutritiontracker.modules.stats.entity.StatsRollup;
+import com.nutritiontracker.modules.stats.enums.RollupPeriod;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StatsRollupRepository extends JpaRepository<StatsRollup, Long> {
+
+    Optional<StatsRollup> findByUserIdAndPeriodAndPeriodStart(Long userId, RollupPeriod period, LocalDate periodStart);
+
+    /**
+     * Lock the bucket row for a re-aggregation, so concurrent refreshes of
+     * one bucket run one after another
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StatsRollup r WHERE r.userId = :userId AND r.period = :period "
+            + "AND r.periodStart = :periodStart")
+    Optional<StatsRollup> findForUpdate(@Param("userId") Long userId, @Param("period") RollupPeriod period,
+            @Param("periodStart") LocalDate periodStart);
+
+    /**
+     * Create an empty bucket row unless one exists, so first writes to a new
+     * bucket from two transactions don't both insert it
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stats_rollups (user_id, period, period_start, period_end, updated_at) "
+            + "VALUES (:userId, :period, :periodStart, :periodEnd, CURRENT_TIMESTAMP(6)) "
+            + "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("period") String period,
+            @Param("periodStart") LocalDate periodStart, @Param("periodEnd") LocalDate periodEnd);
+
+    /**
+     * Buckets of one granularity whose start falls in the range, oldest first
+     */
+    List<StatsRollup> findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(Long userId,
+            RollupPeriod period, LocalDate from, LocalDate to);
+
+    void deleteByUserId(Long userId);
+}
@@ -0,0 +1,207 @@
+package com.nutritiontracker.modules.stats.service;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.stats.entity.StatsRollup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Summary of a run of consecutive daily logs. Summaries of adjacent runs are
+ * chained with {@link #then}, which is how single days, week rollups and month
+ * rollups are combined into range-wide figures.
+ */
+final class PeriodSummary {
+
+    private static final double GOAL_TOLERANCE = 0.05; // 5% tolerance
+
+    int days;
+    int hits;
+    int leadingStreak;
+    int trailingStreak;
+    int bestStreak;
+    BigDecimal calories = BigDecimal.ZERO;
+    BigDecimal protein = BigDecimal.ZERO;
+    BigDecimal carbs = BigDecimal.ZERO;
+    BigDecimal fats = BigDecimal.ZERO;
+    BigDecimal calorieGoal = BigDecimal.ZERO;
+    BigDecimal proteinGoal = BigDecimal.ZERO;
+    BigDecimal carbsGoal = BigDecimal.ZERO;
+    BigDecimal fatsGoal = BigDecimal.ZERO;
+    BigDecimal adherenceSum = BigDecimal.ZERO;
+    int adherenceDays;
+    BigDecimal weightSum = BigDecimal.ZERO;
+    int weightDays;
+
+    static PeriodSummary empty() {
+        return new PeriodSummary();
+    }
+
+    static PeriodSummary ofDay(DailyLog log) {
+        PeriodSummary day = new PeriodSummary();
+        day.days = 1;
+        if (isGoalAchieved(log)) {
+            day.hits = 1;
+            day.leadingStreak = 1;
+            day.trailingStreak = 1;
+            day.bestStreak = 1;
+        }
+        day.calories = safe(log.getTotalCalories());
+        day.protein = safe(log.getTotalProtein());
+        day.carbs = safe(log.getTotalCarbs());
+        day.fats = safe(log.getTotalFats());
+        day.calorieGoal = safe(log.getCalorieGoal());
+        day.proteinGoal = safe(log.getProteinGoal());
+        day.carbsGoal = safe(log.getCarbsGoal());
+        day.fatsGoal = safe(log.getFatsGoal());
+        Double adherence = adherence(log);
+        if (adherence != null) {
+            day.adherenceSum = BigDecimal.valueOf(adherence);
+            day.adherenceDays = 1;
+        }
+        if (log.getDailyWeight() != null) {
+            day.weightSum = log.getDailyWeight();
+            day.weightDays = 1;
+        }
+        return day;
+    }
+
+    /**
+     * Fold logs sorted by date into one summary
+     */
+    static PeriodSummary ofLogs(List<DailyLog> sortedLogs) {
+        PeriodSummary summary = empty();
+        for (DailyLog log : sortedLogs) {
+            summary = summary.then(ofDay(log));
+        }
+        return summary;
+    }
+
+    static PeriodSummary ofRollup(StatsRollup rollup) {
+        PeriodSummary summary = new PeriodSummary();
+        summary.days = rollup.getLoggedDays();
+        summary.hits = rollup.getGoalHitDays();
+        summary.leadingStreak = rollup.getLeadingHitStreak();
+        summary.trailingStreak = rollup.getTrailingHitStreak();
+        summary.bestStreak = rollup.getBestHitStreak();
+        summary.calories = rollup.getSumCalories();
+        summary.protein = rollup.getSumProtein();
+        summary.carbs = rollup.getSumCarbs();
+        summary.fats = rollup.getSumFats();
+        summary.calorieGoal = rollup.getSumCalorieGoal();
+        summary.proteinGoal = rollup.getSumProteinGoal();
+        summary.carbsGoal = rollup.getSumCarbsGoal();
+        summary.fatsGoal = rollup.getSumFatsGoal();
+        summary.adherenceSum = rollup.getAdherenceSum();
+        summary.adherenceDays = rollup.getAdherenceDays();
+        summary.weightSum = rollup.getWeightSum();
+        summary.weightDays = rollup.getWeightDays();
+        return summary;
+    }
+
+    /**
+     * Summary of this run followed immediately by the next one
+     */
+    PeriodSummary then(PeriodSummary next) {
+        if (days == 0) {
+            return next;
+        }
+        if (next.days == 0) {
+            return this;
+        }
+
+        PeriodSummary combined = new PeriodSummary();
+        combined.days = days + next.days;
+        combined.hits = hits + next.hits;
+        combined.leadingStreak = allHit() ? days + next.leadingStreak : leadingStreak;
+        combined.trailingStreak = next.allHit() ? trailingStreak + next.days : next.trailingStreak;
+        combined.bestStreak = Math.max(Math.max(bestStreak, next.bestStreak), trailingStreak + next.leadingStreak);
+        combined.calories = calories.add(next.calories);
+        combined.protein = protein.add(next.protein);
+        combined.carbs = carbs.add(next.carbs);
+        combined.fats = fats.add(next.fats);
+        combined.calorieGoal = calorieGoal.add(next.calorieGoal);
+        combined.proteinGoal = proteinGoal.add(next.proteinGoal);
+        combined.carbsGoal = carbsGoal.add(next.carbsGoal);
+        combined.fatsGoal = fatsGoal.add(next.fatsGoal);
+        combined.adherenceSum = adherenceSum.add(next.adherenceSum);
+        combined.adherenceDays = adherenceDays + next.adherenceDays;
+        combined.weightSum = weightSum.add(next.weightSum);
+        combined.weightDays = weightDays + next.weightDays;
+        return combined;
+    }
+
+    void applyTo(StatsRollup rollup) {
+        rollup.setLoggedDays(days);
+        rollup.setGoalHitDays(hits);
+        rollup.setLeadingHitStreak(leadingStreak);
+        rollup.setTrailingHitStreak(trailingStreak);
+        rollup.setBestHitStreak(bestStreak);
+        rollup.setSumCalories(calories);
+        rollup.setSumProtein(protein);
+        rollup.setSumCarbs(carbs);
+        rollup.setSumFats(fats);
+        rollup.setSumCalorieGoal(calorieGoal);
+        rollup.setSumProteinGoal(proteinGoal);
+        rollup.setSumCarbsGoal(carbsGoal);
+        rollup.setSumFatsGoal(fatsGoal);
+        rollup.setAvgCalories(average(calories, days));
+        rollup.setAvgProtein(average(protein, days));
+        rollup.setAvgCarbs(average(carbs, days));
+        rollup.setAvgFats(average(fats, days));
+        rollup.setAdherenceSum(adherenceSum.setScale(4, RoundingMode.HALF_UP));
+        rollup.setAdherenceDays(adherenceDays);
+        rollup.setWeightSum(weightSum);
+        rollup.setWeightDays(weightDays);
+        rollup.setAvgWeight(average(weightSum, weightDays));
+    }
+
+    double avg(BigDecimal sum) {
+        return days > 0 ? sum.doubleValue() / days : 0.0;
+    }
+
+    Double avgAdherence() {
+        return adherenceDays > 0 ? adherenceSum.doubleValue() / adherenceDays : null;
+    }
+
+    Double avgWeight() {
+        return weightDays > 0 ? weightSum.doubleValue() / weightDays : null;
+    }
+
+    private boolean allHit() {
+        return days > 0 && hits == days;
+    }
+
+    static boolean isGoalAchieved(DailyLog log) {
+        if (log.getCalorieGoal() == null || log.getCalorieGoal().compareTo(BigDecimal.ZERO) == 0) {
+            return false;
+        }
+
+        double goalCals = log.getCalorieGoal().doubleValue();
+        double totalCals = log.getTotalCalories() != null ? log.getTotalCalories().doubleValue() : 0.0;
+        double lowerBound = goalCals * (1 - GOAL_TOLERANCE);
+        double upperBound = goalCals * (1 + GOAL_TOLERANCE);
+
+        return totalCals >= lowerBound && totalCals <= upperBound;
+    }
+
+    static Double adherence(DailyLog log) {
+        if (log.getCalorieGoal() == null || log.getCalorieGoal().compareTo(BigDecimal.ZERO) == 0) {
+            return null;
+        }
+
+        double totalCals = log.getTotalCalories() != null ? log.getTotalCalories().doubleValue() : 0.0;
+        double goalCals = log.getCalorieGoal().doubleValue();
+        double calorieAdherence = 100.0 - Math.abs((totalCals - goalCals) / goalCals * 100);
+        return Math.max(0, Math.min(100, calorieAdherence));
+    }
+
+    private static BigDecimal average(BigDecimal sum, int count) {
+        return count > 0 ? sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : null;
+    }
+
+    private static BigDecimal safe(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
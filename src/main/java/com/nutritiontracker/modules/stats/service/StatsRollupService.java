@@ -0,0 +1,257 @@
+package com.nutritiontracker.modules.stats.service;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.stats.entity.StatsRollup;
+import com.nutritiontracker.modules.stats.enums.RollupPeriod;
+import com.nutritiontracker.modules.stats.repository.StatsRollupBackfillRepository;
+import com.nutritiontracker.modules.stats.repository.StatsRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maintains the weekly and monthly rollups behind StatsService. Daily log
+ * writes mark their date dirty; each affected bucket is re-aggregated once,
+ * after the writing transaction commits, in its own transaction that locks
+ * the bucket row before reading the logs. Concurrent writes to one bucket
+ * therefore re-aggregate one after another, and the later one sees both.
+ */
+@Service
+@Slf4j
+public class StatsRollupService {
+
+    private static final Object DIRTY_BUCKETS_KEY = new Object();
+
+    private final StatsRollupRepository statsRollupRepository;
+    private final StatsRollupBackfillRepository backfillRepository;
+    private final DailyLogRepository dailyLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate refreshTransaction;
+
+    public StatsRollupService(
+            StatsRollupRepository statsRollupRepository,
+            StatsRollupBackfillRepository backfillRepository,
+            DailyLogRepository dailyLogRepository,
+            TransactionTemplate transactionTemplate) {
+        this.statsRollupRepository = statsRollupRepository;
+        this.backfillRepository = backfillRepository;
+        this.dailyLogRepository = dailyLogRepository;
+        this.transactionTemplate = transactionTemplate;
+        // Refreshes run after the caller's commit, or per bucket from the
+        // reconciliation, so each needs a transaction of its own
+        this.refreshTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.refreshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Schedule a refresh of the week and month buckets containing the date.
+     * Inside a transaction the refresh is deferred until after commit and
+     * deduplicated, so batch writes touching many days of one week refresh it
+     * once.
+     */
+    public void markDirty(Long userId, LocalDate date) {
+        if (userId == null || date == null) {
+            return;
+        }
+        List<Bucket> buckets = List.of(
+                new Bucket(userId, RollupPeriod.WEEK, RollupPeriod.WEEK.start(date)),
+                new Bucket(userId, RollupPeriod.MONTH, RollupPeriod.MONTH.start(date)));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            buckets.forEach(this::refreshInNewTransaction);
+            return;
+        }
+        pendingBuckets().addAll(buckets);
+    }
+
+    /**
+     * Re-aggregate every bucket overlapping [since, today] for users with logs
+     * in that window, one transaction per bucket. Used by the nightly
+     * reconciliation.
+     */
+    public void refreshSince(LocalDate since) {
+        LocalDate today = LocalDate.now();
+        List<Long> userIds = dailyLogRepository.findUserIdsWithLogsSince(since);
+        for (Long userId : userIds) {
+            for (RollupPeriod period : RollupPeriod.values()) {
+                for (LocalDate start = period.start(since); !start.isAfter(today); start = period.next(start)) {
+                    refreshInNewTransaction(new Bucket(userId, period, start));
+                }
+            }
+        }
+        log.info("Refreshed stats rollups since {} for {} users", since, userIds.size());
+    }
+
+    /**
+     * Rebuild all of a user's rollups from their daily logs in one pass
+     */
+    @Transactional
+    public void rebuildUser(Long userId) {
+        statsRollupRepository.deleteByUserId(userId);
+        statsRollupRepository.flush();
+
+        List<DailyLog> logs = dailyLogRepository.findByUserIdOrderByDateAsc(userId);
+        List<StatsRollup> rollups = new ArrayList<>();
+        for (RollupPeriod period : RollupPeriod.values()) {
+            Map<LocalDate, List<DailyLog>> byBucket = new LinkedHashMap<>();
+            for (DailyLog dailyLog : logs) {
+                byBucket.computeIfAbsent(period.start(dailyLog.getDate()), d -> new ArrayList<>()).add(dailyLog);
+            }
+            byBucket.forEach((start, bucketLogs) -> {
+                StatsRollup rollup = newRollup(userId, period, start);
+                PeriodSummary.ofLogs(bucketLogs).applyTo(rollup);
+                rollups.add(rollup);
+            });
+        }
+        statsRollupRepository.saveAll(rollups);
+    }
+
+    /**
+     * Build rollups for users whose logs predate them, in the background, one
+     * transaction per user. Each user is claimed in the transaction that
+     * rebuilds it, so an interrupted backfill resumes where it stopped and
+     * instances starting together split the users instead of repeating them.
+     * Users whose first log came after the backfill are rebuilt once, on the
+     * next start.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        List<Long> userIds = backfillRepository.findPendingUserIds();
+        if (userIds.isEmpty()) {
+            log.info("Stats rollups are backfilled for every user. Skipping backfill.");
+            return;
+        }
+
+        int rebuilt = 0;
+        for (Long userId : userIds) {
+            try {
+                Boolean claimed = transactionTemplate.execute(status -> {
+                    if (!backfillRepository.claim(userId)) {
+                        return false;
+                    }
+                    rebuildUser(userId);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(claimed)) {
+                    rebuilt++;
+                }
+            } catch (Exception e) {
+                log.warn("Failed to backfill stats rollups for user {}", userId, e);
+            }
+        }
+        log.info("Backfilled stats rollups for {} of {} pending users", rebuilt, userIds.size());
+    }
+
+    private void refreshInNewTransaction(Bucket bucket) {
+        refreshTransaction.executeWithoutResult(status -> refresh(bucket));
+    }
+
+    private void refresh(Bucket bucket) {
+        // Upserting first means the row always exists to lock, and the insert
+        // itself waits on a concurrent one instead of failing the unique key
+        LocalDate end = bucket.period.end(bucket.start);
+        boolean created = statsRollupRepository.insertIfAbsent(
+                bucket.userId, bucket.period.name(), bucket.start, end) == 1;
+        StatsRollup rollup = statsRollupRepository
+                .findForUpdate(bucket.userId, bucket.period, bucket.start)
+                .orElseThrow();
+
+        // Read under the lock, so a refresh that waited sees the writes of
+        // the one it waited for
+        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(
+                bucket.userId, bucket.start, end);
+        if (logs.isEmpty() && created) {
+            statsRollupRepository.delete(rollup);
+            return;
+        }
+
+        PeriodSummary.ofLogs(logs).applyTo(rollup);
+        statsRollupRepository.save(rollup);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Bucket> pendingBuckets() {
+        Set<Bucket> pending = (Set<Bucket>) TransactionSynchronizationManager.getResource(DIRTY_BUCKETS_KEY);
+        if (pending != null) {
+            return pending;
+        }
+
+        Set<Bucket> buckets = new LinkedHashSet<>();
+        TransactionSynchronizationManager.bindResource(DIRTY_BUCKETS_KEY, buckets);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (Bucket bucket : buckets) {
+                    try {
+                        refreshInNewTransaction(bucket);
+                    } catch (Exception e) {
+                        // The write itself has committed; the nightly reconciliation repairs the bucket
+                        log.warn("Failed to refresh {} stats rollup from {} for user {}",
+                                bucket.period, bucket.start, bucket.userId, e);
+                    }
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(DIRTY_BUCKETS_KEY);
+            }
+        });
+        return buckets;
+    }
+
+    private static StatsRollup newRollup(Long userId, RollupPeriod period, LocalDate start) {
+        return StatsRollup.builder()
+                .userId(userId)
+                .period(period)
+                .periodStart(start)
+                .periodEnd(period.end(start))
+                .build();
+    }
+
+    private static final class Bucket {
+        private final Long userId;
+        private final RollupPeriod period;
+        private final LocalDate start;
+
+        private Bucket(Long userId, RollupPeriod period, LocalDate start) {
+            this.userId = userId;
+            this.period = period;
+            this.start = start;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Bucket other)) {
+                return false;
+            }
+            return userId.equals(other.userId) && period == other.period && start.equals(other.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, period, start);
+        }
+    }
+}
@@ -3,16 +3,20 @@ package com.nutritiontracker.modules.stats.service;
 import com.nutritiontracker.modules.dailylog.entity.DailyLog;
 import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
 import com.nutritiontracker.modules.stats.dto.*;
+import com.nutritiontracker.modules.stats.entity.StatsRollup;
+import com.nutritiontracker.modules.stats.enums.RollupPeriod;
+import com.nutritiontracker.modules.stats.repository.StatsRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,30 +25,52 @@ import java.util.stream.Collectors;
 public class StatsService {
 
     private final DailyLogRepository dailyLogRepository;
+    private final StatsRollupRepository statsRollupRepository;
+
+    // Ranges longer than these are charted per week, then per month
+    @Value("${app.stats.daily-points-max-days:92}")
+    private int dailyPointsMaxDays;
+
+    @Value("${app.stats.weekly-points-max-days:366}")
+    private int weeklyPointsMaxDays;
 
     /**
-     * Get weight history with moving average
+     * Get weight history with moving average. Long ranges return one point per
+     * week or month (the bucket's average weight, dated at its first day), and
+     * the moving average then spans the last 7 points.
      */
     public List<WeightDataPointDto> getWeightHistory(LocalDate startDate, LocalDate endDate, Long userId) {
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
-
-        // Filter logs with weight data
-        List<DailyLog> logsWithWeight = logs.stream()
-                .filter(log -> log.getDailyWeight() != null)
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
-                .collect(Collectors.toList());
+        List<LocalDate> dates = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+
+        RollupPeriod period = chartPeriod(startDate, endDate);
+        if (period == null) {
+            for (DailyLog log : dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(userId, startDate,
+                    endDate)) {
+                if (log.getDailyWeight() != null) {
+                    dates.add(log.getDate());
+                    weights.add(log.getDailyWeight().doubleValue());
+                }
+            }
+        } else {
+            for (StatsRollup rollup : findRollups(userId, period, startDate, endDate)) {
+                if (rollup.getWeightDays() > 0) {
+                    dates.add(rollup.getPeriodStart());
+                    weights.add(PeriodSummary.ofRollup(rollup).avgWeight());
+                }
+            }
+        }
 
         List<WeightDataPointDto> dataPoints = new ArrayList<>();
         Double previousWeight = null;
 
-        for (int i = 0; i < logsWithWeight.size(); i++) {
-            DailyLog log = logsWithWeight.get(i);
-            Double weight = log.getDailyWeight().doubleValue();
+        for (int i = 0; i < weights.size(); i++) {
+            Double weight = weights.get(i);
             Double weightChange = previousWeight != null ? weight - previousWeight : 0.0;
-            Double movingAvg = calculateMovingAverage(logsWithWeight, i, 7);
+            Double movingAvg = calculateMovingAverage(weights, i, 7);
 
             dataPoints.add(WeightDataPointDto.builder()
-                    .date(log.getDate())
+                    .date(dates.get(i))
                     .weight(weight)
                     .weightChange(weightChange)
                     .movingAverage(movingAvg)
@@ -57,42 +83,57 @@ public class StatsService {
     }
 
     /**
-     * Get macro trends over time
+     * Get macro trends over time. Long ranges return one point per week or month
+     * with daily averages, dated at the bucket's first day; edge buckets cover
+     * their whole week or month.
      */
     public List<MacroTrendDataPointDto> getMacroTrends(LocalDate startDate, LocalDate endDate, Long userId) {
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
-
-        return logs.stream()
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
-                .map(log -> {
-                    Double adherence = calculateAdherence(log);
-                    return MacroTrendDataPointDto.builder()
-                            .date(log.getDate())
-                            .calories(log.getTotalCalories() != null ? log.getTotalCalories().intValue() : 0)
-                            .protein(log.getTotalProtein() != null ? log.getTotalProtein().doubleValue() : 0.0)
-                            .carbs(log.getTotalCarbs() != null ? log.getTotalCarbs().doubleValue() : 0.0)
-                            .fats(log.getTotalFats() != null ? log.getTotalFats().doubleValue() : 0.0)
-                            .goalCalories(log.getCalorieGoal() != null ? log.getCalorieGoal().intValue() : 0)
-                            .goalProtein(log.getProteinGoal() != null ? log.getProteinGoal().doubleValue() : 0.0)
-                            .goalCarbs(log.getCarbsGoal() != null ? log.getCarbsGoal().doubleValue() : 0.0)
-                            .goalFats(log.getFatsGoal() != null ? log.getFatsGoal().doubleValue() : 0.0)
-                            .adherencePercentage(adherence)
-                            .build();
-                })
-                .collect(Collectors.toList());
+        RollupPeriod period = chartPeriod(startDate, endDate);
+        if (period == null) {
+            return dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(userId, startDate, endDate).stream()
+                    .map(log -> toTrendPoint(log.getDate(), PeriodSummary.ofDay(log)))
+                    .toList();
+        }
+
+        return findRollups(userId, period, startDate, endDate).stream()
+                .filter(rollup -> rollup.getLoggedDays() > 0)
+                .map(rollup -> toTrendPoint(rollup.getPeriodStart(), PeriodSummary.ofRollup(rollup)))
+                .toList();
     }
 
     /**
-     * Get weekly summary comparison
+     * Get weekly summary comparison. When the week starts on a Monday both weeks
+     * come straight from the weekly rollups; otherwise the fourteen days are read
+     * in a single query.
      */
     public WeeklySummaryDto getWeeklySummary(LocalDate startDate, Long userId) {
-        LocalDate currentWeekStart = startDate;
-        LocalDate currentWeekEnd = startDate.plusDays(6);
         LocalDate previousWeekStart = startDate.minusDays(7);
-        LocalDate previousWeekEnd = startDate.minusDays(1);
 
-        WeekDataDto currentWeek = calculateWeekData(currentWeekStart, currentWeekEnd, userId);
-        WeekDataDto previousWeek = calculateWeekData(previousWeekStart, previousWeekEnd, userId);
+        PeriodSummary current = PeriodSummary.empty();
+        PeriodSummary previous = PeriodSummary.empty();
+        if (startDate.getDayOfWeek() == DayOfWeek.MONDAY) {
+            for (StatsRollup rollup : statsRollupRepository
+                    .findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(userId, RollupPeriod.WEEK,
+                            previousWeekStart, startDate)) {
+                if (rollup.getPeriodStart().equals(startDate)) {
+                    current = PeriodSummary.ofRollup(rollup);
+                } else {
+                    previous = PeriodSummary.ofRollup(rollup);
+                }
+            }
+        } else {
+            for (DailyLog log : dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(userId,
+                    previousWeekStart, startDate.plusDays(6))) {
+                if (log.getDate().isBefore(startDate)) {
+                    previous = previous.then(PeriodSummary.ofDay(log));
+                } else {
+                    current = current.then(PeriodSummary.ofDay(log));
+                }
+            }
+        }
+
+        WeekDataDto currentWeek = toWeekData(current);
+        WeekDataDto previousWeek = toWeekData(previous);
 
         WeekComparisonDto changes = WeekComparisonDto.builder()
                 .caloriesChange(calculatePercentageChange(previousWeek.getAvgCalories(), currentWeek.getAvgCalories()))
@@ -109,134 +150,122 @@ public class StatsService {
     }
 
     /**
-     * Get goal achievement statistics
+     * Get goal achievement statistics. Whole months (or weeks) inside the range
+     * are read from the rollups and only the partial edges from daily logs, so
+     * the figures stay exact for any range.
      */
     public GoalAchievementDto getGoalAchievement(LocalDate startDate, LocalDate endDate, Long userId) {
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
-
-        int totalDays = logs.size();
-        int achievedDays = 0;
-        int currentStreak = 0;
-        int bestStreak = 0;
-        int tempStreak = 0;
-
-        // Sort by date
-        logs = logs.stream()
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
-                .collect(Collectors.toList());
-
-        for (DailyLog log : logs) {
-            boolean achieved = isGoalAchieved(log);
-            if (achieved) {
-                achievedDays++;
-                tempStreak++;
-                if (tempStreak > bestStreak) {
-                    bestStreak = tempStreak;
-                }
-            } else {
-                tempStreak = 0;
-            }
-        }
+        PeriodSummary summary = summarizeRange(startDate, endDate, userId);
 
-        // Current streak is the temp streak if it's still ongoing
-        if (!logs.isEmpty() && isGoalAchieved(logs.get(logs.size() - 1))) {
-            currentStreak = tempStreak;
-        }
-
-        double achievementRate = totalDays > 0 ? (achievedDays * 100.0 / totalDays) : 0.0;
+        double achievementRate = summary.days > 0 ? (summary.hits * 100.0 / summary.days) : 0.0;
 
         return GoalAchievementDto.builder()
-                .totalDays(totalDays)
-                .achievedDays(achievedDays)
+                .totalDays(summary.days)
+                .achievedDays(summary.hits)
                 .achievementRate(achievementRate)
-                .currentStreak(currentStreak)
-                .bestStreak(bestStreak)
+                .currentStreak(summary.trailingStreak)
+                .bestStreak(summary.bestStreak)
                 .build();
     }
 
     // Helper methods
 
-    private Double calculateMovingAverage(List<DailyLog> logs, int currentIndex, int window) {
-        int start = Math.max(0, currentIndex - window + 1);
-        int end = currentIndex + 1;
+    /**
+     * Summarize [startDate, endDate] from the coarsest whole buckets that fit,
+     * plus daily logs for the days before the first and after the last bucket.
+     */
+    private PeriodSummary summarizeRange(LocalDate startDate, LocalDate endDate, Long userId) {
+        for (RollupPeriod period : new RollupPeriod[] { RollupPeriod.MONTH, RollupPeriod.WEEK }) {
+            LocalDate firstStart = period.start(startDate);
+            if (firstStart.isBefore(startDate)) {
+                firstStart = period.next(firstStart);
+            }
+            LocalDate lastStart = period.start(endDate);
+            if (period.end(lastStart).isAfter(endDate)) {
+                lastStart = period.start(lastStart.minusDays(1));
+            }
+            if (lastStart.isBefore(firstStart)) {
+                continue;
+            }
 
-        double sum = 0;
-        int count = 0;
-        for (int i = start; i < end; i++) {
-            BigDecimal weight = logs.get(i).getDailyWeight();
-            if (weight != null) {
-                sum += weight.doubleValue();
-                count++;
+            PeriodSummary summary = summarizeDays(startDate, firstStart.minusDays(1), userId);
+            for (StatsRollup rollup : statsRollupRepository
+                    .findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(userId, period, firstStart,
+                            lastStart)) {
+                summary = summary.then(PeriodSummary.ofRollup(rollup));
             }
+            return summary.then(summarizeDays(period.end(lastStart).plusDays(1), endDate, userId));
         }
+        return summarizeDays(startDate, endDate, userId);
+    }
 
-        return count > 0 ? sum / count : null;
+    private PeriodSummary summarizeDays(LocalDate startDate, LocalDate endDate, Long userId) {
+        if (endDate.isBefore(startDate)) {
+            return PeriodSummary.empty();
+        }
+        return PeriodSummary.ofLogs(
+                dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(userId, startDate, endDate));
     }
 
-    private Double calculateAdherence(DailyLog log) {
-        if (log.getCalorieGoal() == null || log.getCalorieGoal().compareTo(BigDecimal.ZERO) == 0) {
+    /**
+     * Granularity for chart endpoints; null means one point per day
+     */
+    private RollupPeriod chartPeriod(LocalDate startDate, LocalDate endDate) {
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days <= dailyPointsMaxDays) {
             return null;
         }
-
-        double totalCals = log.getTotalCalories() != null ? log.getTotalCalories().doubleValue() : 0.0;
-        double goalCals = log.getCalorieGoal().doubleValue();
-        double calorieAdherence = 100.0 - Math.abs((totalCals - goalCals) / goalCals * 100);
-        return Math.max(0, Math.min(100, calorieAdherence));
+        return days <= weeklyPointsMaxDays ? RollupPeriod.WEEK : RollupPeriod.MONTH;
     }
 
-    private WeekDataDto calculateWeekData(LocalDate start, LocalDate end, Long userId) {
-        List<DailyLog> logs = dailyLogRepository.findByUserIdAndDateBetween(userId, start, end);
-
-        if (logs.isEmpty()) {
-            return WeekDataDto.builder()
-                    .avgCalories(0.0)
-                    .avgProtein(0.0)
-                    .avgCarbs(0.0)
-                    .avgFats(0.0)
-                    .daysLogged(0)
-                    .build();
-        }
+    private List<StatsRollup> findRollups(Long userId, RollupPeriod period, LocalDate startDate, LocalDate endDate) {
+        return statsRollupRepository.findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(userId, period,
+                period.start(startDate), endDate);
+    }
 
-        double avgCalories = logs.stream()
-                .mapToDouble(log -> log.getTotalCalories() != null ? log.getTotalCalories().doubleValue() : 0.0)
-                .average().orElse(0.0);
-        double avgProtein = logs.stream()
-                .mapToDouble(log -> log.getTotalProtein() != null ? log.getTotalProtein().doubleValue() : 0.0)
-                .average().orElse(0.0);
-        double avgCarbs = logs.stream()
-                .mapToDouble(log -> log.getTotalCarbs() != null ? log.getTotalCarbs().doubleValue() : 0.0)
-                .average().orElse(0.0);
-        double avgFats = logs.stream()
-                .mapToDouble(log -> log.getTotalFats() != null ? log.getTotalFats().doubleValue() : 0.0)
-                .average().orElse(0.0);
+    private MacroTrendDataPointDto toTrendPoint(LocalDate date, PeriodSummary summary) {
+        return MacroTrendDataPointDto.builder()
+                .date(date)
+                .calories((int) summary.avg(summary.calories))
+                .protein(summary.avg(summary.protein))
+                .carbs(summary.avg(summary.carbs))
+                .fats(summary.avg(summary.fats))
+                .goalCalories((int) summary.avg(summary.calorieGoal))
+                .goalProtein(summary.avg(summary.proteinGoal))
+                .goalCarbs(summary.avg(summary.carbsGoal))
+                .goalFats(summary.avg(summary.fatsGoal))
+                .adherencePercentage(summary.avgAdherence())
+                .build();
+    }
 
+    private WeekDataDto toWeekData(PeriodSummary summary) {
         return WeekDataDto.builder()
-                .avgCalories(avgCalories)
-                .avgProtein(avgProtein)
-                .avgCarbs(avgCarbs)
-                .avgFats(avgFats)
-                .daysLogged(logs.size())
+                .avgCalories(summary.avg(summary.calories))
+                .avgProtein(summary.avg(summary.protein))
+                .avgCarbs(summary.avg(summary.carbs))
+                .avgFats(summary.avg(summary.fats))
+                .daysLogged(summary.days)
                 .build();
     }
 
+    private Double calculateMovingAverage(List<Double> values, int currentIndex, int window) {
+        int start = Math.max(0, currentIndex - window + 1);
+        int end = currentIndex + 1;
+
+        double sum = 0;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            sum += values.get(i);
+            count++;
+        }
+
+        return count > 0 ? sum / count : null;
+    }
+
     private Double calculatePercentageChange(Double oldValue, Double newValue) {
         if (oldValue == null || oldValue == 0) {
             return 0.0;
         }
         return ((newValue - oldValue) / oldValue) * 100;
     }
-
-    private boolean isGoalAchieved(DailyLog log) {
-        if (log.getCalorieGoal() == null || log.getCalorieGoal().compareTo(BigDecimal.ZERO) == 0) {
-            return false;
-        }
-
-        double tolerance = 0.05; // 5% tolerance
-        double goalCals = log.getCalorieGoal().doubleValue();
-        double totalCals = log.getTotalCalories() != null ? log.getTotalCalories().doubleValue() : 0.0;
-        double lowerBound = goalCals * (1 - tolerance);
-        double upperBound = goalCals * (1 + tolerance);
-
-        return totalCals >= lowerBound && totalCals <= upperBound;
-    }
 }
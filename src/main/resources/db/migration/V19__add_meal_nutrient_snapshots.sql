@@ -0,0 +1,153 @@
+-- Store micronutrient snapshots on meal entries at write time, like macros,
+-- and keep per-day, per-meal-type running totals for the nutrient breakdown
+
+ALTER TABLE meal_entries
+    ADD COLUMN fiber DECIMAL(10, 2),
+    ADD COLUMN sugars DECIMAL(10, 2),
+    ADD COLUMN saturated_fats DECIMAL(10, 2),
+    ADD COLUMN sodium DECIMAL(10, 2),
+    ADD COLUMN calcium DECIMAL(10, 2),
+    ADD COLUMN iron DECIMAL(10, 2),
+    ADD COLUMN potassium DECIMAL(10, 2),
+    ADD COLUMN vitamin_a DECIMAL(10, 2),
+    ADD COLUMN vitamin_c DECIMAL(10, 2),
+    ADD COLUMN vitamin_d DECIMAL(10, 2),
+    ADD COLUMN vitamin_e DECIMAL(10, 2),
+    ADD COLUMN vitamin_b12 DECIMAL(10, 2),
+    ADD COLUMN magnesium DECIMAL(10, 2),
+    ADD COLUMN zinc DECIMAL(10, 2),
+    ADD COLUMN vitamin_k DECIMAL(10, 2),
+    ADD COLUMN vitamin_b1 DECIMAL(10, 2),
+    ADD COLUMN vitamin_b2 DECIMAL(10, 2),
+    ADD COLUMN vitamin_b3 DECIMAL(10, 2),
+    ADD COLUMN vitamin_b6 DECIMAL(10, 2),
+    ADD COLUMN vitamin_b9 DECIMAL(10, 2),
+    ADD COLUMN snapshot_ratio DECIMAL(12, 4);
+
+-- Recover the grams/100 ratio each entry was logged with from its stored calories
+UPDATE meal_entries me
+JOIN nutritional_info ni ON ni.food_id = me.food_id
+SET me.snapshot_ratio = CASE
+    WHEN ni.calories > 0 THEN me.calories / ni.calories
+    ELSE me.quantity / 100
+END
+WHERE me.food_id IS NOT NULL;
+
+UPDATE meal_entries me
+JOIN nutritional_info ni ON ni.food_id = me.food_id
+SET me.fiber = ROUND(COALESCE(ni.fiber, 0) * me.snapshot_ratio, 2),
+    me.sugars = ROUND(COALESCE(ni.sugars, 0) * me.snapshot_ratio, 2),
+    me.saturated_fats = ROUND(COALESCE(ni.saturated_fats, 0) * me.snapshot_ratio, 2),
+    me.sodium = ROUND(COALESCE(ni.sodium, 0) * me.snapshot_ratio, 2),
+    me.calcium = ROUND(COALESCE(ni.calcium, 0) * me.snapshot_ratio, 2),
+    me.iron = ROUND(COALESCE(ni.iron, 0) * me.snapshot_ratio, 2),
+    me.potassium = ROUND(COALESCE(ni.potassium, 0) * me.snapshot_ratio, 2),
+    me.vitamin_a = ROUND(COALESCE(ni.vitamin_a, 0) * me.snapshot_ratio, 2),
+    me.vitamin_c = ROUND(COALESCE(ni.vitamin_c, 0) * me.snapshot_ratio, 2),
+    me.vitamin_d = ROUND(COALESCE(ni.vitamin_d, 0) * me.snapshot_ratio, 2),
+    me.vitamin_e = ROUND(COALESCE(ni.vitamin_e, 0) * me.snapshot_ratio, 2),
+    me.vitamin_b12 = ROUND(COALESCE(ni.vitamin_b12, 0) * me.snapshot_ratio, 2),
+    me.magnesium = ROUND(COALESCE(ni.magnesium, 0) * me.snapshot_ratio, 2),
+    me.zinc = ROUND(COALESCE(ni.zinc, 0) * me.snapshot_ratio, 2),
+    me.vitamin_k = ROUND(COALESCE(ni.vitamin_k, 0) * me.snapshot_ratio, 2),
+    me.vitamin_b1 = ROUND(COALESCE(ni.vitamin_b1, 0) * me.snapshot_ratio, 2),
+    me.vitamin_b2 = ROUND(COALESCE(ni.vitamin_b2, 0) * me.snapshot_ratio, 2),
+    me.vitamin_b3 = ROUND(COALESCE(ni.vitamin_b3, 0) * me.snapshot_ratio, 2),
+    me.vitamin_b6 = ROUND(COALESCE(ni.vitamin_b6, 0) * me.snapshot_ratio, 2),
+    me.vitamin_b9 = ROUND(COALESCE(ni.vitamin_b9, 0) * me.snapshot_ratio, 2)
+WHERE me.snapshot_ratio IS NOT NULL;
+
+-- Recipe entries (and foods without nutritional info) carry no micronutrients
+UPDATE meal_entries
+SET fiber = 0,
+    sugars = 0,
+    saturated_fats = 0,
+    sodium = 0,
+    calcium = 0,
+    iron = 0,
+    potassium = 0,
+    vitamin_a = 0,
+    vitamin_c = 0,
+    vitamin_d = 0,
+    vitamin_e = 0,
+    vitamin_b12 = 0,
+    magnesium = 0,
+    zinc = 0,
+    vitamin_k = 0,
+    vitamin_b1 = 0,
+    vitamin_b2 = 0,
+    vitamin_b3 = 0,
+    vitamin_b6 = 0,
+    vitamin_b9 = 0
+WHERE snapshot_ratio IS NULL;
+
+ALTER TABLE meal_entries DROP COLUMN snapshot_ratio;
+
+CREATE TABLE daily_meal_nutrients (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    daily_log_id BIGINT NOT NULL,
+    user_id BIGINT,
+    date DATE NOT NULL,
+    meal_type VARCHAR(20) NOT NULL,
+    calories DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    protein DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    carbohydrates DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    fats DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    fiber DECIMAL(10, 2),
+    sugars DECIMAL(10, 2),
+    saturated_fats DECIMAL(10, 2),
+    sodium DECIMAL(10, 2),
+    calcium DECIMAL(10, 2),
+    iron DECIMAL(10, 2),
+    potassium DECIMAL(10, 2),
+    vitamin_a DECIMAL(10, 2),
+    vitamin_c DECIMAL(10, 2),
+    vitamin_d DECIMAL(10, 2),
+    vitamin_e DECIMAL(10, 2),
+    vitamin_b12 DECIMAL(10, 2),
+    magnesium DECIMAL(10, 2),
+    zinc DECIMAL(10, 2),
+    vitamin_k DECIMAL(10, 2),
+    vitamin_b1 DECIMAL(10, 2),
+    vitamin_b2 DECIMAL(10, 2),
+    vitamin_b3 DECIMAL(10, 2),
+    vitamin_b6 DECIMAL(10, 2),
+    vitamin_b9 DECIMAL(10, 2),
+    updated_at DATETIME(6),
+
+    -- One row per meal of a user's day; also serves the breakdown lookup
+    UNIQUE KEY uk_daily_meal_nutrients (user_id, date, meal_type),
+    UNIQUE KEY uk_daily_meal_nutrients_log (daily_log_id, meal_type),
+
+    FOREIGN KEY (daily_log_id) REFERENCES daily_logs(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Backfill from existing entries
+INSERT INTO daily_meal_nutrients (daily_log_id, user_id, date, meal_type, calories, protein, carbohydrates, fats,
+    fiber, sugars, saturated_fats, sodium, calcium, iron, potassium, vitamin_a, vitamin_c, vitamin_d, vitamin_e, vitamin_b12, magnesium, zinc, vitamin_k, vitamin_b1, vitamin_b2, vitamin_b3, vitamin_b6, vitamin_b9, updated_at)
+SELECT dl.id, dl.user_id, dl.date, me.meal_type,
+    COALESCE(SUM(me.calories), 0), COALESCE(SUM(me.protein), 0), COALESCE(SUM(me.carbohydrates), 0), COALESCE(SUM(me.fats), 0),
+    COALESCE(SUM(me.fiber), 0),
+    COALESCE(SUM(me.sugars), 0),
+    COALESCE(SUM(me.saturated_fats), 0),
+    COALESCE(SUM(me.sodium), 0),
+    COALESCE(SUM(me.calcium), 0),
+    COALESCE(SUM(me.iron), 0),
+    COALESCE(SUM(me.potassium), 0),
+    COALESCE(SUM(me.vitamin_a), 0),
+    COALESCE(SUM(me.vitamin_c), 0),
+    COALESCE(SUM(me.vitamin_d), 0),
+    COALESCE(SUM(me.vitamin_e), 0),
+    COALESCE(SUM(me.vitamin_b12), 0),
+    COALESCE(SUM(me.magnesium), 0),
+    COALESCE(SUM(me.zinc), 0),
+    COALESCE(SUM(me.vitamin_k), 0),
+    COALESCE(SUM(me.vitamin_b1), 0),
+    COALESCE(SUM(me.vitamin_b2), 0),
+    COALESCE(SUM(me.vitamin_b3), 0),
+    COALESCE(SUM(me.vitamin_b6), 0),
+    COALESCE(SUM(me.vitamin_b9), 0),
+    CURRENT_TIMESTAMP(6)
+FROM meal_entries me
+JOIN daily_logs dl ON dl.id = me.daily_log_id
+GROUP BY dl.id, dl.user_id, dl.date, me.meal_type;
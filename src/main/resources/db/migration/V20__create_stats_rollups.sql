@@ -0,0 +1,42 @@
+-- Weekly and monthly rollups of daily logs for the stats endpoints.
+-- Rows are built by the application (StatsRollupService backfills on first start).
+CREATE TABLE stats_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    period VARCHAR(10) NOT NULL,
+    period_start DATE NOT NULL,
+    period_end DATE NOT NULL,
+
+    -- Counts
+    logged_days INT NOT NULL DEFAULT 0,
+    goal_hit_days INT NOT NULL DEFAULT 0,
+    leading_hit_streak INT NOT NULL DEFAULT 0,
+    trailing_hit_streak INT NOT NULL DEFAULT 0,
+    best_hit_streak INT NOT NULL DEFAULT 0,
+
+    -- Sums over logged days
+    sum_calories DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_protein DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_carbs DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_fats DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_calorie_goal DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_protein_goal DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_carbs_goal DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    sum_fats_goal DECIMAL(12, 2) NOT NULL DEFAULT 0,
+
+    -- Averages over logged days
+    avg_calories DECIMAL(10, 2),
+    avg_protein DECIMAL(10, 2),
+    avg_carbs DECIMAL(10, 2),
+    avg_fats DECIMAL(10, 2),
+
+    adherence_sum DECIMAL(12, 4) NOT NULL DEFAULT 0,
+    adherence_days INT NOT NULL DEFAULT 0,
+    weight_sum DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    weight_days INT NOT NULL DEFAULT 0,
+    avg_weight DECIMAL(5, 2),
+
+    updated_at DATETIME(6),
+
+    UNIQUE KEY uk_stats_rollup (user_id, period, period_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
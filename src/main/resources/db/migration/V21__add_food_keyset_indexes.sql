@@ -0,0 +1,3 @@
+-- Keyset pagination seeks on (sort key, id); InnoDB secondary indexes already
+-- end with the primary key, so idx_name covers (name, id).
+CREATE INDEX idx_foods_created_at ON foods(created_at);
@@ -0,0 +1,10 @@
+-- Cache invalidations broadcast between API instances (CacheInvalidationBus).
+-- Rows are short-lived: instances poll recent ones and old ones are purged.
+CREATE TABLE cache_invalidations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    region VARCHAR(100) NOT NULL,
+    cache_key VARCHAR(512),
+    origin VARCHAR(36) NOT NULL,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_cache_invalidations_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
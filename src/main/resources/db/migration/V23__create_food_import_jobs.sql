@@ -0,0 +1,16 @@
+-- Bulk Open Food Facts imports (FoodImportService). next_page is the
+-- checkpoint: it advances in the same transaction as each imported page.
+CREATE TABLE food_import_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    query VARCHAR(255) NOT NULL,
+    max_pages INT NOT NULL,
+    next_page INT NOT NULL DEFAULT 1,
+    status VARCHAR(20) NOT NULL,
+    imported INT NOT NULL DEFAULT 0,
+    skipped INT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+    INDEX idx_food_import_jobs_query (query)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
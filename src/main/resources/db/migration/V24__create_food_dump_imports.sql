@@ -0,0 +1,19 @@
+-- Imports of downloaded Open Food Facts dumps (FoodDumpImportService).
+-- records_read is the checkpoint: it advances in the same transaction as
+-- each stored batch.
+CREATE TABLE food_dump_imports (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    file_modified_at BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    records_read BIGINT NOT NULL DEFAULT 0,
+    imported BIGINT NOT NULL DEFAULT 0,
+    skipped BIGINT NOT NULL DEFAULT 0,
+    records_per_second INT,
+    error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP NULL,
+    INDEX idx_food_dump_imports_file_name (file_name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,7 @@
+-- Hash of the content an import last wrote (FoodBatchRepository), so a
+-- refresh that brings back the same product does not rewrite it.
+ALTER TABLE foods ADD COLUMN content_hash VARCHAR(64);
+
+-- FoodRefreshService seeks stale foods on (source, last_synced_at, id);
+-- InnoDB secondary indexes already end with the primary key.
+CREATE INDEX idx_foods_source_last_synced ON foods(source, last_synced_at);
@@ -0,0 +1,11 @@
+-- Foods whose search documents need refreshing. Rows are written in the same
+-- transaction as the food change and drained by FoodIndexOutboxRelay, which
+-- collapses several rows for one food into a single update.
+CREATE TABLE food_index_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    food_id BIGINT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    available_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_food_index_outbox_available_at (available_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,8 @@
+-- Users whose stats rollups have been rebuilt from their daily logs. A row is
+-- written in the same transaction as the rebuild, so an interrupted backfill
+-- resumes with the users it had not finished, and an instance that finds the
+-- row already claimed skips the user.
+CREATE TABLE stats_rollup_backfills (
+    user_id BIGINT PRIMARY KEY,
+    completed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
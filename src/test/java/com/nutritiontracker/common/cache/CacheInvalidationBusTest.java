@@ -0,0 +1,76 @@
+package com.nutritiontracker.common.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Cache Invalidation Bus Tests")
+class CacheInvalidationBusTest {
+
+    private static final Timestamp NOW = Timestamp.valueOf("2026-01-01 12:00:00");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Should apply each remote invalidation once and ignore its own")
+    @SuppressWarnings("unchecked")
+    void shouldApplyRemoteInvalidationsOnce() throws SQLException {
+        CacheInvalidationBus bus = new CacheInvalidationBus(jdbcTemplate, true, 30_000, 600_000);
+        List<String> received = new ArrayList<>();
+        bus.subscribe("cache:foodById", received::add);
+
+        when(jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class)).thenReturn(NOW);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L, 1L, 2L);
+        when(rs.getString("region")).thenReturn("cache:foodById");
+        when(rs.getString("cache_key")).thenReturn("7", "8", "7", "8");
+        when(rs.getString("origin")).thenReturn("other-instance");
+        when(rs.getTimestamp("created_at")).thenReturn(NOW);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Timestamp.class))).thenAnswer(inv -> {
+            RowMapper<Object> mapper = inv.getArgument(1);
+            return List.of(mapper.mapRow(rs, 0), mapper.mapRow(rs, 1));
+        });
+
+        bus.poll();
+        bus.poll();
+
+        assertThat(received).containsExactly("7", "8");
+    }
+
+    @Test
+    @DisplayName("Should write queued invalidations from the poller and retry them after a failure")
+    @SuppressWarnings("unchecked")
+    void shouldFlushQueuedInvalidations() {
+        CacheInvalidationBus bus = new CacheInvalidationBus(jdbcTemplate, true, 30_000, 600_000);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new org.springframework.dao.DataAccessResourceFailureException("down"))
+                .thenReturn(new int[][] { { 1 } });
+        when(jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class)).thenReturn(NOW);
+
+        bus.publish("principal", "a@example.com");
+        verifyNoInteractions(jdbcTemplate);
+
+        bus.poll();
+        bus.poll();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), argThat((List<Object> batch) -> batch.size() == 1),
+                eq(1), any(ParameterizedPreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,119 @@
+package com.nutritiontracker.common.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Tiered Cache Tests")
+class TieredCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Mock
+    private RedisTemplate<String, Object> redis;
+
+    @Mock
+    private ValueOperations<String, Object> valueOps;
+
+    @Test
+    @DisplayName("Should load once and serve later reads from memory until the key is evicted")
+    void shouldReadThroughAndEvictByKey() {
+        TieredCache cache = cache(null);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get(1L, () -> "apple-" + loads.incrementAndGet())).isEqualTo("apple-1");
+        assertThat(cache.get(1L, () -> "apple-" + loads.incrementAndGet())).isEqualTo("apple-1");
+        assertThat(cache.get(2L, () -> "pear-" + loads.incrementAndGet())).isEqualTo("pear-2");
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L, () -> "apple-" + loads.incrementAndGet())).isEqualTo("apple-3");
+        assertThat(cache.get(2L).get()).isEqualTo("pear-2");
+    }
+
+    @Test
+    @DisplayName("Should run a single load for concurrent misses on the same key")
+    void shouldCollapseConcurrentMisses() throws Exception {
+        TieredCache cache = cache(null);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(7L, () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(50);
+                        return "loaded";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serve a Redis hit without calling the loader and write loads through to Redis")
+    void shouldUseRedisAsSecondLevel() {
+        when(redis.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get("nt:cache:foodById::1")).thenReturn("from-redis");
+        when(valueOps.get("nt:cache:foodById::2")).thenReturn(null);
+        TieredCache cache = cache(redis);
+
+        assertThat(cache.get(1L, () -> "from-db")).isEqualTo("from-redis");
+        assertThat(cache.get(2L, () -> "from-db")).isEqualTo("from-db");
+
+        verify(valueOps).set("nt:cache:foodById::2", "from-db", TTL);
+        verify(valueOps, never()).set(eq("nt:cache:foodById::1"), any(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Should fall back to the loader when Redis is unavailable")
+    void shouldIgnoreRedisFailures() {
+        when(redis.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        doThrow(new RedisConnectionFailureException("down")).when(valueOps).set(anyString(), any(), any(Duration.class));
+        TieredCache cache = cache(redis);
+
+        assertThat(cache.get(1L, () -> "from-db")).isEqualTo("from-db");
+        assertThat(cache.get(1L, () -> "again")).isEqualTo("from-db");
+    }
+
+    private static TieredCache cache(RedisTemplate<String, Object> redis) {
+        return new TieredCache("foodById",
+                Caffeine.newBuilder().maximumSize(100).expireAfterWrite(TTL).build(),
+                redis, TTL, "nt:cache:", new SimpleMeterRegistry(), null);
+    }
+}
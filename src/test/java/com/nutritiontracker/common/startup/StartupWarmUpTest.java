@@ -0,0 +1,131 @@
+package com.nutritiontracker.common.startup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Startup Warm-Up Tests")
+class StartupWarmUpTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> ran = new ArrayList<>();
+    private StartupWarmUp warmUp;
+
+    @AfterEach
+    void tearDown() {
+        warmUp.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should run every task in order and keep going after a failure")
+    void shouldRunAllTasksInOrder() {
+        warmUp = warmUp(List.of(task("caches", false, 0), task("search-index", false, 1), task("jit", false, 0)),
+                false);
+
+        warmUp.runAll();
+
+        assertThat(ran).containsExactly("caches", "search-index", "jit");
+        assertThat(warmUp.state()).isEqualTo(StartupWarmUp.State.DONE);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(meterRegistry.get("startup.warm-up").tag("task", "jit").tag("result", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("startup.warm-up").tag("task", "search-index").tag("result", "failure")
+                .timer().count()).isEqualTo(1);
+        @SuppressWarnings("unchecked")
+        Map<String, String> tasks = (Map<String, String>) warmUp.health().getDetails().get("tasks");
+        assertThat(tasks.get("search-index")).isEqualTo("failed: index unavailable");
+    }
+
+    @Test
+    @DisplayName("Should run the critical tasks ahead of the others")
+    void shouldRunCriticalTasksFirst() {
+        warmUp = warmUp(List.of(task("caches", false, 0), task("templates", false, 0),
+                task("search-index", true, 0), task("jit", false, 0)), false);
+
+        warmUp.runAll();
+
+        assertThat(ran).containsExactly("search-index", "caches", "templates", "jit");
+        assertThat(warmUp.state()).isEqualTo(StartupWarmUp.State.DONE);
+    }
+
+    @Test
+    @DisplayName("Should stay out of service until a failed critical task succeeds on retry")
+    void shouldRetryFailedCriticalTask() {
+        warmUp = warmUp(List.of(task("search-index", true, 1), task("jit", false, 0)), false);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmUp.runAll();
+
+        assertThat(warmUp.state()).isEqualTo(StartupWarmUp.State.RETRYING);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmUp.retryFailed(1);
+
+        assertThat(ran).containsExactly("search-index", "jit", "search-index");
+        assertThat(warmUp.state()).isEqualTo(StartupWarmUp.State.DONE);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("Should only wait for the non-critical tasks when readiness is gated")
+    void shouldGateReadinessOnlyWhenConfigured() {
+        warmUp = warmUp(List.of(task("caches", false, 0)), false);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        warmUp.shutdown();
+
+        warmUp = warmUp(List.of(task("caches", false, 0)), true);
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        warmUp.runAll();
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    @DisplayName("Should report done without running tasks when disabled")
+    void shouldSkipTasksWhenDisabled() {
+        warmUp = new StartupWarmUp(List.of(task("search-index", true, 0)), meterRegistry, false, true,
+                Duration.ofHours(1), Duration.ofHours(1));
+
+        warmUp.start();
+
+        assertThat(ran).isEmpty();
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private StartupWarmUp warmUp(List<WarmUpTask> tasks, boolean gateReadiness) {
+        // Retries are driven by the tests, never by the scheduler
+        return new StartupWarmUp(tasks, meterRegistry, true, gateReadiness, Duration.ofHours(1), Duration.ofHours(1));
+    }
+
+    private WarmUpTask task(String name, boolean critical, int failures) {
+        AtomicInteger remainingFailures = new AtomicInteger(failures);
+        return new WarmUpTask() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void warmUp() {
+                ran.add(name);
+                if (remainingFailures.getAndDecrement() > 0) {
+                    throw new IllegalStateException("index unavailable");
+                }
+            }
+
+            @Override
+            public boolean critical() {
+                return critical;
+            }
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package com.nutritiontracker.modules.auth.security;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+
+@DisplayName("JWT Token Provider Tests")
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-256-bit-secret-key-change-this-in-production-must-be-at-least-256-bits";
+    private static final String OTHER_SECRET = "another-256-bit-secret-key-that-signs-tokens-this-app-must-not-trust";
+
+    private final ListAppender<ILoggingEvent> logs = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(JwtTokenProvider.class);
+    private Level previousLevel;
+
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = provider(SECRET, 900_000L);
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        logs.start();
+        logger.addAppender(logs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logs);
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    @DisplayName("Should return the claims of a valid token without logging")
+    void shouldReturnClaimsOfValidToken() {
+        String token = tokenProvider.generateAccessToken("jane@example.com", "Jane", "Doe");
+
+        Optional<Claims> claims = tokenProvider.validateAndGetClaims(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("jane@example.com");
+        assertThat(claims.get().get("firstName", String.class)).isEqualTo("Jane");
+        assertThat(tokenProvider.validateToken(token)).isTrue();
+        assertThat(logs.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token and log it at debug")
+    void shouldRejectExpiredTokenAtDebug() {
+        String token = provider(SECRET, -60_000L).generateAccessToken("jane@example.com", "Jane", "Doe");
+
+        assertThat(tokenProvider.validateAndGetClaims(token)).isEmpty();
+
+        assertThat(logs.list).extracting(ILoggingEvent::getLevel, ILoggingEvent::getFormattedMessage)
+                .containsExactly(tuple(Level.DEBUG, "Expired JWT token"));
+    }
+
+    @Test
+    @DisplayName("Should reject a token signed with another key and log a bad signature at warn")
+    void shouldRejectBadSignatureAtWarn() {
+        String token = provider(OTHER_SECRET, 900_000L).generateAccessToken("jane@example.com", "Jane", "Doe");
+
+        assertThat(tokenProvider.validateAndGetClaims(token)).isEmpty();
+
+        assertThat(logs.list).extracting(ILoggingEvent::getLevel, ILoggingEvent::getFormattedMessage)
+                .containsExactly(tuple(Level.WARN, "Invalid JWT signature"));
+    }
+
+    @Test
+    @DisplayName("Should reject malformed and empty tokens at warn, never at error")
+    void shouldRejectMalformedTokensAtWarn() {
+        assertThat(tokenProvider.validateAndGetClaims("not-a-jwt")).isEmpty();
+        assertThat(tokenProvider.validateAndGetClaims("")).isEmpty();
+
+        assertThat(logs.list).extracting(ILoggingEvent::getLevel, ILoggingEvent::getFormattedMessage)
+                .containsExactly(
+                        tuple(Level.WARN, "Invalid JWT token"),
+                        tuple(Level.WARN, "JWT claims string is empty"));
+    }
+
+    private static JwtTokenProvider provider(String secret, long accessTokenExpiration) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", accessTokenExpiration);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 604_800_000L);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,85 @@
+package com.nutritiontracker.modules.auth.security;
+
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
+import com.nutritiontracker.modules.auth.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+    private CacheInvalidationBus invalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+        invalidationBus = new CacheInvalidationBus(null, false, 0, 0);
+    }
+
+    @Test
+    void get_shouldLoadOnce_andServeRepeatLookupsFromCache() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100, meterRegistry, invalidationBus);
+
+        cache.get("test@example.com", this::load);
+        cache.get("test@example.com", this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("auth.principal.cache").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("auth.principal.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_shouldReload_whenEntryExpired() {
+        PrincipalCache cache = new PrincipalCache(0, 100, meterRegistry, invalidationBus);
+
+        cache.get("test@example.com", this::load);
+        cache.get("test@example.com", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheMissingUsers() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100, meterRegistry, invalidationBus);
+
+        Optional<?> result = cache.get("ghost@example.com", email -> Optional.empty());
+
+        assertTrue(result.isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evict_shouldForceReload() {
+        PrincipalCache cache = new PrincipalCache(60_000, 100, meterRegistry, invalidationBus);
+
+        cache.get("test@example.com", this::load);
+        cache.evict("test@example.com");
+        cache.get("test@example.com", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_shouldStayWithinMaxSize() {
+        PrincipalCache cache = new PrincipalCache(60_000, 3, meterRegistry, invalidationBus);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("user" + i + "@example.com", this::load);
+        }
+
+        assertTrue(cache.size() <= 3);
+    }
+
+    private Optional<User> load(String email) {
+        loads.incrementAndGet();
+        return Optional.of(User.builder().id(1L).email(email).build());
+    }
+}
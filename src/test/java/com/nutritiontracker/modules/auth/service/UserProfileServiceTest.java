@@ -3,6 +3,7 @@ package com.nutritiontracker.modules.auth.service;
 import com.nutritiontracker.modules.auth.entity.User;
 import com.nutritiontracker.modules.auth.entity.UserProfile;
 import com.nutritiontracker.modules.auth.repository.UserProfileRepository;
+import com.nutritiontracker.modules.auth.security.PrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,9 @@ class UserProfileServiceTest {
     @Mock
     private NutritionalCalculationService nutritionalCalculationService;
 
+    @Mock
+    private PrincipalCache principalCache;
+
     @InjectMocks
     private UserProfileService userProfileService;
 
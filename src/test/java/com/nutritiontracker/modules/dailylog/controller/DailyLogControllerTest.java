@@ -0,0 +1,122 @@
+package com.nutritiontracker.modules.dailylog.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutritiontracker.modules.auth.entity.User;
+import com.nutritiontracker.modules.dailylog.dto.DailyLogResponseDto;
+import com.nutritiontracker.modules.dailylog.dto.MealEntryBatchRequestDto;
+import com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import com.nutritiontracker.modules.dailylog.service.DailyLogService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DailyLogController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@DisplayName("DailyLog Controller API Tests")
+class DailyLogControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private DailyLogService dailyLogService;
+
+    @MockBean
+    private com.nutritiontracker.modules.auth.security.JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private com.nutritiontracker.modules.auth.security.JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockBean
+    private org.springframework.data.jpa.mapping.JpaMetamodelMappingContext jpaMappingContext;
+
+    private void setAuthenticatedUser(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(user, null,
+                Collections.emptyList());
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/daily-log/entries/batch should add the entries for the caller")
+    void shouldAddEntriesInBatch() throws Exception {
+        setAuthenticatedUser(1L);
+        LocalDate monday = LocalDate.of(2026, 3, 2);
+        MealEntryBatchRequestDto request = MealEntryBatchRequestDto.builder()
+                .entries(List.of(entry(monday, 5L), entry(monday.plusDays(1), 6L)))
+                .build();
+
+        when(dailyLogService.addEntries(anyList(), eq(1L))).thenReturn(List.of(
+                DailyLogResponseDto.builder().id(10L).date(monday).build(),
+                DailyLogResponseDto.builder().id(11L).date(monday.plusDays(1)).build()));
+
+        mockMvc.perform(post("/api/v1/daily-log/entries/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Entries added successfully"))
+                .andExpect(jsonPath("$.data[0].id").value(10))
+                .andExpect(jsonPath("$.data[1].date").value("2026-03-03"));
+
+        verify(dailyLogService).addEntries(argThat(entries -> entries.size() == 2
+                && entries.get(1).getFoodId().equals(6L)), eq(1L));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/daily-log/entries/batch should reject an empty or invalid batch")
+    void shouldRejectInvalidBatch() throws Exception {
+        setAuthenticatedUser(1L);
+        MealEntryRequestDto noQuantity = entry(LocalDate.of(2026, 3, 2), 5L);
+        noQuantity.setQuantity(null);
+
+        mockMvc.perform(post("/api/v1/daily-log/entries/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new MealEntryBatchRequestDto(List.of()))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/daily-log/entries/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new MealEntryBatchRequestDto(List.of(noQuantity)))))
+                .andExpect(status().isBadRequest());
+
+        verify(dailyLogService, never()).addEntries(anyList(), any());
+    }
+
+    private static MealEntryRequestDto entry(LocalDate date, Long foodId) {
+        return MealEntryRequestDto.builder()
+                .date(date)
+                .mealType(MealType.LUNCH)
+                .foodId(foodId)
+                .quantity(new BigDecimal("150"))
+                .unit("g")
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.nutritiontracker.modules.dailylog.repository;
 
 import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -112,6 +114,64 @@ class DailyLogRepositoryTest {
         assertThat(saved.getTotalProtein()).isEqualByComparingTo(BigDecimal.valueOf(150));
     }
 
+    @Test
+    @DisplayName("Should apply totals delta atomically")
+    void shouldApplyTotalsDelta() {
+        // Given
+        DailyLog log = createDailyLog(1L, LocalDate.now());
+        log.setTotalCalories(BigDecimal.valueOf(500));
+        entityManager.persist(log);
+        entityManager.flush();
+
+        // When
+        dailyLogRepository.applyTotalsDelta(log, BigDecimal.valueOf(250), BigDecimal.valueOf(20),
+                BigDecimal.valueOf(30), BigDecimal.valueOf(10));
+
+        // Then
+        assertThat(log.getTotalCalories()).isEqualByComparingTo(BigDecimal.valueOf(750));
+        assertThat(log.getTotalProtein()).isEqualByComparingTo(BigDecimal.valueOf(20));
+        assertThat(log.getTotalCarbs()).isEqualByComparingTo(BigDecimal.valueOf(30));
+        assertThat(log.getTotalFats()).isEqualByComparingTo(BigDecimal.valueOf(10));
+    }
+
+    @Test
+    @DisplayName("Should repair drifted totals from meal entries")
+    void shouldReconcileDriftedTotals() {
+        // Given
+        DailyLog log = createDailyLog(1L, LocalDate.now());
+        log.setTotalCalories(BigDecimal.valueOf(9999));
+        entityManager.persist(log);
+        entityManager.persist(createMealEntry(log, BigDecimal.valueOf(300)));
+        entityManager.persist(createMealEntry(log, BigDecimal.valueOf(200)));
+
+        DailyLog consistent = createDailyLog(2L, LocalDate.now());
+        entityManager.persist(consistent);
+        entityManager.flush();
+
+        // When
+        int repaired = dailyLogRepository.reconcileTotalsSince(LocalDate.now().minusDays(1));
+        entityManager.clear();
+
+        // Then
+        assertThat(repaired).isEqualTo(1);
+        DailyLog reloaded = dailyLogRepository.findById(log.getId()).orElseThrow();
+        assertThat(reloaded.getTotalCalories()).isEqualByComparingTo(BigDecimal.valueOf(500));
+        assertThat(reloaded.getTotalProtein()).isEqualByComparingTo(BigDecimal.valueOf(20));
+    }
+
+    private MealEntry createMealEntry(DailyLog log, BigDecimal calories) {
+        return MealEntry.builder()
+                .dailyLog(log)
+                .mealType(MealType.LUNCH)
+                .quantity(BigDecimal.valueOf(100))
+                .unit("g")
+                .calories(calories)
+                .protein(BigDecimal.TEN)
+                .carbohydrates(BigDecimal.TEN)
+                .fats(BigDecimal.ONE)
+                .build();
+    }
+
     private DailyLog createDailyLog(Long userId, LocalDate date) {
         DailyLog log = new DailyLog();
         log.setUserId(userId);
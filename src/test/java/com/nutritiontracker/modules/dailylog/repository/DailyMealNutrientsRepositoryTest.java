@@ -0,0 +1,163 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.entity.DailyMealNutrients;
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.entity.MicronutrientSnapshot;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Daily Meal Nutrients Repository Tests")
+class DailyMealNutrientsRepositoryTest {
+
+    @Autowired
+    private DailyMealNutrientsRepository dailyMealNutrientsRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should accumulate and subtract entry snapshots per meal type")
+    void shouldAccumulateEntrySnapshots() {
+        // Given
+        DailyLog log = persistDailyLog(1L, LocalDate.now());
+        DailyMealNutrients nutrients = DailyMealNutrients.builder()
+                .dailyLogId(log.getId())
+                .userId(1L)
+                .date(log.getDate())
+                .mealType(MealType.LUNCH)
+                .build();
+
+        // When
+        nutrients.apply(createEntry(new BigDecimal("200"), new BigDecimal("3.50")), BigDecimal.ONE);
+        nutrients.apply(createEntry(new BigDecimal("100"), new BigDecimal("1.25")), BigDecimal.ONE);
+        nutrients.apply(createEntry(new BigDecimal("100"), new BigDecimal("1.25")), BigDecimal.ONE.negate());
+        dailyMealNutrientsRepository.save(nutrients);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        DailyMealNutrients found = dailyMealNutrientsRepository.findForUpdate(log.getId(), MealType.LUNCH)
+                .orElseThrow();
+        assertThat(found.getCalories()).isEqualByComparingTo("200");
+        assertThat(found.getMicronutrients().getFiber()).isEqualByComparingTo("3.50");
+    }
+
+    @Test
+    @DisplayName("Should read a day's breakdown rows and delete them by log")
+    void shouldFindByUserAndDateAndDeleteByLog() {
+        // Given
+        DailyLog log = persistDailyLog(1L, LocalDate.now());
+        for (MealType type : List.of(MealType.BREAKFAST, MealType.DINNER)) {
+            entityManager.persist(DailyMealNutrients.builder()
+                    .dailyLogId(log.getId())
+                    .userId(1L)
+                    .date(log.getDate())
+                    .mealType(type)
+                    .build());
+        }
+        entityManager.flush();
+
+        // When / Then
+        assertThat(dailyMealNutrientsRepository.findByUserIdAndDate(1L, LocalDate.now())).hasSize(2);
+        assertThat(dailyMealNutrientsRepository.findByUserIdAndDate(2L, LocalDate.now())).isEmpty();
+
+        dailyMealNutrientsRepository.deleteByDailyLogId(log.getId());
+        assertThat(dailyMealNutrientsRepository.findByUserIdAndDate(1L, LocalDate.now())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rebuild the aggregates of recent logs from their entries and leave older ones")
+    void shouldRebuildAggregatesSince() {
+        // Given: a recent log whose lunch aggregate drifted and whose dinner has none,
+        // and an older log outside the window with a stale aggregate
+        LocalDate today = LocalDate.now();
+        DailyLog recent = persistDailyLog(1L, today);
+        entityManager.persist(withLog(createEntry(new BigDecimal("300.00"), new BigDecimal("2.50")), recent));
+        entityManager.persist(withLog(createEntry(new BigDecimal("150.00"), new BigDecimal("1.25")), recent));
+        MealEntry dinner = withLog(createEntry(new BigDecimal("600.00"), null), recent);
+        dinner.setMealType(MealType.DINNER);
+        entityManager.persist(dinner);
+        entityManager.persist(aggregate(recent, MealType.LUNCH, "999.00"));
+        DailyLog old = persistDailyLog(1L, today.minusDays(30));
+        entityManager.persist(withLog(createEntry(new BigDecimal("100.00"), BigDecimal.ONE), old));
+        entityManager.persist(aggregate(old, MealType.LUNCH, "42.00"));
+        entityManager.flush();
+
+        // When
+        int deleted = dailyMealNutrientsRepository.deleteSince(today.minusDays(7));
+        int inserted = dailyMealNutrientsRepository.insertFromEntriesSince(today.minusDays(7));
+        entityManager.clear();
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(inserted).isEqualTo(2);
+        DailyMealNutrients lunch = dailyMealNutrientsRepository.findForUpdate(recent.getId(), MealType.LUNCH)
+                .orElseThrow();
+        assertThat(lunch.getUserId()).isEqualTo(1L);
+        assertThat(lunch.getDate()).isEqualTo(today);
+        assertThat(lunch.getCalories()).isEqualByComparingTo("450.00");
+        assertThat(lunch.getProtein()).isEqualByComparingTo("20");
+        assertThat(lunch.getMicronutrients().getFiber()).isEqualByComparingTo("3.75");
+        DailyMealNutrients rebuiltDinner = dailyMealNutrientsRepository.findForUpdate(recent.getId(), MealType.DINNER)
+                .orElseThrow();
+        assertThat(rebuiltDinner.getCalories()).isEqualByComparingTo("600.00");
+        assertThat(rebuiltDinner.getMicronutrients().getFiber()).isEqualByComparingTo("0");
+        assertThat(dailyMealNutrientsRepository.findForUpdate(old.getId(), MealType.LUNCH).orElseThrow()
+                .getCalories()).isEqualByComparingTo("42.00");
+    }
+
+    private MealEntry createEntry(BigDecimal calories, BigDecimal fiber) {
+        MicronutrientSnapshot micros = MicronutrientSnapshot.zero();
+        micros.setFiber(fiber);
+        return MealEntry.builder()
+                .mealType(MealType.LUNCH)
+                .calories(calories)
+                .protein(BigDecimal.TEN)
+                .carbohydrates(BigDecimal.TEN)
+                .fats(BigDecimal.ONE)
+                .micronutrients(micros)
+                .build();
+    }
+
+    private static MealEntry withLog(MealEntry entry, DailyLog log) {
+        entry.setDailyLog(log);
+        entry.setQuantity(BigDecimal.valueOf(100));
+        entry.setUnit("g");
+        return entry;
+    }
+
+    private static DailyMealNutrients aggregate(DailyLog log, MealType mealType, String calories) {
+        return DailyMealNutrients.builder()
+                .dailyLogId(log.getId())
+                .userId(log.getUserId())
+                .date(log.getDate())
+                .mealType(mealType)
+                .calories(new BigDecimal(calories))
+                .build();
+    }
+
+    private DailyLog persistDailyLog(Long userId, LocalDate date) {
+        DailyLog log = new DailyLog();
+        log.setUserId(userId);
+        log.setDate(date);
+        log.setTotalCalories(BigDecimal.ZERO);
+        log.setTotalProtein(BigDecimal.ZERO);
+        log.setTotalCarbs(BigDecimal.ZERO);
+        log.setTotalFats(BigDecimal.ZERO);
+        return entityManager.persist(log);
+    }
+}
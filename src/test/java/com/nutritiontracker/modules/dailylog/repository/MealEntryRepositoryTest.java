@@ -0,0 +1,119 @@
+package com.nutritiontracker.modules.dailylog.repository;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.entity.MicronutrientSnapshot;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.entity.NutritionalInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("Meal Entry Repository Tests")
+class MealEntryRepositoryTest {
+
+    @Autowired
+    private MealEntryRepository mealEntryRepository;
+
+    @Autowired
+    private DailyLogRepository dailyLogRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Should batch insert entries with their snapshots onto logs created in the same transaction")
+    void shouldBatchInsertEntries() {
+        // Given
+        Food food = persistFood("Oats");
+        DailyLog log = dailyLogRepository.save(DailyLog.builder().userId(1L).date(LocalDate.now()).build());
+        MicronutrientSnapshot micros = MicronutrientSnapshot.zero();
+        micros.setFiber(new BigDecimal("4.25"));
+        List<MealEntry> entries = List.of(
+                entry(log, food, MealType.BREAKFAST, new BigDecimal("389.00"), micros),
+                entry(log, food, MealType.SNACK, new BigDecimal("97.25"), null));
+
+        // When
+        mealEntryRepository.batchInsert(entries);
+        entityManager.clear();
+
+        // Then
+        List<MealEntry> found = new ArrayList<>(dailyLogRepository
+                .findByUserIdAndDateWithEntries(1L, LocalDate.now()).get(0).getMealEntries());
+        found.sort(Comparator.comparing(MealEntry::getMealType));
+        assertThat(found).hasSize(2);
+        assertThat(found).allSatisfy(entry -> {
+            assertThat(entry.getId()).isNotNull();
+            assertThat(entry.getFood().getId()).isEqualTo(food.getId());
+            assertThat(entry.getRecipe()).isNull();
+            assertThat(entry.getUnit()).isEqualTo("g");
+            assertThat(entry.getCreatedAt()).isNotNull();
+        });
+        assertThat(found.get(0).getMealType()).isEqualTo(MealType.BREAKFAST);
+        assertThat(found.get(0).getCalories()).isEqualByComparingTo("389.00");
+        assertThat(found.get(0).getMicronutrients().getFiber()).isEqualByComparingTo("4.25");
+        assertThat(found.get(1).getMealType()).isEqualTo(MealType.SNACK);
+        assertThat(found.get(1).getCalories()).isEqualByComparingTo("97.25");
+        assertThat(found.get(1).getMicronutrients() == null
+                || found.get(1).getMicronutrients().getFiber() == null).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should insert every entry when the list spans several JDBC batches")
+    void shouldInsertAcrossBatches() {
+        // Given
+        Food food = persistFood("Rice");
+        DailyLog log = dailyLogRepository.save(DailyLog.builder().userId(2L).date(LocalDate.now()).build());
+        List<MealEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            entries.add(entry(log, food, MealType.LUNCH, BigDecimal.TEN, MicronutrientSnapshot.zero()));
+        }
+
+        // When
+        mealEntryRepository.batchInsert(entries);
+        mealEntryRepository.batchInsert(List.of());
+
+        // Then
+        assertThat(mealEntryRepository.count()).isEqualTo(250);
+    }
+
+    private Food persistFood(String name) {
+        Food food = Food.builder()
+                .name(name)
+                .servingSize(BigDecimal.valueOf(100))
+                .servingUnit("g")
+                .build();
+        food.setNutritionalInfo(NutritionalInfo.builder().calories(BigDecimal.valueOf(389)).build());
+        return entityManager.persist(food);
+    }
+
+    private static MealEntry entry(DailyLog log, Food food, MealType mealType, BigDecimal calories,
+            MicronutrientSnapshot micros) {
+        return MealEntry.builder()
+                .dailyLog(log)
+                .food(food)
+                .mealType(mealType)
+                .quantity(BigDecimal.valueOf(100))
+                .unit("g")
+                .calories(calories)
+                .protein(BigDecimal.ONE)
+                .carbohydrates(BigDecimal.ONE)
+                .fats(BigDecimal.ONE)
+                .micronutrients(micros)
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.nutritiontracker.modules.dailylog.service;
+
+import com.nutritiontracker.common.exception.ResourceNotFoundException;
+import com.nutritiontracker.modules.auth.repository.UserProfileRepository;
+import com.nutritiontracker.modules.auth.service.UserProfileService;
+import com.nutritiontracker.modules.dailylog.dto.DailyLogResponseDto;
+import com.nutritiontracker.modules.dailylog.dto.MealEntryRequestDto;
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.entity.DailyMealNutrients;
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.dailylog.repository.DailyMealNutrientsRepository;
+import com.nutritiontracker.modules.dailylog.repository.MealEntryRepository;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.entity.NutritionalInfo;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import com.nutritiontracker.modules.recipe.repository.RecipeRepository;
+import com.nutritiontracker.modules.recipe.service.RecipeService;
+import com.nutritiontracker.modules.stats.service.StatsRollupService;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DailyLog Service Unit Tests")
+class DailyLogServiceTest {
+
+    private static final Long USER_ID = 100L;
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+    private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+    @Mock
+    private DailyLogRepository dailyLogRepository;
+
+    @Mock
+    private MealEntryRepository mealEntryRepository;
+
+    @Mock
+    private DailyMealNutrientsRepository dailyMealNutrientsRepository;
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeService recipeService;
+
+    @Mock
+    private UserProfileRepository userProfileRepository;
+
+    @Mock
+    private UserProfileService userProfileService;
+
+    @Mock
+    private StatsRollupService statsRollupService;
+
+    @InjectMocks
+    private DailyLogService dailyLogService;
+
+    @Test
+    @DisplayName("Should add a batch onto the caller's logs with one totals delta per day and meal type")
+    void shouldAddEntriesWithOneDeltaPerDayAndMealType() {
+        DailyLog mondayLog = DailyLog.builder().id(10L).userId(USER_ID).date(MONDAY).build();
+        when(foodRepository.findAllByIdWithNutritionalInfo(Set.of(1L, 2L)))
+                .thenReturn(List.of(food(1L, "100"), food(2L, "250")));
+        when(dailyLogRepository.findByUserIdAndDateIn(USER_ID, Set.of(MONDAY, TUESDAY)))
+                .thenReturn(List.of(mondayLog));
+        when(userProfileRepository.findByUserId(USER_ID)).thenReturn(Optional.empty());
+        when(dailyLogRepository.save(any(DailyLog.class))).thenAnswer(invocation -> {
+            DailyLog created = invocation.getArgument(0);
+            created.setId(11L);
+            return created;
+        });
+        when(dailyMealNutrientsRepository.findForUpdate(anyLong(), any())).thenReturn(Optional.empty());
+        when(dailyLogRepository.findByUserIdAndDateWithEntries(eq(USER_ID), any())).thenAnswer(invocation ->
+                List.of(DailyLog.builder().userId(USER_ID).date(invocation.getArgument(1)).build()));
+
+        List<DailyLogResponseDto> result = dailyLogService.addEntries(List.of(
+                request(TUESDAY, MealType.BREAKFAST, 2L, "50"),
+                request(MONDAY, MealType.LUNCH, 1L, "200"),
+                request(MONDAY, MealType.LUNCH, 2L, "100"),
+                request(MONDAY, MealType.DINNER, 1L, "100")), USER_ID);
+
+        assertThat(result).extracting(DailyLogResponseDto::getDate).containsExactly(MONDAY, TUESDAY);
+
+        // Entries go onto the caller's existing Monday log and a new Tuesday log for the caller
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<MealEntry>> entriesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mealEntryRepository).batchInsert(entriesCaptor.capture());
+        List<MealEntry> entries = entriesCaptor.getValue();
+        assertThat(entries).hasSize(4);
+        assertThat(entries).allSatisfy(entry -> assertThat(entry.getDailyLog().getUserId()).isEqualTo(USER_ID));
+        assertThat(entries.get(0).getDailyLog().getId()).isEqualTo(11L);
+        assertThat(entries.subList(1, 4)).allSatisfy(entry -> assertThat(entry.getDailyLog()).isSameAs(mondayLog));
+        verify(mealEntryRepository, never()).save(any());
+
+        // Monday lunch is applied once for both of its entries
+        verify(dailyLogRepository, times(3)).applyTotalsDelta(any(), any(), any(), any(), any());
+        verify(dailyLogRepository).applyTotalsDelta(eq(mondayLog), eq(new BigDecimal("450.00")), any(), any(),
+                any());
+        verify(dailyLogRepository).applyTotalsDelta(eq(mondayLog), eq(new BigDecimal("100.00")), any(), any(),
+                any());
+        verify(dailyLogRepository).applyTotalsDelta(argThat(log -> log.getId() == 11L),
+                eq(new BigDecimal("125.00")), any(), any(), any());
+
+        ArgumentCaptor<DailyMealNutrients> nutrientsCaptor = ArgumentCaptor.forClass(DailyMealNutrients.class);
+        verify(dailyMealNutrientsRepository, times(3)).save(nutrientsCaptor.capture());
+        assertThat(nutrientsCaptor.getAllValues())
+                .extracting(DailyMealNutrients::getDailyLogId, DailyMealNutrients::getMealType)
+                .containsExactlyInAnyOrder(
+                        Tuple.tuple(10L, MealType.LUNCH),
+                        Tuple.tuple(10L, MealType.DINNER),
+                        Tuple.tuple(11L, MealType.BREAKFAST));
+
+        verify(userProfileService).addXp(USER_ID, 30);
+        verify(userProfileService).addXp(USER_ID, 10);
+    }
+
+    @Test
+    @DisplayName("Should reject an entry with neither food nor recipe before touching any log")
+    void shouldRejectEntryWithoutFoodOrRecipe() {
+        MealEntryRequestDto empty = request(MONDAY, MealType.LUNCH, null, "100");
+
+        assertThrows(IllegalArgumentException.class, () -> dailyLogService.addEntries(
+                List.of(request(MONDAY, MealType.LUNCH, 1L, "100"), empty), USER_ID));
+
+        verifyNoInteractions(foodRepository, dailyLogRepository, mealEntryRepository, userProfileService);
+    }
+
+    @Test
+    @DisplayName("Should fail the whole batch when a food does not exist")
+    void shouldFailBatchOnUnknownFood() {
+        when(foodRepository.findAllByIdWithNutritionalInfo(Set.of(1L, 99L))).thenReturn(List.of(food(1L, "100")));
+        when(dailyLogRepository.findByUserIdAndDateIn(USER_ID, Set.of(MONDAY)))
+                .thenReturn(List.of(DailyLog.builder().id(10L).userId(USER_ID).date(MONDAY).build()));
+
+        assertThrows(ResourceNotFoundException.class, () -> dailyLogService.addEntries(List.of(
+                request(MONDAY, MealType.LUNCH, 1L, "100"),
+                request(MONDAY, MealType.LUNCH, 99L, "100")), USER_ID));
+
+        verify(mealEntryRepository, never()).batchInsert(any());
+        verify(dailyLogRepository, never()).applyTotalsDelta(any(), any(), any(), any(), any());
+        verify(userProfileService, never()).addXp(anyLong(), anyInt());
+    }
+
+    private static Food food(Long id, String caloriesPer100g) {
+        Food food = Food.builder().id(id).name("Food " + id).build();
+        food.setNutritionalInfo(NutritionalInfo.builder().calories(new BigDecimal(caloriesPer100g)).build());
+        return food;
+    }
+
+    private static MealEntryRequestDto request(LocalDate date, MealType mealType, Long foodId, String grams) {
+        return MealEntryRequestDto.builder()
+                .date(date)
+                .mealType(mealType)
+                .foodId(foodId)
+                .quantity(new BigDecimal(grams))
+                .unit("g")
+                .build();
+    }
+}
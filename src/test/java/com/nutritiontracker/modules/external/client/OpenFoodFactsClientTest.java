@@ -0,0 +1,137 @@
+package com.nutritiontracker.modules.external.client;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.nutritiontracker.common.exception.ExternalApiException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Open Food Facts Client Tests")
+class OpenFoodFactsClientTest {
+
+    private WireMockServer wireMockServer;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer = new WireMockServer(0);
+        wireMockServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = CircuitBreaker.ofDefaults("openfoodfacts");
+    }
+
+    @AfterEach
+    void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("Should treat a 404 as not found and remember it")
+    void shouldCacheNotFound() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/404.json")).willReturn(aResponse().withStatus(404)));
+        OpenFoodFactsClient client = client();
+
+        assertThat(client.getProductByBarcode("404")).isNull();
+        assertThat(client.getProductByBarcode("404")).isNull();
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/api/v0/product/404.json")));
+        assertThat(timerCount("product", "not_found")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should fail fast without calling upstream while the circuit is open")
+    void shouldFailFastWhenCircuitOpen() {
+        circuitBreaker.transitionToOpenState();
+        OpenFoodFactsClient client = client();
+
+        assertThatThrownBy(() -> client.getProductByBarcode("123")).isInstanceOf(ExternalApiException.class);
+
+        wireMockServer.verify(0, getRequestedFor(anyUrl()));
+        assertThat(timerCount("product", "circuit_open")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the rate limit")
+    void shouldRejectBeyondRateLimit() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/cgi/search.pl")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"count\":0,\"products\":[]}")));
+        RateLimiter searchLimiter = RateLimiter.of("search", RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        OpenFoodFactsClient client = new OpenFoodFactsClient(
+                WebClient.builder().baseUrl(wireMockServer.baseUrl()).build(),
+                new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofDays(1), meterRegistry),
+                RateLimiter.ofDefaults("product"), searchLimiter, RateLimiter.ofDefaults("refresh"), circuitBreaker,
+                Bulkhead.ofDefaults("openfoodfacts"), meterRegistry, 5000);
+
+        assertThat(client.searchProducts("milk", 1, 20).getProducts()).isEmpty();
+        assertThatThrownBy(() -> client.searchProducts("bread", 1, 20)).isInstanceOf(ExternalApiException.class);
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/cgi/search.pl")));
+        assertThat(timerCount("search", "rate_limited")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pace refreshes by the refresh limiter only, leaving product permits to scans")
+    void shouldRefreshWithoutProductPermits() {
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/123.json")).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withBody("{\"code\":\"123\",\"status\":1,\"product\":{\"code\":\"123\",\"product_name\":\"Milk\"}}")));
+        RateLimiter productLimiter = RateLimiter.of("product", RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        RateLimiter refreshLimiter = RateLimiter.of("refresh", RateLimiterConfig.custom()
+                .limitForPeriod(5)
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+        OpenFoodFactsClient client = new OpenFoodFactsClient(
+                WebClient.builder().baseUrl(wireMockServer.baseUrl()).build(),
+                new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofDays(1), meterRegistry),
+                productLimiter, RateLimiter.ofDefaults("search"), refreshLimiter, circuitBreaker,
+                Bulkhead.ofDefaults("openfoodfacts"), meterRegistry, 5000);
+
+        assertThat(client.refreshProductAsync("123").join().getProductName()).isEqualTo("Milk");
+        assertThat(client.refreshProductAsync("123").join().getProductName()).isEqualTo("Milk");
+
+        assertThat(productLimiter.getMetrics().getAvailablePermissions()).isEqualTo(1);
+        assertThat(refreshLimiter.getMetrics().getAvailablePermissions()).isEqualTo(3);
+        assertThat(timerCount("refresh", "success")).isEqualTo(2);
+    }
+
+    private OpenFoodFactsClient client() {
+        return new OpenFoodFactsClient(
+                WebClient.builder().baseUrl(wireMockServer.baseUrl()).build(),
+                new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofDays(1), meterRegistry),
+                RateLimiter.ofDefaults("product"), RateLimiter.ofDefaults("search"), RateLimiter.ofDefaults("refresh"),
+                circuitBreaker, Bulkhead.ofDefaults("openfoodfacts"), meterRegistry, 5000);
+    }
+
+    private long timerCount(String operation, String outcome) {
+        return meterRegistry.get("external.openfoodfacts.requests")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
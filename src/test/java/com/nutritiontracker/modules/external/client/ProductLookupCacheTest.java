@@ -0,0 +1,67 @@
+package com.nutritiontracker.modules.external.client;
+
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Product Lookup Cache Tests")
+class ProductLookupCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should answer found and not-found barcodes from the cache")
+    void shouldCacheFoundAndMissingProducts() {
+        ProductLookupCache cache = new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofDays(1),
+                meterRegistry);
+        OpenFoodFactsProduct product = new OpenFoodFactsProduct();
+        product.setCode("123");
+
+        assertThat(cache.get("123")).isEmpty();
+        cache.put("123", product);
+        cache.put("404", null);
+
+        assertThat(cache.get("123")).hasValueSatisfying(lookup -> {
+            assertThat(lookup.getProduct()).isSameAs(product);
+            assertThat(lookup.isStale()).isFalse();
+        });
+        assertThat(cache.get("404")).hasValueSatisfying(lookup -> assertThat(lookup.getProduct()).isNull());
+        assertThat(count("hit")).isEqualTo(1);
+        assertThat(count("negative_hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should replace a not-found answer once the product appears upstream")
+    void shouldReplaceMissingWithFound() {
+        ProductLookupCache cache = new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofDays(1),
+                meterRegistry);
+        OpenFoodFactsProduct product = new OpenFoodFactsProduct();
+
+        cache.put("123", null);
+        cache.put("123", product);
+
+        assertThat(cache.get("123")).hasValueSatisfying(lookup -> assertThat(lookup.getProduct()).isSameAs(product));
+    }
+
+    @Test
+    @DisplayName("Should flag products older than the refresh interval as stale")
+    void shouldFlagStaleProducts() {
+        ProductLookupCache cache = new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofMillis(-1),
+                meterRegistry);
+        cache.put("123", new OpenFoodFactsProduct());
+
+        assertThat(cache.get("123")).hasValueSatisfying(lookup -> assertThat(lookup.isStale()).isTrue());
+        assertThat(count("stale_hit")).isEqualTo(1);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("external.openfoodfacts.lookup.cache").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,59 @@
+package com.nutritiontracker.modules.external.mapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Open Food Facts Dump Parser Tests")
+class OpenFoodFactsDumpParserTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should read a JSONL product and ignore unreadable lines")
+    void shouldParseJsonl() {
+        OpenFoodFactsDumpParser parser = OpenFoodFactsDumpParser.jsonl(objectMapper);
+
+        OpenFoodFactsProduct product = parser.parse("{\"code\":\"123\",\"product_name\":\"Milk\","
+                + "\"nutriments\":{\"energy-kcal_100g\":\"64\",\"proteins_100g\":3.3},\"categories\":\"dairy\"}");
+
+        assertThat(product.getCode()).isEqualTo("123");
+        assertThat(product.getProductName()).isEqualTo("Milk");
+        assertThat(product.getNutriments().getEnergyKcal100g()).isEqualTo(64.0);
+        assertThat(product.getNutriments().getProteins100g()).isEqualTo(3.3);
+        assertThat(parser.parse("{not json")).isNull();
+        assertThat(parser.parse("")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read a tab-separated CSV record by its header")
+    void shouldParseCsv() {
+        OpenFoodFactsDumpParser parser = OpenFoodFactsDumpParser.csv(objectMapper,
+                "code\turl\tproduct_name\tbrands\tenergy-kcal_100g\tfat_100g\tsugars_100g");
+
+        OpenFoodFactsProduct product = parser.parse("456\thttp://x\tBread\tBakery\t250\t\tn/a");
+
+        assertThat(product.getCode()).isEqualTo("456");
+        assertThat(product.getProductName()).isEqualTo("Bread");
+        assertThat(product.getBrands()).isEqualTo("Bakery");
+        assertThat(product.getNutriments().getEnergyKcal100g()).isEqualTo(250.0);
+        assertThat(product.getNutriments().getFat100g()).isNull();
+        assertThat(product.getNutriments().getSugars100g()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should tell the format from the file name")
+    void shouldDetectFormat() {
+        assertThat(OpenFoodFactsDumpParser.Format.of("products.jsonl.gz")).isEqualTo(OpenFoodFactsDumpParser.Format.JSONL);
+        assertThat(OpenFoodFactsDumpParser.Format.of("en.openfoodfacts.org.products.csv")).isEqualTo(OpenFoodFactsDumpParser.Format.CSV);
+        assertThatThrownBy(() -> OpenFoodFactsDumpParser.Format.of("products.xml"))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> OpenFoodFactsDumpParser.csv(objectMapper, "url\tproduct_name"))
+                .isInstanceOf(ValidationException.class);
+    }
+}
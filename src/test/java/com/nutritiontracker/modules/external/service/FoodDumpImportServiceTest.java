@@ -0,0 +1,173 @@
+package com.nutritiontracker.modules.external.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.external.dto.FoodDumpImportDto;
+import com.nutritiontracker.modules.external.entity.FoodDumpImport;
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
+import com.nutritiontracker.modules.external.repository.FoodDumpImportRepository;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Food Dump Import Service Unit Tests")
+class FoodDumpImportServiceTest {
+
+    private static final String DUMP = "products.jsonl.gz";
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private FoodDumpImportRepository jobRepository;
+
+    @Mock
+    private FoodIndexOutboxRepository foodIndexOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dumpDir;
+
+    private final Map<Long, FoodDumpImport> jobs = new ConcurrentHashMap<>();
+    private final List<String> upserted = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private FoodDumpImportService foodDumpImportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        foodDumpImportService = new FoodDumpImportService(new OpenFoodFactsMapper(), foodRepository, jobRepository,
+                foodIndexOutbox, new TransactionTemplate(transactionManager), new ObjectMapper(),
+                new SimpleMeterRegistry(), dumpDir.toString(), 2, 2);
+
+        lenient().when(jobRepository.save(any(FoodDumpImport.class))).thenAnswer(inv -> {
+            FoodDumpImport job = inv.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(ids.incrementAndGet());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(jobRepository.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<Long>getArgument(0))));
+        lenient().when(foodRepository.batchUpsert(anyList())).thenAnswer(inv -> {
+            List<Food> foods = inv.getArgument(0);
+            foods.forEach(food -> {
+                food.setId(ids.incrementAndGet());
+                upserted.add(food.getBarcode());
+            });
+            return foods.size();
+        });
+
+        // Four valid products and one without nutrients
+        try (Writer out = new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(dumpDir.resolve(DUMP))), StandardCharsets.UTF_8)) {
+            out.write(product("1") + "\n" + product("2") + "\n"
+                    + "{\"code\":\"9\",\"product_name\":\"No nutrients\"}\n"
+                    + product("3") + "\n" + product("4") + "\n");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        foodDumpImportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should stream the dump into the catalog in file order")
+    void shouldImportDump() throws Exception {
+        FoodDumpImportDto job = awaitCompletion(foodDumpImportService.submit(DUMP).getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(FoodImportJobStatus.COMPLETED);
+        assertThat(job.getRecordsRead()).isEqualTo(5);
+        assertThat(job.getImported()).isEqualTo(4);
+        assertThat(job.getSkipped()).isEqualTo(1);
+        assertThat(job.getRecordsPerSecond()).isNotNull();
+        assertThat(upserted).containsExactly("1", "2", "3", "4");
+        verify(foodRepository, times(3)).batchUpsert(anyList());
+        verify(foodIndexOutbox, times(3)).enqueue(anyList());
+    }
+
+    @Test
+    @DisplayName("Should resume an unfinished import of the same file after its checkpoint")
+    void shouldResumeFromCheckpoint() throws Exception {
+        Path file = dumpDir.resolve(DUMP);
+        FoodDumpImport failed = FoodDumpImport.builder()
+                .id(ids.incrementAndGet())
+                .fileName(DUMP)
+                .fileSize(Files.size(file))
+                .fileModifiedAt(Files.getLastModifiedTime(file).toMillis())
+                .recordsRead(3)
+                .imported(2)
+                .skipped(1)
+                .status(FoodImportJobStatus.FAILED)
+                .build();
+        jobs.put(failed.getId(), failed);
+        when(jobRepository.findFirstByFileNameAndStatusNotOrderByIdDesc(DUMP, FoodImportJobStatus.COMPLETED))
+                .thenReturn(Optional.of(failed));
+
+        FoodDumpImportDto job = awaitCompletion(foodDumpImportService.submit(DUMP).getJobId());
+
+        assertThat(job.getJobId()).isEqualTo(failed.getId());
+        assertThat(job.getStatus()).isEqualTo(FoodImportJobStatus.COMPLETED);
+        assertThat(job.getRecordsRead()).isEqualTo(5);
+        assertThat(job.getImported()).isEqualTo(4);
+        assertThat(upserted).containsExactly("3", "4");
+    }
+
+    @Test
+    @DisplayName("Should only read files inside the dump directory")
+    void shouldRejectFilesOutsideDumpDirectory() {
+        assertThatThrownBy(() -> foodDumpImportService.submit("../" + DUMP))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(jobRepository);
+    }
+
+    private FoodDumpImportDto awaitCompletion(Long jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            FoodDumpImportDto job = foodDumpImportService.getJob(jobId);
+            if (job.getStatus() == FoodImportJobStatus.COMPLETED || job.getStatus() == FoodImportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Dump import " + jobId + " did not finish");
+    }
+
+    private static String product(String barcode) {
+        return "{\"code\":\"" + barcode + "\",\"product_name\":\"Product " + barcode + "\","
+                + "\"nutriments\":{\"energy-kcal_100g\":100,\"proteins_100g\":5}}";
+    }
+}
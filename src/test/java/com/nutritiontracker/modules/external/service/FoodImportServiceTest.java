@@ -0,0 +1,231 @@
+package com.nutritiontracker.modules.external.service;
+
+import com.nutritiontracker.common.exception.ExternalApiException;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
+import com.nutritiontracker.modules.external.dto.FoodImportJobDto;
+import com.nutritiontracker.modules.external.dto.Nutriments;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsSearchResponse;
+import com.nutritiontracker.modules.external.entity.FoodImportJob;
+import com.nutritiontracker.modules.external.enums.FoodImportJobStatus;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
+import com.nutritiontracker.modules.external.repository.FoodImportJobRepository;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Food Import Service Unit Tests")
+class FoodImportServiceTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    @Mock
+    private OpenFoodFactsClient openFoodFactsClient;
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private FoodImportJobRepository jobRepository;
+
+    @Mock
+    private FoodIndexOutboxRepository foodIndexOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<Long, FoodImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private RateLimiter searchRateLimiter;
+    private FoodImportService foodImportService;
+
+    @BeforeEach
+    void setUp() {
+        // One permit every 100 ms
+        searchRateLimiter = RateLimiter.of("search", RateLimiterConfig.custom()
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .limitForPeriod(10)
+                .build());
+        foodImportService = new FoodImportService(openFoodFactsClient, new OpenFoodFactsMapper(), foodRepository,
+                jobRepository, foodIndexOutbox, new TransactionTemplate(transactionManager), searchRateLimiter,
+                PAGE_SIZE, 1, 5, Duration.ofMinutes(10), 3);
+
+        lenient().when(jobRepository.save(any(FoodImportJob.class))).thenAnswer(inv -> {
+            FoodImportJob job = inv.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(ids.incrementAndGet());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        lenient().when(jobRepository.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.<Long>getArgument(0))));
+        lenient().doAnswer(inv -> {
+            List<Food> foods = inv.getArgument(0);
+            foods.forEach(food -> food.setId(ids.incrementAndGet()));
+            return null;
+        }).when(foodRepository).batchInsert(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        foodImportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should import every page, skipping barcodes already in the catalog")
+    void shouldImportPagesSkippingExisting() throws Exception {
+        when(openFoodFactsClient.searchProductsAsync("milk", 1, PAGE_SIZE))
+                .thenReturn(CompletableFuture.completedFuture(response(product("1"), product("2"))));
+        when(openFoodFactsClient.searchProductsAsync("milk", 2, PAGE_SIZE))
+                .thenReturn(CompletableFuture.completedFuture(response(product("3"))));
+        when(foodRepository.findExistingBarcodes(anyCollection())).thenReturn(Set.of("2"), Set.of());
+
+        FoodImportJobDto job = awaitCompletion(foodImportService.submit("milk", 5).getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(FoodImportJobStatus.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(2);
+        assertThat(job.getSkipped()).isEqualTo(1);
+        assertThat(job.getPagesImported()).isEqualTo(2);
+        assertThat(job.getProgress()).isEqualTo(100);
+        verify(foodRepository, never()).existsByBarcode(anyString());
+
+        // The second page is requested before the first one is written
+        InOrder inOrder = inOrder(openFoodFactsClient, foodRepository);
+        inOrder.verify(openFoodFactsClient).searchProductsAsync("milk", 1, PAGE_SIZE);
+        inOrder.verify(openFoodFactsClient).searchProductsAsync("milk", 2, PAGE_SIZE);
+        inOrder.verify(foodRepository).batchInsert(argThat(foods -> foods.size() == 1
+                && foods.get(0).getBarcode().equals("1")));
+        verify(foodIndexOutbox, times(2)).enqueue(anyList());
+    }
+
+    @Test
+    @DisplayName("Should ask again for a page rejected by the rate limiter")
+    void shouldRetryRateLimitedPage() throws Exception {
+        ExternalApiException rejected = new ExternalApiException("Open Food Facts search failed",
+                RequestNotPermitted.createRequestNotPermitted(searchRateLimiter));
+        when(openFoodFactsClient.searchProductsAsync("bread", 1, PAGE_SIZE))
+                .thenReturn(CompletableFuture.failedFuture(rejected))
+                .thenReturn(CompletableFuture.completedFuture(response(product("1"))));
+        when(foodRepository.findExistingBarcodes(anyCollection())).thenReturn(Set.of());
+
+        FoodImportJobDto job = awaitCompletion(foodImportService.submit("bread", 1).getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(FoodImportJobStatus.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(1);
+        verify(openFoodFactsClient, times(2)).searchProductsAsync("bread", 1, PAGE_SIZE);
+    }
+
+    @Test
+    @DisplayName("Should fail on upstream errors, keeping the checkpoint of the last stored page")
+    void shouldKeepCheckpointOnFailure() throws Exception {
+        when(openFoodFactsClient.searchProductsAsync("cheese", 1, PAGE_SIZE))
+                .thenReturn(CompletableFuture.completedFuture(response(product("1"), product("2"))));
+        when(openFoodFactsClient.searchProductsAsync("cheese", 2, PAGE_SIZE))
+                .thenReturn(CompletableFuture.failedFuture(new ExternalApiException("Open Food Facts is down")));
+        when(foodRepository.findExistingBarcodes(anyCollection())).thenReturn(Set.of());
+
+        FoodImportJobDto job = awaitCompletion(foodImportService.submit("cheese", 3).getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(FoodImportJobStatus.FAILED);
+        assertThat(job.getError()).contains("Open Food Facts is down");
+        assertThat(job.getPagesImported()).isEqualTo(1);
+        assertThat(job.getImported()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should resume an unfinished job from its checkpoint")
+    void shouldResumeFromCheckpoint() throws Exception {
+        FoodImportJob failed = FoodImportJob.builder()
+                .id(ids.incrementAndGet())
+                .query("yogurt")
+                .maxPages(3)
+                .nextPage(3)
+                .imported(4)
+                .status(FoodImportJobStatus.FAILED)
+                .error("Open Food Facts is down")
+                .build();
+        jobs.put(failed.getId(), failed);
+        when(jobRepository.findFirstByQueryAndStatusNotOrderByIdDesc("yogurt", FoodImportJobStatus.COMPLETED))
+                .thenReturn(Optional.of(failed));
+        when(openFoodFactsClient.searchProductsAsync("yogurt", 3, PAGE_SIZE))
+                .thenReturn(CompletableFuture.completedFuture(response(product("9"))));
+        when(foodRepository.findExistingBarcodes(anyCollection())).thenReturn(Set.of());
+
+        FoodImportJobDto job = awaitCompletion(foodImportService.submit("yogurt", 3).getJobId());
+
+        assertThat(job.getJobId()).isEqualTo(failed.getId());
+        assertThat(job.getStatus()).isEqualTo(FoodImportJobStatus.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(5);
+        assertThat(job.getError()).isNull();
+        verify(openFoodFactsClient, never()).searchProductsAsync(eq("yogurt"), eq(1), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should reject a page count outside the allowed range")
+    void shouldRejectInvalidPageCount() {
+        assertThatThrownBy(() -> foodImportService.submit("milk", 0))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> foodImportService.submit("milk", FoodImportService.MAX_PAGES + 1))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(jobRepository, openFoodFactsClient);
+    }
+
+    private FoodImportJobDto awaitCompletion(Long jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            FoodImportJobDto job = foodImportService.getJob(jobId);
+            if (job.getStatus() == FoodImportJobStatus.COMPLETED || job.getStatus() == FoodImportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Import job " + jobId + " did not finish");
+    }
+
+    private static OpenFoodFactsSearchResponse response(OpenFoodFactsProduct... products) {
+        OpenFoodFactsSearchResponse response = new OpenFoodFactsSearchResponse();
+        response.setProducts(Arrays.asList(products));
+        return response;
+    }
+
+    private static OpenFoodFactsProduct product(String barcode) {
+        Nutriments nutriments = new Nutriments();
+        nutriments.setEnergyKcal100g(100.0);
+        nutriments.setProteins100g(5.0);
+        OpenFoodFactsProduct product = new OpenFoodFactsProduct();
+        product.setCode(barcode);
+        product.setProductName("Product " + barcode);
+        product.setNutriments(nutriments);
+        return product;
+    }
+}
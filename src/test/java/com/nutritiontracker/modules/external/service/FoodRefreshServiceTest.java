@@ -0,0 +1,158 @@
+package com.nutritiontracker.modules.external.service;
+
+import com.nutritiontracker.common.exception.ExternalApiException;
+import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
+import com.nutritiontracker.modules.external.dto.Nutriments;
+import com.nutritiontracker.modules.external.dto.OpenFoodFactsProduct;
+import com.nutritiontracker.modules.external.mapper.OpenFoodFactsMapper;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Food Refresh Service Unit Tests")
+class FoodRefreshServiceTest {
+
+    private static final LocalDateTime SYNCED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private OpenFoodFactsClient openFoodFactsClient;
+
+    @Mock
+    private FoodRepository foodRepository;
+
+    @Mock
+    private FoodIndexOutboxRepository foodIndexOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FoodRefreshService foodRefreshService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        foodRefreshService = service(100, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        foodRefreshService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should rewrite and reindex only foods whose content changed")
+    void shouldReindexOnlyChangedFoods() {
+        when(foodRepository.findStale(eq(OpenFoodFactsMapper.SOURCE), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(food(1L, "1"), food(2L, "2"), food(3L, "3")), List.of());
+        when(openFoodFactsClient.refreshProductAsync("1")).thenReturn(CompletableFuture.completedFuture(product("1")));
+        when(openFoodFactsClient.refreshProductAsync("2")).thenReturn(CompletableFuture.completedFuture(product("2")));
+        when(openFoodFactsClient.refreshProductAsync("3")).thenReturn(CompletableFuture.completedFuture(null));
+        // Only the first product changed upstream
+        when(foodRepository.batchUpsert(anyList())).thenAnswer(inv -> {
+            List<Food> foods = inv.getArgument(0);
+            foods.get(0).setId(1L);
+            return 1;
+        });
+
+        int checked = foodRefreshService.refreshStale();
+
+        assertThat(checked).isEqualTo(3);
+        verify(foodRepository).batchUpsert(argThat(foods -> foods.size() == 2));
+        verify(foodRepository).markSynced(eq(List.of(3L)), any(LocalDateTime.class));
+        verify(foodIndexOutbox).enqueue(List.of(1L));
+        assertThat(count("updated")).isEqualTo(1);
+        assertThat(count("unchanged")).isEqualTo(1);
+        assertThat(count("missing")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should continue after the last food of each batch and stop at the run limit")
+    void shouldPageByKeysetUpToRunLimit() {
+        foodRefreshService.shutdown();
+        foodRefreshService = service(2, 3);
+        Food second = food(7L, "7");
+        when(foodRepository.findStale(eq(OpenFoodFactsMapper.SOURCE), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(food(5L, "5"), second), List.of(food(9L, "9")));
+        when(openFoodFactsClient.refreshProductAsync(anyString()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(product(inv.getArgument(0))));
+
+        int checked = foodRefreshService.refreshStale();
+
+        assertThat(checked).isEqualTo(3);
+        verify(foodRepository).findStale(eq(OpenFoodFactsMapper.SOURCE), any(), eq(SYNCED), eq(7L),
+                eq(PageRequest.of(0, 1)));
+        verify(foodRepository, times(2)).findStale(any(), any(), any(), anyLong(), any());
+        verify(foodIndexOutbox, never()).enqueue(argThat(ids -> !ids.isEmpty()));
+    }
+
+    @Test
+    @DisplayName("Should stop the run when every fetch in a batch fails")
+    void shouldStopWhenUpstreamIsDown() {
+        when(foodRepository.findStale(eq(OpenFoodFactsMapper.SOURCE), any(), any(), anyLong(), any()))
+                .thenReturn(List.of(food(1L, "1"), food(2L, "2")));
+        when(openFoodFactsClient.refreshProductAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new ExternalApiException("Open Food Facts is down")));
+
+        int checked = foodRefreshService.refreshStale();
+
+        assertThat(checked).isZero();
+        verify(foodRepository, times(1)).findStale(any(), any(), any(), anyLong(), any());
+        verify(foodRepository, never()).markSynced(anyCollection(), any());
+        verify(foodIndexOutbox, never()).enqueue(argThat(ids -> !ids.isEmpty()));
+        assertThat(count("failed")).isEqualTo(2);
+    }
+
+    private FoodRefreshService service(int batchSize, int maxPerRun) {
+        return new FoodRefreshService(openFoodFactsClient, new OpenFoodFactsMapper(), foodRepository,
+                foodIndexOutbox, new TransactionTemplate(transactionManager), meterRegistry,
+                true, Duration.ofDays(7), batchSize, 2, maxPerRun);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("openfoodfacts.refresh.foods").tag("result", result).counter().count();
+    }
+
+    private static Food food(Long id, String barcode) {
+        return Food.builder()
+                .id(id)
+                .name("Product " + barcode)
+                .barcode(barcode)
+                .source(OpenFoodFactsMapper.SOURCE)
+                .externalId(barcode)
+                .lastSyncedAt(SYNCED)
+                .build();
+    }
+
+    private static OpenFoodFactsProduct product(String barcode) {
+        Nutriments nutriments = new Nutriments();
+        nutriments.setEnergyKcal100g(100.0);
+        nutriments.setProteins100g(5.0);
+        OpenFoodFactsProduct product = new OpenFoodFactsProduct();
+        product.setCode(barcode);
+        product.setProductName("Product " + barcode);
+        product.setNutriments(nutriments);
+        return product;
+    }
+}
@@ -1,22 +1,27 @@
 package com.nutritiontracker.modules.food.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nutritiontracker.common.dto.CursorPage;
 import com.nutritiontracker.modules.food.dto.BarcodeSearchResponseDto;
 import com.nutritiontracker.modules.food.dto.FoodRequestDto;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
 import com.nutritiontracker.modules.food.service.BarcodeService;
 import com.nutritiontracker.modules.food.service.FoodService;
 import com.nutritiontracker.modules.food.service.FoodStatsService;
+import com.nutritiontracker.modules.food.service.FoodSuggestService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -43,6 +48,9 @@ class FoodControllerTest {
     @MockBean
     private BarcodeService barcodeService;
 
+    @MockBean
+    private FoodSuggestService foodSuggestService;
+
     // Security beans that Spring Boot tries to instantiate
     @MockBean
     private com.nutritiontracker.modules.auth.security.JwtTokenProvider jwtTokenProvider;
@@ -109,15 +117,46 @@ class FoodControllerTest {
                 .message("Found in local")
                 .build();
 
-        when(barcodeService.searchByBarcode("12345")).thenReturn(responseDto);
+        when(barcodeService.searchByBarcodeAsync("12345")).thenReturn(CompletableFuture.completedFuture(responseDto));
+
+        MvcResult asyncResult = mockMvc.perform(get("/api/v1/foods/barcode/12345"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/api/v1/foods/barcode/12345"))
+        mockMvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.foundInDatabase").value(true))
                 .andExpect(jsonPath("$.data.source").value("local"));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/foods/scroll should return a cursor page")
+    void shouldScrollFoods() throws Exception {
+        FoodResponseDto responseDto = new FoodResponseDto();
+        responseDto.setId(1L);
+        responseDto.setName("Apple");
+        CursorPage<FoodResponseDto> page = CursorPage.<FoodResponseDto>builder()
+                .content(java.util.List.of(responseDto))
+                .nextCursor("abc")
+                .hasNext(true)
+                .size(1)
+                .build();
+
+        when(foodService.scrollFoods(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                eq("name"), eq(Sort.Direction.DESC), eq("xyz"), eq(1), eq(false)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/api/v1/foods/scroll")
+                .param("cursor", "xyz")
+                .param("size", "1")
+                .param("direction", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].name").value("Apple"))
+                .andExpect(jsonPath("$.data.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.data.hasNext").value(true));
+    }
+
     @Test
     @DisplayName("GET /api/v1/foods/{id}/calculate should return nutritional calculation")
     void shouldCalculateNutrition() throws Exception {
@@ -0,0 +1,229 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
+import com.nutritiontracker.modules.food.enums.FoodCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Elastic Food Repository (in-process index) Tests")
+class ElasticFoodRepositoryTest {
+
+    private ElasticFoodRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ElasticFoodRepository();
+        ElasticFoodRepository.Reindex reindex = repository.beginReindex();
+        reindex.addAll(List.of(
+                doc("1", "Greek Yogurt", "Fage", FoodCategory.DAIRY, "97", "9"),
+                doc("2", "Yogurt Natural", "Danone", FoodCategory.DAIRY, "61", "3.5"),
+                doc("3", "Chicken Breast", null, FoodCategory.PROTEIN, "165", "31"),
+                doc("4", "Chocolate Bar", "Milka", FoodCategory.SWEETS, "530", "6"),
+                doc("5", "Plátano", null, FoodCategory.FRUITS, "89", "1.1"),
+                doc("6", "Peanut Butter", "Skippy", FoodCategory.NUTS_SEEDS, "588", "25")));
+        reindex.finish();
+    }
+
+    @Test
+    @DisplayName("Should rank a name starting with the query first")
+    void shouldRankNamePrefixFirst() {
+        assertThat(ids(search("yog", PageRequest.of(0, 10)))).containsExactly("2", "1");
+    }
+
+    @Test
+    @DisplayName("Should match terms in the middle of a word like the SQL LIKE search")
+    void shouldMatchInfix() {
+        assertThat(ids(search("nut", PageRequest.of(0, 10)))).containsExactly("6");
+    }
+
+    @Test
+    @DisplayName("Should tolerate typos and accents")
+    void shouldTolerateTyposAndAccents() {
+        assertThat(ids(search("chiken", PageRequest.of(0, 10)))).containsExactly("3");
+        assertThat(ids(search("platano", PageRequest.of(0, 10)))).containsExactly("5");
+    }
+
+    @Test
+    @DisplayName("Should require every query token and search brands")
+    void shouldRequireAllTokens() {
+        assertThat(ids(search("yogurt fage", PageRequest.of(0, 10)))).containsExactly("1");
+        assertThat(ids(search("milka", PageRequest.of(0, 10)))).containsExactly("4");
+    }
+
+    @Test
+    @DisplayName("Should apply category and macro filters")
+    void shouldApplyFilters() {
+        Page<ElasticFoodDocument> page = repository.search("yogurt", FoodCategory.DAIRY,
+                null, null, new BigDecimal("5"), null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(ids(page)).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("Should reindex updated documents and drop deleted ones")
+    void shouldKeepIndexCurrent() {
+        repository.save(doc("4", "Dark Chocolate", "Lindt", FoodCategory.SWEETS, "600", "8"));
+        repository.deleteById("6");
+
+        assertThat(ids(search("milka", PageRequest.of(0, 10)))).isEmpty();
+        assertThat(ids(search("lindt", PageRequest.of(0, 10)))).containsExactly("4");
+        assertThat(ids(search("peanut", PageRequest.of(0, 10)))).isEmpty();
+        assertThat(repository.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should page through ranked results")
+    void shouldPageResults() {
+        Page<ElasticFoodDocument> page = search("yogurt", PageRequest.of(1, 1));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(ids(page)).containsExactly("1");
+    }
+
+    @Test
+    @DisplayName("Should suggest foods by word prefix ranked by popularity")
+    void shouldSuggestByPopularity() {
+        repository.refreshSuggestions(Map.of(1L, 5L, 2L, 50L));
+
+        assertThat(suggestIds("yo", Map.of())).containsExactly("2", "1");
+        assertThat(suggestIds("greek y", Map.of())).containsExactly("1");
+        assertThat(suggestIds("skip", Map.of())).containsExactly("6");
+    }
+
+    @Test
+    @DisplayName("Should rank the caller's boosted foods above popular ones")
+    void shouldApplyUserBoosts() {
+        repository.refreshSuggestions(Map.of(1L, 5L, 2L, 50L));
+
+        assertThat(suggestIds("yo", Map.of(1L, 3.0))).containsExactly("1", "2");
+    }
+
+    @Test
+    @DisplayName("Should reflect changes made after the last rebuild")
+    void shouldSuggestPendingChanges() {
+        repository.refreshSuggestions(Map.of(4L, 10L));
+        repository.save(doc("7", "Chocolate Milk", "Puleva", FoodCategory.BEVERAGES, "80", "3"));
+        repository.deleteById("4");
+
+        assertThat(suggestIds("choc", Map.of())).containsExactly("7");
+        assertThat(repository.pendingSuggestionChanges()).isEqualTo(2);
+
+        repository.refreshSuggestions(Map.of(4L, 10L));
+        assertThat(suggestIds("choc", Map.of())).containsExactly("7");
+        assertThat(repository.pendingSuggestionChanges()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should intersect macro ranges and list matches in name order")
+    void shouldFilterByNutrientRanges() {
+        Page<Long> page = repository.findIdsByNutrients(null, null, new BigDecimal("200"),
+                new BigDecimal("5"), null, null, null, null, null, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).containsExactly(3L, 1L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should apply the category and page through nutrient matches")
+    void shouldPageNutrientMatches() {
+        Page<Long> dairy = repository.findIdsByNutrients(FoodCategory.DAIRY, new BigDecimal("61"), new BigDecimal("97"),
+                null, null, null, null, null, null, PageRequest.of(0, 10));
+        Page<Long> second = repository.findIdsByNutrients(null, null, null, null, null,
+                null, null, null, null, PageRequest.of(1, 2));
+
+        assertThat(dairy.getContent()).containsExactly(1L, 2L);
+        assertThat(second.getContent()).containsExactly(1L, 6L);
+        assertThat(second.getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should treat missing nutrients as failing any bound on them")
+    void shouldSkipMissingNutrients() {
+        ElasticFoodDocument water = doc("8", "Water", null, FoodCategory.BEVERAGES, "0", "0");
+        water.setFats(null);
+        repository.save(water);
+
+        assertThat(repository.findIdsByNutrients(null, null, null, null, null, null, null,
+                null, new BigDecimal("1"), PageRequest.of(0, 10)).getContent()).doesNotContain(8L);
+        assertThat(repository.findIdsByNutrients(FoodCategory.BEVERAGES, null, null, null, null, null, null,
+                null, null, PageRequest.of(0, 10)).getContent()).containsExactly(8L);
+    }
+
+    @Test
+    @DisplayName("Should merge foods changed since the last rebuild into nutrient matches")
+    void shouldFilterPendingNutrientChanges() {
+        repository.save(doc("7", "Cottage Cheese", null, FoodCategory.DAIRY, "98", "11"));
+        repository.save(doc("3", "Chicken Breast", null, FoodCategory.PROTEIN, "250", "31"));
+        repository.deleteById("1");
+
+        Page<Long> page = repository.findIdsByNutrients(null, null, new BigDecimal("200"),
+                new BigDecimal("5"), null, null, null, null, null, PageRequest.of(0, 10));
+        assertThat(page.getContent()).containsExactly(7L);
+
+        repository.compact(1);
+        assertThat(repository.findIdsByNutrients(null, null, new BigDecimal("200"),
+                new BigDecimal("5"), null, null, null, null, null, PageRequest.of(0, 10)).getContent())
+                .containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("Should serve the live index until a reindex swaps in, with changes made meanwhile")
+    void shouldSwapInReindexWithConcurrentChanges() {
+        ElasticFoodRepository.Reindex reindex = repository.beginReindex();
+        reindex.addAll(List.of(
+                doc("1", "Greek Yogurt", "Fage", FoodCategory.DAIRY, "97", "9"),
+                doc("3", "Chicken Breast", null, FoodCategory.PROTEIN, "165", "31"),
+                doc("7", "Oat Milk", "Oatly", FoodCategory.BEVERAGES, "46", "1")));
+
+        assertThat(ids(search("oat", PageRequest.of(0, 10)))).isEmpty();
+        assertThatThrownBy(repository::beginReindex).isInstanceOf(IllegalStateException.class);
+
+        repository.save(doc("3", "Chicken Thigh", null, FoodCategory.PROTEIN, "209", "26"));
+        repository.deleteById("1");
+        reindex.finish();
+
+        assertThat(repository.count()).isEqualTo(2);
+        assertThat(ids(search("oat", PageRequest.of(0, 10)))).containsExactly("7");
+        assertThat(ids(search("thigh", PageRequest.of(0, 10)))).containsExactly("3");
+        assertThat(ids(search("yogurt", PageRequest.of(0, 10)))).isEmpty();
+        assertThat(suggestIds("oa", Map.of())).containsExactly("7");
+        assertThat(repository.findIdsByNutrients(null, null, new BigDecimal("100"), null, null, null, null, null,
+                null, PageRequest.of(0, 10)).getContent()).containsExactly(7L);
+    }
+
+    private Page<ElasticFoodDocument> search(String query, PageRequest pageable) {
+        return repository.search(query, null, null, null, null, null, null, null, null, null, pageable);
+    }
+
+    private List<String> suggestIds(String prefix, Map<Long, Double> boosts) {
+        return repository.suggest(prefix, 5, boosts).stream().map(ElasticFoodDocument::getId).toList();
+    }
+
+    private static List<String> ids(Page<ElasticFoodDocument> page) {
+        return page.getContent().stream().map(ElasticFoodDocument::getId).toList();
+    }
+
+    private static ElasticFoodDocument doc(String id, String name, String brand, FoodCategory category,
+            String calories, String protein) {
+        return ElasticFoodDocument.builder()
+                .id(id)
+                .name(name)
+                .brand(brand)
+                .category(category.name())
+                .calories(new BigDecimal(calories))
+                .protein(new BigDecimal(protein))
+                .carbohydrates(BigDecimal.ZERO)
+                .fats(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -0,0 +1,253 @@
+package com.nutritiontracker.modules.food.repository;
+
+import com.nutritiontracker.modules.food.dto.FoodResponseDto;
+import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.food.entity.NutritionalInfo;
+import com.nutritiontracker.modules.food.entity.ServingUnit;
+import com.nutritiontracker.modules.food.mapper.FoodMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@DisplayName("Food Repository Integration Tests")
+class FoodRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private FoodRepository foodRepository;
+
+    @MockBean
+    private CacheManager cacheManager;
+
+    private final FoodMapper foodMapper = new FoodMapper();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 6; i++) {
+            Food food = Food.builder()
+                    .name("Food " + i)
+                    .servingSize(BigDecimal.valueOf(100))
+                    .servingUnit("g")
+                    .build();
+            food.setNutritionalInfo(NutritionalInfo.builder()
+                    .calories(BigDecimal.valueOf(100L * i))
+                    .protein(BigDecimal.valueOf(i))
+                    .build());
+            food.addServingUnit(ServingUnit.builder().label("cup").weightGrams(BigDecimal.valueOf(240)).build());
+            food.addServingUnit(ServingUnit.builder().label("tbsp").weightGrams(BigDecimal.valueOf(15)).build());
+            entityManager.persist(food);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Should map a page of foods with nutrients and serving units in a bounded number of statements")
+    void shouldMapPageWithoutNPlusOne() {
+        Page<Food> page = foodRepository.findAll(PageRequest.of(0, 4, Sort.by("name")));
+        List<FoodResponseDto> dtos = page.map(foodMapper::toDto).getContent();
+
+        assertThat(dtos).hasSize(4);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getNutritionalInfo()).isNotNull();
+            assertThat(dto.getServingUnits()).hasSize(2);
+        });
+        // Page (nutrients joined), count, and one batch of serving units
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should map a filtered page in a bounded number of statements")
+    void shouldMapFilteredPageWithoutNPlusOne() {
+        Page<Food> page = foodRepository.findAll(
+                FoodSpecifications.withFilters(null, null, BigDecimal.valueOf(200), null,
+                        null, null, null, null, null, null),
+                PageRequest.of(0, 3, Sort.by("name")));
+        List<FoodResponseDto> dtos = page.map(foodMapper::toDto).getContent();
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(dtos).extracting(FoodResponseDto::getName).containsExactly("Food 2", "Food 3", "Food 4");
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getServingUnits()).hasSize(2));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should map a keyset page in a bounded number of statements")
+    void shouldMapKeysetPageWithoutNPlusOne() {
+        List<Food> foods = foodRepository.findBy(
+                FoodSpecifications.seekAfter("name", Sort.Direction.ASC, "Food 2", Long.MAX_VALUE),
+                q -> q.sortBy(Sort.by("name", "id")).project("nutritionalInfo").limit(3).all());
+        List<FoodResponseDto> dtos = foods.stream().map(foodMapper::toDto).toList();
+
+        assertThat(dtos).extracting(FoodResponseDto::getName).containsExactly("Food 3", "Food 4", "Food 5");
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getNutritionalInfo()).isNotNull());
+        // Page (nutrients joined) and one batch of serving units
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should batch insert foods with nutrients and find them by barcode")
+    void shouldBatchInsertFoods() {
+        List<Food> foods = List.of(importedFood("111", 120), importedFood("222", 240));
+
+        foodRepository.batchInsert(foods);
+        entityManager.clear();
+
+        assertThat(foods).allSatisfy(food -> assertThat(food.getId()).isNotNull());
+        assertThat(foodRepository.findExistingBarcodes(List.of("111", "222", "333")))
+                .containsExactlyInAnyOrder("111", "222");
+        Food stored = foodRepository.findByIdWithNutritionalInfo(foods.get(1).getId()).orElseThrow();
+        assertThat(stored.getSource()).isEqualTo("OPENFOODFACTS");
+        assertThat(stored.getNutritionalInfo().getCalories()).isEqualByComparingTo("240");
+    }
+
+    @Test
+    @DisplayName("Should upsert by barcode without overwriting foods from another source")
+    void shouldBatchUpsertFoods() {
+        foodRepository.batchInsert(List.of(importedFood("111", 120)));
+        Food local = Food.builder()
+                .name("My own bread")
+                .barcode("222")
+                .build();
+        local.setNutritionalInfo(NutritionalInfo.builder().calories(BigDecimal.valueOf(80)).build());
+        entityManager.persist(local);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Food> foods = List.of(importedFood("111", 130), importedFood("222", 240), importedFood("333", 50));
+        int written = foodRepository.batchUpsert(foods);
+        entityManager.clear();
+
+        assertThat(written).isEqualTo(2);
+        assertThat(foods.get(1).getId()).isNull();
+        assertThat(foodRepository.findByBarcodeWithNutritionalInfo("111").orElseThrow()
+                .getNutritionalInfo().getCalories()).isEqualByComparingTo("130");
+        Food untouched = foodRepository.findByBarcodeWithNutritionalInfo("222").orElseThrow();
+        assertThat(untouched.getName()).isEqualTo("My own bread");
+        assertThat(untouched.getNutritionalInfo().getCalories()).isEqualByComparingTo("80");
+        assertThat(foodRepository.existsByBarcode("333")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should only bump last_synced_at when the upserted content is unchanged")
+    void shouldSkipUnchangedFoodsOnUpsert() {
+        LocalDateTime imported = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Food first = importedFood("111", 120);
+        first.setLastSyncedAt(imported);
+        foodRepository.batchInsert(List.of(first));
+        entityManager.clear();
+
+        LocalDateTime refreshed = LocalDateTime.of(2024, 2, 1, 0, 0);
+        Food same = importedFood("111", 120);
+        same.getNutritionalInfo().setCalories(new BigDecimal("120.00"));
+        same.setLastSyncedAt(refreshed);
+        int written = foodRepository.batchUpsert(List.of(same));
+        entityManager.clear();
+
+        assertThat(written).isZero();
+        assertThat(same.getId()).isNull();
+        Food stored = foodRepository.findByBarcode("111").orElseThrow();
+        assertThat(stored.getLastSyncedAt()).isEqualTo(refreshed);
+        assertThat(stored.getContentHash()).isEqualTo(same.getContentHash());
+    }
+
+    @Test
+    @DisplayName("Should add the missing nutritional info and evict overwritten foods from the cache")
+    void shouldUpsertNutrientsAndEvictOverwrittenFoods() {
+        Food bare = importedFood("111", 120);
+        bare.setNutritionalInfo(null);
+        foodRepository.batchInsert(List.of(bare));
+        entityManager.clear();
+        Cache foodById = mock(Cache.class);
+        when(cacheManager.getCache("foodById")).thenReturn(foodById);
+
+        int written = foodRepository.batchUpsert(List.of(importedFood("111", 130)));
+        entityManager.clear();
+
+        assertThat(written).isEqualTo(1);
+        Food stored = foodRepository.findByBarcodeWithNutritionalInfo("111").orElseThrow();
+        assertThat(stored.getNutritionalInfo()).isNotNull();
+        assertThat(stored.getNutritionalInfo().getCalories()).isEqualByComparingTo("130");
+        verify(foodById).evict(bare.getId());
+    }
+
+    @Test
+    @DisplayName("Should page through stale foods of a source oldest first")
+    void shouldFindStaleFoodsByKeyset() {
+        LocalDateTime old = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Food> foods = List.of(importedFood("111", 1), importedFood("222", 1), importedFood("333", 1),
+                importedFood("444", 1));
+        foods.get(0).setLastSyncedAt(old.plusDays(1));
+        foods.get(1).setLastSyncedAt(old);
+        foods.get(2).setLastSyncedAt(old);
+        foods.get(3).setLastSyncedAt(old.plusDays(30));
+        foodRepository.batchInsert(foods);
+        entityManager.clear();
+
+        LocalDateTime cutoff = old.plusDays(7);
+        List<Food> first = foodRepository.findStale("OPENFOODFACTS", cutoff, LocalDateTime.of(1970, 1, 1, 0, 0), 0L,
+                PageRequest.of(0, 2));
+        Food last = first.get(1);
+        List<Food> second = foodRepository.findStale("OPENFOODFACTS", cutoff, last.getLastSyncedAt(), last.getId(),
+                PageRequest.of(0, 2));
+
+        assertThat(first).extracting(Food::getBarcode).containsExactly("222", "333");
+        assertThat(second).extracting(Food::getBarcode).containsExactly("111");
+        assertThat(foodRepository.findStale("LOCAL", cutoff, LocalDateTime.of(1970, 1, 1, 0, 0), 0L,
+                PageRequest.of(0, 2))).isEmpty();
+    }
+
+    private static Food importedFood(String barcode, int calories) {
+        Food food = Food.builder()
+                .name("Imported " + barcode)
+                .barcode(barcode)
+                .servingSize(BigDecimal.valueOf(100))
+                .servingUnit("g")
+                .source("OPENFOODFACTS")
+                .externalId(barcode)
+                .build();
+        food.setNutritionalInfo(NutritionalInfo.builder()
+                .calories(BigDecimal.valueOf(calories))
+                .protein(BigDecimal.ONE)
+                .build());
+        return food;
+    }
+}
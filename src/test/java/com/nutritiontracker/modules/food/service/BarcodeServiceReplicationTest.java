@@ -12,8 +12,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.Optional;
 
@@ -48,13 +46,10 @@ class BarcodeServiceReplicationTest {
 
     @BeforeEach
     void setUp() {
-        // Initialize service manually with mocks and a real WebClient builder for
-        // WireMock
-        barcodeService = new BarcodeService(foodRepository, foodMapper, WebClient.builder());
-
-        // Inject properties that would normally come from application.yml
-        ReflectionTestUtils.setField(barcodeService, "openFoodFactsBaseUrl", wireMockServer.baseUrl());
-        ReflectionTestUtils.setField(barcodeService, "timeout", 1000); // 1 second timeout
+        // Initialize service manually with mocks and a real client for WireMock,
+        // with a 1 second timeout
+        barcodeService = new BarcodeService(foodRepository, foodMapper,
+                BarcodeServiceTest.openFoodFactsClient(wireMockServer.baseUrl(), 1000));
     }
 
     @Test
@@ -81,7 +76,7 @@ class BarcodeServiceReplicationTest {
         // Mock DB not found
         when(foodRepository.findByBarcodeWithNutritionalInfo(anyString())).thenReturn(Optional.empty());
 
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/" + barcode + ".json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/" + barcode + ".json"))
                 .willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/json")
@@ -111,7 +106,7 @@ class BarcodeServiceReplicationTest {
 
         when(foodRepository.findByBarcodeWithNutritionalInfo(anyString())).thenReturn(Optional.empty());
 
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/" + barcode + ".json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/" + barcode + ".json"))
                 .willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", "application/json")
@@ -126,14 +121,14 @@ class BarcodeServiceReplicationTest {
     }
 
     @Test
-    @DisplayName("Should return not_found when external API times out")
+    @DisplayName("Should return unavailable when external API times out")
     void testReplicateBarcodeTimeout() {
         // Arrange
         String barcode = "0000000000000";
 
         when(foodRepository.findByBarcodeWithNutritionalInfo(anyString())).thenReturn(Optional.empty());
 
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/" + barcode + ".json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/" + barcode + ".json"))
                 .willReturn(aResponse()
                         .withFixedDelay(2000) // Delay longer than the 1s timeout
                         .withStatus(200)
@@ -144,6 +139,6 @@ class BarcodeServiceReplicationTest {
 
         // Assert
         assertThat(response.getFood()).isNull();
-        assertThat(response.getSource()).isEqualTo("none");
+        assertThat(response.getSource()).isEqualTo("unavailable");
     }
 }
@@ -5,11 +5,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.nutritiontracker.common.exception.ExternalApiException;
+import com.nutritiontracker.modules.external.client.OpenFoodFactsClient;
+import com.nutritiontracker.modules.external.client.ProductLookupCache;
 import com.nutritiontracker.modules.food.dto.BarcodeSearchResponseDto;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.mapper.FoodMapper;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,11 +23,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -46,12 +60,9 @@ class BarcodeServiceTest {
         wireMockServer = new WireMockServer(0); // Dynamic port
         wireMockServer.start();
 
-        // Use a real WebClient builder pointing to our MockWebServer
-        WebClient.Builder webClientBuilder = WebClient.builder();
-        barcodeService = new BarcodeService(foodRepository, foodMapper, webClientBuilder);
-
-        ReflectionTestUtils.setField(barcodeService, "openFoodFactsBaseUrl", wireMockServer.baseUrl());
-        ReflectionTestUtils.setField(barcodeService, "timeout", 5000);
+        // Use a real client pointing to our MockWebServer
+        barcodeService = new BarcodeService(foodRepository, foodMapper,
+                openFoodFactsClient(wireMockServer.baseUrl(), 5000));
     }
 
     @AfterEach
@@ -96,7 +107,7 @@ class BarcodeServiceTest {
         // Construct mock JSON response
         String jsonResponse = "{\"status\":1,\"product\":{\"product_name\":\"Test Product\",\"brands\":\"BrandX\",\"nutriments\":{\"energy-kcal_100g\":150.0,\"proteins_100g\":5.0}}}";
         
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/456.json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/456.json"))
             .willReturn(aResponse()
                 .withHeader("Content-Type", "application/json")
                 .withBody(jsonResponse)));
@@ -113,6 +124,51 @@ class BarcodeServiceTest {
         assertThat(result.getFood().getNutritionalInfo().getProtein().intValue()).isEqualTo(5);
     }
 
+    @Test
+    @DisplayName("Should share one upstream call between concurrent scans of the same barcode")
+    void shouldCoalesceConcurrentLookups() throws Exception {
+        when(foodRepository.findByBarcodeWithNutritionalInfo("555")).thenReturn(Optional.empty());
+
+        String jsonResponse = "{\"status\":1,\"product\":{\"product_name\":\"Popular\"}}";
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/555.json"))
+            .willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withFixedDelay(300)
+                .withBody(jsonResponse)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<BarcodeSearchResponseDto>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(executor.submit(() -> barcodeService.searchByBarcode("555")));
+            }
+            for (Future<BarcodeSearchResponseDto> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).getFood().getName()).isEqualTo("Popular");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        wireMockServer.verify(1, getRequestedFor(urlPathEqualTo("/api/v0/product/555.json")));
+    }
+
+    @Test
+    @DisplayName("Should return before a slow upstream answers and complete once it does")
+    void shouldNotBlockCallerOnUpstream() throws Exception {
+        when(foodRepository.findByBarcodeWithNutritionalInfo("slow")).thenReturn(Optional.empty());
+
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/slow.json"))
+            .willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withFixedDelay(500)
+                .withBody("{\"status\":1,\"product\":{\"product_name\":\"Slow Product\"}}")));
+
+        CompletableFuture<BarcodeSearchResponseDto> pending = barcodeService.searchByBarcodeAsync("slow");
+
+        assertThat(pending).isNotDone();
+        assertThat(pending.get(5, TimeUnit.SECONDS).getFood().getName()).isEqualTo("Slow Product");
+    }
+
     @Test
     @DisplayName("Should return not_found when product is missing everywhere")
     void shouldReturnNotFound() {
@@ -120,7 +176,7 @@ class BarcodeServiceTest {
 
         // Mock a 'product not found' JSON response from OFF
         String jsonResponse = "{\"status\":0}";
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/789.json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/789.json"))
             .willReturn(aResponse()
                 .withHeader("Content-Type", "application/json")
                 .withBody(jsonResponse)));
@@ -140,7 +196,7 @@ class BarcodeServiceTest {
         // Construct mock JSON response with missing properties
         String jsonResponse = "{\"status\":1,\"product\":{}}";
         
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/000.json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/000.json"))
             .willReturn(aResponse()
                 .withHeader("Content-Type", "application/json")
                 .withBody(jsonResponse)));
@@ -155,20 +211,20 @@ class BarcodeServiceTest {
     }
 
     @Test
-    @DisplayName("Should handle underlying WebClient errors gracefully by returning not found (null mono)")
+    @DisplayName("Should report Open Food Facts as unavailable, not the product as missing, on upstream errors")
     void shouldHandleExternalApiException() {
         when(foodRepository.findByBarcodeWithNutritionalInfo("error-code")).thenReturn(Optional.empty());
 
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/error-code.json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/error-code.json"))
                 .willReturn(aResponse()
                         .withStatus(500)));
 
         BarcodeSearchResponseDto result = barcodeService.searchByBarcode("error-code");
 
-        // The service catches WebClientResponseException internally via onErrorResume and returns empty mono.
-        // This makes externalFood null, resulting in BarcodeSearchResponseDto.notFound
+        // The client reports the upstream failure; with the local database already checked,
+        // the service degrades to BarcodeSearchResponseDto.unavailable
         assertThat(result.isFoundInDatabase()).isFalse();
-        assertThat(result.getSource()).isEqualTo("none");
+        assertThat(result.getSource()).isEqualTo("unavailable");
         assertThat(result.getFood()).isNull();
     }
 
@@ -177,12 +233,11 @@ class BarcodeServiceTest {
     void shouldThrowExternalApiException() {
         when(foodRepository.findByBarcodeWithNutritionalInfo("hard-error")).thenReturn(Optional.empty());
 
-        // Mock WebClient.Builder to throw exception before the inner try-catch
-        WebClient.Builder mockBuilder = mock(WebClient.Builder.class);
-        when(mockBuilder.baseUrl(anyString())).thenThrow(new RuntimeException("Simulated exception"));
-        
-        BarcodeService faultyBarcodeService = new BarcodeService(foodRepository, foodMapper, mockBuilder);
-        ReflectionTestUtils.setField(faultyBarcodeService, "openFoodFactsBaseUrl", "http://dummy");
+        // Mock the client to throw exception before the asynchronous error handling
+        OpenFoodFactsClient mockClient = mock(OpenFoodFactsClient.class);
+        when(mockClient.getProductByBarcodeAsync("hard-error")).thenThrow(new RuntimeException("Simulated exception"));
+
+        BarcodeService faultyBarcodeService = new BarcodeService(foodRepository, foodMapper, mockClient);
         
         assertThrows(ExternalApiException.class, () -> faultyBarcodeService.searchByBarcode("hard-error"));
     }
@@ -194,7 +249,7 @@ class BarcodeServiceTest {
 
         String jsonResponse = "{\"status\":1,\"product\":{\"product_name\":\"Test Product\",\"brands\":\"BrandX\"}}";
         
-        wireMockServer.stubFor(get(urlEqualTo("/api/v0/product/no-nutriments.json"))
+        wireMockServer.stubFor(get(urlPathEqualTo("/api/v0/product/no-nutriments.json"))
             .willReturn(aResponse()
                 .withHeader("Content-Type", "application/json")
                 .withBody(jsonResponse)));
@@ -206,4 +261,18 @@ class BarcodeServiceTest {
         assertThat(result.getFood().getNutritionalInfo().getCalories().intValue()).isEqualTo(0);
         assertThat(result.getFood().getNutritionalInfo().getCalcium().intValue()).isEqualTo(0);
     }
+
+    static OpenFoodFactsClient openFoodFactsClient(String baseUrl, long timeoutMillis) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new OpenFoodFactsClient(
+                WebClient.builder().baseUrl(baseUrl).build(),
+                new ProductLookupCache(new ConcurrentMapCacheManager(), Duration.ofDays(1), meterRegistry),
+                RateLimiter.ofDefaults("product"),
+                RateLimiter.ofDefaults("search"),
+                RateLimiter.ofDefaults("refresh"),
+                CircuitBreaker.ofDefaults("openfoodfacts"),
+                Bulkhead.ofDefaults("openfoodfacts"),
+                meterRegistry,
+                timeoutMillis);
+    }
 }
@@ -1,25 +1,34 @@
 package com.nutritiontracker.modules.food.service;
 
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
 import com.nutritiontracker.modules.food.entity.ElasticFoodDocument;
 import com.nutritiontracker.modules.food.entity.Food;
 import com.nutritiontracker.modules.food.entity.NutritionalInfo;
 import com.nutritiontracker.modules.food.enums.FoodCategory;
 import com.nutritiontracker.modules.food.repository.ElasticFoodRepository;
 import com.nutritiontracker.modules.food.repository.FoodRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,39 +41,159 @@ class ElasticSyncServiceTest {
     @Mock
     private ElasticFoodRepository elasticFoodRepository;
 
-    @InjectMocks
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    @Mock
+    private ElasticFoodRepository.Reindex reindex;
+
     private ElasticSyncService elasticSyncService;
 
+    @BeforeEach
+    void setUp() {
+        elasticSyncService = new ElasticSyncService(foodRepository, elasticFoodRepository, invalidationBus, 2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        elasticSyncService.shutdown();
+    }
+
     @Test
-    @DisplayName("Should skip sync if elastic search already contains foods")
-    void shouldSkipSyncIfNotEmpty() {
-        when(elasticFoodRepository.count()).thenReturn(10L);
+    @DisplayName("Should read the catalog in keyset chunks and swap in the new index")
+    void shouldReindexInChunks() throws InterruptedException {
+        when(elasticFoodRepository.beginReindex()).thenReturn(reindex);
+        when(foodRepository.findChunkAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(apple(), food(4L, "Pear")));
+        when(foodRepository.findChunkAfter(4L, PageRequest.of(0, 2))).thenReturn(List.of(food(9L, "Plum")));
+        when(foodRepository.findChunkAfter(9L, PageRequest.of(0, 2))).thenReturn(List.of());
+        when(reindex.size()).thenReturn(3);
 
-        elasticSyncService.syncAllFoodsOnStartup();
+        int indexed = elasticSyncService.reindex();
 
-        verify(foodRepository, never()).findAll();
-        verify(elasticFoodRepository, never()).saveAll(anyList());
+        assertThat(indexed).isEqualTo(3);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ElasticFoodDocument>> chunkCaptor = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(reindex);
+        inOrder.verify(reindex, times(2)).addAll(chunkCaptor.capture());
+        inOrder.verify(reindex).finish();
+        verify(reindex, never()).abort();
+        verify(elasticFoodRepository, never()).saveChanges(anyList());
+
+        assertThat(chunkCaptor.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        ElasticFoodDocument doc = chunkCaptor.getAllValues().get(0).get(0);
+        assertThat(doc.getId()).isEqualTo("1");
+        assertThat(doc.getName()).isEqualTo("Apple");
+        assertThat(doc.getBrand()).isEqualTo("FruitCo");
+        assertThat(doc.getBarcode()).isEqualTo("12345");
+        assertThat(doc.getCategory()).isEqualTo(FoodCategory.FRUITS.name());
+        assertThat(doc.getCalories()).isEqualByComparingTo(BigDecimal.valueOf(50));
+        assertThat(doc.getProtein()).isEqualByComparingTo(BigDecimal.valueOf(1));
+    }
+
+    @Test
+    @DisplayName("Should catch up with a background rebuild of the whole index")
+    void shouldCatchUpWithBackgroundReindex() {
+        when(elasticFoodRepository.beginReindex()).thenReturn(reindex);
+        when(foodRepository.findChunkAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(apple()));
+        when(foodRepository.findChunkAfter(1L, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        elasticSyncService.catchUp();
+
+        verify(reindex, timeout(5000)).finish();
+        verify(reindex).addAll(argThat(docs -> docs.size() == 1));
+        verify(reindex, never()).abort();
     }
 
     @Test
-    @DisplayName("Should skip sync if MySQL repository is empty")
-    void shouldSkipSyncIfMySqlIsEmpty() {
-        when(elasticFoodRepository.count()).thenReturn(0L);
-        when(foodRepository.findAll()).thenReturn(Collections.emptyList());
+    @DisplayName("Should drop the new index and keep the live one when a chunk fails")
+    void shouldAbortReindexOnFailure() {
+        when(elasticFoodRepository.beginReindex()).thenReturn(reindex);
+        when(foodRepository.findChunkAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(apple()));
+        when(foodRepository.findChunkAfter(1L, PageRequest.of(0, 2)))
+                .thenThrow(new IllegalStateException("connection lost"));
 
-        elasticSyncService.syncAllFoodsOnStartup();
+        assertThatThrownBy(() -> elasticSyncService.reindex()).isInstanceOf(IllegalStateException.class);
 
-        verify(elasticFoodRepository, never()).saveAll(anyList());
+        verify(reindex).abort();
+        verify(reindex, never()).finish();
     }
 
     @Test
-    @DisplayName("Should sync all foods to Elastic Search properly")
-    void shouldSyncFoodsToElasticSearch() {
-        when(elasticFoodRepository.count()).thenReturn(0L);
+    @DisplayName("Should drop the new index when a chunk fails to convert, even after it was done")
+    void shouldAbortReindexOnFailedChunk() {
+        CountDownLatch failed = new CountDownLatch(1);
+        when(elasticFoodRepository.beginReindex()).thenReturn(reindex);
+        when(foodRepository.findChunkAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(apple()));
+        // The next read waits until the first chunk has failed, so it is already done when pruned
+        lenient().when(foodRepository.findChunkAfter(1L, PageRequest.of(0, 2))).thenAnswer(invocation -> {
+            failed.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            return List.of(food(4L, "Pear"));
+        });
+        lenient().when(foodRepository.findChunkAfter(4L, PageRequest.of(0, 2))).thenReturn(List.of());
+        doAnswer(invocation -> {
+            failed.countDown();
+            throw new IllegalStateException("bad document");
+        }).doNothing().when(reindex).addAll(anyList());
+
+        assertThatThrownBy(() -> elasticSyncService.reindex()).hasRootCauseMessage("bad document");
+
+        verify(reindex).abort();
+        verify(reindex, never()).finish();
+    }
 
+    @Test
+    @DisplayName("Should refresh or drop the foods another instance changed with one query")
+    void shouldRefreshFoodsChangedElsewhere() {
         Food food = new Food();
         food.setId(1L);
         food.setName("Apple");
+        when(foodRepository.findAllByIdWithNutritionalInfo(List.of(1L, 2L))).thenReturn(List.of(food));
+
+        elasticSyncService.refreshFoods("1,2");
+        elasticSyncService.refreshFoods(null);
+
+        verify(foodRepository, times(1)).findAllByIdWithNutritionalInfo(any());
+        verify(elasticFoodRepository).saveChanges(argThat(docs -> docs.size() == 1
+                && docs.iterator().next().getName().equals("Apple")));
+        verify(elasticFoodRepository).deleteById("2");
+    }
+
+    @Test
+    @DisplayName("Should index changed foods, drop deleted ones and broadcast the batch once")
+    void shouldIndexChangedFoods() {
+        Food food = new Food();
+        food.setId(7L);
+        food.setName("Imported yogurt");
+        when(foodRepository.findAllByIdWithNutritionalInfo(List.of(7L, 8L))).thenReturn(List.of(food));
+
+        elasticSyncService.indexFoods(List.of(7L, 8L));
+        elasticSyncService.indexFoods(List.of());
+
+        verify(elasticFoodRepository, times(1)).saveChanges(argThat(docs -> docs.size() == 1));
+        verify(elasticFoodRepository).deleteById("8");
+        verify(invalidationBus, times(1)).publish(eq("food"), any());
+        verify(invalidationBus).publish("food", "7,8");
+    }
+
+    @Test
+    @DisplayName("Should split a broadcast only where the id list outgrows the key column")
+    void shouldSplitLargeBroadcasts() {
+        List<Long> ids = LongStream.rangeClosed(100_000, 100_199).boxed().toList();
+        when(foodRepository.findAllByIdWithNutritionalInfo(ids)).thenReturn(List.of());
+
+        elasticSyncService.indexFoods(ids);
+
+        ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
+        verify(invalidationBus, times(3)).publish(eq("food"), keyCaptor.capture());
+        assertThat(keyCaptor.getAllValues()).allSatisfy(key ->
+                assertThat(key.length()).isLessThanOrEqualTo(CacheInvalidationBus.MAX_KEY_LENGTH));
+        assertThat(String.join(",", keyCaptor.getAllValues()))
+                .isEqualTo(ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    private static Food apple() {
+        Food food = food(1L, "Apple");
         food.setBrand("FruitCo");
         food.setBarcode("12345");
         food.setCategory(FoodCategory.FRUITS);
@@ -75,24 +204,13 @@ class ElasticSyncServiceTest {
         nutrition.setCarbohydrates(BigDecimal.valueOf(14));
         nutrition.setFats(BigDecimal.valueOf(0));
         food.setNutritionalInfo(nutrition);
+        return food;
+    }
 
-        when(foodRepository.findAll()).thenReturn(List.of(food));
-
-        elasticSyncService.syncAllFoodsOnStartup();
-
-        @SuppressWarnings("unchecked")
-        ArgumentCaptor<List<ElasticFoodDocument>> listCaptor = ArgumentCaptor.forClass(List.class);
-        verify(elasticFoodRepository).saveAll(listCaptor.capture());
-
-        List<ElasticFoodDocument> savedDocs = listCaptor.getValue();
-        assertThat(savedDocs).hasSize(1);
-        ElasticFoodDocument doc = savedDocs.get(0);
-        assertThat(doc.getId()).isEqualTo("1");
-        assertThat(doc.getName()).isEqualTo("Apple");
-        assertThat(doc.getBrand()).isEqualTo("FruitCo");
-        assertThat(doc.getBarcode()).isEqualTo("12345");
-        assertThat(doc.getCategory()).isEqualTo(FoodCategory.FRUITS.name());
-        assertThat(doc.getCalories()).isEqualByComparingTo(BigDecimal.valueOf(50));
-        assertThat(doc.getProtein()).isEqualByComparingTo(BigDecimal.valueOf(1));
+    private static Food food(Long id, String name) {
+        Food food = new Food();
+        food.setId(id);
+        food.setName(name);
+        return food;
     }
 }
@@ -0,0 +1,92 @@
+package com.nutritiontracker.modules.food.service;
+
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository.Backlog;
+import com.nutritiontracker.modules.food.repository.FoodIndexOutboxRepository.Entry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Food Index Outbox Relay Unit Tests")
+class FoodIndexOutboxRelayTest {
+
+    @Mock
+    private FoodIndexOutboxRepository outboxRepository;
+
+    @Mock
+    private ElasticSyncService elasticSyncService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FoodIndexOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new FoodIndexOutboxRelay(outboxRepository, elasticSyncService,
+                new TransactionTemplate(transactionManager), meterRegistry, 3,
+                Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should index each food once per batch and delete its entries")
+    void shouldCoalesceEntriesPerFood() {
+        when(outboxRepository.claim(3)).thenReturn(
+                List.of(entry(10, 1, 0, 4), entry(11, 2, 0, 3), entry(12, 1, 0, 2)),
+                List.of(entry(13, 3, 0, 1)));
+        when(outboxRepository.backlog()).thenReturn(new Backlog(7, Duration.ofSeconds(12)));
+
+        int drained = relay.drain();
+
+        assertThat(drained).isEqualTo(4);
+        verify(elasticSyncService).indexFoods(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        verify(elasticSyncService).indexFoods(argThat(ids -> ids.size() == 1 && ids.contains(3L)));
+        verify(outboxRepository).delete(List.of(10L, 11L, 12L));
+        verify(outboxRepository).delete(List.of(13L));
+        assertThat(meterRegistry.get("search.index.outbox.delay").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("search.index.outbox.pending").gauge().value()).isEqualTo(7);
+        assertThat(meterRegistry.get("search.index.outbox.lag").gauge().value()).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Should keep failed entries with an exponential, capped backoff")
+    void shouldRetryFailedBatchWithBackoff() {
+        when(outboxRepository.claim(3)).thenReturn(List.of(entry(10, 1, 0, 1), entry(11, 2, 3, 1)));
+        doThrow(new IllegalStateException("index unavailable")).when(elasticSyncService).indexFoods(anyCollection());
+        when(outboxRepository.backlog()).thenReturn(new Backlog(2, Duration.ofSeconds(1)));
+
+        int drained = relay.drain();
+
+        assertThat(drained).isZero();
+        verify(outboxRepository).retryLater(Map.of(10L, Duration.ofSeconds(1), 11L, Duration.ofSeconds(5)));
+        verify(outboxRepository, never()).delete(anyCollection());
+        assertThat(meterRegistry.get("search.index.outbox.retries").counter().count()).isEqualTo(2);
+    }
+
+    private static Entry entry(long id, long foodId, int attempts, long ageSeconds) {
+        return new Entry(id, foodId, attempts, Duration.ofSeconds(ageSeconds));
+    }
+}
@@ -239,6 +239,91 @@ class FoodServiceTest {
         verify(foodRepository).findAll(any(org.springframework.data.jpa.domain.Specification.class), eq(pageable));
     }
 
+    @Test
+    @DisplayName("Should answer macro filters from the nutrient index and hydrate only the page")
+    void shouldFilterFromNutrientIndex() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 2);
+        BigDecimal minProtein = new BigDecimal("20");
+        BigDecimal maxCalories = new BigDecimal("200");
+
+        when(elasticFoodRepository.isLoaded()).thenReturn(true);
+        when(elasticFoodRepository.findIdsByNutrients(null, null, maxCalories, minProtein, null,
+                null, null, null, null, pageable))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(java.util.List.of(2L, 1L), pageable, 7));
+
+        Food first = new Food();
+        first.setId(1L);
+        Food second = new Food();
+        second.setId(2L);
+        when(foodRepository.findAllByIdWithNutritionalInfo(java.util.List.of(2L, 1L)))
+                .thenReturn(java.util.List.of(first, second));
+
+        FoodResponseDto firstDto = new FoodResponseDto();
+        firstDto.setId(1L);
+        FoodResponseDto secondDto = new FoodResponseDto();
+        secondDto.setId(2L);
+        when(foodMapper.toDto(first)).thenReturn(firstDto);
+        when(foodMapper.toDto(second)).thenReturn(secondDto);
+
+        org.springframework.data.domain.Page<FoodResponseDto> result = foodService.searchFoods(
+                null, null, null, maxCalories, minProtein, null, null, null, null, null, pageable);
+
+        assertThat(result.getContent()).extracting(FoodResponseDto::getId).containsExactly(2L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        verify(foodRepository, never()).findAll(any(org.springframework.data.jpa.domain.Specification.class),
+                any(org.springframework.data.domain.Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should fetch one extra row to detect the next page and encode the last key in the cursor")
+    void shouldScrollFoodsByKeyset() {
+        Food apple = new Food();
+        apple.setId(4L);
+        apple.setName("Apple");
+        Food banana = new Food();
+        banana.setId(2L);
+        banana.setName("Banana");
+        Food cherry = new Food();
+        cherry.setId(9L);
+        cherry.setName("Cherry");
+
+        when(foodRepository.findBy(any(org.springframework.data.jpa.domain.Specification.class), any()))
+                .thenReturn(java.util.List.of(apple, banana, cherry));
+        when(foodMapper.toDto(any())).thenReturn(new FoodResponseDto());
+
+        com.nutritiontracker.common.dto.CursorPage<FoodResponseDto> page = foodService.scrollFoods(
+                null, null, null, null, null, null, null, null, null, null,
+                "name", org.springframework.data.domain.Sort.Direction.ASC, null, 2, false);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(page.getTotalElements()).isNull();
+        com.nutritiontracker.modules.food.dto.FoodCursor cursor =
+                com.nutritiontracker.modules.food.dto.FoodCursor.decode(page.getNextCursor());
+        assertThat(cursor.getLastValue()).isEqualTo("Banana");
+        assertThat(cursor.getLastId()).isEqualTo(2L);
+        verify(foodRepository, never()).count(any(org.springframework.data.jpa.domain.Specification.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a cursor issued for a different sort")
+    void shouldRejectMismatchedCursor() {
+        String cursor = com.nutritiontracker.modules.food.dto.FoodCursor.builder()
+                .sortBy("name")
+                .direction(org.springframework.data.domain.Sort.Direction.ASC)
+                .lastValue("Banana")
+                .lastId(2L)
+                .build()
+                .encode();
+
+        assertThrows(ValidationException.class, () -> foodService.scrollFoods(
+                null, null, null, null, null, null, null, null, null, null,
+                "createdAt", org.springframework.data.domain.Sort.Direction.ASC, cursor, 20, false));
+        assertThrows(ValidationException.class, () -> foodService.scrollFoods(
+                null, null, null, null, null, null, null, null, null, null,
+                "name", org.springframework.data.domain.Sort.Direction.ASC, "not-a-cursor!", 20, false));
+    }
+
     @Test
     @DisplayName("Should return total count from repository")
     void shouldReturnTotalCount() {
@@ -266,13 +351,15 @@ class FoodServiceTest {
         org.springframework.data.domain.Page<com.nutritiontracker.modules.food.entity.ElasticFoodDocument> elasticPage = new org.springframework.data.domain.PageImpl<>(
                 java.util.List.of(doc), pageable, 1);
 
-        when(elasticFoodRepository.fuzzySearch(eq("apple"), any(org.springframework.data.domain.Pageable.class)))
+        when(elasticFoodRepository.isLoaded()).thenReturn(true);
+        when(elasticFoodRepository.search(eq("apple"), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(org.springframework.data.domain.Pageable.class)))
                 .thenReturn(elasticPage);
 
         Food food = new Food();
         food.setId(1L);
         food.setName("Apple");
-        when(foodRepository.findAllById(java.util.List.of(1L))).thenReturn(java.util.List.of(food));
+        when(foodRepository.findAllByIdWithNutritionalInfo(java.util.List.of(1L))).thenReturn(java.util.List.of(food));
 
         FoodResponseDto dto = new FoodResponseDto();
         dto.setId(1L);
@@ -283,7 +370,8 @@ class FoodServiceTest {
                 "apple", null, null, null, null, null, null, null, null, null, pageable);
 
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(elasticFoodRepository).fuzzySearch(eq("apple"), any(org.springframework.data.domain.Pageable.class));
+        verify(elasticFoodRepository).search(eq("apple"), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(org.springframework.data.domain.Pageable.class));
     }
 
     @Test
@@ -293,7 +381,9 @@ class FoodServiceTest {
         org.springframework.data.domain.Page<com.nutritiontracker.modules.food.entity.ElasticFoodDocument> elasticPage = org.springframework.data.domain.Page
                 .empty(pageable);
 
-        when(elasticFoodRepository.fuzzySearch(eq("unknown"), any(org.springframework.data.domain.Pageable.class)))
+        when(elasticFoodRepository.isLoaded()).thenReturn(true);
+        when(elasticFoodRepository.search(eq("unknown"), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(org.springframework.data.domain.Pageable.class)))
                 .thenReturn(elasticPage);
 
         org.springframework.data.domain.Page<FoodResponseDto> result = foodService.searchFoods(
@@ -302,6 +392,47 @@ class FoodServiceTest {
         assertThat(result.isEmpty()).isTrue();
     }
 
+    @Test
+    @DisplayName("Should search the database while the search index is still loading")
+    void shouldSearchDatabaseUntilIndexLoaded() {
+        org.springframework.data.domain.Pageable pageable = org.springframework.data.domain.PageRequest.of(0, 10);
+        Food food = new Food();
+        food.setId(1L);
+        food.setName("Apple");
+        when(elasticFoodRepository.isLoaded()).thenReturn(false);
+        when(foodRepository.findAll(any(org.springframework.data.jpa.domain.Specification.class), eq(pageable)))
+                .thenReturn(new org.springframework.data.domain.PageImpl<>(java.util.List.of(food), pageable, 1));
+        when(foodMapper.toDto(food)).thenReturn(new FoodResponseDto());
+
+        org.springframework.data.domain.Page<FoodResponseDto> result = foodService.searchFoods(
+                "apple", null, null, null, null, null, null, null, null, null, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        verify(elasticFoodRepository, never()).search(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any());
+    }
+
+    @Test
+    @DisplayName("Should scroll text queries by key while the search index is still loading")
+    void shouldScrollTextByKeyUntilIndexLoaded() {
+        Food food = new Food();
+        food.setId(3L);
+        food.setName("Apple");
+        when(elasticFoodRepository.isLoaded()).thenReturn(false);
+        when(foodRepository.findBy(any(org.springframework.data.jpa.domain.Specification.class), any()))
+                .thenReturn(java.util.List.of(food));
+        when(foodMapper.toDto(food)).thenReturn(new FoodResponseDto());
+
+        com.nutritiontracker.common.dto.CursorPage<FoodResponseDto> page = foodService.scrollFoods(
+                "apple", null, null, null, null, null, null, null, null, null,
+                "name", org.springframework.data.domain.Sort.Direction.ASC, null, 20, false);
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.isHasNext()).isFalse();
+        verify(elasticFoodRepository, never()).search(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                any(), any());
+    }
+
     @Test
     @DisplayName("Should throw ValidationException when updating food with existing barcode")
     void shouldThrowExceptionWhenUpdateBarcodeExists() {
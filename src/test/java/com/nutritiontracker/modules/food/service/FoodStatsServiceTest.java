@@ -1,5 +1,6 @@
 package com.nutritiontracker.modules.food.service;
 
+import com.nutritiontracker.common.cache.CacheInvalidationBus;
 import com.nutritiontracker.common.exception.ResourceNotFoundException;
 import com.nutritiontracker.modules.dailylog.repository.MealEntryRepository;
 import com.nutritiontracker.modules.food.dto.FoodResponseDto;
@@ -41,6 +42,9 @@ class FoodStatsServiceTest {
     @Mock
     private FoodMapper foodMapper;
 
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
     @InjectMocks
     private FoodStatsService foodStatsService;
 
@@ -84,6 +88,7 @@ class FoodStatsServiceTest {
         foodStatsService.removeFavorite(1L, 1L);
 
         verify(favoriteFoodRepository).deleteByUserIdAndFoodId(1L, 1L);
+        verify(invalidationBus).publishAfterCommit("suggestBoosts", "1");
     }
 
     @Test
@@ -153,4 +158,20 @@ class FoodStatsServiceTest {
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(30L);
     }
+
+    @Test
+    @DisplayName("Should boost favorites above frequent foods and cache the result")
+    void shouldBuildSuggestionBoosts() {
+        org.springframework.test.util.ReflectionTestUtils.setField(foodStatsService, "boostTtlMillis", 60_000L);
+        when(mealEntryRepository.findTopFrequentFoodIds(eq(1L), any(Pageable.class))).thenReturn(List.of(10L, 20L));
+        when(favoriteFoodRepository.findByUserId(1L))
+                .thenReturn(List.of(FavoriteFood.builder().userId(1L).foodId(30L).build()));
+
+        java.util.Map<Long, Double> boosts = foodStatsService.getSuggestionBoosts(1L);
+        foodStatsService.getSuggestionBoosts(1L);
+
+        assertThat(boosts.get(30L)).isGreaterThan(boosts.get(10L));
+        assertThat(boosts.get(10L)).isGreaterThan(boosts.get(20L));
+        verify(favoriteFoodRepository, times(1)).findByUserId(1L);
+    }
 }
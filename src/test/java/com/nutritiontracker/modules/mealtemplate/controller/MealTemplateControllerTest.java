@@ -62,19 +62,22 @@ class MealTemplateControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/v1/meal-templates should return user templates")
+    @DisplayName("GET /api/v1/meal-templates should return user templates followed by system templates")
     void shouldGetTemplates() throws Exception {
         setAuthenticatedUser(1L);
         MealTemplate template = new MealTemplate();
         MealTemplateResponseDto dto = MealTemplateResponseDto.builder().id(1L).name("Test").build();
+        MealTemplateResponseDto system = MealTemplateResponseDto.builder().id(-1L).name("System").build();
 
         when(mealTemplateService.getUserTemplates(1L)).thenReturn(List.of(template));
         when(mealTemplateMapper.toDto(template)).thenReturn(dto);
+        when(mealTemplateService.getSystemTemplates()).thenReturn(List.of(system));
 
         mockMvc.perform(get("/api/v1/meal-templates"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data[0].name").value("Test"));
+                .andExpect(jsonPath("$.data[0].name").value("Test"))
+                .andExpect(jsonPath("$.data[1].name").value("System"));
     }
 
     @Test
@@ -56,23 +56,18 @@ class MealTemplateRepositoryTest {
     }
 
     @Test
-    @DisplayName("findByUserIdOrSystemTrue should return user templates and system templates")
-    void shouldFindByUserIdOrSystemTrue() {
-        MealTemplate userTemplate = buildTemplate(1L, false, false);
-        MealTemplate systemTemplate = buildTemplate(null, true, false);
-        MealTemplate otherUserTemplate = buildTemplate(2L, false, false);
-
-        entityManager.persist(userTemplate);
-        entityManager.persist(systemTemplate);
-        entityManager.persist(otherUserTemplate);
+    @DisplayName("findByUserIdWithItems and findSystemTemplatesWithItems should split user and system templates")
+    void shouldFindUserAndSystemTemplatesSeparately() {
+        entityManager.persist(buildTemplate(1L, false, false));
+        entityManager.persist(buildTemplate(null, true, false));
+        entityManager.persist(buildTemplate(2L, false, false));
         entityManager.flush();
         entityManager.clear();
 
-        List<MealTemplate> results = mealTemplateRepository.findByUserIdOrSystemTrue(1L);
-
-        assertThat(results).hasSize(2);
-        assertThat(results).extracting(MealTemplate::getName)
-                .containsExactlyInAnyOrder("Template User", "Template System");
+        assertThat(mealTemplateRepository.findByUserIdWithItems(1L)).extracting(MealTemplate::getName)
+                .containsExactly("Template User");
+        assertThat(mealTemplateRepository.findSystemTemplatesWithItems()).extracting(MealTemplate::getName)
+                .containsExactly("Template System");
     }
 
     @Test
@@ -130,8 +125,6 @@ class MealTemplateRepositoryTest {
         mealTemplateRepository.deleteByUserId(5L);
         entityManager.flush();
 
-        List<MealTemplate> remaining = mealTemplateRepository.findByUserIdOrSystemTrue(5L);
-        // Only system templates should remain (none created for user 5 in this test)
-        assertThat(remaining).isEmpty();
+        assertThat(mealTemplateRepository.findByUserIdWithItems(5L)).isEmpty();
     }
 }
@@ -4,8 +4,10 @@ import com.nutritiontracker.common.exception.ResourceNotFoundException;
 import com.nutritiontracker.modules.dailylog.enums.MealType;
 import com.nutritiontracker.modules.dailylog.service.DailyLogService;
 import com.nutritiontracker.modules.food.entity.Food;
+import com.nutritiontracker.modules.mealtemplate.dto.MealTemplateResponseDto;
 import com.nutritiontracker.modules.mealtemplate.entity.MealTemplate;
 import com.nutritiontracker.modules.mealtemplate.entity.MealTemplateItem;
+import com.nutritiontracker.modules.mealtemplate.mapper.MealTemplateMapper;
 import com.nutritiontracker.modules.mealtemplate.repository.MealTemplateRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,17 +38,33 @@ class MealTemplateServiceTest {
     @Mock
     private DailyLogService dailyLogService;
 
+    @Mock
+    private MealTemplateMapper mealTemplateMapper;
+
     @InjectMocks
     private MealTemplateService mealTemplateService;
 
     @Test
     @DisplayName("getUserTemplates should return templates from repository")
     void shouldGetUserTemplates() {
-        when(mealTemplateRepository.findByUserIdOrSystemTrue(1L)).thenReturn(List.of(new MealTemplate()));
+        when(mealTemplateRepository.findByUserIdWithItems(1L)).thenReturn(List.of(new MealTemplate()));
         List<MealTemplate> result = mealTemplateService.getUserTemplates(1L);
         assertThat(result).hasSize(1);
     }
 
+    @Test
+    @DisplayName("getSystemTemplates should map system templates to DTOs")
+    void shouldGetSystemTemplates() {
+        MealTemplate template = MealTemplate.builder().id(-1L).name("Desayuno").isSystem(true).build();
+        MealTemplateResponseDto dto = MealTemplateResponseDto.builder().id(-1L).name("Desayuno").build();
+        when(mealTemplateRepository.findSystemTemplatesWithItems()).thenReturn(List.of(template));
+        when(mealTemplateMapper.toDto(template)).thenReturn(dto);
+
+        List<MealTemplateResponseDto> result = mealTemplateService.getSystemTemplates();
+
+        assertThat(result).containsExactly(dto);
+    }
+
     @Test
     @DisplayName("getTemplateById should return template when exists")
     void shouldGetTemplateById() {
@@ -157,7 +175,7 @@ class MealTemplateServiceTest {
     }
 
     @Test
-    @DisplayName("applyTemplate should call dailyLogService for each item")
+    @DisplayName("applyTemplate should add all items through one batch call")
     void shouldApplyTemplate() {
         Food food = new Food();
         food.setId(10L);
@@ -179,9 +197,10 @@ class MealTemplateServiceTest {
         LocalDate date = LocalDate.now();
         mealTemplateService.applyTemplate(1L, date, null, 1L);
 
-        verify(dailyLogService).addEntry(argThat(request -> request.getFoodId().equals(10L) &&
-                request.getDate().equals(date) &&
-                request.getMealType() == MealType.LUNCH), eq(1L));
+        verify(dailyLogService).addEntries(argThat(requests -> requests.size() == 1 &&
+                requests.get(0).getFoodId().equals(10L) &&
+                requests.get(0).getDate().equals(date) &&
+                requests.get(0).getMealType() == MealType.LUNCH), eq(1L));
     }
 
     @Test
@@ -208,6 +227,7 @@ class MealTemplateServiceTest {
         LocalDate date = LocalDate.now();
         mealTemplateService.applyTemplate(1L, date, null, 1L);
 
-        verify(dailyLogService).addEntry(argThat(request -> request.getMealType() == MealType.BREAKFAST), eq(1L));
+        verify(dailyLogService).addEntries(argThat(requests -> requests.size() == 1 &&
+                requests.get(0).getMealType() == MealType.BREAKFAST), eq(1L));
     }
 }
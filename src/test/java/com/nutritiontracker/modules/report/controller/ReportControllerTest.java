@@ -0,0 +1,126 @@
+package com.nutritiontracker.modules.report.controller;
+
+import com.nutritiontracker.modules.auth.entity.User;
+import com.nutritiontracker.modules.report.service.ReportJobService;
+import com.nutritiontracker.modules.report.service.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReportController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@DisplayName("Report Controller API Tests")
+class ReportControllerTest {
+
+    private static final String CSV = "Date,Calories\r\n2024-01-01,2000\r\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReportService reportService;
+
+    @MockBean
+    private ReportJobService reportJobService;
+
+    @MockBean
+    private com.nutritiontracker.modules.auth.security.JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private com.nutritiontracker.modules.auth.security.JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockBean
+    private org.springframework.data.jpa.mapping.JpaMetamodelMappingContext jpaMappingContext;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(3);
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reportService).writeCsvReport(eq(1L), eq(LocalDate.of(2024, 1, 1)), eq(LocalDate.of(2024, 1, 31)),
+                any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reports/csv should stream plain CSV without an Accept-Encoding header")
+    void shouldStreamPlainCsvByDefault() throws Exception {
+        MockHttpServletResponse response = stream(csvRequest());
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(CSV);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reports/csv should gzip the same CSV when the client accepts gzip")
+    void shouldGzipCsvWhenAccepted() throws Exception {
+        for (String acceptEncoding : new String[] { "gzip", "deflate, gzip", "br;q=1.0, GZIP;q=0.5", "gzip;q=1" }) {
+            MockHttpServletResponse response = stream(csvRequest().header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isEqualTo("gzip");
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+                assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).as(acceptEncoding).isEqualTo(CSV);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/reports/csv should not gzip when gzip is missing or refused with q=0")
+    void shouldNotGzipWhenRefused() throws Exception {
+        for (String acceptEncoding : new String[] { "deflate, br", "gzip;q=0", "gzip; q=0.000", "x-gzip", "" }) {
+            MockHttpServletResponse response = stream(csvRequest().header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+            assertThat(response.getContentAsString(StandardCharsets.UTF_8)).as(acceptEncoding).isEqualTo(CSV);
+        }
+    }
+
+    private static MockHttpServletRequestBuilder csvRequest() {
+        return get("/api/v1/reports/csv")
+                .param("startDate", "2024-01-01")
+                .param("endDate", "2024-01-31");
+    }
+
+    private MockHttpServletResponse stream(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+    }
+}
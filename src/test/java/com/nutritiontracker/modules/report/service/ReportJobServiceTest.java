@@ -0,0 +1,141 @@
+package com.nutritiontracker.modules.report.service;
+
+import com.nutritiontracker.common.exception.ResourceNotFoundException;
+import com.nutritiontracker.common.exception.ValidationException;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.report.dto.ReportJobDto;
+import com.nutritiontracker.modules.report.enums.ReportFormat;
+import com.nutritiontracker.modules.report.enums.ReportJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Report Job Service Unit Tests")
+class ReportJobServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 1, 31);
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private DailyLogRepository dailyLogRepository;
+
+    @TempDir
+    Path storeDir;
+
+    private ReportJobService reportJobService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        reportJobService = new ReportJobService(reportService, dailyLogRepository, storeDir.toString(),
+                3_600_000L, 1, 5);
+
+        lenient().doAnswer(inv -> {
+            OutputStream out = inv.getArgument(3);
+            out.write("date,calories\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reportService).writeCsvReport(eq(USER_ID), any(), any(), any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportJobService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should render the report and expose its artifact")
+    void shouldRenderReport() throws Exception {
+        when(dailyLogRepository.findDataVersion(USER_ID, START, END))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 3L}));
+
+        ReportJobDto submitted = reportJobService.submit(USER_ID, ReportFormat.CSV, START, END);
+        ReportJobDto job = awaitCompletion(submitted.getJobId());
+
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.COMPLETED);
+        assertThat(job.getProgress()).isEqualTo(100);
+        assertThat(job.getDownloadUrl()).endsWith(submitted.getJobId() + "/download");
+        Path artifact = reportJobService.getArtifact(submitted.getJobId(), USER_ID);
+        assertThat(Files.readString(artifact)).isEqualTo("date,calories\n");
+    }
+
+    @Test
+    @DisplayName("Should return the existing job for an identical request on unchanged data")
+    void shouldDeduplicateIdenticalRequests() throws Exception {
+        when(dailyLogRepository.findDataVersion(USER_ID, START, END))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 3L}));
+
+        ReportJobDto first = reportJobService.submit(USER_ID, ReportFormat.CSV, START, END);
+        awaitCompletion(first.getJobId());
+        ReportJobDto second = reportJobService.submit(USER_ID, ReportFormat.CSV, START, END);
+
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+        verify(reportService, times(1)).writeCsvReport(eq(USER_ID), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should render again once the underlying data changes")
+    void shouldRenderAgainWhenDataChanges() throws Exception {
+        when(dailyLogRepository.findDataVersion(USER_ID, START, END))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 3L}))
+                .thenReturn(Collections.singletonList(new Object[]{1L, 4L}));
+
+        ReportJobDto first = reportJobService.submit(USER_ID, ReportFormat.CSV, START, END);
+        awaitCompletion(first.getJobId());
+        ReportJobDto second = reportJobService.submit(USER_ID, ReportFormat.CSV, START, END);
+
+        assertThat(second.getJobId()).isNotEqualTo(first.getJobId());
+    }
+
+    @Test
+    @DisplayName("Should hide jobs from other users")
+    void shouldHideJobsFromOtherUsers() {
+        when(dailyLogRepository.findDataVersion(USER_ID, START, END)).thenReturn(List.of());
+
+        ReportJobDto job = reportJobService.submit(USER_ID, ReportFormat.CSV, START, END);
+
+        assertThatThrownBy(() -> reportJobService.getJob(job.getJobId(), 2L))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should reject an inverted date range")
+    void shouldRejectInvertedRange() {
+        assertThatThrownBy(() -> reportJobService.submit(USER_ID, ReportFormat.CSV, END, START))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(dailyLogRepository);
+    }
+
+    private ReportJobDto awaitCompletion(String jobId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            ReportJobDto job = reportJobService.getJob(jobId, USER_ID);
+            if (job.getStatus() == ReportJobStatus.COMPLETED || job.getStatus() == ReportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Report job " + jobId + " did not finish");
+    }
+}
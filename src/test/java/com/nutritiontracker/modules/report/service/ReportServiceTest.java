@@ -0,0 +1,138 @@
+package com.nutritiontracker.modules.report.service;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.entity.MealEntry;
+import com.nutritiontracker.modules.dailylog.enums.MealType;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.food.entity.Food;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Report Service Unit Tests")
+class ReportServiceTest {
+
+    private static final Long USER_ID = 1L;
+    private static final LocalDate JAN_1 = LocalDate.of(2024, 1, 1);
+    private static final String HEADER =
+            "Date,Meal Type,Food,Serving Size,Serving Unit,Calories,Protein (g),Carbs (g),Fat (g)\r\n";
+
+    @Mock
+    private DailyLogRepository dailyLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportService(dailyLogRepository, transactionManager);
+        ReflectionTestUtils.setField(reportService, "chunkDays", 10);
+    }
+
+    @Test
+    @DisplayName("Should write only the header and read nothing for an empty range")
+    void shouldWriteHeaderOnlyForEmptyRange() throws Exception {
+        List<Double> progress = new ArrayList<>();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportService.writeCsvReport(USER_ID, JAN_1, JAN_1.minusDays(1), out, progress::add);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(HEADER);
+        assertThat(progress).isEmpty();
+        verifyNoInteractions(dailyLogRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should read a range that ends on a chunk boundary in whole chunks")
+    void shouldReadExactLastChunk() throws Exception {
+        List<Double> progress = new ArrayList<>();
+
+        reportService.writeCsvReport(USER_ID, JAN_1, LocalDate.of(2024, 1, 20), new ByteArrayOutputStream(),
+                progress::add);
+
+        InOrder inOrder = inOrder(dailyLogRepository);
+        inOrder.verify(dailyLogRepository).findByUserIdAndDateBetweenWithEntries(USER_ID, JAN_1,
+                LocalDate.of(2024, 1, 10));
+        inOrder.verify(dailyLogRepository).findByUserIdAndDateBetweenWithEntries(USER_ID,
+                LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 20));
+        verifyNoMoreInteractions(dailyLogRepository);
+        assertThat(progress).containsExactly(0.5, 1.0);
+        // One read-only transaction per chunk
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should cut the last chunk short at the end of the range")
+    void shouldReadPartialLastChunk() throws Exception {
+        List<Double> progress = new ArrayList<>();
+
+        reportService.writeCsvReport(USER_ID, JAN_1, LocalDate.of(2024, 1, 25), new ByteArrayOutputStream(),
+                progress::add);
+
+        InOrder inOrder = inOrder(dailyLogRepository);
+        inOrder.verify(dailyLogRepository).findByUserIdAndDateBetweenWithEntries(USER_ID, JAN_1,
+                LocalDate.of(2024, 1, 10));
+        inOrder.verify(dailyLogRepository).findByUserIdAndDateBetweenWithEntries(USER_ID,
+                LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 20));
+        inOrder.verify(dailyLogRepository).findByUserIdAndDateBetweenWithEntries(USER_ID,
+                LocalDate.of(2024, 1, 21), LocalDate.of(2024, 1, 25));
+        verifyNoMoreInteractions(dailyLogRepository);
+        assertThat(progress).containsExactly(0.4, 0.8, 1.0);
+    }
+
+    @Test
+    @DisplayName("Should stream the same CSV bytes the buffered report produced")
+    void shouldStreamSameCsvAsBufferedReport() throws Exception {
+        DailyLog emptyDay = DailyLog.builder().date(JAN_1).build();
+        DailyLog loggedDay = DailyLog.builder().date(LocalDate.of(2024, 1, 12)).build();
+        loggedDay.getMealEntries().add(entry(MealType.BREAKFAST, "Oats, rolled", "389.00"));
+        loggedDay.getMealEntries().add(entry(MealType.SNACK, null, "97.25"));
+        when(dailyLogRepository.findByUserIdAndDateBetweenWithEntries(eq(USER_ID), any(), any()))
+                .thenReturn(List.of(emptyDay), List.of(loggedDay), List.of());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeCsvReport(USER_ID, JAN_1, LocalDate.of(2024, 1, 25), out);
+
+        // What the report wrote before it was streamed, with the chunks concatenated
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(HEADER
+                + "2024-01-01,N/A,No entries,,,0,0,0,0\r\n"
+                + "2024-01-12,BREAKFAST,\"Oats, rolled\",100,g,389.00,1,2,3\r\n"
+                + "2024-01-12,SNACK,Custom/Unknown,100,g,97.25,1,2,3\r\n");
+        verify(dailyLogRepository, times(3)).findByUserIdAndDateBetweenWithEntries(anyLong(), any(), any());
+    }
+
+    private static MealEntry entry(MealType mealType, String foodName, String calories) {
+        return MealEntry.builder()
+                .mealType(mealType)
+                .food(foodName != null ? Food.builder().name(foodName).build() : null)
+                .quantity(BigDecimal.valueOf(100))
+                .unit("g")
+                .calories(new BigDecimal(calories))
+                .protein(BigDecimal.ONE)
+                .carbohydrates(BigDecimal.valueOf(2))
+                .fats(BigDecimal.valueOf(3))
+                .build();
+    }
+}
@@ -0,0 +1,215 @@
+package com.nutritiontracker.modules.stats.service;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.stats.entity.StatsRollup;
+import com.nutritiontracker.modules.stats.enums.RollupPeriod;
+import com.nutritiontracker.modules.stats.repository.StatsRollupBackfillRepository;
+import com.nutritiontracker.modules.stats.repository.StatsRollupRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Stats Rollup Service Unit Tests")
+class StatsRollupServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final LocalDate WEDNESDAY = LocalDate.of(2024, 3, 13);
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 11);
+    private static final LocalDate MARCH_1 = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private StatsRollupRepository statsRollupRepository;
+
+    @Mock
+    private StatsRollupBackfillRepository backfillRepository;
+
+    @Mock
+    private DailyLogRepository dailyLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private StatsRollupService statsRollupService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        statsRollupService = new StatsRollupService(statsRollupRepository, backfillRepository, dailyLogRepository,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should upsert the bucket row, lock it, then re-aggregate the logs read under the lock")
+    void shouldRefreshBucketsUnderLock() {
+        StatsRollup week = rollup(RollupPeriod.WEEK, MONDAY);
+        StatsRollup month = rollup(RollupPeriod.MONTH, MARCH_1);
+        when(statsRollupRepository.insertIfAbsent(eq(USER_ID), any(), any(), any())).thenReturn(0);
+        when(statsRollupRepository.findForUpdate(USER_ID, RollupPeriod.WEEK, MONDAY)).thenReturn(Optional.of(week));
+        when(statsRollupRepository.findForUpdate(USER_ID, RollupPeriod.MONTH, MARCH_1))
+                .thenReturn(Optional.of(month));
+        when(dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(eq(USER_ID), any(), any()))
+                .thenReturn(List.of(log(WEDNESDAY, "2000")));
+
+        statsRollupService.markDirty(USER_ID, WEDNESDAY);
+
+        InOrder inOrder = inOrder(statsRollupRepository, dailyLogRepository);
+        inOrder.verify(statsRollupRepository).insertIfAbsent(USER_ID, "WEEK", MONDAY, MONDAY.plusDays(6));
+        inOrder.verify(statsRollupRepository).findForUpdate(USER_ID, RollupPeriod.WEEK, MONDAY);
+        inOrder.verify(dailyLogRepository).findByUserIdAndDateBetweenOrderByDateAsc(USER_ID, MONDAY,
+                MONDAY.plusDays(6));
+        inOrder.verify(statsRollupRepository).save(week);
+        inOrder.verify(statsRollupRepository).insertIfAbsent(USER_ID, "MONTH", MARCH_1, LocalDate.of(2024, 3, 31));
+        inOrder.verify(statsRollupRepository).findForUpdate(USER_ID, RollupPeriod.MONTH, MARCH_1);
+        inOrder.verify(statsRollupRepository).save(month);
+        assertThat(week.getLoggedDays()).isEqualTo(1);
+        assertThat(week.getSumCalories()).isEqualByComparingTo("2000");
+        assertThat(month.getSumCalories()).isEqualByComparingTo("2000");
+        // Each bucket is refreshed in a transaction of its own
+        verify(transactionManager, times(2)).commit(transactionStatus);
+    }
+
+    @Test
+    @DisplayName("Should drop a bucket row it just created when the bucket has no logs")
+    void shouldDeleteNewEmptyBucket() {
+        StatsRollup week = rollup(RollupPeriod.WEEK, MONDAY);
+        StatsRollup month = rollup(RollupPeriod.MONTH, MARCH_1);
+        when(statsRollupRepository.insertIfAbsent(eq(USER_ID), eq("WEEK"), any(), any())).thenReturn(1);
+        when(statsRollupRepository.insertIfAbsent(eq(USER_ID), eq("MONTH"), any(), any())).thenReturn(0);
+        when(statsRollupRepository.findForUpdate(USER_ID, RollupPeriod.WEEK, MONDAY)).thenReturn(Optional.of(week));
+        when(statsRollupRepository.findForUpdate(USER_ID, RollupPeriod.MONTH, MARCH_1))
+                .thenReturn(Optional.of(month));
+        when(dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(eq(USER_ID), any(), any()))
+                .thenReturn(List.of());
+
+        statsRollupService.markDirty(USER_ID, WEDNESDAY);
+
+        verify(statsRollupRepository).delete(week);
+        verify(statsRollupRepository, never()).save(week);
+        // An existing bucket whose logs were all removed is kept, emptied
+        verify(statsRollupRepository).save(month);
+        assertThat(month.getLoggedDays()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should defer refreshes until commit and refresh each bucket once")
+    void shouldRefreshEachDirtyBucketOnceAfterCommit() {
+        when(statsRollupRepository.insertIfAbsent(eq(USER_ID), any(), any(), any())).thenReturn(0);
+        when(statsRollupRepository.findForUpdate(eq(USER_ID), any(), any()))
+                .thenAnswer(invocation -> Optional.of(rollup(invocation.getArgument(1), invocation.getArgument(2))));
+        when(dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(eq(USER_ID), any(), any()))
+                .thenReturn(List.of(log(MONDAY, "1800"), log(WEDNESDAY, "2000")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        statsRollupService.markDirty(USER_ID, MONDAY);
+        statsRollupService.markDirty(USER_ID, WEDNESDAY);
+        verifyNoInteractions(statsRollupRepository);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        verify(statsRollupRepository, times(2)).insertIfAbsent(eq(USER_ID), any(), any(), any());
+        ArgumentCaptor<StatsRollup> saved = ArgumentCaptor.forClass(StatsRollup.class);
+        verify(statsRollupRepository, times(2)).save(saved.capture());
+        assertThat(saved.getAllValues()).extracting(StatsRollup::getPeriod)
+                .containsExactly(RollupPeriod.WEEK, RollupPeriod.MONTH);
+        assertThat(saved.getAllValues()).allSatisfy(rollup -> assertThat(rollup.getLoggedDays()).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("Should backfill only the users it claims and keep going after a failed user")
+    void shouldBackfillClaimedUsers() {
+        when(backfillRepository.findPendingUserIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(backfillRepository.claim(1L)).thenReturn(true);
+        when(backfillRepository.claim(2L)).thenReturn(false);
+        when(backfillRepository.claim(3L)).thenReturn(true);
+        doThrow(new IllegalStateException("boom")).doNothing().when(statsRollupRepository).deleteByUserId(1L);
+        when(dailyLogRepository.findByUserIdOrderByDateAsc(3L))
+                .thenReturn(List.of(log(MONDAY, "1800"), log(WEDNESDAY, "2000")));
+
+        statsRollupService.backfillOnStartup();
+
+        // User 1 failed and its claim is rolled back with the rebuild
+        verify(transactionManager).rollback(transactionStatus);
+        // User 2 was claimed by another instance
+        verify(statsRollupRepository, never()).deleteByUserId(2L);
+        verify(dailyLogRepository, never()).findByUserIdOrderByDateAsc(2L);
+
+        InOrder inOrder = inOrder(backfillRepository, statsRollupRepository);
+        inOrder.verify(backfillRepository).claim(3L);
+        inOrder.verify(statsRollupRepository).deleteByUserId(3L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StatsRollup>> rollups = ArgumentCaptor.forClass(List.class);
+        inOrder.verify(statsRollupRepository).saveAll(rollups.capture());
+        assertThat(rollups.getValue()).extracting(StatsRollup::getPeriod, StatsRollup::getPeriodStart)
+                .containsExactly(
+                        Tuple.tuple(RollupPeriod.WEEK, MONDAY),
+                        Tuple.tuple(RollupPeriod.MONTH, MARCH_1));
+        assertThat(rollups.getValue()).allSatisfy(rollup -> assertThat(rollup.getLoggedDays()).isEqualTo(2));
+    }
+
+    @Test
+    @DisplayName("Should skip the backfill when every user is done")
+    void shouldSkipBackfillWhenNothingIsPending() {
+        when(backfillRepository.findPendingUserIds()).thenReturn(List.of());
+
+        statsRollupService.backfillOnStartup();
+
+        verify(backfillRepository, never()).claim(anyLong());
+        verify(statsRollupRepository, never()).saveAll(anyList());
+        verifyNoInteractions(transactionManager);
+    }
+
+    private static StatsRollup rollup(RollupPeriod period, LocalDate start) {
+        return StatsRollup.builder()
+                .userId(USER_ID)
+                .period(period)
+                .periodStart(start)
+                .periodEnd(period.end(start))
+                .build();
+    }
+
+    private static DailyLog log(LocalDate date, String calories) {
+        return DailyLog.builder()
+                .userId(USER_ID)
+                .date(date)
+                .totalCalories(new BigDecimal(calories))
+                .build();
+    }
+}
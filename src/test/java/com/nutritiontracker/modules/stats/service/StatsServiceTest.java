@@ -0,0 +1,151 @@
+package com.nutritiontracker.modules.stats.service;
+
+import com.nutritiontracker.modules.dailylog.entity.DailyLog;
+import com.nutritiontracker.modules.dailylog.repository.DailyLogRepository;
+import com.nutritiontracker.modules.stats.dto.GoalAchievementDto;
+import com.nutritiontracker.modules.stats.dto.WeeklySummaryDto;
+import com.nutritiontracker.modules.stats.entity.StatsRollup;
+import com.nutritiontracker.modules.stats.enums.RollupPeriod;
+import com.nutritiontracker.modules.stats.repository.StatsRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Stats Service Unit Tests")
+class StatsServiceTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private DailyLogRepository dailyLogRepository;
+
+    @Mock
+    private StatsRollupRepository statsRollupRepository;
+
+    @InjectMocks
+    private StatsService statsService;
+
+    private final List<DailyLog> logs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 120 days from 2024-01-10; goal hit except every 9th day, a few days unlogged
+        LocalDate date = LocalDate.of(2024, 1, 10);
+        for (int i = 0; i < 120; i++, date = date.plusDays(1)) {
+            if (i % 17 == 5) {
+                continue;
+            }
+            logs.add(createLog(date, i % 9 == 0 ? "1500" : "2000"));
+        }
+
+        lenient().when(dailyLogRepository.findByUserIdAndDateBetweenOrderByDateAsc(eq(USER_ID), any(), any()))
+                .thenAnswer(inv -> logsBetween(inv.getArgument(1), inv.getArgument(2)));
+        lenient().when(statsRollupRepository.findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+                eq(USER_ID), any(), any(), any()))
+                .thenAnswer(inv -> rollupsBetween(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+    }
+
+    @Test
+    @DisplayName("Should match a day-by-day computation when combining rollups with edge days")
+    void shouldMatchDailyComputationForGoalAchievement() {
+        LocalDate start = LocalDate.of(2024, 1, 13);
+        LocalDate end = LocalDate.of(2024, 4, 22);
+
+        GoalAchievementDto result = statsService.getGoalAchievement(start, end, USER_ID);
+
+        PeriodSummary expected = PeriodSummary.ofLogs(logsBetween(start, end));
+        assertThat(result.getTotalDays()).isEqualTo(expected.days);
+        assertThat(result.getAchievedDays()).isEqualTo(expected.hits);
+        assertThat(result.getBestStreak()).isEqualTo(expected.bestStreak);
+        assertThat(result.getCurrentStreak()).isEqualTo(expected.trailingStreak);
+        verify(statsRollupRepository).findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+                USER_ID, RollupPeriod.MONTH, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+    }
+
+    @Test
+    @DisplayName("Should compute streaks the same way as the original day loop")
+    void shouldComputeStreaksLikeDayLoop() {
+        List<DailyLog> days = List.of(
+                createLog(LocalDate.of(2024, 1, 1), "2000"),
+                createLog(LocalDate.of(2024, 1, 2), "2000"),
+                createLog(LocalDate.of(2024, 1, 3), "1000"),
+                createLog(LocalDate.of(2024, 1, 4), "2000"),
+                createLog(LocalDate.of(2024, 1, 5), "2000"),
+                createLog(LocalDate.of(2024, 1, 6), "2000"));
+
+        PeriodSummary first = PeriodSummary.ofLogs(days.subList(0, 4));
+        PeriodSummary second = PeriodSummary.ofLogs(days.subList(4, 6));
+        PeriodSummary combined = first.then(second);
+
+        assertThat(combined.days).isEqualTo(6);
+        assertThat(combined.hits).isEqualTo(5);
+        assertThat(combined.leadingStreak).isEqualTo(2);
+        assertThat(combined.trailingStreak).isEqualTo(3);
+        assertThat(combined.bestStreak).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should read both weeks from the weekly rollups when the week starts on Monday")
+    void shouldReadWeeklySummaryFromRollups() {
+        LocalDate monday = LocalDate.of(2024, 2, 12);
+
+        WeeklySummaryDto result = statsService.getWeeklySummary(monday, USER_ID);
+
+        assertThat(result.getCurrentWeek().getDaysLogged()).isEqualTo(logsBetween(monday, monday.plusDays(6)).size());
+        assertThat(result.getPreviousWeek().getDaysLogged())
+                .isEqualTo(logsBetween(monday.minusDays(7), monday.minusDays(1)).size());
+        verify(dailyLogRepository, never()).findByUserIdAndDateBetweenOrderByDateAsc(any(), any(), any());
+    }
+
+    private List<DailyLog> logsBetween(LocalDate from, LocalDate to) {
+        return logs.stream()
+                .filter(l -> !l.getDate().isBefore(from) && !l.getDate().isAfter(to))
+                .toList();
+    }
+
+    private List<StatsRollup> rollupsBetween(RollupPeriod period, LocalDate from, LocalDate to) {
+        List<StatsRollup> rollups = new ArrayList<>();
+        for (LocalDate start = from; !start.isAfter(to); start = period.next(start)) {
+            List<DailyLog> bucket = logsBetween(start, period.end(start));
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            StatsRollup rollup = StatsRollup.builder()
+                    .userId(USER_ID)
+                    .period(period)
+                    .periodStart(start)
+                    .periodEnd(period.end(start))
+                    .build();
+            PeriodSummary.ofLogs(bucket).applyTo(rollup);
+            rollups.add(rollup);
+        }
+        return rollups;
+    }
+
+    private DailyLog createLog(LocalDate date, String calories) {
+        return DailyLog.builder()
+                .userId(USER_ID)
+                .date(date)
+                .totalCalories(new BigDecimal(calories))
+                .totalProtein(BigDecimal.TEN)
+                .totalCarbs(BigDecimal.TEN)
+                .totalFats(BigDecimal.ONE)
+                .calorieGoal(new BigDecimal("2000"))
+                .build();
+    }
+}